@@ -21,15 +21,12 @@ import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.algorithms.sna.SnaConcept;
-import au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality.PathScoringUtilities.ScoreType;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
 import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType;
 import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType.BooleanParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
 import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
-import java.util.BitSet;
-import java.util.HashMap;
 import org.openide.util.NbBundle.Messages;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -56,6 +53,7 @@ public class BetweennessCentralityPlugin extends SimpleEditPlugin {
     public static final String NORMALISE_AVAILABLE_PARAMETER_ID = PluginParameter.buildId(BetweennessCentralityPlugin.class, "normalise_available");
     public static final String NORMALISE_CONNECTED_COMPONENTS_PARAMETER_ID = PluginParameter.buildId(BetweennessCentralityPlugin.class, "normalise_connected_components");
     public static final String SELECTED_ONLY_PARAMETER_ID = PluginParameter.buildId(BetweennessCentralityPlugin.class, "selected_only");
+    public static final String SAMPLING_ERROR_PARAMETER_ID = PluginParameter.buildId(BetweennessCentralityPlugin.class, "sampling_error");
 
     @Override
     public PluginParameters createParameters() {
@@ -103,6 +101,8 @@ public class BetweennessCentralityPlugin extends SimpleEditPlugin {
         selectedOnlyParameter.setBooleanValue(false);
         parameters.addParameter(selectedOnlyParameter);
 
+        parameters.addParameter(BrandesScoringUtilities.buildSamplingErrorParameter(SAMPLING_ERROR_PARAMETER_ID));
+
         return parameters;
     }
 
@@ -115,26 +115,25 @@ public class BetweennessCentralityPlugin extends SimpleEditPlugin {
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
         final boolean normaliseConnectedComponents = parameters.getBooleanValue(NORMALISE_CONNECTED_COMPONENTS_PARAMETER_ID);
         final boolean selectedOnly = parameters.getBooleanValue(SELECTED_ONLY_PARAMETER_ID);
+        final float samplingError = parameters.getFloatValue(SAMPLING_ERROR_PARAMETER_ID);
 
         assert !normaliseByPossible || !normaliseByAvailable : "You should only select one method of normalisation";
 
         // calculate betweenness scores
-        final Tuple<BitSet[], float[]> scoreResult = PathScoringUtilities.calculateScores(graph, ScoreType.BETWEENNESS, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly);
-        final BitSet[] subgraphs = scoreResult.getFirst();
+        final Tuple<int[], float[]> scoreResult = BrandesScoringUtilities.calculateBetweenness(graph, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly, samplingError);
+        final int[] components = scoreResult.getFirst();
         final float[] betweennesses = scoreResult.getSecond();
 
         // calculate the maximum betweenness
         float maxBetweenness = 0;
-        final HashMap<BitSet, Float> maxBetweennessConnectedComponents = new HashMap<>();
         final int vertexCount = graph.getVertexCount();
+        final int[] componentSizes = new int[vertexCount];
+        final float[] maxBetweennessConnectedComponents = new float[vertexCount];
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
             final float betweenness = betweennesses[vertexPosition];
-            final BitSet subgraph = subgraphs[vertexPosition];
-            if (!maxBetweennessConnectedComponents.containsKey(subgraph)) {
-                maxBetweennessConnectedComponents.put(subgraph, betweenness);
-            } else {
-                maxBetweennessConnectedComponents.put(subgraph, Math.max(betweenness, maxBetweennessConnectedComponents.get(subgraph)));
-            }
+            final int component = components[vertexPosition];
+            componentSizes[component]++;
+            maxBetweennessConnectedComponents[component] = Math.max(betweenness, maxBetweennessConnectedComponents[component]);
             maxBetweenness = Math.max(betweenness, maxBetweenness);
         }
 
@@ -156,14 +155,14 @@ public class BetweennessCentralityPlugin extends SimpleEditPlugin {
             final float betweennessAttributeValue;
             if (normaliseByPossible) {
                 if (normaliseConnectedComponents) {
-                    final float subgraphVertexCount = subgraphs[vertexPosition].cardinality();
+                    final float subgraphVertexCount = componentSizes[components[vertexPosition]];
                     betweennessAttributeValue = betweennesses[vertexPosition] / (((subgraphVertexCount - 1) * (subgraphVertexCount - 2)) / 2);
                 } else {
                     betweennessAttributeValue = betweennesses[vertexPosition] / (((vertexCount - 1) * (vertexCount - 2)) / 2f);
                 }
             } else if (normaliseByAvailable && maxBetweenness > 0) {
                 if (normaliseConnectedComponents) {
-                    final float maxBetweennessConnectedComponent = maxBetweennessConnectedComponents.get(subgraphs[vertexPosition]);
+                    final float maxBetweennessConnectedComponent = maxBetweennessConnectedComponents[components[vertexPosition]];
                     betweennessAttributeValue = betweennesses[vertexPosition] / maxBetweennessConnectedComponent;
                 } else {
                     betweennessAttributeValue = betweennesses[vertexPosition] / maxBetweenness;
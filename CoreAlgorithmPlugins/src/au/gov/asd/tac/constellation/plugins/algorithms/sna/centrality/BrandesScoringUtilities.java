@@ -0,0 +1,498 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphConstants;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
+import au.gov.asd.tac.constellation.graph.utilities.AdjacencySnapshot;
+import au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality.PathScoringUtilities.ScoreType;
+import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
+import au.gov.asd.tac.constellation.plugins.parameters.types.FloatParameterType;
+import au.gov.asd.tac.constellation.plugins.parameters.types.FloatParameterType.FloatParameterValue;
+import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Utilities for calculating shortest path scores on a graph using a breadth
+ * first search from each source vertex, after Brandes (2001). Unlike
+ * {@link PathScoringUtilities}, which holds the full reachability matrix of
+ * the graph, each worker here only needs a handful of arrays the size of the
+ * vertex count, so memory use is O(n + m) per worker. Sources are processed in
+ * parallel, and may optionally be sampled uniformly at random so that scores
+ * are estimated to within a given error rather than calculated exactly.
+ * <p>
+ * Scores are returned alongside the id of the connected component of each
+ * vertex, indexed by vertex position. Every worker stops at the next source
+ * once the calling thread is interrupted.
+ *
+ * @author cygnus_x-1
+ */
+public class BrandesScoringUtilities {
+
+    private static final String SCORETYPE_ERROR_FORMAT = "The requested ScoreType, %s, is not supported.";
+    private static final String OUT_OF_BOUNDS_EXCEPTION_STRING = "The 'selected' attribute does not exist on the given graph.";
+
+    /**
+     * The probability that a sampled score exceeds the requested error.
+     */
+    private static final double SAMPLING_FAILURE_PROBABILITY = 0.1;
+
+    private static final int ALL_DIRECTIONS = AdjacencySnapshot.OUTGOING | AdjacencySnapshot.INCOMING | AdjacencySnapshot.UNDIRECTED;
+
+    private BrandesScoringUtilities() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Calculate the betweenness of each vertex on the graph. Shortest paths
+     * between every ordered pair of source and target vertices are counted,
+     * with a share of each pair given to the vertices along each of the
+     * shortest paths between them.
+     *
+     * @param graph the graph to score.
+     * @param includeConnectionsIn follow incoming connections.
+     * @param includeConnectionsOut follow outgoing connections.
+     * @param treatUndirectedBidirectional follow undirected connections.
+     * @param selectedOnly only count paths between selected vertices.
+     * @param samplingError if greater than zero, estimate scores from a random
+     * sample of source vertices large enough that normalised scores are within
+     * this error with high probability.
+     * @return the component id and betweenness of each vertex by position.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public static Tuple<int[], float[]> calculateBetweenness(final GraphReadMethods graph,
+            final boolean includeConnectionsIn, final boolean includeConnectionsOut, final boolean treatUndirectedBidirectional,
+            final boolean selectedOnly, final float samplingError) throws InterruptedException {
+        return calculateBetweenness(graph, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly, samplingError, new Random());
+    }
+
+    /**
+     * Calculate the betweenness of each vertex on the graph, sampling sources
+     * with the given random number generator.
+     */
+    static Tuple<int[], float[]> calculateBetweenness(final GraphReadMethods graph,
+            final boolean includeConnectionsIn, final boolean includeConnectionsOut, final boolean treatUndirectedBidirectional,
+            final boolean selectedOnly, final float samplingError, final Random random) throws InterruptedException {
+        final AdjacencySnapshot snapshot = AdjacencySnapshot.getSnapshot(graph, false, false, Graph.NOT_FOUND);
+        final int vertexCount = snapshot.getVertexCount();
+        final int forwardMask = getForwardMask(includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional);
+        final int backwardMask = reverse(forwardMask);
+        final boolean[] selected = getSelected(graph, snapshot, selectedOnly);
+
+        final int[] sources = sampleSources(snapshot, selected, samplingError, random);
+        final double scale = sources.length == 0 ? 0 : (double) countSources(snapshot, selected) / sources.length;
+
+        final double[] betweenness = accumulate(vertexCount, sources, (workerScores, source, worker) -> {
+            final int[] offsets = snapshot.getOffsets();
+            final int[] neighbours = snapshot.getNeighbours();
+            final byte[] directions = snapshot.getDirections();
+            final int[] distance = worker.distance;
+            final double[] pathCount = worker.pathCount;
+            final double[] dependency = worker.dependency;
+            final int[] order = worker.order;
+
+            // breadth first search from the source, counting shortest paths
+            distance[source] = 0;
+            pathCount[source] = 1;
+            order[0] = source;
+            int head = 0;
+            int tail = 1;
+            while (head < tail) {
+                final int position = order[head++];
+                for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                    if ((directions[entry] & forwardMask) == 0) {
+                        continue;
+                    }
+                    final int neighbour = neighbours[entry];
+                    if (distance[neighbour] < 0) {
+                        distance[neighbour] = distance[position] + 1;
+                        order[tail++] = neighbour;
+                    }
+                    if (distance[neighbour] == distance[position] + 1) {
+                        pathCount[neighbour] += pathCount[position];
+                    }
+                }
+            }
+
+            // accumulate dependencies in order of decreasing distance
+            for (int index = tail - 1; index > 0; index--) {
+                final int position = order[index];
+                final double share = ((selected == null || selected[position]) ? 1 : 0) + dependency[position];
+                for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                    final int neighbour = neighbours[entry];
+                    if ((directions[entry] & backwardMask) != 0 && distance[neighbour] == distance[position] - 1) {
+                        dependency[neighbour] += pathCount[neighbour] / pathCount[position] * share;
+                    }
+                }
+                workerScores[position] += dependency[position];
+            }
+
+            worker.reset(order, tail);
+        });
+
+        final float[] scores = new float[vertexCount];
+        for (int position = 0; position < vertexCount; position++) {
+            scores[position] = (float) (betweenness[position] * scale);
+        }
+
+        return Tuple.create(getComponents(snapshot, forwardMask | backwardMask), scores);
+    }
+
+    /**
+     * Calculate the closeness, farness, harmonic closeness or harmonic farness
+     * of each vertex on the graph. The distance from each vertex to every
+     * vertex it can reach is found by searching backwards from each target.
+     *
+     * @param graph the graph to score.
+     * @param scoreType one of {@link ScoreType#CLOSENESS},
+     * {@link ScoreType#FARNESS}, {@link ScoreType#HARMONIC_CLOSENESS} or
+     * {@link ScoreType#HARMONIC_FARNESS}.
+     * @param includeConnectionsIn follow incoming connections.
+     * @param includeConnectionsOut follow outgoing connections.
+     * @param treatUndirectedBidirectional follow undirected connections.
+     * @param selectedOnly only count distances to selected vertices.
+     * @param samplingError if greater than zero, estimate scores from a random
+     * sample of target vertices large enough that normalised scores are within
+     * this error with high probability.
+     * @return the component id and score of each vertex by position.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public static Tuple<int[], float[]> calculateCloseness(final GraphReadMethods graph, final ScoreType scoreType,
+            final boolean includeConnectionsIn, final boolean includeConnectionsOut, final boolean treatUndirectedBidirectional,
+            final boolean selectedOnly, final float samplingError) throws InterruptedException {
+        return calculateCloseness(graph, scoreType, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly, samplingError, new Random());
+    }
+
+    /**
+     * Calculate the closeness, farness, harmonic closeness or harmonic farness
+     * of each vertex on the graph, sampling targets with the given random
+     * number generator.
+     */
+    static Tuple<int[], float[]> calculateCloseness(final GraphReadMethods graph, final ScoreType scoreType,
+            final boolean includeConnectionsIn, final boolean includeConnectionsOut, final boolean treatUndirectedBidirectional,
+            final boolean selectedOnly, final float samplingError, final Random random) throws InterruptedException {
+        final boolean harmonic;
+        switch (scoreType) {
+            case CLOSENESS:
+            case FARNESS:
+                harmonic = false;
+                break;
+            case HARMONIC_CLOSENESS:
+            case HARMONIC_FARNESS:
+                harmonic = true;
+                break;
+            default:
+                throw new IllegalArgumentException(String.format(SCORETYPE_ERROR_FORMAT, scoreType));
+        }
+
+        final AdjacencySnapshot snapshot = AdjacencySnapshot.getSnapshot(graph, false, false, Graph.NOT_FOUND);
+        final int vertexCount = snapshot.getVertexCount();
+        final boolean undirected = includeConnectionsIn && includeConnectionsOut;
+        final int forwardMask = getForwardMask(includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional);
+        final int backwardMask = reverse(forwardMask);
+        final boolean[] selected = getSelected(graph, snapshot, selectedOnly);
+
+        // harmonic scores on an undirected graph count each pair from both
+        // ends, so they are weighted by whether either end is selected, and
+        // every vertex must act as a target
+        final boolean countBothEnds = harmonic && undirected;
+        final boolean[] targets = countBothEnds ? null : selected;
+
+        final int[] sources = sampleSources(snapshot, targets, samplingError, random);
+        final double scale = sources.length == 0 ? 0 : (double) countSources(snapshot, targets) / sources.length;
+
+        final double[] farness = accumulate(vertexCount, sources, (workerScores, target, worker) -> {
+            final int[] offsets = snapshot.getOffsets();
+            final int[] neighbours = snapshot.getNeighbours();
+            final byte[] directions = snapshot.getDirections();
+            final int[] distance = worker.distance;
+            final int[] order = worker.order;
+            final double targetWeight = (selected == null || selected[target]) ? 1 : 0;
+
+            // breadth first search backwards from the target
+            distance[target] = 0;
+            order[0] = target;
+            int head = 0;
+            int tail = 1;
+            while (head < tail) {
+                final int position = order[head++];
+                for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                    final int neighbour = neighbours[entry];
+                    if ((directions[entry] & backwardMask) != 0 && distance[neighbour] < 0) {
+                        distance[neighbour] = distance[position] + 1;
+                        order[tail++] = neighbour;
+                    }
+                }
+            }
+
+            for (int index = 1; index < tail; index++) {
+                final int position = order[index];
+                double weight = targetWeight;
+                if (countBothEnds) {
+                    weight += (selected == null || selected[position]) ? 1 : 0;
+                }
+                workerScores[position] += harmonic ? weight / distance[position] : weight * distance[position];
+            }
+
+            worker.reset(order, tail);
+        });
+
+        final float[] scores = new float[vertexCount];
+        for (int position = 0; position < vertexCount; position++) {
+            final float score = (float) (farness[position] * scale);
+            switch (scoreType) {
+                case CLOSENESS:
+                    // convert farness to closeness by taking the inverse of each score
+                    scores[position] = score == 0 ? 0 : 1 / score;
+                    break;
+                case HARMONIC_CLOSENESS:
+                    // normalise harmonic farness by the number of vertices on the graph
+                    scores[position] = score == 0 ? 0 : score / vertexCount;
+                    break;
+                default:
+                    scores[position] = score;
+                    break;
+            }
+        }
+
+        return Tuple.create(getComponents(snapshot, forwardMask | backwardMask), scores);
+    }
+
+    /**
+     * The number of sources required to estimate normalised scores over the
+     * given number of vertices to within the given error, with a failure
+     * probability of {@value #SAMPLING_FAILURE_PROBABILITY}. This follows from
+     * the Hoeffding bound applied to each vertex with a union bound across all
+     * of them.
+     *
+     * @param vertexCount the number of vertices which may act as sources.
+     * @param samplingError the acceptable absolute error.
+     * @return the number of sources to sample, which is never more than
+     * {@code vertexCount}.
+     */
+    public static int getSampleSize(final int vertexCount, final float samplingError) {
+        if (samplingError <= 0 || vertexCount == 0) {
+            return vertexCount;
+        }
+        final double sampleSize = Math.ceil(Math.log(2.0 * vertexCount / SAMPLING_FAILURE_PROBABILITY) / (2.0 * samplingError * samplingError));
+        return (int) Math.min(vertexCount, sampleSize);
+    }
+
+    /**
+     * Build the parameter for the sampling error passed to
+     * {@link #calculateBetweenness} and {@link #calculateCloseness}, which
+     * defaults to 0 so that scores are calculated exactly.
+     *
+     * @param parameterId the id of the parameter.
+     * @return the sampling error parameter.
+     */
+    public static PluginParameter<FloatParameterValue> buildSamplingErrorParameter(final String parameterId) {
+        final PluginParameter<FloatParameterValue> samplingErrorParameter = FloatParameterType.build(parameterId);
+        samplingErrorParameter.setName("Sampling Error");
+        samplingErrorParameter.setDescription("Estimate scores from a sample of vertices, accurate to within this error of the normalised score (0 calculates exact scores)");
+        samplingErrorParameter.setFloatValue(0f);
+        FloatParameterType.setMinimum(samplingErrorParameter, 0f);
+        FloatParameterType.setMaximum(samplingErrorParameter, 1f);
+        return samplingErrorParameter;
+    }
+
+    private static int getForwardMask(final boolean includeConnectionsIn, final boolean includeConnectionsOut, final boolean treatUndirectedBidirectional) {
+        if (includeConnectionsIn && includeConnectionsOut) {
+            return ALL_DIRECTIONS;
+        }
+        int mask = treatUndirectedBidirectional ? AdjacencySnapshot.UNDIRECTED : 0;
+        if (includeConnectionsOut) {
+            mask |= AdjacencySnapshot.OUTGOING;
+        }
+        if (includeConnectionsIn) {
+            mask |= AdjacencySnapshot.INCOMING;
+        }
+        return mask;
+    }
+
+    private static int reverse(final int mask) {
+        int reversed = mask & AdjacencySnapshot.UNDIRECTED;
+        if ((mask & AdjacencySnapshot.OUTGOING) != 0) {
+            reversed |= AdjacencySnapshot.INCOMING;
+        }
+        if ((mask & AdjacencySnapshot.INCOMING) != 0) {
+            reversed |= AdjacencySnapshot.OUTGOING;
+        }
+        return reversed;
+    }
+
+    private static boolean[] getSelected(final GraphReadMethods graph, final AdjacencySnapshot snapshot, final boolean selectedOnly) {
+        if (!selectedOnly) {
+            return null;
+        }
+        final int selectedAttribute = VisualConcept.VertexAttribute.SELECTED.get(graph);
+        if (selectedAttribute == GraphConstants.NOT_FOUND) {
+            throw new ArrayIndexOutOfBoundsException(OUT_OF_BOUNDS_EXCEPTION_STRING);
+        }
+        final boolean[] selected = new boolean[snapshot.getVertexCount()];
+        for (int position = 0; position < selected.length; position++) {
+            selected[position] = graph.getBooleanValue(selectedAttribute, snapshot.getVertex(position));
+        }
+        return selected;
+    }
+
+    private static boolean isSource(final AdjacencySnapshot snapshot, final boolean[] selected, final int position) {
+        // vertices without neighbours have no paths to contribute
+        return snapshot.getNeighbourCount(position) > 0 && (selected == null || selected[position]);
+    }
+
+    private static int countSources(final AdjacencySnapshot snapshot, final boolean[] selected) {
+        int count = 0;
+        for (int position = 0; position < snapshot.getVertexCount(); position++) {
+            if (isSource(snapshot, selected, position)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int[] sampleSources(final AdjacencySnapshot snapshot, final boolean[] selected, final float samplingError, final Random random) {
+        final int[] sources = new int[countSources(snapshot, selected)];
+        int count = 0;
+        for (int position = 0; position < snapshot.getVertexCount(); position++) {
+            if (isSource(snapshot, selected, position)) {
+                sources[count++] = position;
+            }
+        }
+
+        final int sampleSize = getSampleSize(sources.length, samplingError);
+        if (sampleSize == sources.length) {
+            return sources;
+        }
+
+        // partial Fisher-Yates shuffle to choose sources without replacement
+        for (int index = 0; index < sampleSize; index++) {
+            final int swap = index + random.nextInt(sources.length - index);
+            final int source = sources[swap];
+            sources[swap] = sources[index];
+            sources[index] = source;
+        }
+        return Arrays.copyOf(sources, sampleSize);
+    }
+
+    private static int[] getComponents(final AdjacencySnapshot snapshot, final int mask) {
+        final int vertexCount = snapshot.getVertexCount();
+        final int[] offsets = snapshot.getOffsets();
+        final int[] neighbours = snapshot.getNeighbours();
+        final byte[] directions = snapshot.getDirections();
+
+        final int[] components = new int[vertexCount];
+        Arrays.fill(components, -1);
+        final int[] queue = new int[vertexCount];
+        int component = 0;
+        for (int root = 0; root < vertexCount; root++) {
+            if (components[root] >= 0) {
+                continue;
+            }
+            components[root] = component;
+            queue[0] = root;
+            int head = 0;
+            int tail = 1;
+            while (head < tail) {
+                final int position = queue[head++];
+                for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                    final int neighbour = neighbours[entry];
+                    if ((directions[entry] & mask) != 0 && components[neighbour] < 0) {
+                        components[neighbour] = component;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+            component++;
+        }
+
+        return components;
+    }
+
+    /**
+     * Run a search from each source, spreading the sources across one worker
+     * per available processor, and sum the scores each worker accumulates.
+     *
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    private static double[] accumulate(final int vertexCount, final int[] sources, final SourceSearch search) throws InterruptedException {
+        // the workers run on pool threads, so they check whether the thread
+        // which called this method has been interrupted
+        final Thread caller = Thread.currentThread();
+        final int workerCount = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), sources.length));
+        final double[] scores = IntStream.range(0, workerCount).parallel().mapToObj(workerIndex -> {
+            final Worker worker = new Worker(vertexCount);
+            final double[] workerScores = new double[vertexCount];
+            for (int index = workerIndex; index < sources.length && !caller.isInterrupted(); index += workerCount) {
+                search.search(workerScores, sources[index], worker);
+            }
+            return workerScores;
+        }).reduce((first, second) -> {
+            for (int position = 0; position < vertexCount; position++) {
+                first[position] += second[position];
+            }
+            return first;
+        }).orElseGet(() -> new double[vertexCount]);
+
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+
+        return scores;
+    }
+
+    @FunctionalInterface
+    private interface SourceSearch {
+
+        void search(final double[] workerScores, final int source, final Worker worker);
+    }
+
+    /**
+     * The per-source state of a search, reused across every source a worker
+     * processes.
+     */
+    private static class Worker {
+
+        private final int[] distance;
+        private final double[] pathCount;
+        private final double[] dependency;
+        private final int[] order;
+
+        private Worker(final int vertexCount) {
+            distance = new int[vertexCount];
+            pathCount = new double[vertexCount];
+            dependency = new double[vertexCount];
+            order = new int[vertexCount];
+            Arrays.fill(distance, -1);
+        }
+
+        /**
+         * Reset only the positions visited by the last search.
+         */
+        private void reset(final int[] visited, final int visitedCount) {
+            for (int index = 0; index < visitedCount; index++) {
+                final int position = visited[index];
+                distance[position] = -1;
+                pathCount[position] = 0;
+                dependency[position] = 0;
+            }
+        }
+    }
+}
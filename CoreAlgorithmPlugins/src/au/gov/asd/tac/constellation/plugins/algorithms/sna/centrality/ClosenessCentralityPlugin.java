@@ -28,9 +28,6 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterTyp
 import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterType.BooleanParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
 import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
-import java.util.BitSet;
-import java.util.HashMap;
-import java.util.Map;
 import org.openide.util.NbBundle;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -60,6 +57,7 @@ public class ClosenessCentralityPlugin extends SimpleEditPlugin {
     public static final String NORMALISE_AVAILABLE_PARAMETER_ID = PluginParameter.buildId(ClosenessCentralityPlugin.class, "normalise_available");
     public static final String NORMALISE_CONNECTED_COMPONENTS_PARAMETER_ID = PluginParameter.buildId(ClosenessCentralityPlugin.class, "normalise_connected_components");
     public static final String SELECTED_ONLY_PARAMETER_ID = PluginParameter.buildId(ClosenessCentralityPlugin.class, "selected_only");
+    public static final String SAMPLING_ERROR_PARAMETER_ID = PluginParameter.buildId(ClosenessCentralityPlugin.class, "sampling_error");
 
     @Override
     public PluginParameters createParameters() {
@@ -113,6 +111,8 @@ public class ClosenessCentralityPlugin extends SimpleEditPlugin {
         selectedOnlyParameter.setBooleanValue(false);
         parameters.addParameter(selectedOnlyParameter);
 
+        parameters.addParameter(BrandesScoringUtilities.buildSamplingErrorParameter(SAMPLING_ERROR_PARAMETER_ID));
+
         return parameters;
     }
 
@@ -126,38 +126,30 @@ public class ClosenessCentralityPlugin extends SimpleEditPlugin {
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
         final boolean normaliseConnectedComponents = parameters.getBooleanValue(NORMALISE_CONNECTED_COMPONENTS_PARAMETER_ID);
         final boolean selectedOnly = parameters.getBooleanValue(SELECTED_ONLY_PARAMETER_ID);
+        final float samplingError = parameters.getFloatValue(SAMPLING_ERROR_PARAMETER_ID);
 
         final int selectedAttributeId = VisualConcept.VertexAttribute.SELECTED.get(graph);
 
         assert !normaliseByPossible || !normaliseByAvailable : "You should only select one method of normalisation";
 
         // calculate closeness scores
-        final BitSet[] subgraphs;
-        final float[] closenesses;
-        if (harmonic) {
-            final Tuple<BitSet[], float[]> scoreResult = PathScoringUtilities.calculateScores(graph, PathScoringUtilities.ScoreType.HARMONIC_CLOSENESS, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly);
-            subgraphs = scoreResult.getFirst();
-            closenesses = scoreResult.getSecond();
-        } else {
-            final Tuple<BitSet[], float[]> scoreResult = PathScoringUtilities.calculateScores(graph, PathScoringUtilities.ScoreType.CLOSENESS, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly);
-            subgraphs = scoreResult.getFirst();
-            closenesses = scoreResult.getSecond();
-        }
+        final PathScoringUtilities.ScoreType scoreType = harmonic ? PathScoringUtilities.ScoreType.HARMONIC_CLOSENESS : PathScoringUtilities.ScoreType.CLOSENESS;
+        final Tuple<int[], float[]> scoreResult = BrandesScoringUtilities.calculateCloseness(graph, scoreType, includeConnectionsIn, includeConnectionsOut, treatUndirectedBidirectional, selectedOnly, samplingError);
+        final int[] components = scoreResult.getFirst();
+        final float[] closenesses = scoreResult.getSecond();
 
         // calculate the maximum closeness
         float maxCloseness = 0f;
-        final Map<BitSet, Float> maxClosenessConnectedComponents = new HashMap<>();
-        final Map<BitSet, Integer> connectedComponentSize = new HashMap<>();
         final int vertexCount = graph.getVertexCount();
+        final float[] maxClosenessConnectedComponents = new float[vertexCount];
+        final int[] connectedComponentSize = new int[vertexCount];
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
             final float closeness = closenesses[vertexPosition];
-            final BitSet subgraph = subgraphs[vertexPosition];
-            if (!maxClosenessConnectedComponents.containsKey(subgraph)) {
-                maxClosenessConnectedComponents.put(subgraph, closeness);
-                connectedComponentSize.put(subgraph, PathScoringUtilities.subgraphSize(graph, subgraph, selectedOnly));
-            } else {
-                maxClosenessConnectedComponents.put(subgraph, Math.max(closeness, maxClosenessConnectedComponents.get(subgraph)));
+            final int component = components[vertexPosition];
+            if (!selectedOnly || graph.getBooleanValue(selectedAttributeId, graph.getVertex(vertexPosition))) {
+                connectedComponentSize[component]++;
             }
+            maxClosenessConnectedComponents[component] = Math.max(closeness, maxClosenessConnectedComponents[component]);
             maxCloseness = Math.max(closeness, maxCloseness);
         }
 
@@ -190,7 +182,7 @@ public class ClosenessCentralityPlugin extends SimpleEditPlugin {
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
             final int vertexId = graph.getVertex(vertexPosition);
             if (normaliseByPossible) {
-                int subgraphSize = connectedComponentSize.get(subgraphs[vertexPosition]);
+                int subgraphSize = connectedComponentSize[components[vertexPosition]];
                 final boolean vertexSelected = graph.getBooleanValue(selectedAttributeId, vertexId);
                 if (!selectedOnly || vertexSelected) {
                     subgraphSize -= 1;
@@ -204,7 +196,7 @@ public class ClosenessCentralityPlugin extends SimpleEditPlugin {
                 }
             } else if (normaliseByAvailable && maxCloseness > 0) {
                 if (normaliseConnectedComponents) {
-                    final float maxClosenessConnectedComponent = maxClosenessConnectedComponents.get(subgraphs[vertexPosition]);
+                    final float maxClosenessConnectedComponent = maxClosenessConnectedComponents[components[vertexPosition]];
                     graph.setFloatValue(closenessAttribute, vertexId, closenesses[vertexPosition] / maxClosenessConnectedComponent);
                 } else {
                     graph.setFloatValue(closenessAttribute, vertexId, closenesses[vertexPosition] / maxCloseness);
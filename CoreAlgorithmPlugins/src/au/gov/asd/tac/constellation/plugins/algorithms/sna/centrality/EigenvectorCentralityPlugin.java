@@ -15,8 +15,10 @@
  */
 package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
 
+import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.schema.attribute.SchemaAttribute;
+import au.gov.asd.tac.constellation.graph.utilities.AdjacencySnapshot;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
@@ -94,9 +96,12 @@ public class EigenvectorCentralityPlugin extends SimpleEditPlugin {
         assert !normaliseByPossible || !normaliseByAvailable : "You should only select one method of normalisation";
 
         // initialise eigenvector values
-        final int vertexCount = graph.getVertexCount();
-        final double[] tempEigenvectors = new double[graph.getVertexCapacity()];
-        final double[] eigenvectors = new double[graph.getVertexCapacity()];
+        final AdjacencySnapshot snapshot = AdjacencySnapshot.getSnapshot(graph, false, false, Graph.NOT_FOUND);
+        final int[] offsets = snapshot.getOffsets();
+        final int[] neighbours = snapshot.getNeighbours();
+        final int vertexCount = snapshot.getVertexCount();
+        final double[] tempEigenvectors = new double[vertexCount];
+        final double[] eigenvectors = new double[vertexCount];
         Arrays.fill(eigenvectors, (double) 1 / vertexCount);
 
         // calculate eigenvector for each vertex
@@ -107,15 +112,8 @@ public class EigenvectorCentralityPlugin extends SimpleEditPlugin {
             double maxEigenvector = 0;
             double delta = 0;
             for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-                final int vertexId = graph.getVertex(vertexPosition);
-
-                final int neighbourCount = graph.getVertexNeighbourCount(vertexId);
-                for (int vertexNeighbourPosition = 0; vertexNeighbourPosition < neighbourCount; vertexNeighbourPosition++) {
-                    final int neighbourId = graph.getVertexNeighbour(vertexId, vertexNeighbourPosition);
-                    final int neighbourPosition = graph.getVertexPosition(neighbourId);
-                    if (vertexId != neighbourId) {
-                        tempEigenvectors[vertexPosition] += eigenvectors[neighbourPosition];
-                    }
+                for (int entry = offsets[vertexPosition]; entry < offsets[vertexPosition + 1]; entry++) {
+                    tempEigenvectors[vertexPosition] += eigenvectors[neighbours[entry]];
                 }
 
                 sumEigenvector += tempEigenvectors[vertexPosition];
@@ -141,8 +139,7 @@ public class EigenvectorCentralityPlugin extends SimpleEditPlugin {
         // update the graph with eigenvector values
         final int eigenvectorAttribute = EIGENVECTOR_ATTRIBUTE.ensure(graph);
         for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
-            final int vertexId = graph.getVertex(vertexPosition);
-            graph.setFloatValue(eigenvectorAttribute, vertexId, (float) eigenvectors[vertexPosition]);
+            graph.setFloatValue(eigenvectorAttribute, snapshot.getVertex(vertexPosition), (float) eigenvectors[vertexPosition]);
         }
     }
 }
@@ -15,9 +15,10 @@
  */
 package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
 
-import au.gov.asd.tac.constellation.graph.GraphConstants;
+import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.schema.attribute.SchemaAttribute;
+import au.gov.asd.tac.constellation.graph.utilities.AdjacencySnapshot;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
@@ -31,10 +32,7 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.FloatParameterType.
 import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType;
 import au.gov.asd.tac.constellation.plugins.parameters.types.IntegerParameterType.IntegerParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.Arrays;
 import org.openide.util.NbBundle;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -62,7 +60,7 @@ public class PagerankCentralityPlugin extends SimpleEditPlugin {
 
         final PluginParameter<BooleanParameterValue> treatUndirectedBidirectionalParameter = BooleanParameterType.build(TREAT_UNDIRECTED_BIDIRECTIONAL_PARAMETER_ID);
         treatUndirectedBidirectionalParameter.setName("Include Undirected");
-        treatUndirectedBidirectionalParameter.setDescription("Treat undirected connections as bidirectional connections");
+        treatUndirectedBidirectionalParameter.setDescription("Treat undirected connections as bidirectional connections, otherwise ignore them");
         treatUndirectedBidirectionalParameter.setBooleanValue(true);
         parameters.addParameter(treatUndirectedBidirectionalParameter);
 
@@ -95,180 +93,88 @@ public class PagerankCentralityPlugin extends SimpleEditPlugin {
 
     @Override
     public void edit(final GraphWriteMethods graph, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException {
+        final boolean treatUndirectedBidirectional = parameters.getBooleanValue(TREAT_UNDIRECTED_BIDIRECTIONAL_PARAMETER_ID);
         final float dampingFactor = parameters.getFloatValue(DAMPING_FACTOR_PARAMETER_ID);
         final int maxIterations = parameters.getIntegerValue(ITERATIONS_PARAMETER_ID);
         final float epsilon = parameters.getFloatValue(EPSILON_PARAMETER_ID);
         final boolean normaliseByAvailable = parameters.getBooleanValue(NORMALISE_AVAILABLE_PARAMETER_ID);
 
-        PagerankController.initialiseAllPagerankVertices(graph, parameters.getBooleanValue(TREAT_UNDIRECTED_BIDIRECTIONAL_PARAMETER_ID), dampingFactor, normaliseByAvailable);
-
-        // calculate pageranks
-        for (int currentIteration = 0; currentIteration < maxIterations; currentIteration++) {
-            interaction.setProgress(currentIteration, maxIterations, "Iteration " + currentIteration + " of " + maxIterations, true);
-
-            PagerankController.updateAllPageranks();
-
-            if (PagerankController.delta < epsilon) {
-                break;
+        final AdjacencySnapshot snapshot = AdjacencySnapshot.getSnapshot(graph, false, false, Graph.NOT_FOUND);
+        final int vertexCount = snapshot.getVertexCount();
+        final int[] offsets = snapshot.getOffsets();
+        final int[] neighbours = snapshot.getNeighbours();
+        final byte[] directions = snapshot.getDirections();
+        final int outgoingMask = treatUndirectedBidirectional ? AdjacencySnapshot.OUTGOING | AdjacencySnapshot.UNDIRECTED : AdjacencySnapshot.OUTGOING;
+        final int incomingMask = treatUndirectedBidirectional ? AdjacencySnapshot.INCOMING | AdjacencySnapshot.UNDIRECTED : AdjacencySnapshot.INCOMING;
+
+        // count outgoing edges for each vertex, where each link holds at most one edge in each direction
+        final int[] outCounts = new int[vertexCount];
+        final boolean[] sinks = new boolean[vertexCount];
+        for (int position = 0; position < vertexCount; position++) {
+            for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                outCounts[position] += Integer.bitCount(directions[entry] & outgoingMask);
+            }
+            // If it is a sink (that is it has no outgoing transaction) then treat it as if it connect to every other vertex.
+            // Otherwise the total pagerank will gradually reduce from one to zero.
+            if (outCounts[position] == 0) {
+                outCounts[position] = vertexCount - 1;
+                sinks[position] = true;
             }
-
-        }
-
-        // update the graph with pagerank values
-        PagerankController.commitPageranksToGraph();
-    }
-
-    private static class PagerankController {
-
-        private static final Set<PagerankVertex> sinks = new HashSet<>();
-        private static boolean treatUndirectedBidirectional;
-        private static boolean normaliseByAvailable;
-        private static final Map<Integer, PagerankVertex> pagerankVertices = new HashMap<>();
-        private static GraphWriteMethods graph;
-        private static double dampingFactor = 0;
-        private static int vertexCount = 0;
-        private static double sinkPagerankContribution = 0;
-        private static double delta = 0;
-        private static int pagerankAttribute;
-        private static double baseContribution;
-
-        public static void initialiseAllPagerankVertices(final GraphWriteMethods graph, final boolean treatUndirectedBidirectional, final double dampingFactor, final boolean normaliseByAvailable) {
-            PagerankController.graph = graph;
-            PagerankController.vertexCount = graph.getVertexCount();
-            PagerankController.treatUndirectedBidirectional = treatUndirectedBidirectional;
-            PagerankController.normaliseByAvailable = normaliseByAvailable;
-            PagerankController.pagerankAttribute = PAGERANK_ATTRIBUTE.ensure(graph);
-            PagerankController.dampingFactor = dampingFactor;
-            PagerankController.baseContribution = (1 - dampingFactor) / vertexCount;
-
-            graph.vertexStream().forEach(id -> {
-                final PagerankVertex prVertex = new PagerankVertex(id, vertexCount);
-                pagerankVertices.put(id, prVertex);
-            });
-
-            calculateAllOutgoingAndNeighboursAndPagerankContribution();
-            updateSinkPagerankContribution();
         }
 
-        private static void calculateAllOutgoingAndNeighboursAndPagerankContribution() {
-            for (final PagerankVertex pgVertex : pagerankVertices.values()) {
-                // identify incoming connections and store connected vertices and their outgoing connection count
-                final int linkCount = graph.getVertexLinkCount(pgVertex.vertexId);
-                for (int linkPosition = 0; linkPosition < linkCount; linkPosition++) {
-                    //              For each link
-                    final int linkId = graph.getVertexLink(pgVertex.vertexId, linkPosition);
-                    final int linkLowId = graph.getLinkLowVertex(linkId);
-                    final int linkHighId = graph.getLinkHighVertex(linkId);
-                    if (linkLowId != linkHighId) {
-                        // If it isnt a link to itself
-                        final Integer neighbourId = pgVertex.vertexId == linkLowId ? linkHighId : linkLowId;
-                        final int edgeCount = graph.getLinkEdgeCount(linkId);
-                        for (int edgePosition = 0; edgePosition < edgeCount; edgePosition++) {
-                            // Then for every edge in the link
-                            final int edgeId = graph.getLinkEdge(linkId, edgePosition);
-                            final int edgeDirection = graph.getEdgeDirection(edgeId);
-                            if ((treatUndirectedBidirectional && edgeDirection == GraphConstants.FLAT)
-                                    || graph.getEdgeSourceVertex(edgeId) == pgVertex.vertexId) {
-                                // If egde is facing outwards, add 1 to outCount.
-                                pgVertex.outCount += 1;
-                            } else if ((treatUndirectedBidirectional && edgeDirection == GraphConstants.FLAT)
-                                    || graph.getEdgeDestinationVertex(edgeId) == pgVertex.vertexId) {
-                                // If edge is facing towards vertex add the source as a neighbour.
-                                pgVertex.neighbours.add(pagerankVertices.get(neighbourId));
-                            } else {
-                                // Do nothing
-                            }
-                        }
-                    }
-                }
-                // If it is a sink (that is it has no outgoing transaction) then treat it as if it connect to every other vertex. Otherwise the total pagerank will gradually reduce from one to zero.
-                if (pgVertex.outCount == 0) {
-                    pgVertex.outCount = vertexCount - 1;
-                    sinks.add(pgVertex);
-                    pgVertex.isSink = true;
-                }
-                pgVertex.updatePagerankContribution();
+        final double baseContribution = (1 - dampingFactor) / vertexCount;
+        final double[] pageranks = new double[vertexCount];
+        final double[] contributions = new double[vertexCount];
+        final double[] stagedPageranks = new double[vertexCount];
+        Arrays.fill(pageranks, 1.0 / vertexCount);
+        double sinkContribution = 0;
+        for (int position = 0; position < vertexCount; position++) {
+            contributions[position] = pageranks[position] / outCounts[position];
+            if (sinks[position]) {
+                sinkContribution += contributions[position];
             }
         }
 
-        private static void updateSinkPagerankContribution() {
-            sinkPagerankContribution = sinks.parallelStream().mapToDouble(pgVertex -> pgVertex.pagerankContribution).sum();
-        }
+        // calculate pageranks
+        for (int currentIteration = 0; currentIteration < maxIterations; currentIteration++) {
+            interaction.setProgress(currentIteration, maxIterations, "Iteration " + currentIteration + " of " + maxIterations, true);
 
-        private static void updateAllPageranks() {
-            delta = 0;
+            double delta = 0;
             double maxPagerank = 0;
-            for (final PagerankVertex pgVertex : pagerankVertices.values()) {
-                pgVertex.stageNewPagerank(sinkPagerankContribution, baseContribution, dampingFactor);
-                delta += Math.abs(pgVertex.pagerank - pgVertex.stagedPagerank);
-                if (pgVertex.stagedPagerank > maxPagerank) {
-                    maxPagerank = pgVertex.stagedPagerank;
+            for (int position = 0; position < vertexCount; position++) {
+                double neighbourContribution = sinks[position] ? sinkContribution - contributions[position] : sinkContribution;
+                for (int entry = offsets[position]; entry < offsets[position + 1]; entry++) {
+                    if ((directions[entry] & incomingMask) != 0) {
+                        neighbourContribution += contributions[neighbours[entry]];
+                    }
                 }
+                stagedPageranks[position] = baseContribution + (dampingFactor * neighbourContribution);
+                delta += Math.abs(pageranks[position] - stagedPageranks[position]);
+                maxPagerank = Math.max(stagedPageranks[position], maxPagerank);
             }
-            for (final PagerankVertex pgVertex : pagerankVertices.values()) {
+
+            sinkContribution = 0;
+            for (int position = 0; position < vertexCount; position++) {
                 if (normaliseByAvailable && maxPagerank > 0) {
-                    pgVertex.pagerank = pgVertex.stagedPagerank / maxPagerank;
+                    pageranks[position] = stagedPageranks[position] / maxPagerank;
                 } else {
-                    pgVertex.pagerank = pgVertex.stagedPagerank;
+                    pageranks[position] = stagedPageranks[position];
+                }
+                contributions[position] = pageranks[position] / outCounts[position];
+                if (sinks[position]) {
+                    sinkContribution += contributions[position];
                 }
-                pgVertex.updatePagerankContribution();
             }
-            updateSinkPagerankContribution();
-        }
 
-        private static void commitPageranksToGraph() {
-            for (final PagerankVertex pgVertex : pagerankVertices.values()) {
-                commitPagerankToGraph(pgVertex);
+            if (delta < epsilon) {
+                break;
             }
-            reset();
-        }
-
-        private static void commitPagerankToGraph(PagerankVertex pagerankVertex) {
-            graph.setDoubleValue(pagerankAttribute, pagerankVertex.vertexId, pagerankVertex.pagerank);
         }
 
-        private static void reset() {
-            graph = null;
-            sinks.clear();
-            dampingFactor = 0;
-            vertexCount = 0;
-            sinkPagerankContribution = 0;
-            delta = 0;
-            pagerankVertices.clear();
-        }
-    }
-
-    private static class PagerankVertex {
-
-        private final int vertexId;
-        private final Set<PagerankVertex> neighbours = new HashSet<>();
-        private int outCount = 0;
-        private double pagerank;
-        private double pagerankContribution;
-        private double stagedPagerank;
-        private boolean isSink = false;
-
-        private PagerankVertex(final int vertexId, final int vertexCount) {
-            this.vertexId = vertexId;
-            this.pagerank = 1.0 / vertexCount;
-            this.pagerankContribution = 0;
-        }
-
-        private void updatePagerankContribution() {
-            pagerankContribution = pagerank / outCount;
-        }
-
-        private void stageNewPagerank(final double sinkPagerankContribution, final double baseContribution,
-                final double dampingFactor) {
-            double neighbourContribution = sinkPagerankContribution;
-            if (isSink) {
-                neighbourContribution -= pagerankContribution;
-            }
-
-            neighbourContribution += neighbours.parallelStream().mapToDouble(pgVertex -> pgVertex.pagerankContribution).sum();
-
-            stagedPagerank = baseContribution + (dampingFactor * neighbourContribution);
+        // update the graph with pagerank values
+        final int pagerankAttribute = PAGERANK_ATTRIBUTE.ensure(graph);
+        for (int position = 0; position < vertexCount; position++) {
+            graph.setDoubleValue(pagerankAttribute, snapshot.getVertex(position), pageranks[position]);
         }
     }
-
 }
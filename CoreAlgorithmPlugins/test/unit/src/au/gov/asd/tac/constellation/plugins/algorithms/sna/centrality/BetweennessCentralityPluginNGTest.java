@@ -16,6 +16,7 @@
 package au.gov.asd.tac.constellation.plugins.algorithms.sna.centrality;
 
 import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.utilities.TransactionSubgraph;
 import au.gov.asd.tac.constellation.graph.schema.Schema;
 import au.gov.asd.tac.constellation.graph.schema.SchemaFactoryUtilities;
 import au.gov.asd.tac.constellation.graph.schema.analytic.AnalyticSchemaFactory;
@@ -23,7 +24,10 @@ import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.plugins.PluginExecution;
 import au.gov.asd.tac.constellation.plugins.algorithms.sna.SnaConcept;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
+import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
+import java.util.Random;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
@@ -162,4 +166,96 @@ public class BetweennessCentralityPluginNGTest {
         assertEquals(graph.getFloatValue(vertexBetweennessAttribute, vxId3), 6f / 6f);
         assertEquals(graph.getFloatValue(vertexBetweennessAttribute, vxId4), 0f / 6f);
     }
+
+    @Test
+    public void testDirectedBetweennessSharesTiedPaths() throws Exception {
+        final int vxId5 = graph.addVertex();
+        graph.addTransaction(vxId0, vxId5, true);
+        graph.addTransaction(vxId5, vxId3, true);
+
+        final BetweennessCentralityPlugin instance = new BetweennessCentralityPlugin();
+        final PluginParameters parameters = instance.createParameters();
+        parameters.setBooleanValue(BetweennessCentralityPlugin.INCLUDE_CONNECTIONS_IN_PARAMETER_ID, false);
+        parameters.setBooleanValue(BetweennessCentralityPlugin.INCLUDE_CONNECTIONS_OUT_PARAMETER_ID, true);
+        parameters.setBooleanValue(BetweennessCentralityPlugin.TREAT_UNDIRECTED_BIDIRECTIONAL, true);
+        parameters.setBooleanValue(BetweennessCentralityPlugin.NORMALISE_AVAILABLE_PARAMETER_ID, false);
+        parameters.setBooleanValue(BetweennessCentralityPlugin.NORMALISE_POSSIBLE_PARAMETER_ID, false);
+        parameters.setBooleanValue(BetweennessCentralityPlugin.NORMALISE_CONNECTED_COMPONENTS_PARAMETER_ID, false);
+        parameters.setBooleanValue(BetweennessCentralityPlugin.SELECTED_ONLY_PARAMETER_ID, false);
+        PluginExecution.withPlugin(instance).withParameters(parameters).executeNow(graph);
+
+        assertEquals(graph.getFloatValue(vertexOutBetweennessAttribute, vxId0), 0f);
+        assertEquals(graph.getFloatValue(vertexOutBetweennessAttribute, vxId1), 2f);
+        assertEquals(graph.getFloatValue(vertexOutBetweennessAttribute, vxId2), 0f);
+        assertEquals(graph.getFloatValue(vertexOutBetweennessAttribute, vxId3), 4f);
+        assertEquals(graph.getFloatValue(vertexOutBetweennessAttribute, vxId4), 0f);
+        assertEquals(graph.getFloatValue(vertexOutBetweennessAttribute, vxId5), 1f);
+    }
+
+    @Test
+    public void testSampledUndirectedBetweenness() throws Exception {
+        final BetweennessCentralityPlugin instance = new BetweennessCentralityPlugin();
+        final PluginParameters parameters = instance.createParameters();
+        parameters.setBooleanValue(BetweennessCentralityPlugin.INCLUDE_CONNECTIONS_IN_PARAMETER_ID, true);
+        parameters.setBooleanValue(BetweennessCentralityPlugin.INCLUDE_CONNECTIONS_OUT_PARAMETER_ID, true);
+        parameters.setBooleanValue(BetweennessCentralityPlugin.TREAT_UNDIRECTED_BIDIRECTIONAL, true);
+        parameters.setBooleanValue(BetweennessCentralityPlugin.NORMALISE_AVAILABLE_PARAMETER_ID, false);
+        parameters.setBooleanValue(BetweennessCentralityPlugin.NORMALISE_POSSIBLE_PARAMETER_ID, false);
+        parameters.setBooleanValue(BetweennessCentralityPlugin.NORMALISE_CONNECTED_COMPONENTS_PARAMETER_ID, false);
+        parameters.setBooleanValue(BetweennessCentralityPlugin.SELECTED_ONLY_PARAMETER_ID, false);
+        parameters.setFloatValue(BetweennessCentralityPlugin.SAMPLING_ERROR_PARAMETER_ID, 0.05f);
+        PluginExecution.withPlugin(instance).withParameters(parameters).executeNow(graph);
+
+        // a small graph needs every vertex as a source, so the scores are exact
+        assertEquals(BrandesScoringUtilities.getSampleSize(5, 0.05f), 5);
+        assertEquals(graph.getFloatValue(vertexBetweennessAttribute, vxId0), 0f);
+        assertEquals(graph.getFloatValue(vertexBetweennessAttribute, vxId1), 6f);
+        assertEquals(graph.getFloatValue(vertexBetweennessAttribute, vxId2), 0f);
+        assertEquals(graph.getFloatValue(vertexBetweennessAttribute, vxId3), 6f);
+        assertEquals(graph.getFloatValue(vertexBetweennessAttribute, vxId4), 0f);
+    }
+
+    @Test
+    public void testSubgraphViewBetweenness() throws InterruptedException {
+        // without the transaction between vertices 2 and 3 the view has the same vertices but fewer shortest paths
+        final int excludedTransaction = txId3;
+        final TransactionSubgraph view = new TransactionSubgraph(graph, transaction -> transaction != excludedTransaction);
+        assertEquals(view.getVertexCount(), graph.getVertexCount());
+
+        final Tuple<int[], float[]> viewScores = BrandesScoringUtilities.calculateBetweenness(view, false, true, true, false, 0f);
+        final Tuple<int[], float[]> graphScores = BrandesScoringUtilities.calculateBetweenness(graph, false, true, true, false, 0f);
+
+        assertEquals(viewScores.getSecond()[view.getVertexPosition(vxId3)], 2f);
+        assertEquals(graphScores.getSecond()[graph.getVertexPosition(vxId3)], 3f);
+    }
+
+    @Test
+    public void testSeededSampledBetweenness() throws InterruptedException {
+        // a large error means only 3 of the 5 vertices are sampled as sources
+        assertEquals(BrandesScoringUtilities.getSampleSize(5, 0.9f), 3);
+
+        final Tuple<int[], float[]> first = BrandesScoringUtilities.calculateBetweenness(graph, true, true, true, false, 0.9f, new Random(42));
+        final Tuple<int[], float[]> second = BrandesScoringUtilities.calculateBetweenness(graph, true, true, true, false, 0.9f, new Random(42));
+        assertEquals(first.getSecond(), second.getSecond());
+    }
+
+    @Test
+    public void testInterruptedBetweenness() {
+        Thread.currentThread().interrupt();
+        try {
+            BrandesScoringUtilities.calculateBetweenness(graph, false, true, true, false, 0f);
+            fail("Expected the calculation to be interrupted");
+        } catch (final InterruptedException ex) {
+            // expected
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void testSampleSize() {
+        assertEquals(BrandesScoringUtilities.getSampleSize(500000, 0f), 500000);
+        assertEquals(BrandesScoringUtilities.getSampleSize(500000, 0.05f), 3224);
+        assertEquals(BrandesScoringUtilities.getSampleSize(0, 0.05f), 0);
+    }
 }
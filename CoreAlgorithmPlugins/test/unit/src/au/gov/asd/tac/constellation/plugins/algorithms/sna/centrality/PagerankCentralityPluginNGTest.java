@@ -113,4 +113,32 @@ public class PagerankCentralityPluginNGTest {
         assertEquals(graph.getFloatValue(vertexPagerankAttribute, vxId3), 1f);
         assertEquals(graph.getFloatValue(vertexPagerankAttribute, vxId4), 0.99632686f);
     }
+
+    @Test
+    public void testUndirectedIgnoredUnlessBidirectional() throws Exception {
+        final PagerankCentralityPlugin instance = new PagerankCentralityPlugin();
+        final PluginParameters parameters = instance.createParameters();
+        parameters.setBooleanValue(PagerankCentralityPlugin.TREAT_UNDIRECTED_BIDIRECTIONAL_PARAMETER_ID, false);
+        parameters.setIntegerValue(PagerankCentralityPlugin.ITERATIONS_PARAMETER_ID, 2);
+
+        PluginExecution.withPlugin(instance).withParameters(parameters).executeNow(graph);
+        final float[] directedPageranks = new float[]{
+            graph.getFloatValue(vertexPagerankAttribute, vxId0),
+            graph.getFloatValue(vertexPagerankAttribute, vxId1),
+            graph.getFloatValue(vertexPagerankAttribute, vxId2),
+            graph.getFloatValue(vertexPagerankAttribute, vxId3),
+            graph.getFloatValue(vertexPagerankAttribute, vxId4)
+        };
+
+        // undirected transactions are not followed in either direction
+        graph.addTransaction(vxId4, vxId0, false);
+        graph.addTransaction(vxId2, vxId1, false);
+        PluginExecution.withPlugin(instance).withParameters(parameters).executeNow(graph);
+
+        assertEquals(graph.getFloatValue(vertexPagerankAttribute, vxId0), directedPageranks[0]);
+        assertEquals(graph.getFloatValue(vertexPagerankAttribute, vxId1), directedPageranks[1]);
+        assertEquals(graph.getFloatValue(vertexPagerankAttribute, vxId2), directedPageranks[2]);
+        assertEquals(graph.getFloatValue(vertexPagerankAttribute, vxId3), directedPageranks[3]);
+        assertEquals(graph.getFloatValue(vertexPagerankAttribute, vxId4), directedPageranks[4]);
+    }
 }
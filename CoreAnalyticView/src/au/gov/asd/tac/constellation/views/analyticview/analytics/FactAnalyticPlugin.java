@@ -20,11 +20,6 @@ import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.ReadableGraph;
-import au.gov.asd.tac.constellation.graph.StoreGraph;
-import au.gov.asd.tac.constellation.graph.processing.GraphRecordStoreUtilities;
-import au.gov.asd.tac.constellation.graph.processing.RecordStore;
-import au.gov.asd.tac.constellation.graph.schema.SchemaFactory;
-import au.gov.asd.tac.constellation.graph.schema.SchemaFactoryUtilities;
 import au.gov.asd.tac.constellation.graph.schema.analytic.concept.AnalyticConcept;
 import au.gov.asd.tac.constellation.graph.schema.attribute.SchemaAttribute;
 import au.gov.asd.tac.constellation.graph.schema.type.SchemaTransactionType;
@@ -72,13 +67,8 @@ public abstract class FactAnalyticPlugin extends AnalyticPlugin<FactResult> {
         return true;
     }
 
-    protected final StoreGraph getSubgraph(final GraphWriteMethods graph, final SchemaFactory schemaFactory, final Set<SchemaTransactionType> subgraphTransactionTypes) {
-        return SubgraphUtilities.getSubgraph(graph, schemaFactory.createSchema(), subgraphTransactionTypes, false);
-    }
-
-    protected final void copySubgraphToGraph(final GraphWriteMethods graph, final StoreGraph subgraph) {
-        final RecordStore subgraphStore = GraphRecordStoreUtilities.getAll(subgraph, false, false);
-        GraphRecordStoreUtilities.addRecordStoreToGraph(graph, subgraphStore, false, false, null);
+    protected final GraphWriteMethods getSubgraph(final GraphWriteMethods graph, final Set<SchemaTransactionType> subgraphTransactionTypes) {
+        return SubgraphUtilities.getSubgraphView(graph, subgraphTransactionTypes, false);
     }
 
     protected final void computeResultsFromGraph(final GraphReadMethods graph, final PluginParameters parameters) {
@@ -200,13 +190,12 @@ public abstract class FactAnalyticPlugin extends AnalyticPlugin<FactResult> {
                     transactionTypes.add((SchemaTransactionType) ((TransactionTypeParameterValue) parameterValue).getObjectValue());
                 });
                 assert transactionTypes.size() > 0 : "You must select at least one transaction type";
-                final StoreGraph subgraph = getSubgraph(graph, SchemaFactoryUtilities.getDefaultSchemaFactory(), transactionTypes);
+                final GraphWriteMethods subgraph = getSubgraph(graph, transactionTypes);
 
                 // run analytic plugin on the subgraph and compute results
                 PluginExecution.withPlugin(getAnalyticPlugin().getDeclaredConstructor().newInstance())
                         .withParameters(parameters)
                         .executeNow(subgraph);
-                copySubgraphToGraph(graph, subgraph);
                 computeResultsFromGraph(graph, parameters);
             }
         } catch (final IllegalAccessException | IllegalArgumentException
@@ -20,7 +20,10 @@ import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.arrangements.Arranger;
 import au.gov.asd.tac.constellation.plugins.arrangements.SelectedInclusionGraph;
+import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
+import au.gov.asd.tac.constellation.plugins.parameters.types.FloatParameterType;
+import au.gov.asd.tac.constellation.plugins.parameters.types.FloatParameterType.FloatParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
 import org.openide.util.NbBundle.Messages;
 import org.openide.util.lookup.ServiceProvider;
@@ -34,9 +37,27 @@ import org.openide.util.lookup.ServiceProvider;
 @Messages("ArrangeByProximityPlugin=Arrange by Proximity")
 public class ArrangeByProximityPlugin extends SimpleEditPlugin {
 
+    public static final String THETA_PARAMETER_ID = PluginParameter.buildId(ArrangeByProximityPlugin.class, "theta");
+
+    @Override
+    public PluginParameters createParameters() {
+        final PluginParameters parameters = new PluginParameters();
+
+        final PluginParameter<FloatParameterValue> thetaParam = FloatParameterType.build(THETA_PARAMETER_ID);
+        thetaParam.setName("Approximation");
+        thetaParam.setDescription("The Barnes-Hut approximation threshold. Larger values are faster but less accurate, and 0 is exact. The default is " + FR2DArranger.DEFAULT_THETA + ".");
+        thetaParam.setFloatValue((float) FR2DArranger.DEFAULT_THETA);
+        FloatParameterType.setMinimum(thetaParam, 0f);
+        parameters.addParameter(thetaParam);
+
+        return parameters;
+    }
+
     @Override
     public void edit(final GraphWriteMethods wg, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException {
-        final Arranger arranger = new FR2DArranger(interaction);
+        final float theta = parameters.getFloatValue(THETA_PARAMETER_ID);
+
+        final Arranger arranger = new FR2DArranger(interaction, theta);
         final SelectedInclusionGraph selectedGraph = new SelectedInclusionGraph(wg, SelectedInclusionGraph.Connections.LINKS);
         arranger.setMaintainMean(!selectedGraph.isArrangingAll());
         arranger.arrange(selectedGraph.getInclusionGraph());
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.arrangements.proximity;
+
+import java.util.Arrays;
+
+/**
+ * A Barnes-Hut quadtree (in 2D) or octree (in 3D) used to approximate the
+ * repulsive forces between points in a force-directed arrangement.
+ * <p>
+ * Each cell of the tree records how many points it contains and their centre
+ * of mass. When calculating the force on a point, a cell whose width divided
+ * by its distance from the point is less than the accuracy parameter theta is
+ * treated as a single point at its centre of mass, so the force on every point
+ * can be found in O(n log n) rather than O(n<sup>2</sup>) time. A theta of 0
+ * never approximates and gives the exact force.
+ * <p>
+ * The tree is stored in flat arrays and is read-only once built, so forces on
+ * different points may be calculated concurrently.
+ *
+ * @author algol
+ */
+final class BarnesHutTree {
+
+    /**
+     * Cells at this depth are not split further, so coincident points share a
+     * cell instead of recursing forever.
+     */
+    private static final int MAX_DEPTH = 32;
+
+    private final int dimensions;
+    private final int childCount;
+    private final double[] coordinates;
+
+    private int cellCount;
+    private int[] firstChild;
+    private int[] depth;
+    private int[] head;
+    private int[] mass;
+    private double[] centre;
+    private double[] centreOfMass;
+    private double[] halfWidth;
+
+    private final int[] next;
+
+    /**
+     * Build a tree over the given points.
+     *
+     * @param coordinates the coordinates of each point, packed as
+     * {@code x, y} or {@code x, y, z}. The array is not copied and must not be
+     * modified while the tree is in use.
+     * @param dimensions 2 or 3.
+     */
+    BarnesHutTree(final double[] coordinates, final int dimensions) {
+        this.dimensions = dimensions;
+        this.childCount = 1 << dimensions;
+        this.coordinates = coordinates;
+
+        final int pointCount = coordinates.length / dimensions;
+        next = new int[pointCount];
+        allocate(Math.max(16, pointCount * 2));
+
+        // the root cell is the smallest cube containing every point
+        final double[] min = new double[dimensions];
+        final double[] max = new double[dimensions];
+        Arrays.fill(min, Double.MAX_VALUE);
+        Arrays.fill(max, -Double.MAX_VALUE);
+        for (int point = 0; point < pointCount; point++) {
+            for (int d = 0; d < dimensions; d++) {
+                min[d] = Math.min(min[d], coordinates[point * dimensions + d]);
+                max[d] = Math.max(max[d], coordinates[point * dimensions + d]);
+            }
+        }
+        double width = 0;
+        for (int d = 0; d < dimensions; d++) {
+            width = Math.max(width, max[d] - min[d]);
+        }
+        final double[] rootCentre = new double[dimensions];
+        for (int d = 0; d < dimensions; d++) {
+            rootCentre[d] = pointCount == 0 ? 0 : (min[d] + max[d]) / 2;
+        }
+        addCell(rootCentre, width / 2 + 1, 0);
+
+        for (int point = 0; point < pointCount; point++) {
+            insert(point);
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (mass[cell] > 0) {
+                for (int d = 0; d < dimensions; d++) {
+                    centreOfMass[cell * dimensions + d] /= mass[cell];
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the repulsive force exerted on a point by every other point in the
+     * tree to the given force vector. The magnitude of the force between two
+     * points at distance {@code l} is {@code constant / l}, directed away from
+     * the other point.
+     *
+     * @param point the index of the point to calculate the force on.
+     * @param theta the accuracy parameter.
+     * @param constant the numerator of the force.
+     * @param epsilon the minimum distance between two points.
+     * @param force the force vector to add to, of length {@code dimensions}.
+     * @param stack scratch space of at least {@link #getStackSize()} elements.
+     */
+    void repulse(final int point, final double theta, final double constant, final double epsilon, final double[] force, final int[] stack) {
+        final int offset = point * dimensions;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            final int cell = stack[--top];
+            if (mass[cell] == 0) {
+                continue;
+            }
+
+            if (firstChild[cell] < 0) {
+                for (int other = head[cell]; other >= 0; other = next[other]) {
+                    if (other != point) {
+                        addForce(offset, coordinates, other * dimensions, 1, constant, epsilon, force);
+                    }
+                }
+                continue;
+            }
+
+            final double distance = distance(offset, centreOfMass, cell * dimensions);
+            if (!contains(cell, offset) && 2 * halfWidth[cell] < theta * distance) {
+                addForce(offset, centreOfMass, cell * dimensions, mass[cell], constant, epsilon, force);
+            } else {
+                for (int child = 0; child < childCount; child++) {
+                    stack[top++] = firstChild[cell] + child;
+                }
+            }
+        }
+    }
+
+    /**
+     * The number of elements a stack passed to {@link #repulse} must hold.
+     *
+     * @return the stack size.
+     */
+    int getStackSize() {
+        return (MAX_DEPTH + 1) * (childCount - 1) + 1;
+    }
+
+    private void insert(final int point) {
+        final int offset = point * dimensions;
+        int cell = 0;
+        while (true) {
+            mass[cell]++;
+            for (int d = 0; d < dimensions; d++) {
+                centreOfMass[cell * dimensions + d] += coordinates[offset + d];
+            }
+
+            if (firstChild[cell] >= 0) {
+                cell = firstChild[cell] + getChild(cell, offset);
+                continue;
+            }
+
+            if (head[cell] < 0 || depth[cell] >= MAX_DEPTH) {
+                next[point] = head[cell];
+                head[cell] = point;
+                return;
+            }
+
+            // this leaf already holds a point, so split it and move that point down
+            final int existing = head[cell];
+            head[cell] = -1;
+            split(cell);
+            final int existingChild = firstChild[cell] + getChild(cell, existing * dimensions);
+            mass[existingChild] = 1;
+            for (int d = 0; d < dimensions; d++) {
+                centreOfMass[existingChild * dimensions + d] = coordinates[existing * dimensions + d];
+            }
+            head[existingChild] = existing;
+            next[existing] = -1;
+
+            cell = firstChild[cell] + getChild(cell, offset);
+        }
+    }
+
+    private void split(final int cell) {
+        // read the parent cell before the arrays are possibly reallocated
+        final double quarterWidth = halfWidth[cell] / 2;
+        final int childDepth = depth[cell] + 1;
+        final double[] parentCentre = Arrays.copyOfRange(centre, cell * dimensions, (cell + 1) * dimensions);
+
+        firstChild[cell] = cellCount;
+        final double[] childCentre = new double[dimensions];
+        for (int child = 0; child < childCount; child++) {
+            for (int d = 0; d < dimensions; d++) {
+                childCentre[d] = parentCentre[d] + (((child >> d) & 1) == 0 ? -quarterWidth : quarterWidth);
+            }
+            addCell(childCentre, quarterWidth, childDepth);
+        }
+    }
+
+    private int getChild(final int cell, final int offset) {
+        int child = 0;
+        for (int d = 0; d < dimensions; d++) {
+            if (coordinates[offset + d] >= centre[cell * dimensions + d]) {
+                child |= 1 << d;
+            }
+        }
+        return child;
+    }
+
+    private boolean contains(final int cell, final int offset) {
+        for (int d = 0; d < dimensions; d++) {
+            if (Math.abs(coordinates[offset + d] - centre[cell * dimensions + d]) > halfWidth[cell]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double distance(final int offset, final double[] to, final int toOffset) {
+        double distance = 0;
+        for (int d = 0; d < dimensions; d++) {
+            final double delta = coordinates[offset + d] - to[toOffset + d];
+            distance += delta * delta;
+        }
+        return Math.sqrt(distance);
+    }
+
+    private void addForce(final int offset, final double[] from, final int fromOffset, final double weight,
+            final double constant, final double epsilon, final double[] force) {
+        double lenDelta = 0;
+        for (int d = 0; d < dimensions; d++) {
+            final double delta = coordinates[offset + d] - from[fromOffset + d];
+            lenDelta += delta * delta;
+        }
+        lenDelta = Math.max(epsilon, Math.sqrt(lenDelta));
+        final double magnitude = weight * constant / lenDelta;
+        for (int d = 0; d < dimensions; d++) {
+            force[d] += (coordinates[offset + d] - from[fromOffset + d]) / lenDelta * magnitude;
+        }
+    }
+
+    private void addCell(final double[] cellCentre, final double cellHalfWidth, final int cellDepth) {
+        if (cellCount == firstChild.length) {
+            allocate(cellCount * 2);
+        }
+        final int cell = cellCount++;
+        firstChild[cell] = -1;
+        head[cell] = -1;
+        depth[cell] = cellDepth;
+        mass[cell] = 0;
+        halfWidth[cell] = cellHalfWidth;
+        System.arraycopy(cellCentre, 0, centre, cell * dimensions, dimensions);
+    }
+
+    private void allocate(final int capacity) {
+        if (firstChild == null) {
+            firstChild = new int[capacity];
+            depth = new int[capacity];
+            head = new int[capacity];
+            mass = new int[capacity];
+            halfWidth = new double[capacity];
+            centre = new double[capacity * dimensions];
+            centreOfMass = new double[capacity * dimensions];
+        } else {
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            depth = Arrays.copyOf(depth, capacity);
+            head = Arrays.copyOf(head, capacity);
+            mass = Arrays.copyOf(mass, capacity);
+            halfWidth = Arrays.copyOf(halfWidth, capacity);
+            centre = Arrays.copyOf(centre, capacity * dimensions);
+            centreOfMass = Arrays.copyOf(centreOfMass, capacity * dimensions);
+        }
+    }
+}
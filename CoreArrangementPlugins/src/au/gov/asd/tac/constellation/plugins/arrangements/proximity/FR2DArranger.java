@@ -26,6 +26,7 @@ import au.gov.asd.tac.constellation.plugins.arrangements.utilities.ArrangementUt
 import java.awt.geom.Point2D;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.stream.IntStream;
 
 /**
  * main module to arrange a graph using the FR2D algorithm
@@ -35,7 +36,9 @@ import java.util.ArrayList;
 class FR2DArranger implements Arranger {
 
     public static final int MAX_ITERATIONS = 10;
+    public static final double DEFAULT_THETA = 0.8;
     private static final int BORDER = 1;
+    private static final int DIMENSIONS = 2;
 
     private double forceConstant;
     private double temperature;
@@ -55,6 +58,7 @@ class FR2DArranger implements Arranger {
     private boolean maintainMean;
 
     private final PluginInteraction interaction;
+    private final double theta;
 
     private final SecureRandom r = new SecureRandom();
 
@@ -65,7 +69,21 @@ class FR2DArranger implements Arranger {
      * when the layout is finished.
      */
     public FR2DArranger(final PluginInteraction interaction) {
+        this(interaction, DEFAULT_THETA);
+    }
+
+    /**
+     * Creates a new arranger which approximates repulsion using a Barnes-Hut
+     * quadtree.
+     *
+     * @param interaction The {@link PluginInteraction} that this arranger will
+     * use.
+     * @param theta The Barnes-Hut accuracy parameter. Larger values are faster
+     * and less accurate, and 0 calculates repulsion exactly.
+     */
+    public FR2DArranger(final PluginInteraction interaction, final double theta) {
         this.interaction = interaction;
+        this.theta = theta;
     }
 
     @Override
@@ -121,10 +139,20 @@ class FR2DArranger implements Arranger {
         for (int i = 0; i < MAX_ITERATIONS; i++) {
             interaction.setProgress(i + 1, MAX_ITERATIONS, "Arranging...", true);
 
+            // build a quadtree over the current points so that repulsion
+            // from distant groups of points can be approximated
+            final double[] coordinates = new double[vxCount * DIMENSIONS];
             for (int position = 0; position < vxCount; position++) {
-                final int vxId = graph.getVertex(position);
+                final Point2D.Float point = points.get(graph.getVertex(position));
+                coordinates[position * DIMENSIONS] = point.x;
+                coordinates[position * DIMENSIONS + 1] = point.y;
+            }
+            final BarnesHutTree tree = new BarnesHutTree(coordinates, DIMENSIONS);
 
-                repulse(vxId);
+            IntStream.range(0, vxCount).parallel().forEach(position -> repulse(tree, position));
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
             }
 
             for (int position = 0; position < graph.getLinkCount(); position++) {
@@ -178,33 +206,17 @@ class FR2DArranger implements Arranger {
     /**
      * Repulse a node from the other nodes.
      *
-     * @param vxOrigin The vertex to repulse from.
+     * @param tree The quadtree holding every node.
+     * @param position The position of the vertex to repulse from.
      */
-    private void repulse(final int vxOrigin) {
-        final Point2D.Float p1 = points.get(vxOrigin);
-        final Point2D.Float offset = new Point2D.Float(0, 0);
-
-        for (int position = 0; position < vxCount; position++) {
-            final int vxId = graph.getVertex(position);
-
-            if (vxId != vxOrigin) {
-                final Point2D p2 = points.get(vxId);
-//                final float radius2 = radiusAttr!=Graph.NOT_FOUND ? graph.getFloatValue(radiusAttr, node) : 1;
-                final double xDelta = p1.getX() - p2.getX();// + radius1 + radius2;
-                final double yDelta = p1.getY() - p2.getY();// + radius1 + radius2;
-                final double lenDelta = Math.max(EPSILON, Math.sqrt(xDelta * xDelta + yDelta * yDelta));
-                final double force = (repulsionConstant * repulsionConstant) / lenDelta;
-                if (Double.isNaN(force)) {
-                    throw new IllegalArgumentException("Bad value: isNaN(force)");
-                }
-
-                offset.setLocation(
-                        offset.getX() + (xDelta / lenDelta) * force,
-                        offset.getY() + (yDelta / lenDelta) * force);
-            }
+    private void repulse(final BarnesHutTree tree, final int position) {
+        final double[] force = new double[DIMENSIONS];
+        tree.repulse(position, theta, repulsionConstant * repulsionConstant, EPSILON, force, new int[tree.getStackSize()]);
+        if (Double.isNaN(force[0]) || Double.isNaN(force[1])) {
+            throw new IllegalArgumentException("Bad value: isNaN(force)");
         }
 
-        offsets.set(vxOrigin, offset);
+        offsets.set(graph.getVertex(position), new Point2D.Float((float) force[0], (float) force[1]));
     }
 
     /**
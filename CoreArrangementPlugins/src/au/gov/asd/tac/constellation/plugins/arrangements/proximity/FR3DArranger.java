@@ -26,6 +26,7 @@ import au.gov.asd.tac.constellation.plugins.arrangements.utilities.ArrangementUt
 import au.gov.asd.tac.constellation.plugins.arrangements.utilities.Point3D;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.stream.IntStream;
 
 /**
  * Implements a 3D version of the Fruchterman-Reingold force-directed algorithm
@@ -63,7 +64,9 @@ public class FR3DArranger implements Arranger {
 
     private static final int MAX_PSEUDO_SIZE = 100;
     public static final int MAX_ITERATIONS = 10;
+    public static final double DEFAULT_THETA = 0.8;
     private static final int BORDER = 1;
+    private static final int DIMENSIONS = 3;
     private double forceConstant;
     private double temperature;
     //    private int currentIteration;
@@ -79,6 +82,7 @@ public class FR3DArranger implements Arranger {
     private volatile boolean stopWork;
 
     private final PluginInteraction interaction;
+    private final double theta;
 
     private GraphWriteMethods wg;
     boolean maintainMean = false;
@@ -92,8 +96,22 @@ public class FR3DArranger implements Arranger {
      * use.
      */
     public FR3DArranger(final PluginInteraction interaction) {
+        this(interaction, DEFAULT_THETA);
+    }
+
+    /**
+     * Creates a new arranger using the specified {@link PluginInteraction}
+     * which approximates repulsion using a Barnes-Hut octree.
+     *
+     * @param interaction The {@link PluginInteraction} that this arranger will
+     * use.
+     * @param theta The Barnes-Hut accuracy parameter. Larger values are faster
+     * and less accurate, and 0 calculates repulsion exactly.
+     */
+    public FR3DArranger(final PluginInteraction interaction, final double theta) {
         stopWork = false;
         this.interaction = interaction;
+        this.theta = theta;
     }
 
     @Override
@@ -176,14 +194,19 @@ public class FR3DArranger implements Arranger {
         for (int i = 0; i < MAX_ITERATIONS; i++) {
             interaction.setProgress(i + 1, MAX_ITERATIONS, ARRANGING_INTERACTION, true);
 
-            wg.vertexStream().parallel().forEach(vertexId -> {
-                repulse(vertexId);
+            // build an octree over the current points so that repulsion
+            // from distant groups of points can be approximated
+            final int vxCount = wg.getVertexCount();
+            final double[] coordinates = new double[vxCount * DIMENSIONS];
+            for (int position = 0; position < vxCount; position++) {
+                final Point3D.Float point = points.get(wg.getVertex(position));
+                coordinates[position * DIMENSIONS] = point.getX();
+                coordinates[position * DIMENSIONS + 1] = point.getY();
+                coordinates[position * DIMENSIONS + 2] = point.getZ();
+            }
+            final BarnesHutTree tree = new BarnesHutTree(coordinates, DIMENSIONS);
 
-//                if(Thread.interrupted())
-//                {
-//                    throw new InterruptedException();
-//                }
-            });
+            IntStream.range(0, vxCount).parallel().forEach(position -> repulse(tree, position));
 
             if (Thread.interrupted()) {
                 throw new InterruptedException();
@@ -249,33 +272,18 @@ public class FR3DArranger implements Arranger {
     /**
      * Repulse a node from the other nodes.
      *
-     * @param nodeOrigin The node that other nodes will be repulsed from.
+     * @param tree The octree holding every node.
+     * @param position The position of the node that other nodes will be
+     * repulsed from.
      */
-    private void repulse(final int nodeOrigin) {
-        final Point3D.Float p1 = points.get(nodeOrigin);
-        final Point3D.Float offset = new Point3D.Float(0, 0, 0);
-
-        for (int position = 0; position < wg.getVertexCount(); position++) {
-            final int node = wg.getVertex(position);
-            if (node != nodeOrigin) {
-                final Point3D p2 = points.get(node);
-                final double xDelta = p1.getX() - p2.getX();
-                final double yDelta = p1.getY() - p2.getY();
-                final double zDelta = p1.getZ() - p2.getZ();
-                final double lenDelta = Math.max(EPSILON, Math.sqrt(xDelta * xDelta + yDelta * yDelta + zDelta * zDelta));
-                final double force = (repulsionConstant * repulsionConstant) / lenDelta;
-                if (Double.isNaN(force)) {
-                    throw new IllegalArgumentException("Bad value: isNaN(force)");
-                }
-
-                offset.setLocation(
-                        offset.getX() + (xDelta / lenDelta) * force,
-                        offset.getY() + (yDelta / lenDelta) * force,
-                        offset.getZ() + (zDelta / lenDelta) * force);
-            }
+    private void repulse(final BarnesHutTree tree, final int position) {
+        final double[] force = new double[DIMENSIONS];
+        tree.repulse(position, theta, repulsionConstant * repulsionConstant, EPSILON, force, new int[tree.getStackSize()]);
+        if (Double.isNaN(force[0]) || Double.isNaN(force[1]) || Double.isNaN(force[2])) {
+            throw new IllegalArgumentException("Bad value: isNaN(force)");
         }
 
-        offsets.set(nodeOrigin, offset);
+        offsets.set(wg.getVertex(position), new Point3D.Float((float) force[0], (float) force[1], (float) force[2]));
     }
 
     /**
@@ -16,8 +16,11 @@
 package au.gov.asd.tac.constellation.plugins.arrangements.spectral;
 
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.apache.commons.math3.linear.EigenDecomposition;
@@ -29,6 +32,22 @@ import org.apache.commons.math3.linear.MatrixUtils;
  */
 public class GraphSpectrumEmbedder {
 
+    /**
+     * Above this many vertices the dense eigendecomposition takes too much
+     * time and memory, so a sparse embedding is calculated instead.
+     */
+    private static final int DENSE_THRESHOLD = 1000;
+
+    /**
+     * The mean length of an edge in a sparse embedding.
+     */
+    private static final double EDGE_LENGTH = 4;
+
+    /**
+     * The gap left between the components of a sparse embedding.
+     */
+    private static final double COMPONENT_GAP = 10;
+
     public static Map<Integer, double[]> spectralEmbedding(GraphReadMethods rg, final Set<Integer> includedVertices) {
 
         Map<Integer, double[]> vertexPositions = new HashMap<>();
@@ -38,6 +57,10 @@ public class GraphSpectrumEmbedder {
             return vertexPositions;
         }
 
+        if (includedVertices.size() > DENSE_THRESHOLD) {
+            return sparseEmbedding(rg, includedVertices);
+        }
+
         GraphMatrix l = GraphMatrix.adjacencyFromGraph(rg, includedVertices, new HashSet<>());
 
         final EigenDecomposition e = new EigenDecomposition(MatrixUtils.createRealMatrix(l.laplacianMatrix));
@@ -60,6 +83,160 @@ public class GraphSpectrumEmbedder {
 
     }
 
+    /**
+     * Embed the included vertices using the two leading non-trivial
+     * eigenvectors of the normalised adjacency matrix of each connected
+     * component, which are the generalised eigenvectors of the graph Laplacian
+     * with the smallest non-zero eigenvalues. Only the links between included
+     * vertices are held, and the eigenvectors are found with a
+     * {@link LanczosEigenSolver}, so this scales to much larger graphs than
+     * the dense embedding. Components are laid out side by side in order of
+     * decreasing size.
+     *
+     * @param rg the graph.
+     * @param includedVertices the vertices to embed.
+     * @return the position of each included vertex.
+     */
+    private static Map<Integer, double[]> sparseEmbedding(final GraphReadMethods rg, final Set<Integer> includedVertices) {
+        final Map<Integer, double[]> vertexPositions = new HashMap<>();
+
+        final int[] idToPosition = new int[rg.getVertexCapacity()];
+        Arrays.fill(idToPosition, -1);
+        final int[] positionToId = new int[includedVertices.size()];
+        int vertexCount = 0;
+        for (int i = 0; i < rg.getVertexCount(); i++) {
+            final int vxID = rg.getVertex(i);
+            if (includedVertices.contains(vxID)) {
+                idToPosition[vxID] = vertexCount;
+                positionToId[vertexCount++] = vxID;
+            }
+        }
+
+        // find the connected components among the included vertices
+        final int[] component = new int[vertexCount];
+        Arrays.fill(component, -1);
+        final List<int[]> components = new ArrayList<>();
+        final int[] queue = new int[vertexCount];
+        for (int root = 0; root < vertexCount; root++) {
+            if (component[root] >= 0) {
+                continue;
+            }
+            component[root] = components.size();
+            queue[0] = root;
+            int head = 0;
+            int tail = 1;
+            while (head < tail) {
+                final int vxID = positionToId[queue[head++]];
+                for (int j = 0; j < rg.getVertexNeighbourCount(vxID); j++) {
+                    final int neighbour = idToPosition[rg.getVertexNeighbour(vxID, j)];
+                    if (neighbour >= 0 && component[neighbour] < 0) {
+                        component[neighbour] = components.size();
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+            components.add(Arrays.copyOf(queue, tail));
+        }
+        components.sort((first, second) -> Integer.compare(second.length, first.length));
+
+        double xOffset = 0;
+        for (final int[] members : components) {
+            final double[][] coordinates = embedComponent(rg, members, positionToId, idToPosition);
+
+            double minX = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE;
+            for (final double[] xy : coordinates) {
+                minX = Math.min(minX, xy[0]);
+                maxX = Math.max(maxX, xy[0]);
+            }
+            for (int i = 0; i < members.length; i++) {
+                vertexPositions.put(positionToId[members[i]], new double[]{coordinates[i][0] - minX + xOffset, coordinates[i][1]});
+            }
+            xOffset += maxX - minX + COMPONENT_GAP;
+        }
+
+        return vertexPositions;
+    }
+
+    private static double[][] embedComponent(final GraphReadMethods rg, final int[] members, final int[] positionToId, final int[] idToPosition) {
+        final int size = members.length;
+        final double[][] coordinates = new double[size][2];
+        if (size <= 2) {
+            for (int i = 0; i < size; i++) {
+                coordinates[i][0] = i * EDGE_LENGTH;
+            }
+            return coordinates;
+        }
+
+        // index the links of the component in compressed sparse row form
+        final Map<Integer, Integer> positionToIndex = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            positionToIndex.put(members[i], i);
+        }
+        final int[] offsets = new int[size + 1];
+        final List<Integer> neighbourList = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            final int vxID = positionToId[members[i]];
+            for (int j = 0; j < rg.getVertexNeighbourCount(vxID); j++) {
+                final int neighbour = idToPosition[rg.getVertexNeighbour(vxID, j)];
+                if (neighbour >= 0 && neighbour != members[i]) {
+                    neighbourList.add(positionToIndex.get(neighbour));
+                }
+            }
+            offsets[i + 1] = neighbourList.size();
+        }
+        final int[] neighbours = neighbourList.stream().mapToInt(Integer::intValue).toArray();
+
+        // the trivial eigenvector of the normalised adjacency matrix is the
+        // square root of the degrees, so deflate it
+        final double[] inverseRootDegree = new double[size];
+        final double[] trivial = new double[size];
+        double trivialNorm = 0;
+        for (int i = 0; i < size; i++) {
+            final double degree = Math.max(1, offsets[i + 1] - offsets[i]);
+            inverseRootDegree[i] = 1 / Math.sqrt(degree);
+            trivial[i] = Math.sqrt(degree);
+            trivialNorm += degree;
+        }
+        trivialNorm = Math.sqrt(trivialNorm);
+        for (int i = 0; i < size; i++) {
+            trivial[i] /= trivialNorm;
+        }
+
+        // shift the normalised adjacency matrix so that its eigenvalues lie in
+        // [0, 1] and the wanted eigenvectors are those with the largest eigenvalues
+        final LanczosEigenSolver solver = new LanczosEigenSolver((vector, result) -> {
+            for (int i = 0; i < size; i++) {
+                double sum = 0;
+                for (int entry = offsets[i]; entry < offsets[i + 1]; entry++) {
+                    sum += inverseRootDegree[neighbours[entry]] * vector[neighbours[entry]];
+                }
+                result[i] = (vector[i] + inverseRootDegree[i] * sum) / 2;
+            }
+        }, size, new double[][]{trivial});
+        final double[][] eigenvectors = solver.solve(2);
+
+        for (int i = 0; i < size; i++) {
+            coordinates[i][0] = eigenvectors[0][i] * inverseRootDegree[i];
+            coordinates[i][1] = eigenvectors[1][i] * inverseRootDegree[i];
+        }
+
+        // scale the embedding to a consistent mean edge length
+        double totalLength = 0;
+        for (int i = 0; i < size; i++) {
+            for (int entry = offsets[i]; entry < offsets[i + 1]; entry++) {
+                totalLength += Math.hypot(coordinates[i][0] - coordinates[neighbours[entry]][0], coordinates[i][1] - coordinates[neighbours[entry]][1]);
+            }
+        }
+        final double scale = totalLength > 0 ? EDGE_LENGTH * neighbours.length / totalLength : 1;
+        for (final double[] xy : coordinates) {
+            xy[0] *= scale;
+            xy[1] *= scale;
+        }
+
+        return coordinates;
+    }
+
     private enum MatrixType {
 
         ADJACENCY_MATRIX,
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.arrangements.spectral;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.apache.commons.math3.linear.EigenDecomposition;
+
+/**
+ * Finds the eigenvectors with the largest eigenvalues of a large sparse
+ * symmetric matrix using the Lanczos algorithm with full reorthogonalisation
+ * and explicit restarts.
+ * <p>
+ * The matrix is only accessed through matrix-vector products, so memory use is
+ * O(n * steps) for the Krylov basis rather than O(n<sup>2</sup>) for the
+ * matrix. Known eigenvectors, such as the trivial eigenvector of a graph
+ * Laplacian, can be deflated so that the solver only searches the space
+ * orthogonal to them.
+ *
+ * @author twilight_sparkle
+ */
+final class LanczosEigenSolver {
+
+    /**
+     * A symmetric matrix, accessed only through its product with a vector.
+     */
+    @FunctionalInterface
+    interface SymmetricOperator {
+
+        /**
+         * Set {@code result} to this matrix multiplied by {@code vector}.
+         *
+         * @param vector the vector to multiply.
+         * @param result the vector to hold the product.
+         */
+        void multiply(final double[] vector, final double[] result);
+    }
+
+    private static final int MAX_STEPS = 50;
+    private static final int MAX_RESTARTS = 50;
+    private static final double TOLERANCE = 1E-6;
+    private static final double BREAKDOWN = 1E-12;
+
+    // the starting vectors only need to be generic, and a fixed seed means the same graph is always arranged the same way
+    private static final long SEED = 0x5EED;
+
+    private final Random random = new Random(SEED);
+
+    private final SymmetricOperator operator;
+    private final int dimension;
+    private final double[][] initialDeflation;
+    private double[][] deflation;
+
+    private double[] eigenvalues;
+
+    /**
+     * Create a solver for the given matrix.
+     *
+     * @param operator the symmetric matrix.
+     * @param dimension the number of rows and columns of the matrix.
+     * @param deflation known orthonormal eigenvectors to exclude from the
+     * search, which may be empty.
+     */
+    LanczosEigenSolver(final SymmetricOperator operator, final int dimension, final double[][] deflation) {
+        this.operator = operator;
+        this.dimension = dimension;
+        this.initialDeflation = deflation;
+    }
+
+    /**
+     * Find the eigenvectors with the largest eigenvalues, excluding any
+     * deflated eigenvectors.
+     * <p>
+     * A single Lanczos sequence only finds one direction in each eigenspace,
+     * so the eigenvectors are found one at a time, deflating each one before
+     * searching for the next.
+     *
+     * @param count the number of eigenvectors to find.
+     * @return the eigenvectors, in order of decreasing eigenvalue, each
+     * normalised to unit length.
+     */
+    double[][] solve(final int count) {
+        if (count > dimension - initialDeflation.length) {
+            throw new IllegalArgumentException(String.format("Cannot find %d eigenvectors of a %d dimensional space", count, dimension - initialDeflation.length));
+        }
+
+        final double[][] eigenvectors = new double[count][];
+        eigenvalues = new double[count];
+        deflation = initialDeflation;
+        for (int k = 0; k < count; k++) {
+            eigenvectors[k] = solveLargest(k);
+            deflation = Arrays.copyOf(deflation, deflation.length + 1);
+            deflation[deflation.length - 1] = eigenvectors[k];
+        }
+
+        return eigenvectors;
+    }
+
+    private double[] solveLargest(final int index) {
+        final int steps = Math.min(MAX_STEPS, dimension - deflation.length);
+
+        double[] start = randomVector();
+        double[] ritzVector = null;
+        for (int restart = 0; restart <= MAX_RESTARTS; restart++) {
+            final double[][] basis = new double[steps][];
+            final double[] alpha = new double[steps];
+            final double[] beta = new double[steps];
+
+            basis[0] = start;
+            orthogonalise(basis[0], basis, 0);
+            normalise(basis[0]);
+
+            // build the tridiagonal projection of the matrix onto the Krylov space
+            for (int j = 0; j < steps; j++) {
+                final double[] w = new double[dimension];
+                operator.multiply(basis[j], w);
+                alpha[j] = dot(basis[j], w);
+                orthogonalise(w, basis, j + 1);
+                beta[j] = normalise(w);
+                if (j + 1 < steps) {
+                    if (beta[j] < BREAKDOWN) {
+                        // the Krylov space is invariant, so continue with a
+                        // new direction and decouple it in the projection
+                        beta[j] = 0;
+                        basis[j + 1] = randomVector();
+                        orthogonalise(basis[j + 1], basis, j + 1);
+                        normalise(basis[j + 1]);
+                    } else {
+                        basis[j + 1] = w;
+                    }
+                }
+            }
+
+            final EigenDecomposition tridiagonal = new EigenDecomposition(alpha, Arrays.copyOf(beta, steps - 1));
+            final double[] ritzValues = tridiagonal.getRealEigenvalues();
+            int largest = 0;
+            for (int j = 1; j < steps; j++) {
+                if (ritzValues[j] > ritzValues[largest]) {
+                    largest = j;
+                }
+            }
+
+            final double[] coefficients = tridiagonal.getEigenvector(largest).toArray();
+            ritzVector = new double[dimension];
+            for (int j = 0; j < steps; j++) {
+                final double coefficient = coefficients[j];
+                final double[] vector = basis[j];
+                for (int i = 0; i < dimension; i++) {
+                    ritzVector[i] += coefficient * vector[i];
+                }
+            }
+            normalise(ritzVector);
+            eigenvalues[index] = ritzValues[largest];
+
+            // the residual of a Ritz pair is the last off-diagonal times the last coefficient
+            final double residual = Math.abs(beta[steps - 1] * coefficients[steps - 1]);
+            if (residual <= TOLERANCE * Math.max(1, Math.abs(eigenvalues[index]))) {
+                break;
+            }
+
+            // restart from the current best estimate
+            start = ritzVector.clone();
+        }
+
+        return ritzVector;
+    }
+
+    private double[] randomVector() {
+        final double[] vector = new double[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = random.nextDouble() - 0.5;
+        }
+        return vector;
+    }
+
+    /**
+     * The eigenvalues corresponding to the eigenvectors found by the last call
+     * to {@link #solve(int)}.
+     *
+     * @return the eigenvalues in decreasing order.
+     */
+    double[] getEigenvalues() {
+        return eigenvalues;
+    }
+
+    /**
+     * Remove the components of a vector along the deflated eigenvectors and
+     * the first {@code basisSize} basis vectors. This is done twice, which is
+     * enough to keep the basis orthogonal to working precision.
+     */
+    private void orthogonalise(final double[] vector, final double[][] basis, final int basisSize) {
+        for (int pass = 0; pass < 2; pass++) {
+            for (final double[] deflated : deflation) {
+                subtract(vector, deflated, dot(vector, deflated));
+            }
+            for (int j = 0; j < basisSize; j++) {
+                subtract(vector, basis[j], dot(vector, basis[j]));
+            }
+        }
+    }
+
+    private static double dot(final double[] a, final double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static void subtract(final double[] vector, final double[] direction, final double amount) {
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] -= amount * direction[i];
+        }
+    }
+
+    private static double normalise(final double[] vector) {
+        final double norm = Math.sqrt(dot(vector, vector));
+        if (norm >= BREAKDOWN) {
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] /= norm;
+            }
+        }
+        return norm;
+    }
+}
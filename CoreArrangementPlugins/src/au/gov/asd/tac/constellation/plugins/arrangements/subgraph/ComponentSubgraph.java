@@ -29,16 +29,21 @@ import au.gov.asd.tac.constellation.graph.schema.Schema;
 import au.gov.asd.tac.constellation.graph.value.readables.IntReadable;
 import java.util.Arrays;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.IntStream;
 
 /**
  * Subgraph write methods for a connected component
+ * <p>
+ * Each subgraph has its own id, because its vertex positions differ from those
+ * of the underlying graph.
  *
  * @author twilight_sparkle
  */
 public class ComponentSubgraph implements GraphWriteMethods {
 
     protected final GraphWriteMethods proxy;
+    private final String id = UUID.randomUUID().toString();
 
     protected final Set<Integer> includedVertexIDs;
     protected final int[] vertexList;
@@ -252,7 +257,7 @@ public class ComponentSubgraph implements GraphWriteMethods {
 
     @Override
     public String getId() {
-        return proxy.getId();
+        return id;
     }
 
     @Override
@@ -280,6 +285,16 @@ public class ComponentSubgraph implements GraphWriteMethods {
         return proxy.getValueModificationCounter(attribute);
     }
 
+    @Override
+    public long getUndoCounter() {
+        return proxy.getUndoCounter();
+    }
+
+    @Override
+    public int[] getModifiedElements(final int attribute, final long modificationCounter) {
+        return proxy.getModifiedElements(attribute, modificationCounter);
+    }
+
     @Override
     public int getEdgeCapacity() {
         return proxy.getEdgeCapacity();
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.arrangements.proximity;
+
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Barnes-Hut Tree Test.
+ *
+ * @author algol
+ */
+public class BarnesHutTreeNGTest {
+
+    private static final double CONSTANT = 4.0;
+    private static final double EPSILON = 0.000001;
+
+    /**
+     * The force on each point calculated against every other point.
+     */
+    private static double[] exactForces(final double[] coordinates, final int dimensions) {
+        final int pointCount = coordinates.length / dimensions;
+        final double[] forces = new double[coordinates.length];
+        for (int point = 0; point < pointCount; point++) {
+            for (int other = 0; other < pointCount; other++) {
+                if (other == point) {
+                    continue;
+                }
+                double lenDelta = 0;
+                for (int d = 0; d < dimensions; d++) {
+                    final double delta = coordinates[point * dimensions + d] - coordinates[other * dimensions + d];
+                    lenDelta += delta * delta;
+                }
+                lenDelta = Math.max(EPSILON, Math.sqrt(lenDelta));
+                for (int d = 0; d < dimensions; d++) {
+                    forces[point * dimensions + d] += (coordinates[point * dimensions + d] - coordinates[other * dimensions + d]) / lenDelta * CONSTANT / lenDelta;
+                }
+            }
+        }
+        return forces;
+    }
+
+    private static double[] randomCoordinates(final int pointCount, final int dimensions) {
+        final Random random = new Random(42);
+        final double[] coordinates = new double[pointCount * dimensions];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = random.nextDouble() * 100;
+        }
+        return coordinates;
+    }
+
+    private static double[] treeForces(final double[] coordinates, final int dimensions, final double theta) {
+        final BarnesHutTree tree = new BarnesHutTree(coordinates, dimensions);
+        final double[] forces = new double[coordinates.length];
+        final int[] stack = new int[tree.getStackSize()];
+        for (int point = 0; point < coordinates.length / dimensions; point++) {
+            final double[] force = new double[dimensions];
+            tree.repulse(point, theta, CONSTANT, EPSILON, force, stack);
+            System.arraycopy(force, 0, forces, point * dimensions, dimensions);
+        }
+        return forces;
+    }
+
+    /**
+     * The largest error of any force relative to the magnitude of the largest
+     * exact force.
+     */
+    private static double relativeError(final double[] exact, final double[] approximate, final int dimensions) {
+        double maxMagnitude = 0;
+        double maxError = 0;
+        for (int point = 0; point < exact.length / dimensions; point++) {
+            double magnitude = 0;
+            double error = 0;
+            for (int d = 0; d < dimensions; d++) {
+                final double value = exact[point * dimensions + d];
+                magnitude += value * value;
+                error += (value - approximate[point * dimensions + d]) * (value - approximate[point * dimensions + d]);
+            }
+            maxMagnitude = Math.max(maxMagnitude, Math.sqrt(magnitude));
+            maxError = Math.max(maxError, Math.sqrt(error));
+        }
+        return maxError / maxMagnitude;
+    }
+
+    @Test
+    public void testExactForces2D() {
+        final double[] coordinates = randomCoordinates(200, 2);
+        final double[] exact = exactForces(coordinates, 2);
+        final double[] forces = treeForces(coordinates, 2, 0);
+        for (int i = 0; i < exact.length; i++) {
+            assertEquals(forces[i], exact[i], 1E-9);
+        }
+    }
+
+    @Test
+    public void testExactForces3D() {
+        final double[] coordinates = randomCoordinates(200, 3);
+        final double[] exact = exactForces(coordinates, 3);
+        final double[] forces = treeForces(coordinates, 3, 0);
+        for (int i = 0; i < exact.length; i++) {
+            assertEquals(forces[i], exact[i], 1E-9);
+        }
+    }
+
+    @Test
+    public void testApproximateForces() {
+        final double[] coordinates2D = randomCoordinates(2000, 2);
+        assertTrue(relativeError(exactForces(coordinates2D, 2), treeForces(coordinates2D, 2, FR2DArranger.DEFAULT_THETA), 2) < 0.05);
+
+        final double[] coordinates3D = randomCoordinates(2000, 3);
+        assertTrue(relativeError(exactForces(coordinates3D, 3), treeForces(coordinates3D, 3, FR3DArranger.DEFAULT_THETA), 3) < 0.05);
+    }
+
+    @Test
+    public void testCoincidentPoints() {
+        final double[] coordinates = new double[]{1, 1, 1, 1, 1, 1, 5, 5};
+        final double[] exact = exactForces(coordinates, 2);
+        final double[] forces = treeForces(coordinates, 2, FR2DArranger.DEFAULT_THETA);
+        for (int i = 0; i < exact.length; i++) {
+            assertFalse(Double.isNaN(forces[i]));
+            assertEquals(forces[i], exact[i], 1E-9);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.plugins.arrangements.spectral;
+
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+/**
+ * Lanczos Eigen Solver Test.
+ *
+ * @author twilight_sparkle
+ */
+public class LanczosEigenSolverNGTest {
+
+    private static final double TOLERANCE = 1E-6;
+
+    /**
+     * The adjacency matrix of a cycle, where every vertex is joined to the
+     * vertices on either side.
+     */
+    private static LanczosEigenSolver.SymmetricOperator cycle(final int size) {
+        return (vector, result) -> {
+            for (int i = 0; i < size; i++) {
+                result[i] = vector[(i + size - 1) % size] + vector[(i + 1) % size];
+            }
+        };
+    }
+
+    private static double rayleighQuotient(final LanczosEigenSolver.SymmetricOperator operator, final double[] vector) {
+        final double[] product = new double[vector.length];
+        operator.multiply(vector, product);
+        double numerator = 0;
+        double denominator = 0;
+        for (int i = 0; i < vector.length; i++) {
+            numerator += vector[i] * product[i];
+            denominator += vector[i] * vector[i];
+        }
+        return numerator / denominator;
+    }
+
+    @Test
+    public void testSmallCycle() {
+        // small enough that the Krylov space is the whole space
+        final int size = 12;
+        final LanczosEigenSolver solver = new LanczosEigenSolver(cycle(size), size, new double[0][]);
+        final double[][] eigenvectors = solver.solve(3);
+
+        // the eigenvalues of a cycle are 2cos(2 pi k / n)
+        assertEquals(solver.getEigenvalues()[0], 2, TOLERANCE);
+        assertEquals(solver.getEigenvalues()[1], 2 * Math.cos(2 * Math.PI / size), TOLERANCE);
+        assertEquals(solver.getEigenvalues()[2], 2 * Math.cos(2 * Math.PI / size), TOLERANCE);
+        for (int k = 0; k < 3; k++) {
+            assertEquals(rayleighQuotient(cycle(size), eigenvectors[k]), solver.getEigenvalues()[k], TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testRepeatable() {
+        // a cycle has repeated eigenvalues, so the eigenvectors found depend on the starting vectors
+        final int size = 200;
+        final double[][] first = new LanczosEigenSolver(cycle(size), size, new double[0][]).solve(3);
+        final double[][] second = new LanczosEigenSolver(cycle(size), size, new double[0][]).solve(3);
+        for (int k = 0; k < 3; k++) {
+            assertEquals(second[k], first[k]);
+        }
+    }
+
+    @Test
+    public void testDeflatedCycle() {
+        final int size = 200;
+        final double[] trivial = new double[size];
+        for (int i = 0; i < size; i++) {
+            trivial[i] = 1 / Math.sqrt(size);
+        }
+        final LanczosEigenSolver solver = new LanczosEigenSolver(cycle(size), size, new double[][]{trivial});
+        final double[][] eigenvectors = solver.solve(2);
+
+        final double expected = 2 * Math.cos(2 * Math.PI / size);
+        assertEquals(solver.getEigenvalues()[0], expected, TOLERANCE);
+        assertEquals(solver.getEigenvalues()[1], expected, TOLERANCE);
+
+        // the eigenvectors are orthonormal and orthogonal to the deflated vector
+        double dot = 0;
+        double trivialDot = 0;
+        double norm = 0;
+        for (int i = 0; i < size; i++) {
+            dot += eigenvectors[0][i] * eigenvectors[1][i];
+            trivialDot += eigenvectors[0][i] * trivial[i];
+            norm += eigenvectors[0][i] * eigenvectors[0][i];
+        }
+        assertEquals(dot, 0, TOLERANCE);
+        assertEquals(trivialDot, 0, TOLERANCE);
+        assertEquals(norm, 1, TOLERANCE);
+    }
+
+    @Test
+    public void testCompleteGraph() {
+        // every non-trivial eigenvalue of a complete graph is -1, so the
+        // Krylov space is invariant after a single step
+        final int size = 10;
+        final double[] trivial = new double[size];
+        for (int i = 0; i < size; i++) {
+            trivial[i] = 1 / Math.sqrt(size);
+        }
+        final LanczosEigenSolver solver = new LanczosEigenSolver((vector, result) -> {
+            double sum = 0;
+            for (final double value : vector) {
+                sum += value;
+            }
+            for (int i = 0; i < size; i++) {
+                result[i] = sum - vector[i];
+            }
+        }, size, new double[][]{trivial});
+        solver.solve(2);
+        assertEquals(solver.getEigenvalues()[0], -1, TOLERANCE);
+        assertEquals(solver.getEigenvalues()[1], -1, TOLERANCE);
+    }
+}
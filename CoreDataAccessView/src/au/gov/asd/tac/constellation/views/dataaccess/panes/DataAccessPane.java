@@ -44,6 +44,8 @@ import static au.gov.asd.tac.constellation.views.dataaccess.DataAccessPluginType
 import au.gov.asd.tac.constellation.views.dataaccess.io.ParameterIOUtilities;
 import au.gov.asd.tac.constellation.views.dataaccess.state.DataAccessPreferenceKeys;
 import au.gov.asd.tac.constellation.views.dataaccess.templates.DataAccessPreQueryValidation;
+import au.gov.asd.tac.constellation.views.dataaccess.templates.MergedRecordStoreQueryPlugin;
+import au.gov.asd.tac.constellation.views.dataaccess.templates.RecordStoreQueryPlugin;
 import au.gov.asd.tac.constellation.views.qualitycontrol.daemon.QualityControlAutoVetterListener;
 import au.gov.asd.tac.constellation.views.qualitycontrol.widget.QualityControlAutoButton;
 import java.io.File;
@@ -389,7 +391,13 @@ public class DataAccessPane extends AnchorPane implements PluginParametersPaneLi
             manageFavourites();
         });
 
-        optionsMenu.getItems().addAll(loadMenuItem, saveMenuItem, saveResultsItem, deselectPluginsOnExecution);
+        final CheckMenuItem mergePhaseResults = new CheckMenuItem("Merge Phase Results");
+        mergePhaseResults.setSelected(DataAccessPreferenceKeys.isMergePhaseResultsEnabled());
+        mergePhaseResults.setOnAction(event -> {
+            DataAccessPreferenceKeys.setMergePhaseResults(mergePhaseResults.isSelected());
+        });
+
+        optionsMenu.getItems().addAll(loadMenuItem, saveMenuItem, saveResultsItem, deselectPluginsOnExecution, mergePhaseResults);
         final MenuBar menuBar = new MenuBar();
         menuBar.getMenus().add(optionsMenu);
         menuBar.setMinHeight(32);
@@ -966,16 +974,13 @@ public class DataAccessPane extends AnchorPane implements PluginParametersPaneLi
             }
         }
 
-        int pluginsToRun = 0;
-        for (final DataSourceTitledPane pane : pluginPane.getDataAccessPanes()) {
-            if (pane.isQueryEnabled()) {
-                pluginsToRun++;
-            }
-        }
-        LOGGER.log(Level.INFO, "\tRunning {0} plugins", pluginsToRun);
-        final PluginSynchronizer synchroniser = new PluginSynchronizer(pluginsToRun);
-        final List<Future<?>> newAsync = new ArrayList<>(pluginsToRun);
-        currentGraphState.runningPlugins.clear();
+        // Plugins whose results can be merged are run together as a single
+        // plugin so that the graph is only edited and committed once
+        final boolean mergeResults = DataAccessPreferenceKeys.isMergePhaseResultsEnabled();
+        final List<Plugin> plugins = new ArrayList<>();
+        final List<PluginParameters> pluginParameters = new ArrayList<>();
+        final List<RecordStoreQueryPlugin> mergedPlugins = new ArrayList<>();
+        final List<PluginParameters> mergedParameters = new ArrayList<>();
         for (final DataSourceTitledPane pane : pluginPane.getDataAccessPanes()) {
             if (pane.isQueryEnabled()) {
                 final Plugin plugin = PluginRegistry.get(pane.getPlugin().getClass().getName());
@@ -991,15 +996,39 @@ public class DataAccessPane extends AnchorPane implements PluginParametersPaneLi
                         }
                     }
                 }
-                LOGGER.log(Level.INFO, "\t\tRunning {0}", plugin.getName());
-
-                final Future<?> pluginResult = PluginExecution.withPlugin(plugin).withParameters(parameters)
-                        .waitingFor(async).synchronizingOn(synchroniser)
-                        .executeLater(GraphManager.getDefault().getActiveGraph());
-                newAsync.add(pluginResult);
-                currentGraphState.runningPlugins.put(pluginResult, plugin.getName());
+                if (mergeResults && plugin instanceof RecordStoreQueryPlugin && ((RecordStoreQueryPlugin) plugin).canMergeResults()) {
+                    mergedPlugins.add((RecordStoreQueryPlugin) plugin);
+                    mergedParameters.add(parameters);
+                } else {
+                    plugins.add(plugin);
+                    pluginParameters.add(parameters);
+                }
             }
         }
+        if (mergedPlugins.size() == 1) {
+            plugins.add(mergedPlugins.get(0));
+            pluginParameters.add(mergedParameters.get(0));
+        } else if (mergedPlugins.size() > 1) {
+            plugins.add(new MergedRecordStoreQueryPlugin(mergedPlugins, mergedParameters));
+            pluginParameters.add(null);
+        } else {
+            // Do nothing
+        }
+
+        LOGGER.log(Level.INFO, "\tRunning {0} plugins", plugins.size());
+        final PluginSynchronizer synchroniser = new PluginSynchronizer(plugins.size());
+        final List<Future<?>> newAsync = new ArrayList<>(plugins.size());
+        currentGraphState.runningPlugins.clear();
+        for (int i = 0; i < plugins.size(); i++) {
+            final Plugin plugin = plugins.get(i);
+            LOGGER.log(Level.INFO, "\t\tRunning {0}", plugin.getName());
+
+            final Future<?> pluginResult = PluginExecution.withPlugin(plugin).withParameters(pluginParameters.get(i))
+                    .waitingFor(async).synchronizingOn(synchroniser)
+                    .executeLater(GraphManager.getDefault().getActiveGraph());
+            newAsync.add(pluginResult);
+            currentGraphState.runningPlugins.put(pluginResult, plugin.getName());
+        }
         return newAsync;
     }
 
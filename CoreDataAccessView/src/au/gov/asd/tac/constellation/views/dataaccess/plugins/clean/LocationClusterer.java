@@ -0,0 +1,204 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.dataaccess.plugins.clean;
+
+import au.gov.asd.tac.constellation.utilities.geospatial.Distance;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Group locations which are within a distance of each other, either directly
+ * or through a chain of other locations.
+ * <p>
+ * Each location is placed on the unit sphere and indexed by a grid of cubes
+ * whose diagonal is the straight line distance through the sphere matching
+ * the threshold. Every pair of locations in the same cube is within the
+ * threshold, so only locations in nearby cubes need to be compared, and the
+ * clusters are tracked with a union-find.
+ *
+ * @author cygnus_x-1
+ */
+final class LocationClusterer {
+
+    // the distance in kilometers of one degree along a great circle, using the same model of the earth as Distance
+    private static final double KILOMETERS_PER_DEGREE = Distance.Haversine.estimateDistanceInKilometers(0, 0, 0, 1);
+
+    // how many cubes away a location within the threshold can be
+    private static final int REACH = 2;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+    private final int[] parents;
+
+    private LocationClusterer(final double[] latitudes, final double[] longitudes) {
+        final int count = latitudes.length;
+        xs = new double[count];
+        ys = new double[count];
+        zs = new double[count];
+        parents = new int[count];
+        for (int i = 0; i < count; i++) {
+            final double latitude = Math.toRadians(latitudes[i]);
+            final double longitude = Math.toRadians(longitudes[i]);
+            xs[i] = Math.cos(latitude) * Math.cos(longitude);
+            ys[i] = Math.cos(latitude) * Math.sin(longitude);
+            zs[i] = Math.sin(latitude);
+            parents[i] = i;
+        }
+    }
+
+    /**
+     * Assign each location to a cluster of locations which are within the
+     * threshold distance of at least one other location in the cluster.
+     *
+     * @param latitudes the latitude of each location in decimal degrees.
+     * @param longitudes the longitude of each location in decimal degrees.
+     * @param thresholdKilometers the greatest distance between two locations
+     * in the same cluster.
+     * @return the cluster of each location, numbered from 0 in the order the
+     * clusters first appear.
+     */
+    static int[] cluster(final double[] latitudes, final double[] longitudes, final double thresholdKilometers) {
+        final LocationClusterer clusterer = new LocationClusterer(latitudes, longitudes);
+        if (thresholdKilometers > 0) {
+            clusterer.joinNearby(thresholdKilometers);
+        } else {
+            clusterer.joinIdentical(latitudes, longitudes);
+        }
+        return clusterer.getClusters();
+    }
+
+    private void joinNearby(final double thresholdKilometers) {
+        // the straight line distance between two points on the unit sphere which are the threshold apart
+        final double angle = Math.min(Math.toRadians(thresholdKilometers / KILOMETERS_PER_DEGREE), Math.PI);
+        final double chord = 2 * Math.sin(angle / 2);
+        final double chordSquared = chord * chord;
+        final double cubeSize = chord / Math.sqrt(3);
+
+        final Map<Cube, List<Integer>> cubes = new HashMap<>();
+        for (int i = 0; i < parents.length; i++) {
+            final Cube cube = new Cube((long) Math.floor(xs[i] / cubeSize), (long) Math.floor(ys[i] / cubeSize), (long) Math.floor(zs[i] / cubeSize));
+            final List<Integer> members = cubes.computeIfAbsent(cube, k -> new ArrayList<>());
+            if (!members.isEmpty()) {
+                union(members.get(0), i);
+            }
+            members.add(i);
+        }
+
+        // compare each pair of nearby cubes once, stopping at the first pair of locations within the threshold
+        for (final Map.Entry<Cube, List<Integer>> entry : cubes.entrySet()) {
+            final Cube cube = entry.getKey();
+            final List<Integer> members = entry.getValue();
+            for (int dx = 0; dx <= REACH; dx++) {
+                for (int dy = dx == 0 ? 0 : -REACH; dy <= REACH; dy++) {
+                    for (int dz = dx == 0 && dy == 0 ? 1 : -REACH; dz <= REACH; dz++) {
+                        final List<Integer> others = cubes.get(new Cube(cube.x + dx, cube.y + dy, cube.z + dz));
+                        if (others != null && find(members.get(0)) != find(others.get(0))) {
+                            joinFirstWithin(members, others, chordSquared);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void joinFirstWithin(final List<Integer> members, final List<Integer> others, final double chordSquared) {
+        for (final int member : members) {
+            for (final int other : others) {
+                final double dx = xs[member] - xs[other];
+                final double dy = ys[member] - ys[other];
+                final double dz = zs[member] - zs[other];
+                if (dx * dx + dy * dy + dz * dz <= chordSquared) {
+                    union(member, other);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void joinIdentical(final double[] latitudes, final double[] longitudes) {
+        // a cube of no size holds the locations with exactly the same coordinates
+        final Map<Cube, Integer> firstAtLocation = new HashMap<>();
+        for (int i = 0; i < parents.length; i++) {
+            final Cube location = new Cube(Double.doubleToLongBits(latitudes[i]), Double.doubleToLongBits(longitudes[i]), 0);
+            final Integer first = firstAtLocation.putIfAbsent(location, i);
+            if (first != null) {
+                union(first, i);
+            }
+        }
+    }
+
+    private int find(final int location) {
+        int root = location;
+        while (parents[root] != root) {
+            parents[root] = parents[parents[root]];
+            root = parents[root];
+        }
+        return root;
+    }
+
+    private void union(final int location1, final int location2) {
+        final int root1 = find(location1);
+        final int root2 = find(location2);
+        if (root1 != root2) {
+            parents[Math.max(root1, root2)] = Math.min(root1, root2);
+        }
+    }
+
+    private int[] getClusters() {
+        final int[] clusters = new int[parents.length];
+        final Map<Integer, Integer> clusterOfRoot = new HashMap<>();
+        for (int i = 0; i < parents.length; i++) {
+            clusters[i] = clusterOfRoot.computeIfAbsent(find(i), root -> clusterOfRoot.size());
+        }
+        return clusters;
+    }
+
+    /**
+     * The integer coordinates of a cube in the grid.
+     */
+    private static final class Cube {
+
+        private final long x;
+        private final long y;
+        private final long z;
+
+        Cube(final long x, final long y, final long z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(x * 31 * 31 + y * 31 + z);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Cube other = (Cube) obj;
+            return x == other.x && y == other.y && z == other.z;
+        }
+    }
+}
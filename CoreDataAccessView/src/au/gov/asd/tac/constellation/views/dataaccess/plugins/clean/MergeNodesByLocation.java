@@ -23,7 +23,6 @@ import au.gov.asd.tac.constellation.graph.schema.analytic.concept.SpatialConcept
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameter;
 import au.gov.asd.tac.constellation.utilities.datastructure.Tuple;
-import au.gov.asd.tac.constellation.utilities.geospatial.Distance;
 import au.gov.asd.tac.constellation.utilities.geospatial.Shape;
 import au.gov.asd.tac.constellation.utilities.geospatial.Shape.GeometryType;
 import static au.gov.asd.tac.constellation.views.dataaccess.plugins.clean.MergeNodesPlugin.LEAD_PARAMETER_ID;
@@ -33,12 +32,14 @@ import static au.gov.asd.tac.constellation.views.dataaccess.plugins.clean.MergeN
 import static au.gov.asd.tac.constellation.views.dataaccess.plugins.clean.MergeNodesPlugin.THRESHOLD_PARAMETER_ID;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -83,17 +84,13 @@ public class MergeNodesByLocation implements MergeNodeType {
             return nodesToMerge;
         }
 
-        // map the distances between every pair of vertices with valid locations
-        final Map<Integer, Map<Integer, Double>> distanceMap = calculateDistances(graph, null, selectedOnly);
+        final double thresholdKilometers = threshold / 1000.0;
 
-        // assign vertices to clusters based on their distance to other vertices
-        final Map<Integer, Set<Integer>> clusters = assignClusters(distanceMap, threshold);
-
-        // calculate the centroid of each cluster
-        final Map<Integer, Tuple<Float, Float>> centroids = calculateCentroids(graph, clusters);
+        // assign vertices with valid locations to clusters of vertices within the threshold of each other
+        final Map<Integer, Set<Integer>> clusters = assignClusters(graph, getLocatedVertices(graph, selectedOnly), thresholdKilometers);
 
         // merge clusters if their centroids are within the threshold
-        final Map<Integer, Set<Integer>> mergedClusters = mergeClusters(clusters, centroids, threshold);
+        final Map<Integer, Set<Integer>> mergedClusters = mergeClusters(graph, clusters, thresholdKilometers);
 
         // calculate the centroid of each merged cluster
         final Map<Integer, Tuple<Float, Float>> mergedCentroids = calculateCentroids(graph, mergedClusters);
@@ -131,108 +128,38 @@ public class MergeNodesByLocation implements MergeNodeType {
         return nodesToMerge;
     }
 
-    private Map<Integer, Map<Integer, Double>> calculateDistances(final GraphReadMethods graph, final Set<Integer> vertices, final boolean selectedOnly) {
-        final Map<Integer, Map<Integer, Double>> distances = new HashMap<>();
+    private List<Integer> getLocatedVertices(final GraphReadMethods graph, final boolean selectedOnly) {
+        final List<Integer> vertices = new ArrayList<>();
 
         final int latitudeAttribute = SpatialConcept.VertexAttribute.LATITUDE.get(graph);
         final int longitudeAttribute = SpatialConcept.VertexAttribute.LONGITUDE.get(graph);
         final int selectedAttribute = VisualConcept.VertexAttribute.SELECTED.get(graph);
 
-        //if no vertices were provided, get all vertices from the graph
-        final Set<Integer> vertexIds;
-        if (vertices == null) {
-            vertexIds = new HashSet<>();
-            final int vertexCount = graph.getVertexCount();
-            for (int vertexOnePosition = 0; vertexOnePosition < vertexCount; vertexOnePosition++) {
-                final int vertexId = graph.getVertex(vertexOnePosition);
-                vertexIds.add(vertexId);
-            }
-        } else {
-            vertexIds = new HashSet<>(vertices);
-        }
-
-        // for each vertex one...
-        for (int vertexOneId : vertexIds) {
-            final Float vertexOneLatitude = graph.getObjectValue(latitudeAttribute, vertexOneId);
-            final Float vertexOneLongitude = graph.getObjectValue(longitudeAttribute, vertexOneId);
-            final boolean vertexOneSelected = graph.getBooleanValue(selectedAttribute, vertexOneId);
-            // ...if vertex one has a location...
-            if (vertexOneLatitude != null && vertexOneLongitude != null && (!selectedOnly || vertexOneSelected)) {
-                Map<Integer, Double> vertexOneDistances = distances.get(vertexOneId);
-                if (vertexOneDistances == null) {
-                    vertexOneDistances = new HashMap<>();
-                    distances.put(vertexOneId, vertexOneDistances);
-                }
-                // ...for each vertex two...
-                for (int vertexTwoId : vertexIds) {
-                    if (vertexTwoId == vertexOneId) {
-                        continue;
-                    }
-                    final Float vertexTwoLatitude = graph.getObjectValue(latitudeAttribute, vertexTwoId);
-                    final Float vertexTwoLongitude = graph.getObjectValue(longitudeAttribute, vertexTwoId);
-                    final boolean vertexTwoSelected = graph.getBooleanValue(selectedAttribute, vertexTwoId);
-                    // ...if vertex two has a location...
-                    if (vertexTwoLatitude != null && vertexTwoLongitude != null && (!selectedOnly || vertexTwoSelected)) {
-                        // ...calculate the distance between vertex one and vertex two and store it in the distances map
-                        final double distance = Distance.Haversine.estimateDistanceInKilometers(vertexOneLatitude, vertexOneLongitude, vertexTwoLatitude, vertexTwoLongitude);
-                        vertexOneDistances.put(vertexTwoId, distance);
-                    }
-                }
+        final int vertexCount = graph.getVertexCount();
+        for (int vertexPosition = 0; vertexPosition < vertexCount; vertexPosition++) {
+            final int vertexId = graph.getVertex(vertexPosition);
+            final Float vertexLatitude = graph.getObjectValue(latitudeAttribute, vertexId);
+            final Float vertexLongitude = graph.getObjectValue(longitudeAttribute, vertexId);
+            if (vertexLatitude != null && vertexLongitude != null && (!selectedOnly || graph.getBooleanValue(selectedAttribute, vertexId))) {
+                vertices.add(vertexId);
             }
         }
 
-        return distances;
+        return vertices;
     }
 
-    private Map<Integer, Set<Integer>> assignClusters(final Map<Integer, Map<Integer, Double>> distanceMap, final int threshold) {
-        final Map<Integer, Set<Integer>> clusters = new HashMap<>();
-
-        // for each vertex one with a location...
-        int clusterIndex = 0;
-        final Set<Integer> distanceKeys = new HashSet<>(distanceMap.keySet());
-        for (Integer vertexOneId : distanceKeys) {
-            // ...copy the map of distances between vertex one and all vertex two's...
-            if (distanceMap.containsKey(vertexOneId)) {
-                final Map<Integer, Double> vertexOneToVertexTwoDistances = new HashMap<>(distanceMap.get(vertexOneId));
-                if (vertexOneToVertexTwoDistances.size() > 0) {
-                    // ...then for each vertex two...
-                    final Set<Integer> cluster = new HashSet<>();
-                    cluster.add(vertexOneId);
-                    for (final Map.Entry<Integer, Double> entry : vertexOneToVertexTwoDistances.entrySet()) {
-                        final double vertexOneToVertexTwoDistance = entry.getValue();
-                        // ...if vertex two's distance to vertex one meets the threshold requirement...
-                        // ...check that vertex two doesn't have a closer vertex than vertex one...
-                        if (vertexOneToVertexTwoDistance <= (threshold / 1000) && distanceMap.containsKey(entry.getKey())) {
-                            boolean vertexTwoHasCloserVertex = false;
-                            final Map<Integer, Double> vertexTwoToOtherDistances = new HashMap<>(distanceMap.get(entry.getKey()));
-                            if (vertexTwoToOtherDistances.size() > 0) {
-                                for (final Map.Entry<Integer, Double> innerEntry : vertexTwoToOtherDistances.entrySet()) {
-                                    final double vertexTwoToOtherDistance = innerEntry.getValue();
-                                    if (vertexTwoToOtherDistance < vertexOneToVertexTwoDistance) {
-                                        vertexTwoHasCloserVertex = true;
-                                        break;
-                                    }
-                                }
-                                if (vertexTwoHasCloserVertex) {
-                                    // ...if it does, then remove vertex one from vertex two's distance map as it should merge into another local group
-                                    distanceMap.get(vertexOneId).remove(entry.getKey());
-                                    distanceMap.get(entry.getKey()).remove(vertexOneId);
-                                } else {
-                                    // ...if it does not, then remove vertex two's distances map altogether and register vertex two to the current local group
-                                    distanceMap.remove(entry.getKey());
-                                    cluster.add(entry.getKey());
-                                }
-                            }
-                        }
-                    }
+    private Map<Integer, Set<Integer>> assignClusters(final GraphReadMethods graph, final List<Integer> vertices, final double thresholdKilometers) {
+        final int latitudeAttribute = SpatialConcept.VertexAttribute.LATITUDE.get(graph);
+        final int longitudeAttribute = SpatialConcept.VertexAttribute.LONGITUDE.get(graph);
 
-                    // ...and store the calculated cluster in the cluster map
-                    clusters.put(++clusterIndex, cluster);
-                }
-            }
+        final double[] latitudes = new double[vertices.size()];
+        final double[] longitudes = new double[vertices.size()];
+        for (int i = 0; i < vertices.size(); i++) {
+            latitudes[i] = graph.getFloatValue(latitudeAttribute, vertices.get(i));
+            longitudes[i] = graph.getFloatValue(longitudeAttribute, vertices.get(i));
         }
 
-        return clusters;
+        return groupClusters(LocationClusterer.cluster(latitudes, longitudes, thresholdKilometers), vertices, Collections::singleton);
     }
 
     private Map<Integer, Tuple<Float, Float>> calculateCentroids(final GraphReadMethods graph, final Map<Integer, Set<Integer>> clusters) {
@@ -254,54 +181,42 @@ public class MergeNodesByLocation implements MergeNodeType {
         return centroids;
     }
 
-    private Map<Integer, Set<Integer>> mergeClusters(final Map<Integer, Set<Integer>> clusters, final Map<Integer, Tuple<Float, Float>> centroids, final int threshold) {
-        Map<Integer, Set<Integer>> previousClusters = new HashMap<>();
-        Map<Integer, Set<Integer>> mergedClusters = new HashMap<>(clusters);
+    private Map<Integer, Set<Integer>> mergeClusters(final GraphReadMethods graph, final Map<Integer, Set<Integer>> clusters, final double thresholdKilometers) {
+        Map<Integer, Set<Integer>> mergedClusters = clusters;
 
         // while clusters are still merging...
-        while (!previousClusters.equals(mergedClusters)) {
-            previousClusters = new HashMap<>(mergedClusters);
-            mergedClusters.clear();
-
-            // ...calculate the distances between each cluster centroid...
-            final Map<Integer, Map<Integer, Double>> centroidDistanceMap = new HashMap<>();
-            for (int currentIndex : previousClusters.keySet()) {
-                final Map<Integer, Double> currentCentroidDistances = new HashMap<>();
-                final Tuple<Float, Float> currentCentroid = centroids.get(currentIndex);
-                for (int otherIndex : previousClusters.keySet()) {
-                    if (otherIndex == currentIndex) {
-                        continue;
-                    }
-                    final Tuple<Float, Float> otherCentroid = centroids.get(otherIndex);
-                    final double distanceBetweenClusters = Distance.Haversine.estimateDistanceInKilometers(currentCentroid.getFirst(), currentCentroid.getSecond(), otherCentroid.getFirst(), otherCentroid.getSecond());
-                    currentCentroidDistances.put(otherIndex, distanceBetweenClusters);
-                }
-                centroidDistanceMap.put(currentIndex, currentCentroidDistances);
+        while (true) {
+            // ...calculate the centroid of each cluster...
+            final Map<Integer, Tuple<Float, Float>> centroids = calculateCentroids(graph, mergedClusters);
+            final List<Integer> clusterIndices = new ArrayList<>(mergedClusters.keySet());
+            final double[] latitudes = new double[clusterIndices.size()];
+            final double[] longitudes = new double[clusterIndices.size()];
+            for (int i = 0; i < clusterIndices.size(); i++) {
+                latitudes[i] = centroids.get(clusterIndices.get(i)).getFirst();
+                longitudes[i] = centroids.get(clusterIndices.get(i)).getSecond();
             }
 
-            // ...then assign clusters for those centroids...
-            final Map<Integer, Set<Integer>> reassignedClusters = assignClusters(centroidDistanceMap, threshold);
-            if (!reassignedClusters.isEmpty()) {
-                // ...if there are assigned clusters, then merge all the vertices of each corresponding centroid cluster
-                for (final Map.Entry<Integer, Set<Integer>> entry : reassignedClusters.entrySet()) {
-                    final Set<Integer> mergedClusterIndices = entry.getValue();
-                    if (mergedClusterIndices.size() > 1) {
-                        final Set<Integer> mergedCluster = new HashSet<>();
-                        for (int mergedClusterIndex : mergedClusterIndices) {
-                            mergedCluster.addAll(previousClusters.get(mergedClusterIndex));
-                        }
-                        mergedClusters.put(entry.getKey(), mergedCluster);
-                    } else {
-                        mergedClusters.put(entry.getKey(), previousClusters.get(new ArrayList<>(mergedClusterIndices).get(0)));
-                    }
-                }
-            } else {
-                // ...otherwise we are done merging
-                mergedClusters = previousClusters;
-                break;
+            // ...then assign clusters for those centroids, and merge all the vertices of each corresponding centroid cluster
+            final Map<Integer, Set<Integer>> previousClusters = mergedClusters;
+            final Map<Integer, Set<Integer>> reassignedClusters = groupClusters(
+                    LocationClusterer.cluster(latitudes, longitudes, thresholdKilometers), clusterIndices, previousClusters::get);
+            if (reassignedClusters.size() == previousClusters.size()) {
+                // ...until no clusters were merged
+                return previousClusters;
             }
+            mergedClusters = reassignedClusters;
         }
+    }
 
-        return mergedClusters;
+    /**
+     * Collect the vertices of each element into the cluster it was assigned,
+     * numbering the clusters from 1.
+     */
+    private static <T> Map<Integer, Set<Integer>> groupClusters(final int[] assignments, final List<T> elements, final Function<T, Set<Integer>> getVertices) {
+        final Map<Integer, Set<Integer>> clusters = new HashMap<>();
+        for (int i = 0; i < assignments.length; i++) {
+            clusters.computeIfAbsent(assignments[i] + 1, k -> new HashSet<>()).addAll(getVertices.apply(elements.get(i)));
+        }
+        return clusters;
     }
 }
@@ -28,6 +28,7 @@ public final class DataAccessPreferenceKeys {
     private static final String SAVE_DATA_DIR_PREF = "saveDataDir";
     private static final String PREVIOUS_DATA_DIR_PREF = "prevSaveDataDir";
     private static final String DESELECT_PLUGINS_ON_EXECUTE_PREF = "deselectPluginsOnExecute";
+    private static final String MERGE_PHASE_RESULTS_PREF = "mergePhaseResults";
 
     /**
      * Return whether the save results is enabled or not
@@ -138,6 +139,28 @@ public final class DataAccessPreferenceKeys {
         prefs.putBoolean(DESELECT_PLUGINS_ON_EXECUTE_PREF, checkChanged);
     }
 
+    /**
+     * Whether the results of the plugins in each phase should be added to the
+     * graph together in a single edit, rather than by each plugin separately.
+     *
+     * @return The current preference
+     */
+    public static boolean isMergePhaseResultsEnabled() {
+        final Preferences prefs = NbPreferences.forModule(DataAccessPreferenceKeys.class);
+        return prefs.getBoolean(MERGE_PHASE_RESULTS_PREF, false);
+    }
+
+    /**
+     * Set whether the results of the plugins in each phase should be added to
+     * the graph together in a single edit.
+     *
+     * @param mergeResults What the preference has been changed to
+     */
+    public static void setMergePhaseResults(final boolean mergeResults) {
+        final Preferences prefs = NbPreferences.forModule(DataAccessPreferenceKeys.class);
+        prefs.putBoolean(MERGE_PHASE_RESULTS_PREF, mergeResults);
+    }
+
     /**
      * No constructor, all static.
      */
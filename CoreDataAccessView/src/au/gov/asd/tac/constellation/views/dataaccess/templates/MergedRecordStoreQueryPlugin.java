@@ -0,0 +1,141 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.dataaccess.templates;
+
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.processing.GraphRecordStore;
+import au.gov.asd.tac.constellation.graph.processing.RecordStore;
+import au.gov.asd.tac.constellation.plugins.Plugin;
+import au.gov.asd.tac.constellation.plugins.PluginException;
+import au.gov.asd.tac.constellation.plugins.PluginInteraction;
+import au.gov.asd.tac.constellation.plugins.PluginNotificationLevel;
+import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
+import au.gov.asd.tac.constellation.plugins.templates.SimpleQueryPlugin;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a group of {@link RecordStoreQueryPlugin} instances as a single plugin
+ * so that all of their results are added to the graph in one edit.
+ * <p>
+ * The read stage of every plugin is run under the same read lock, and their
+ * query stages are run concurrently. The 'result' RecordStores are then
+ * combined and added to the graph with a single call to
+ * {@link RecordStoreQueryPlugin#addResultToGraph addResultToGraph()}, so the
+ * new vertices are arranged once, with the default completion arrangement, and
+ * the graph is committed once. Running the
+ * plugins separately would take a write lock and commit for each of them, and
+ * each commit is replayed onto the graph and refreshes every view of it.
+ * <p>
+ * If a plugin fails during its query stage, the failure is reported and the
+ * results of the remaining plugins are still added. Only plugins that
+ * {@link RecordStoreQueryPlugin#canMergeResults can merge their results}
+ * should be added to this plugin.
+ *
+ * @author sirius
+ */
+public class MergedRecordStoreQueryPlugin extends SimpleQueryPlugin {
+
+    private static final Logger LOGGER = Logger.getLogger(MergedRecordStoreQueryPlugin.class.getName());
+
+    private static final String THREAD_POOL_NAME = "Merged RecordStore Query Plugin";
+    private static final ExecutorService PLUGIN_EXECUTOR = Executors.newCachedThreadPool();
+
+    private final List<RecordStoreQueryPlugin> plugins;
+    private final List<PluginParameters> pluginParameters;
+    private final List<RecordStoreQueryPlugin> succeededPlugins = new ArrayList<>();
+
+    /**
+     * Create a plugin that runs the specified plugins with their parameters.
+     *
+     * @param plugins the plugins to run.
+     * @param pluginParameters the parameters for each plugin, in the same order
+     * as the plugins.
+     */
+    public MergedRecordStoreQueryPlugin(final List<RecordStoreQueryPlugin> plugins, final List<PluginParameters> pluginParameters) {
+        super(plugins.stream().map(Plugin::getName).collect(Collectors.joining(", ")));
+        if (plugins.size() != pluginParameters.size()) {
+            throw new IllegalArgumentException("Each plugin must have parameters");
+        }
+        this.plugins = new ArrayList<>(plugins);
+        this.pluginParameters = new ArrayList<>(pluginParameters);
+    }
+
+    @Override
+    protected void read(final GraphReadMethods graph, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
+        for (int i = 0; i < plugins.size(); i++) {
+            plugins.get(i).read(graph, interaction, pluginParameters.get(i));
+        }
+    }
+
+    @Override
+    protected void query(final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
+        final List<Future<?>> futures = new ArrayList<>(plugins.size());
+        for (int i = 0; i < plugins.size(); i++) {
+            final RecordStoreQueryPlugin plugin = plugins.get(i);
+            final PluginParameters queryParameters = pluginParameters.get(i);
+            futures.add(PLUGIN_EXECUTOR.submit(() -> {
+                Thread.currentThread().setName(THREAD_POOL_NAME);
+                plugin.query(interaction, queryParameters);
+                return null;
+            }));
+        }
+
+        succeededPlugins.clear();
+        try {
+            for (int i = 0; i < plugins.size(); i++) {
+                try {
+                    futures.get(i).get();
+                    succeededPlugins.add(plugins.get(i));
+                } catch (final ExecutionException ex) {
+                    final Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    LOGGER.log(Level.WARNING, String.format("Query failed: %s", plugins.get(i).getName()), cause);
+                    interaction.notify(PluginNotificationLevel.ERROR, String.format("%s: %s", plugins.get(i).getName(), cause.getMessage()));
+                }
+            }
+        } catch (final InterruptedException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw ex;
+        }
+    }
+
+    @Override
+    protected void edit(final GraphWriteMethods wg, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
+        final RecordStore merged = new GraphRecordStore();
+        for (final RecordStoreQueryPlugin plugin : succeededPlugins) {
+            final RecordStore result = plugin.getResult();
+            for (final RecordStoreValidator validator : plugin.getValidators()) {
+                validator.validatePreEdit(plugin, result, wg, interaction, pluginParameters.get(plugins.indexOf(plugin)));
+            }
+            if (result != null) {
+                merged.add(result);
+            }
+        }
+
+        if (!succeededPlugins.isEmpty() && merged.size() > 0) {
+            RecordStoreQueryPlugin.addResultToGraph(wg, merged, succeededPlugins.get(0), Collections.emptyList());
+        }
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.dataaccess.templates;
+
+import au.gov.asd.tac.constellation.graph.processing.GraphRecordStore;
+import au.gov.asd.tac.constellation.graph.processing.GraphRecordStoreUtilities;
+import au.gov.asd.tac.constellation.graph.processing.RecordStore;
+import au.gov.asd.tac.constellation.plugins.PluginException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A size-bounded cache of the results of {@link RecordStoreQueryPlugin}
+ * queries, held separately for each seed record of the 'query' RecordStore.
+ * <p>
+ * Results are cached against a scope, which identifies the plugin and its
+ * parameters, and the primary key values of a seed. When a query is run, only
+ * the seeds without a cached result are sent to the source, and the cached
+ * rows of the remaining seeds are merged with the fresh results.
+ * <p>
+ * The rows of a fresh result can only be cached if each of them belongs to a
+ * single seed, which is the case when its source vertex has the same primary
+ * key values as the seed. If any row can't be attributed to a seed, the result
+ * is used as is and nothing is cached, since the rows for an individual seed
+ * can't be known.
+ * <p>
+ * The cache holds at most a fixed number of rows, evicting the least recently
+ * used seeds when it is full, and each cached result expires after a fixed
+ * time so that changes at the source are eventually seen.
+ *
+ * @author sirius
+ */
+public final class RecordStoreQueryCache {
+
+    /**
+     * The default maximum number of rows held by the cache.
+     */
+    public static final int DEFAULT_MAX_ROWS = 100000;
+
+    /**
+     * The default time in milliseconds for which a cached result is used.
+     */
+    public static final long DEFAULT_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(10);
+
+    private static final String SOURCE_ID = GraphRecordStoreUtilities.SOURCE + GraphRecordStoreUtilities.ID;
+    private static final String DESTINATION_ID = GraphRecordStoreUtilities.DESTINATION + GraphRecordStoreUtilities.ID;
+    private static final String TRANSACTION_ID = GraphRecordStoreUtilities.TRANSACTION + GraphRecordStoreUtilities.ID;
+
+    private static final RecordStoreQueryCache DEFAULT = new RecordStoreQueryCache(DEFAULT_MAX_ROWS, DEFAULT_TIME_TO_LIVE, System::currentTimeMillis);
+
+    /**
+     * The query stage of a plugin, run on the seeds that have no cached
+     * result.
+     */
+    @FunctionalInterface
+    public interface SourceQuery {
+
+        /**
+         * Query the source for the specified seeds.
+         *
+         * @param seeds the seed records to query.
+         * @return the 'result' RecordStore for the seeds.
+         * @throws InterruptedException if the query is canceled.
+         * @throws PluginException if an anticipated error occurs during the
+         * query.
+         */
+        RecordStore query(final RecordStore seeds) throws InterruptedException, PluginException;
+    }
+
+    private static final class CachedResult {
+
+        private final GraphRecordStore rows;
+        private final boolean[] linkedToSeed;
+        private final long expiry;
+
+        private CachedResult(final GraphRecordStore rows, final boolean[] linkedToSeed, final long expiry) {
+            this.rows = rows;
+            this.linkedToSeed = linkedToSeed;
+            this.expiry = expiry;
+        }
+
+        private int getWeight() {
+            // empty results are cached too, so count them as a row to bound the number of seeds
+            return Math.max(1, rows.size());
+        }
+    }
+
+    private final int maxRows;
+    private final long timeToLive;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<List<String>, CachedResult> results = new LinkedHashMap<>(16, 0.75F, true);
+    private int rowCount = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * Create a new cache.
+     *
+     * @param maxRows the maximum number of rows held by the cache.
+     * @param timeToLive the time in milliseconds for which a cached result is
+     * used.
+     * @param clock the source of the current time in milliseconds.
+     */
+    RecordStoreQueryCache(final int maxRows, final long timeToLive, final LongSupplier clock) {
+        this.maxRows = maxRows;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the cache shared by all {@link RecordStoreQueryPlugin} instances.
+     *
+     * @return the default cache.
+     */
+    public static RecordStoreQueryCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Run a query, using the cached results of any seeds that have them and
+     * querying the source for the rest.
+     *
+     * @param scope identifies the plugin and parameters of the query. Results
+     * are only shared between queries with equal scopes.
+     * @param seeds the 'query' RecordStore.
+     * @param keyNames the names of the primary key attributes of the seed
+     * vertices.
+     * @param source the query stage of the plugin.
+     * @return the 'result' RecordStore for all of the seeds.
+     * @throws InterruptedException if the query is canceled.
+     * @throws PluginException if an anticipated error occurs during the query.
+     */
+    public RecordStore query(final String scope, final RecordStore seeds, final List<String> keyNames, final SourceQuery source) throws InterruptedException, PluginException {
+        if (seeds.size() == 0 || keyNames.isEmpty()) {
+            return source.query(seeds);
+        }
+
+        // find the distinct seeds, and the first record for each of them
+        final Map<List<String>, Integer> seedRecords = new LinkedHashMap<>();
+        for (int record = 0; record < seeds.size(); record++) {
+            final List<String> key = getKey(scope, seeds, record, GraphRecordStoreUtilities.SOURCE, keyNames);
+            if (key == null) {
+                // a seed without a complete key can't be looked up, so the whole query goes to the source
+                return source.query(seeds);
+            }
+            seedRecords.putIfAbsent(key, record);
+        }
+
+        final GraphRecordStore merged = new GraphRecordStore();
+        final List<Integer> uncachedRecords = new ArrayList<>();
+        synchronized (this) {
+            final long now = clock.getAsLong();
+            for (int record = 0; record < seeds.size(); record++) {
+                final List<String> key = getKey(scope, seeds, record, GraphRecordStoreUtilities.SOURCE, keyNames);
+                final CachedResult cachedResult = lookup(key, now);
+                if (cachedResult == null) {
+                    missCount++;
+                    uncachedRecords.add(record);
+                } else {
+                    hitCount++;
+                    if (seedRecords.get(key) == record) {
+                        addCachedRows(merged, cachedResult, seeds.get(record, SOURCE_ID));
+                    }
+                }
+            }
+        }
+
+        if (uncachedRecords.isEmpty()) {
+            return merged;
+        }
+
+        final RecordStore uncachedSeeds = uncachedRecords.size() == seeds.size() ? seeds : copyRecords(seeds, uncachedRecords);
+        uncachedSeeds.reset();
+        final RecordStore fresh = source.query(uncachedSeeds);
+        if (fresh == null) {
+            return merged.size() == 0 ? null : merged;
+        }
+
+        final Map<List<String>, List<Integer>> freshRows = attribute(scope, uncachedSeeds, fresh, keyNames);
+        if (freshRows != null) {
+            synchronized (this) {
+                final long expiry = clock.getAsLong() + timeToLive;
+                for (final Map.Entry<List<String>, List<Integer>> entry : freshRows.entrySet()) {
+                    store(entry.getKey(), fresh, entry.getValue(), expiry);
+                }
+            }
+        }
+
+        if (merged.size() == 0) {
+            return fresh;
+        }
+        merged.add(fresh);
+        return merged;
+    }
+
+    /**
+     * Remove all cached results. The cache statistics are not reset.
+     */
+    public synchronized void clear() {
+        results.clear();
+        rowCount = 0;
+    }
+
+    /**
+     * The number of seeds whose results were found in the cache.
+     *
+     * @return the number of cache hits.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * The number of seeds whose results had to be queried from the source.
+     *
+     * @return the number of cache misses.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * The number of cached results that were removed to make space for newer
+     * results. Expired results are not counted.
+     *
+     * @return the number of evictions.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * The number of rows currently held by the cache.
+     *
+     * @return the number of cached rows.
+     */
+    public synchronized int getRowCount() {
+        return rowCount;
+    }
+
+    private CachedResult lookup(final List<String> key, final long now) {
+        final CachedResult cachedResult = results.get(key);
+        if (cachedResult != null && cachedResult.expiry <= now) {
+            results.remove(key);
+            rowCount -= cachedResult.getWeight();
+            return null;
+        }
+        return cachedResult;
+    }
+
+    private void store(final List<String> key, final RecordStore fresh, final List<Integer> freshRecords, final long expiry) {
+        final GraphRecordStore rows = new GraphRecordStore();
+        final boolean[] linkedToSeed = new boolean[freshRecords.size()];
+        final List<String> columns = getColumns(fresh);
+        for (int i = 0; i < freshRecords.size(); i++) {
+            final int record = freshRecords.get(i);
+            rows.add();
+            for (final String column : columns) {
+                if (SOURCE_ID.equals(column)) {
+                    // the vertex id is only valid for the graph that was queried, so link it to each future seed instead
+                    linkedToSeed[i] = fresh.get(record, column) != null;
+                } else {
+                    final String value = fresh.get(record, column);
+                    if (value != null) {
+                        rows.set(column, value);
+                    }
+                }
+            }
+        }
+
+        final CachedResult cachedResult = new CachedResult(rows, linkedToSeed, expiry);
+        if (cachedResult.getWeight() > maxRows) {
+            return;
+        }
+
+        final CachedResult previous = results.put(key, cachedResult);
+        if (previous != null) {
+            rowCount -= previous.getWeight();
+        }
+        rowCount += cachedResult.getWeight();
+
+        final Iterator<CachedResult> iterator = results.values().iterator();
+        while (rowCount > maxRows) {
+            final CachedResult eldest = iterator.next();
+            iterator.remove();
+            rowCount -= eldest.getWeight();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Assign each row of a fresh result to the seed with the same primary key
+     * values as its source vertex.
+     *
+     * @return the rows of each seed, or null if a row can't be attributed to a
+     * seed or refers to other elements of the graph by id.
+     */
+    private static Map<List<String>, List<Integer>> attribute(final String scope, final RecordStore seeds, final RecordStore fresh, final List<String> keyNames) {
+        final Map<List<String>, List<Integer>> rows = new LinkedHashMap<>();
+        for (int record = 0; record < seeds.size(); record++) {
+            rows.putIfAbsent(getKey(scope, seeds, record, GraphRecordStoreUtilities.SOURCE, keyNames), new ArrayList<>());
+        }
+
+        for (int record = 0; record < fresh.size(); record++) {
+            if (fresh.get(record, DESTINATION_ID) != null || fresh.get(record, TRANSACTION_ID) != null) {
+                return null;
+            }
+            final List<Integer> seedRows = rows.get(getKey(scope, fresh, record, GraphRecordStoreUtilities.SOURCE, keyNames));
+            if (seedRows == null) {
+                return null;
+            }
+            seedRows.add(record);
+        }
+
+        return rows;
+    }
+
+    private static void addCachedRows(final GraphRecordStore merged, final CachedResult cachedResult, final String seedId) {
+        final List<String> columns = cachedResult.rows.keysWithType();
+        for (int record = 0; record < cachedResult.rows.size(); record++) {
+            merged.add();
+            for (final String column : columns) {
+                final String value = cachedResult.rows.get(record, column);
+                if (value != null) {
+                    merged.set(column, value);
+                }
+            }
+            if (cachedResult.linkedToSeed[record] && seedId != null) {
+                merged.set(SOURCE_ID, seedId);
+            }
+        }
+    }
+
+    private static RecordStore copyRecords(final RecordStore recordStore, final List<Integer> records) {
+        final GraphRecordStore copy = new GraphRecordStore();
+        final List<String> columns = getColumns(recordStore);
+        for (final int record : records) {
+            copy.add();
+            for (final String column : columns) {
+                final String value = recordStore.get(record, column);
+                if (value != null) {
+                    copy.set(column, value);
+                }
+            }
+        }
+        return copy;
+    }
+
+    private static List<String> getColumns(final RecordStore recordStore) {
+        return recordStore instanceof GraphRecordStore ? ((GraphRecordStore) recordStore).keysWithType() : recordStore.keys();
+    }
+
+    private static List<String> getKey(final String scope, final RecordStore recordStore, final int record, final String prefix, final List<String> keyNames) {
+        final List<String> key = new ArrayList<>(keyNames.size() + 1);
+        key.add(scope);
+        for (final String keyName : keyNames) {
+            final String value = recordStore.get(record, prefix + keyName);
+            if (value == null) {
+                return null;
+            }
+            key.add(value);
+        }
+        return key;
+    }
+
+    /**
+     * Build a scope from the class of a plugin and the values of its
+     * parameters.
+     *
+     * @param pluginClass the class of the plugin.
+     * @param parameterValues the string values of the parameters that affect
+     * the results of the plugin, by parameter id.
+     * @return a scope for {@link #query query()}.
+     */
+    static String buildScope(final Class<?> pluginClass, final Map<String, String> parameterValues) {
+        final StringBuilder scope = new StringBuilder(pluginClass.getName());
+        new TreeMap<>(parameterValues).forEach((id, value) -> scope.append('\n').append(id).append('=').append(value));
+        return scope.toString();
+    }
+}
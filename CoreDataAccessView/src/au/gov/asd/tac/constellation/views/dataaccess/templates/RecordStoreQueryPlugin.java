@@ -15,13 +15,17 @@
  */
 package au.gov.asd.tac.constellation.views.dataaccess.templates;
 
+import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.interaction.InteractiveGraphPluginRegistry;
+import au.gov.asd.tac.constellation.graph.manager.GraphManager;
+import au.gov.asd.tac.constellation.graph.processing.GraphRecordStore;
 import au.gov.asd.tac.constellation.graph.processing.GraphRecordStoreUtilities;
 import au.gov.asd.tac.constellation.graph.processing.RecordStore;
 import au.gov.asd.tac.constellation.plugins.PluginException;
+import au.gov.asd.tac.constellation.plugins.PluginExecution;
 import au.gov.asd.tac.constellation.plugins.PluginExecutor;
 import au.gov.asd.tac.constellation.plugins.PluginInfo;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
@@ -30,15 +34,23 @@ import au.gov.asd.tac.constellation.plugins.arrangements.AbstractInclusionGraph.
 import au.gov.asd.tac.constellation.plugins.arrangements.ArrangementPluginRegistry;
 import au.gov.asd.tac.constellation.plugins.arrangements.VertexListInclusionGraph;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
+import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleQueryPlugin;
+import au.gov.asd.tac.constellation.views.dataaccess.CoreGlobalParameters;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -72,11 +84,22 @@ public abstract class RecordStoreQueryPlugin extends SimpleQueryPlugin {
 
     protected RecordStore queryRecordStore;
     private RecordStore result = null;
+    private List<String> seedKeyNames = null;
     private final List<RecordStoreValidator> validators;
 
+    private String graphId = null;
+    private boolean writeLockHeld = false;
+    private volatile BlockingQueue<RecordStore> streamedBatches = null;
+    private RecordStore unstreamedBatches = null;
+    private final List<Integer> streamedVertices = new ArrayList<>();
+
     private static final String THREAD_POOL_NAME = "RecordStore Query Plugin";
     private static final ExecutorService PLUGIN_EXECUTOR = Executors.newCachedThreadPool();
 
+    // the number of published batches that can wait to be added to the graph before the query is blocked
+    private static final int STREAMED_BATCH_CAPACITY = 4;
+    private static final long STREAMED_BATCH_POLL_MILLISECONDS = 100;
+
     /**
      * Base constructor for all implementations of RecordStoreQueryPlugin
      */
@@ -104,11 +127,27 @@ public abstract class RecordStoreQueryPlugin extends SimpleQueryPlugin {
         return result;
     }
 
+    @Override
+    public void run(final GraphWriteMethods graph, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
+        // the caller already holds the write lock, so results can't be streamed to the graph
+        writeLockHeld = true;
+        try {
+            super.run(graph, interaction, parameters);
+        } finally {
+            writeLockHeld = false;
+        }
+    }
+
     @Override
     protected void read(final GraphReadMethods graph, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException {
+        graphId = graph.getId();
         switch (getRecordStoreType()) {
             case GraphRecordStoreUtilities.SOURCE:
                 queryRecordStore = GraphRecordStoreUtilities.getSelectedVertices(graph);
+                seedKeyNames = new ArrayList<>();
+                for (final int keyAttribute : graph.getPrimaryKey(GraphElementType.VERTEX)) {
+                    seedKeyNames.add(graph.getAttributeName(keyAttribute));
+                }
                 break;
             case GraphRecordStoreUtilities.TRANSACTION:
                 queryRecordStore = GraphRecordStoreUtilities.getSelectedTransactions(graph);
@@ -124,6 +163,12 @@ public abstract class RecordStoreQueryPlugin extends SimpleQueryPlugin {
     @Override
     protected void query(final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
 
+        // Published batches are only added to the graph as they arrive if this plugin holds no lock on a managed graph
+        final Graph graph = isResultStreamed() && !writeLockHeld && graphId != null ? GraphManager.getDefault().getAllGraphs().get(graphId) : null;
+        streamedBatches = graph != null ? new ArrayBlockingQueue<>(STREAMED_BATCH_CAPACITY) : null;
+        unstreamedBatches = null;
+        streamedVertices.clear();
+
         // Create a Callable to execute the query on a separate thread.
         final Callable<RecordStore> callable = () -> {
             Thread.currentThread().setName(THREAD_POOL_NAME);
@@ -133,7 +178,13 @@ public abstract class RecordStoreQueryPlugin extends SimpleQueryPlugin {
             }
 
             queryRecordStore.reset();
-            final RecordStore rs = query(queryRecordStore, interaction, parameters);
+            final RecordStore rs;
+            if (isResultCacheable() && seedKeyNames != null && streamedBatches == null) {
+                rs = RecordStoreQueryCache.getDefault().query(getResultCacheScope(parameters), queryRecordStore, seedKeyNames,
+                        seeds -> queryAndCollect(seeds, interaction, parameters));
+            } else {
+                rs = queryAndCollect(queryRecordStore, interaction, parameters);
+            }
 
             for (final RecordStoreValidator validator : getValidators()) {
                 validator.validatePostQuery(this, rs, interaction, parameters);
@@ -152,6 +203,9 @@ public abstract class RecordStoreQueryPlugin extends SimpleQueryPlugin {
             // as far as the framework is concerned. However, the rogue thread will continue to run
             // its normal course.
             future = PLUGIN_EXECUTOR.submit(callable);
+            if (graph != null) {
+                addStreamedBatches(graph, future, parameters);
+            }
             result = future.get();
 
             // If the plugin thread is interrupted then attempt to interrupt the query thread. Often the query thread
@@ -176,33 +230,100 @@ public abstract class RecordStoreQueryPlugin extends SimpleQueryPlugin {
         }
     }
 
+    /**
+     * Run the query and collect any batches that were published but not
+     * streamed to the graph into its 'result' RecordStore.
+     */
+    private RecordStore queryAndCollect(final RecordStore query, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
+        final RecordStore rs = query(query, interaction, parameters);
+        synchronized (this) {
+            if (unstreamedBatches == null) {
+                return rs;
+            }
+            final RecordStore collected = unstreamedBatches;
+            unstreamedBatches = null;
+            if (rs != null) {
+                collected.add(rs);
+            }
+            return collected;
+        }
+    }
+
+    /**
+     * Add each published batch to the graph as it arrives, until the query has
+     * finished and every batch has been added.
+     */
+    private void addStreamedBatches(final Graph graph, final Future<RecordStore> future, final PluginParameters parameters) throws InterruptedException, PluginException {
+        final BlockingQueue<RecordStore> batches = streamedBatches;
+        try {
+            while (!future.isDone() || !batches.isEmpty()) {
+                final RecordStore batch = batches.poll(STREAMED_BATCH_POLL_MILLISECONDS, TimeUnit.MILLISECONDS);
+                if (batch != null) {
+                    PluginExecution.withPlugin(new AddBatchToGraphPlugin(this, batch, parameters)).executeNow(graph);
+                }
+            }
+        } catch (final PluginException | RuntimeException ex) {
+            // stop the query, which may be waiting for space in the queue
+            future.cancel(true);
+            throw ex;
+        }
+    }
+
     @Override
     protected void edit(final GraphWriteMethods wg, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
         for (final RecordStoreValidator validator : getValidators()) {
             validator.validatePreEdit(this, result, wg, interaction, parameters);
         }
 
+        if (result != null || !streamedVertices.isEmpty()) {
+            addResultToGraph(wg, result, this, streamedVertices);
+        }
+    }
+
+    /**
+     * Add a 'result' RecordStore to the graph, arrange any new vertices and
+     * reset the view.
+     *
+     * @param wg the graph to add the result to.
+     * @param result the 'result' RecordStore, which may be null if there are
+     * only streamed vertices to arrange.
+     * @param arranger the plugin whose completion arrangement should be used to
+     * arrange the new vertices.
+     * @param streamedVertices vertices already added to the graph by streamed
+     * batches, which are arranged with the new vertices.
+     * @throws InterruptedException if the arrangement is canceled.
+     * @throws PluginException if an error occurs during the arrangement.
+     */
+    static void addResultToGraph(final GraphWriteMethods wg, final RecordStore result, final RecordStoreQueryPlugin arranger, final List<Integer> streamedVertices) throws InterruptedException, PluginException {
+        final List<Integer> newVertices = new ArrayList<>();
+        for (final int vertex : streamedVertices) {
+            // another plugin may have removed the vertex since its batch was added
+            if (wg.vertexExists(vertex)) {
+                newVertices.add(vertex);
+            }
+        }
+
         if (result != null) {
             // TODO: try to see if its worth setting this to init with schema to true - it did cause issues with it sometimes generating vertex # nodes
-            final List<Integer> newVertices = GraphRecordStoreUtilities.addRecordStoreToGraph(wg, result, false, true, null);
+            newVertices.addAll(GraphRecordStoreUtilities.addRecordStoreToGraph(wg, result, false, true, null));
+        }
 
-            wg.validateKey(GraphElementType.VERTEX, true);
-            wg.validateKey(GraphElementType.TRANSACTION, true);
+        wg.validateKey(GraphElementType.VERTEX, true);
+        wg.validateKey(GraphElementType.TRANSACTION, true);
 
-            // Only arrange if there are new vertices, otherwise everything will be arranged.
-            if (!newVertices.isEmpty()) {
-                final PluginExecutor arrangement = completionArrangement();
-                if (arrangement != null) {
-                    // run the arrangement
-                    final VertexListInclusionGraph vlGraph = new VertexListInclusionGraph(wg, Connections.NONE, newVertices);
-                    arrangement.executeNow(vlGraph.getInclusionGraph());
-                    vlGraph.retrieveCoords();
-                }
+        // Only arrange if there are new vertices, otherwise everything will be arranged.
+        if (!newVertices.isEmpty()) {
+            final PluginExecutor arrangement = arranger.completionArrangement();
+            if (arrangement != null) {
+                // run the arrangement
+                final VertexListInclusionGraph vlGraph = new VertexListInclusionGraph(wg, Connections.NONE, newVertices);
+                arrangement.executeNow(vlGraph.getInclusionGraph());
+                vlGraph.retrieveCoords();
             }
-
-            // Reset the view
-            PluginExecutor.startWith(InteractiveGraphPluginRegistry.RESET_VIEW).executeNow(wg);
         }
+
+        // Reset the view
+        PluginExecutor.startWith(InteractiveGraphPluginRegistry.RESET_VIEW).executeNow(wg);
     }
 
     /**
@@ -223,6 +344,122 @@ public abstract class RecordStoreQueryPlugin extends SimpleQueryPlugin {
         return GraphRecordStoreUtilities.SOURCE;
     }
 
+    /**
+     * Whether the 'result' RecordStore of this plugin can be added to the graph
+     * together with the results of other plugins in a single edit, rather than
+     * by this plugin's own write stage.
+     * <p>
+     * The Data Access View can merge the results of all the plugins in a
+     * phase, which is much faster than committing each one separately. This
+     * is not possible for plugins that customise the write stage, and the
+     * merged result is arranged with a single completion arrangement, so by
+     * default this returns false if the plugin overrides
+     * {@link #edit edit()}, {@link #describedEdit describedEdit()} or
+     * {@link #completionArrangement completionArrangement()}.
+     *
+     * @return true if the result of this plugin can be merged with the results
+     * of other plugins.
+     */
+    public boolean canMergeResults() {
+        if (isResultStreamed()) {
+            return false;
+        }
+        for (Class<?> pluginClass = getClass(); pluginClass != RecordStoreQueryPlugin.class; pluginClass = pluginClass.getSuperclass()) {
+            for (final Method method : pluginClass.getDeclaredMethods()) {
+                if ("edit".equals(method.getName()) || "describedEdit".equals(method.getName()) || "completionArrangement".equals(method.getName())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether batches of results published by the query stage with
+     * {@link #publish publish()} are added to the graph as they arrive.
+     * <p>
+     * Each streamed batch is added in its own non-significant edit, so the
+     * first results of a long query appear quickly and the graph is only
+     * locked briefly for each batch. The query stage is blocked while too many
+     * batches are waiting to be added, so a fast query can't fill the heap.
+     * Each batch is only laid out in a simple grid. The 'result' RecordStore
+     * returned by the query stage is added in the usual significant edit,
+     * which runs the {@link #completionArrangement completion arrangement}
+     * once over the vertices of every streamed batch and resets the view.
+     * <p>
+     * Results are only streamed when the plugin is run on a graph without
+     * already holding its write lock; otherwise published batches are simply
+     * added to the 'result' RecordStore. Streamed results are not cached and
+     * can't be merged with the results of other plugins. The default
+     * implementation returns false.
+     *
+     * @return true if published batches should be streamed to the graph.
+     */
+    protected boolean isResultStreamed() {
+        return false;
+    }
+
+    /**
+     * Publish a batch of results from the query stage before it has finished.
+     * <p>
+     * If this plugin {@link #isResultStreamed streams its results}, the batch
+     * is added to the graph while the query continues, and this method blocks
+     * while too many batches are waiting to be added. Otherwise the batch is
+     * added to the graph with the 'result' RecordStore. Either way, the batch
+     * should not be modified after it is published.
+     *
+     * @param batch a RecordStore holding some of the results of the query.
+     * @throws InterruptedException if the query is canceled while waiting to
+     * publish the batch.
+     */
+    protected void publish(final RecordStore batch) throws InterruptedException {
+        final BlockingQueue<RecordStore> batches = streamedBatches;
+        if (batches != null) {
+            batches.put(batch);
+        } else {
+            synchronized (this) {
+                if (unstreamedBatches == null) {
+                    unstreamedBatches = new GraphRecordStore();
+                }
+                unstreamedBatches.add(batch);
+            }
+        }
+    }
+
+    /**
+     * Whether the results of this plugin can be cached in the
+     * {@link RecordStoreQueryCache}, so that repeated queries for the same
+     * seeds and parameters are not sent to the source.
+     * <p>
+     * Plugins should only return true if the results for each seed are
+     * independent of the other seeds, and each result row has the seed as its
+     * source vertex. Only plugins with a record store type of
+     * {@link GraphRecordStoreUtilities#SOURCE} are cached. The default
+     * implementation returns false.
+     *
+     * @return true if the results of this plugin can be cached.
+     */
+    protected boolean isResultCacheable() {
+        return false;
+    }
+
+    /**
+     * Build the scope used to cache the results of this plugin, which consists
+     * of the plugin class and the values of all parameters except the query
+     * name, since that changes with every run.
+     */
+    private String getResultCacheScope(final PluginParameters parameters) {
+        final Map<String, String> parameterValues = new HashMap<>();
+        if (parameters != null) {
+            parameters.getParameters().forEach((id, parameter) -> {
+                if (!CoreGlobalParameters.QUERY_NAME_PARAMETER_ID.equals(id)) {
+                    parameterValues.put(id, parameter.getStringValue());
+                }
+            });
+        }
+        return RecordStoreQueryCache.buildScope(getClass(), parameterValues);
+    }
+
     /**
      * The arrangement to be done after the plugin completes.
      * <p>
@@ -308,4 +545,53 @@ public abstract class RecordStoreQueryPlugin extends SimpleQueryPlugin {
         return Collections.unmodifiableList(validators);
     }
 
+    /**
+     * Adds a batch of results streamed from the query stage of a
+     * RecordStoreQueryPlugin to the graph.
+     */
+    private static class AddBatchToGraphPlugin extends SimpleEditPlugin {
+
+        private final RecordStoreQueryPlugin plugin;
+        private final RecordStore batch;
+        private final PluginParameters queryParameters;
+
+        public AddBatchToGraphPlugin(final RecordStoreQueryPlugin plugin, final RecordStore batch, final PluginParameters queryParameters) {
+            this.plugin = plugin;
+            this.batch = batch;
+            this.queryParameters = queryParameters;
+        }
+
+        @Override
+        public String getName() {
+            return plugin.getName();
+        }
+
+        @Override
+        protected boolean isSignificant() {
+            return false;
+        }
+
+        @Override
+        protected void edit(final GraphWriteMethods graph, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
+            for (final RecordStoreValidator validator : plugin.getValidators()) {
+                validator.validatePostQuery(plugin, batch, interaction, queryParameters);
+                validator.validatePreEdit(plugin, batch, graph, interaction, queryParameters);
+            }
+
+            final List<Integer> newVertices = GraphRecordStoreUtilities.addRecordStoreToGraph(graph, batch, false, true, null);
+
+            graph.validateKey(GraphElementType.VERTEX, true);
+            graph.validateKey(GraphElementType.TRANSACTION, true);
+
+            // lay the batch out in a simple grid so it is visible until the completion arrangement
+            // of the final edit arranges all of the streamed vertices together
+            if (!newVertices.isEmpty()) {
+                final VertexListInclusionGraph vlGraph = new VertexListInclusionGraph(graph, Connections.NONE, newVertices);
+                PluginExecutor.startWith(ArrangementPluginRegistry.GRID_GENERAL).executeNow(vlGraph.getInclusionGraph());
+                vlGraph.retrieveCoords();
+                plugin.streamedVertices.addAll(newVertices);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.dataaccess.plugins.clean;
+
+import au.gov.asd.tac.constellation.utilities.geospatial.Distance;
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+/**
+ * Test the spatially indexed location clusters against comparing every pair
+ * of locations.
+ *
+ * @author cygnus_x-1
+ */
+public class LocationClustererNGTest {
+
+    /**
+     * Find the clusters by comparing the distance between every pair of
+     * locations.
+     */
+    private static int[] clusterEveryPair(final double[] latitudes, final double[] longitudes, final double thresholdKilometers) {
+        final int[] clusters = new int[latitudes.length];
+        for (int i = 0; i < clusters.length; i++) {
+            clusters[i] = i;
+        }
+        for (int i = 0; i < clusters.length; i++) {
+            for (int j = i + 1; j < clusters.length; j++) {
+                if (clusters[i] != clusters[j] && Distance.Haversine.estimateDistanceInKilometers(latitudes[i], longitudes[i], latitudes[j], longitudes[j]) <= thresholdKilometers) {
+                    final int from = Math.max(clusters[i], clusters[j]);
+                    final int to = Math.min(clusters[i], clusters[j]);
+                    for (int k = 0; k < clusters.length; k++) {
+                        if (clusters[k] == from) {
+                            clusters[k] = to;
+                        }
+                    }
+                }
+            }
+        }
+        return clusters;
+    }
+
+    private static void assertSameClusters(final int[] clusters, final int[] expected) {
+        assertEquals(clusters.length, expected.length);
+        for (int i = 0; i < clusters.length; i++) {
+            for (int j = i + 1; j < clusters.length; j++) {
+                assertEquals(clusters[i] == clusters[j], expected[i] == expected[j], String.format("locations %d and %d", i, j));
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesEveryPair() {
+        final Random random = new Random(1);
+        final double[] latitudes = new double[400];
+        final double[] longitudes = new double[400];
+        for (int i = 0; i < latitudes.length; i++) {
+            // crowd the locations around a few places, including the poles and the antimeridian
+            final int place = random.nextInt(4);
+            latitudes[i] = Math.max(-90, Math.min(90, new double[]{-89.5, 0, 35, 89.9}[place] + random.nextGaussian()));
+            longitudes[i] = ((new double[]{0, 179.5, -45, 90}[place] + random.nextGaussian() * 2 + 540) % 360) - 180;
+        }
+
+        for (final double threshold : new double[]{10, 50, 150, 1000, 30000}) {
+            assertSameClusters(LocationClusterer.cluster(latitudes, longitudes, threshold), clusterEveryPair(latitudes, longitudes, threshold));
+        }
+    }
+
+    @Test
+    public void testClusterNumbering() {
+        final double[] latitudes = {10, -20, 10.001, -20, 45};
+        final double[] longitudes = {20, 30, 20, 30, 45};
+
+        assertEquals(LocationClusterer.cluster(latitudes, longitudes, 1), new int[]{0, 1, 0, 1, 2});
+
+        // a threshold of zero only clusters identical locations
+        assertEquals(LocationClusterer.cluster(latitudes, longitudes, 0), new int[]{0, 1, 2, 1, 3});
+    }
+}
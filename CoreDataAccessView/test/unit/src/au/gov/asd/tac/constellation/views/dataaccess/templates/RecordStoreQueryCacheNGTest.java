@@ -0,0 +1,194 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.dataaccess.templates;
+
+import au.gov.asd.tac.constellation.graph.processing.GraphRecordStore;
+import au.gov.asd.tac.constellation.graph.processing.GraphRecordStoreUtilities;
+import au.gov.asd.tac.constellation.graph.processing.RecordStore;
+import au.gov.asd.tac.constellation.plugins.PluginException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import org.testng.annotations.Test;
+
+/**
+ * Test the caching of RecordStoreQueryPlugin results.
+ *
+ * @author sirius
+ */
+public class RecordStoreQueryCacheNGTest {
+
+    private static final List<String> KEY_NAMES = Arrays.asList("Identifier", "Type");
+    private static final String SCOPE = "scope";
+
+    private long time = 0;
+    private final List<String> queried = new ArrayList<>();
+
+    private static RecordStore buildSeeds(final String... identifiers) {
+        final RecordStore seeds = new GraphRecordStore();
+        for (int i = 0; i < identifiers.length; i++) {
+            seeds.add();
+            seeds.set(GraphRecordStoreUtilities.SOURCE + "Identifier", identifiers[i]);
+            seeds.set(GraphRecordStoreUtilities.SOURCE + "Type", "Word");
+            seeds.set(GraphRecordStoreUtilities.SOURCE + GraphRecordStoreUtilities.ID, String.valueOf(i));
+        }
+        return seeds;
+    }
+
+    /**
+     * Return two rows for each seed, with the seed as the source vertex.
+     */
+    private RecordStore enrich(final RecordStore seeds) {
+        final RecordStore result = new GraphRecordStore();
+        for (int i = 0; i < seeds.size(); i++) {
+            final String identifier = seeds.get(i, GraphRecordStoreUtilities.SOURCE + "Identifier");
+            queried.add(identifier);
+            for (int j = 0; j < 2; j++) {
+                result.add();
+                result.set(GraphRecordStoreUtilities.SOURCE + GraphRecordStoreUtilities.ID, seeds.get(i, GraphRecordStoreUtilities.SOURCE + GraphRecordStoreUtilities.ID));
+                result.set(GraphRecordStoreUtilities.SOURCE + "Identifier", identifier);
+                result.set(GraphRecordStoreUtilities.SOURCE + "Type", "Word");
+                result.set(GraphRecordStoreUtilities.DESTINATION + "Identifier", identifier + j);
+                result.set(GraphRecordStoreUtilities.DESTINATION + "Type", "Word");
+            }
+        }
+        return result;
+    }
+
+    private RecordStoreQueryCache buildCache(final int maxRows, final long timeToLive) {
+        time = 0;
+        queried.clear();
+        return new RecordStoreQueryCache(maxRows, timeToLive, () -> time);
+    }
+
+    private static Map<String, Integer> countDestinations(final RecordStore result) {
+        final Map<String, Integer> counts = new HashMap<>();
+        for (final String destination : result.getAll(GraphRecordStoreUtilities.DESTINATION + "Identifier")) {
+            counts.merge(destination, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    public void testOnlyUncachedSeedsQueried() throws InterruptedException, PluginException {
+        final RecordStoreQueryCache cache = buildCache(100, 1000);
+
+        cache.query(SCOPE, buildSeeds("a", "b"), KEY_NAMES, this::enrich);
+        assertEquals(queried, Arrays.asList("a", "b"));
+
+        queried.clear();
+        final RecordStore result = cache.query(SCOPE, buildSeeds("b", "c", "a"), KEY_NAMES, this::enrich);
+        assertEquals(queried, Collections.singletonList("c"));
+        assertEquals(result.size(), 6);
+        assertEquals(countDestinations(result).keySet().size(), 6);
+        assertEquals(cache.getHitCount(), 2);
+        assertEquals(cache.getMissCount(), 3);
+        assertEquals(cache.getRowCount(), 6);
+    }
+
+    @Test
+    public void testScopesAreSeparate() throws InterruptedException, PluginException {
+        final RecordStoreQueryCache cache = buildCache(100, 1000);
+
+        cache.query(SCOPE, buildSeeds("a"), KEY_NAMES, this::enrich);
+        cache.query("other", buildSeeds("a"), KEY_NAMES, this::enrich);
+        assertEquals(queried, Arrays.asList("a", "a"));
+    }
+
+    @Test
+    public void testCachedRowsLinkedToSeed() throws InterruptedException, PluginException {
+        final RecordStoreQueryCache cache = buildCache(100, 1000);
+
+        cache.query(SCOPE, buildSeeds("a"), KEY_NAMES, this::enrich);
+        final RecordStore result = cache.query(SCOPE, buildSeeds("x", "a"), KEY_NAMES, this::enrich);
+
+        // the seed 'a' now has id 1, and its cached rows should refer to it
+        for (int record = 0; record < result.size(); record++) {
+            final String identifier = result.get(record, GraphRecordStoreUtilities.SOURCE + "Identifier");
+            assertEquals(result.get(record, GraphRecordStoreUtilities.SOURCE + GraphRecordStoreUtilities.ID), "a".equals(identifier) ? "1" : "0");
+        }
+    }
+
+    @Test
+    public void testExpiry() throws InterruptedException, PluginException {
+        final RecordStoreQueryCache cache = buildCache(100, 1000);
+
+        cache.query(SCOPE, buildSeeds("a"), KEY_NAMES, this::enrich);
+        time = 999;
+        cache.query(SCOPE, buildSeeds("a"), KEY_NAMES, this::enrich);
+        assertEquals(queried, Collections.singletonList("a"));
+
+        time = 1000;
+        cache.query(SCOPE, buildSeeds("a"), KEY_NAMES, this::enrich);
+        assertEquals(queried, Arrays.asList("a", "a"));
+        assertEquals(cache.getEvictionCount(), 0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws InterruptedException, PluginException {
+        final RecordStoreQueryCache cache = buildCache(4, 1000);
+
+        cache.query(SCOPE, buildSeeds("a"), KEY_NAMES, this::enrich);
+        cache.query(SCOPE, buildSeeds("b"), KEY_NAMES, this::enrich);
+        cache.query(SCOPE, buildSeeds("a"), KEY_NAMES, this::enrich);
+        cache.query(SCOPE, buildSeeds("c"), KEY_NAMES, this::enrich);
+        assertEquals(cache.getEvictionCount(), 1);
+        assertEquals(cache.getRowCount(), 4);
+
+        queried.clear();
+        cache.query(SCOPE, buildSeeds("a", "b"), KEY_NAMES, this::enrich);
+        assertEquals(queried, Collections.singletonList("b"));
+    }
+
+    @Test
+    public void testUnattributedRowsNotCached() throws InterruptedException, PluginException {
+        final RecordStoreQueryCache cache = buildCache(100, 1000);
+
+        final RecordStoreQueryCache.SourceQuery unattributed = seeds -> {
+            final RecordStore result = enrich(seeds);
+            result.add();
+            result.set(GraphRecordStoreUtilities.SOURCE + "Identifier", "unrelated");
+            result.set(GraphRecordStoreUtilities.SOURCE + "Type", "Word");
+            return result;
+        };
+
+        final RecordStore result = cache.query(SCOPE, buildSeeds("a"), KEY_NAMES, unattributed);
+        assertEquals(result.size(), 3);
+        assertEquals(cache.getRowCount(), 0);
+
+        cache.query(SCOPE, buildSeeds("a"), KEY_NAMES, unattributed);
+        assertEquals(queried, Arrays.asList("a", "a"));
+    }
+
+    @Test
+    public void testBuildScope() {
+        final Map<String, String> first = new HashMap<>();
+        first.put("b", "2");
+        first.put("a", "1");
+        final Map<String, String> second = new HashMap<>();
+        second.put("a", "1");
+        second.put("b", "2");
+
+        assertEquals(RecordStoreQueryCache.buildScope(String.class, first), RecordStoreQueryCache.buildScope(String.class, second));
+        second.put("b", "3");
+        assertNotEquals(RecordStoreQueryCache.buildScope(String.class, first), RecordStoreQueryCache.buildScope(String.class, second));
+    }
+}
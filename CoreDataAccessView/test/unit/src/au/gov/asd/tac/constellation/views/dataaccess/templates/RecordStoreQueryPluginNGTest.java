@@ -16,17 +16,21 @@
 package au.gov.asd.tac.constellation.views.dataaccess.templates;
 
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.StoreGraph;
 import au.gov.asd.tac.constellation.graph.processing.GraphRecordStore;
 import au.gov.asd.tac.constellation.graph.processing.GraphRecordStoreUtilities;
 import au.gov.asd.tac.constellation.graph.processing.RecordStore;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
 import au.gov.asd.tac.constellation.plugins.PluginException;
+import au.gov.asd.tac.constellation.plugins.PluginExecutor;
 import au.gov.asd.tac.constellation.plugins.PluginInteraction;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
 import java.util.ArrayList;
 import java.util.List;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
@@ -139,6 +143,36 @@ public class RecordStoreQueryPluginNGTest {
         assertEquals(result, expResult);
     }
 
+    /**
+     * Test of canMergeResults method, of class RecordStoreQueryPlugin.
+     */
+    @Test
+    public void testCanMergeResults() {
+        assertTrue(new RecordStoreQueryPluginMockImpl().canMergeResults());
+        assertFalse(new RecordStoreQueryPluginEditMockImpl().canMergeResults());
+        assertFalse(new RecordStoreQueryPluginStreamedMockImpl().canMergeResults());
+        assertFalse(new RecordStoreQueryPluginArrangementMockImpl().canMergeResults());
+    }
+
+    /**
+     * Test of publish method, of class RecordStoreQueryPlugin, when the
+     * results are not streamed.
+     */
+    @Test
+    public void testPublishWithoutStreaming() {
+        final RecordStoreQueryPlugin instance = new RecordStoreQueryPluginPublishMockImpl();
+        final GraphReadMethods graph = new StoreGraph();
+        try {
+            instance.read(graph, null, null);
+            instance.query(null, null);
+        } catch (InterruptedException | PluginException ex) {
+            fail(ex.getLocalizedMessage());
+        }
+        final RecordStore result = instance.getResult();
+        assertEquals(result.size(), 3);
+        assertEquals(result.getAll(GraphRecordStoreUtilities.SOURCE + VisualConcept.VertexAttribute.LABEL).get(0), "published");
+    }
+
     private class RecordStoreQueryPluginMockImpl extends RecordStoreQueryPlugin {
 
         @Override
@@ -174,6 +208,42 @@ public class RecordStoreQueryPluginNGTest {
 
     }
 
+    private class RecordStoreQueryPluginEditMockImpl extends RecordStoreQueryPluginMockImpl {
+
+        @Override
+        protected void edit(final GraphWriteMethods wg, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
+            // Intentionally left blank
+        }
+    }
+
+    private class RecordStoreQueryPluginStreamedMockImpl extends RecordStoreQueryPluginMockImpl {
+
+        @Override
+        protected boolean isResultStreamed() {
+            return true;
+        }
+    }
+
+    private class RecordStoreQueryPluginArrangementMockImpl extends RecordStoreQueryPluginMockImpl {
+
+        @Override
+        public PluginExecutor completionArrangement() {
+            return null;
+        }
+    }
+
+    private class RecordStoreQueryPluginPublishMockImpl extends RecordStoreQueryPluginMockImpl {
+
+        @Override
+        public RecordStore query(final RecordStore query, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
+            final RecordStore batch = new GraphRecordStore();
+            batch.add();
+            batch.set(GraphRecordStoreUtilities.SOURCE + VisualConcept.VertexAttribute.LABEL, "published");
+            publish(batch);
+            return super.query(query, interaction, parameters);
+        }
+    }
+
     private class RecordStoreValidator1MockImpl extends RecordStoreValidator {
 
     }
@@ -0,0 +1,477 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.io;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.io.AbstractGraphIOProvider;
+import au.gov.asd.tac.constellation.graph.attribute.io.GraphByteReader;
+import au.gov.asd.tac.constellation.graph.locking.DualGraph;
+import au.gov.asd.tac.constellation.graph.schema.SchemaFactory;
+import au.gov.asd.tac.constellation.utilities.datastructure.ImmutableObjectCache;
+import au.gov.asd.tac.constellation.utilities.gui.IoProgress;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingJsonFactory;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read a graph in the binary format written by {@link GraphBinaryWriter}.
+ * <p>
+ * Graphs are normally opened through {@link GraphJsonReader#readGraphZip},
+ * which uses this reader when the zip file contains a
+ * {@link GraphBinaryWriter#GRAPH_ENTRY} entry.
+ *
+ * @author algol
+ */
+public final class GraphBinaryReader {
+
+    private static final Logger LOGGER = Logger.getLogger(GraphBinaryReader.class.getName());
+
+    static final List<GraphElementType> ELEMENT_TYPES_FILE_ORDER = Arrays.asList(GraphElementType.GRAPH, GraphElementType.VERTEX, GraphElementType.TRANSACTION, GraphElementType.META);
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Map<String, AbstractGraphIOProvider> providers;
+    private final GraphByteReader byteReader;
+
+    /**
+     * Construct a new GraphBinaryReader.
+     *
+     * @param providers The IO providers to use for attribute columns written
+     * as JSON, keyed by attribute type name.
+     * @param byteReader The reader holding the ancillary files of the zip
+     * file.
+     */
+    public GraphBinaryReader(final Map<String, AbstractGraphIOProvider> providers, final GraphByteReader byteReader) {
+        this.providers = providers;
+        this.byteReader = byteReader;
+    }
+
+    /**
+     * Read a binary graph into a graph.
+     *
+     * @param name The name of the file being read.
+     * @param in The InputStream to read from.
+     * @param progress A progress indicator.
+     *
+     * @return A new Graph.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws GraphParseException If the content is not a valid binary graph.
+     */
+    public Graph readGraph(final String name, final InputStream in, final IoProgress progress) throws IOException, GraphParseException {
+        final DataInputStream din = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+
+        final int magic = din.readInt();
+        if (magic != GraphBinaryWriter.MAGIC) {
+            throw new GraphParseException(String.format("%s is not a binary graph file", name));
+        }
+
+        final int binaryVersion = din.readInt();
+        if (binaryVersion != GraphBinaryWriter.BINARY_VERSION) {
+            throw new GraphParseException(String.format("Binary version number %d is unknown.", binaryVersion));
+        }
+
+        final int version = din.readInt();
+        if (version < 0 || version > GraphJsonWriter.VERSION) {
+            throw new GraphParseException(String.format("Version number %d is unknown.", version));
+        }
+
+        final Map<String, Integer> versionedItems = new HashMap<>();
+        final int versionedItemCount = din.readInt();
+        for (int i = 0; i < versionedItemCount; i++) {
+            final String versionedItem = readString(din);
+            versionedItems.put(versionedItem, din.readInt());
+        }
+
+        final String schemaFactoryName = readString(din);
+        final long globalModCount = din.readLong();
+        final long structModCount = din.readLong();
+        final long attrModCount = din.readLong();
+
+        final SchemaFactory schemaFactory = GraphJsonReader.getSchemaFactory(schemaFactoryName);
+        final StoreGraph storeGraph = new StoreGraph(schemaFactory.createSchema());
+        GraphJsonReader.configureGraph(storeGraph, versionedItems);
+
+        final ImmutableObjectCache immutableObjectCache = new ImmutableObjectCache();
+        final Map<Integer, Integer> vertexMap = new HashMap<>();
+        final Map<Integer, Integer> transactionMap = new HashMap<>();
+        final Map<Integer, Long> attrValCount = new HashMap<>();
+
+        for (int position = 0; position < ELEMENT_TYPES_FILE_ORDER.size(); position++) {
+            final GraphElementType elementType = ELEMENT_TYPES_FILE_ORDER.get(position);
+            if (progress != null) {
+                progress.progress("Reading " + IoUtilities.getGraphElementTypeString(elementType) + " elements...", 100 * position / ELEMENT_TYPES_FILE_ORDER.size());
+            }
+            readElements(din, storeGraph, elementType, vertexMap, transactionMap, attrValCount, immutableObjectCache);
+        }
+
+        storeGraph.setModificationCounters(globalModCount, structModCount, attrModCount);
+        attrValCount.forEach(storeGraph::setValueModificationCounter);
+
+        GraphJsonReader.updateGraph(storeGraph, versionedItems);
+
+        final Graph graph = new DualGraph(schemaFactory.createSchema(), storeGraph);
+
+        if (progress != null) {
+            progress.finish();
+        }
+
+        LOGGER.log(Level.INFO, "immutableObjectCache={0}", immutableObjectCache);
+
+        return graph;
+    }
+
+    private void readElements(final DataInputStream din, final StoreGraph graph, final GraphElementType elementType,
+            final Map<Integer, Integer> vertexMap, final Map<Integer, Integer> transactionMap, final Map<Integer, Long> attrValCount,
+            final ImmutableObjectCache immutableObjectCache) throws IOException, GraphParseException {
+        final String elementTypeLabel = IoUtilities.getGraphElementTypeString(elementType);
+        final String label = readString(din);
+        if (!elementTypeLabel.equals(label)) {
+            throw new GraphParseException(String.format("Expected '%s' elements, found '%s'", elementTypeLabel, label));
+        }
+
+        // Read the attributes.
+        final int attributeCount = din.readInt();
+        final int[] attrIds = new int[attributeCount];
+        final String[] attrLabels = new String[attributeCount];
+        final String[] attrTypes = new String[attributeCount];
+        final Map<String, Integer> attributes = new HashMap<>();
+        for (int i = 0; i < attributeCount; i++) {
+            attrLabels[i] = readString(din);
+            attrTypes[i] = readString(din);
+            final String attrDesc = readString(din);
+            final Object attrDefault = readDefault(din);
+            final String attributeMergerId = readString(din);
+            final long modCount = din.readLong();
+
+            try {
+                attrIds[i] = graph.addAttribute(elementType, attrTypes[i], attrLabels[i], attrDesc, attrDefault, attributeMergerId);
+                attributes.put(attrLabels[i], attrIds[i]);
+                attrValCount.put(attrIds[i], modCount);
+            } catch (final IllegalArgumentException ex) {
+                // As with the JSON format, unknown META attribute types are skipped rather than failing the whole read.
+                if (elementType != GraphElementType.META) {
+                    throw ex;
+                }
+                attrIds[i] = Graph.NOT_FOUND;
+                LOGGER.warning(String.format("While adding %s attribute: %s", elementType, ex.getMessage()));
+            }
+        }
+
+        // Read the key.
+        final int keyLength = din.readInt();
+        if (keyLength > 0) {
+            final int[] keyAttributes = new int[keyLength];
+            for (int i = 0; i < keyLength; i++) {
+                final String keyLabel = readString(din);
+                if (!attributes.containsKey(keyLabel)) {
+                    throw new GraphParseException(String.format("Key '%s' is not a valid attribute", keyLabel));
+                }
+                keyAttributes[i] = attributes.get(keyLabel);
+            }
+            graph.setPrimaryKey(elementType, keyAttributes);
+        }
+
+        // Read the structure, mapping the ids in the file to ids in the graph.
+        final int[] fileIds = readIntArray(din);
+        final int[] ids = new int[fileIds.length];
+        if (elementType == GraphElementType.VERTEX) {
+            for (int i = 0; i < fileIds.length; i++) {
+                ids[i] = graph.addVertex();
+                vertexMap.put(fileIds[i], ids[i]);
+            }
+        } else if (elementType == GraphElementType.TRANSACTION) {
+            final int[] sources = readInts(din, fileIds.length);
+            final int[] destinations = readInts(din, fileIds.length);
+            for (int i = 0; i < fileIds.length; i++) {
+                final boolean directed = din.readBoolean();
+                ids[i] = graph.addTransaction(vertexMap.get(sources[i]), vertexMap.get(destinations[i]), directed);
+                transactionMap.put(fileIds[i], ids[i]);
+            }
+        } else {
+            // GRAPH and META have a single element with id 0.
+        }
+
+        // Each column is prefixed with its length, so decode them in parallel and apply them to the graph in order.
+        final List<CompletableFuture<Column>> columns = new ArrayList<>(attributeCount);
+        for (int i = 0; i < attributeCount; i++) {
+            final byte[] bytes = new byte[din.readInt()];
+            din.readFully(bytes);
+            if (attrIds[i] == Graph.NOT_FOUND) {
+                columns.add(CompletableFuture.completedFuture(null));
+            } else {
+                final String attrLabel = attrLabels[i];
+                final int count = ids.length;
+                columns.add(CompletableFuture.supplyAsync(() -> {
+                    try (final DataInputStream columnIn = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                        return decodeColumn(columnIn, count, attrLabel);
+                    } catch (final IOException | GraphParseException ex) {
+                        throw new CompletionException(ex);
+                    }
+                }));
+            }
+        }
+        for (int i = 0; i < attributeCount; i++) {
+            final Column column = join(columns.get(i));
+            if (column != null) {
+                applyColumn(column, graph, attrIds[i], attrTypes[i], ids, vertexMap, transactionMap, immutableObjectCache, false);
+            }
+        }
+    }
+
+    private static Column join(final CompletableFuture<Column> column) throws IOException, GraphParseException {
+        try {
+            return column.join();
+        } catch (final CompletionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            } else if (ex.getCause() instanceof GraphParseException) {
+                throw (GraphParseException) ex.getCause();
+            } else {
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * The decoded values of an attribute column. Decoding does not touch the
+     * graph, so columns can be decoded concurrently.
+     */
+    static final class Column {
+
+        private final byte encoding;
+        private final Object values;
+        private final String[] dictionary;
+
+        Column(final byte encoding, final Object values, final String[] dictionary) {
+            this.encoding = encoding;
+            this.values = values;
+            this.dictionary = dictionary;
+        }
+    }
+
+    static Column decodeColumn(final DataInputStream din, final int count, final String attrLabel) throws IOException, GraphParseException {
+        final byte encoding = din.readByte();
+        switch (encoding) {
+            case GraphBinaryWriter.COLUMN_BOOLEAN:
+                final boolean[] booleans = new boolean[count];
+                for (int i = 0; i < count; i++) {
+                    booleans[i] = din.readBoolean();
+                }
+                return new Column(encoding, booleans, null);
+            case GraphBinaryWriter.COLUMN_BYTE:
+                final byte[] bytes = new byte[count];
+                din.readFully(bytes);
+                return new Column(encoding, bytes, null);
+            case GraphBinaryWriter.COLUMN_SHORT:
+                final short[] shorts = new short[count];
+                for (int i = 0; i < count; i++) {
+                    shorts[i] = din.readShort();
+                }
+                return new Column(encoding, shorts, null);
+            case GraphBinaryWriter.COLUMN_INT:
+                return new Column(encoding, readInts(din, count), null);
+            case GraphBinaryWriter.COLUMN_LONG:
+                final long[] longs = new long[count];
+                for (int i = 0; i < count; i++) {
+                    longs[i] = din.readLong();
+                }
+                return new Column(encoding, longs, null);
+            case GraphBinaryWriter.COLUMN_FLOAT:
+                final float[] floats = new float[count];
+                for (int i = 0; i < count; i++) {
+                    floats[i] = din.readFloat();
+                }
+                return new Column(encoding, floats, null);
+            case GraphBinaryWriter.COLUMN_DOUBLE:
+                final double[] doubles = new double[count];
+                for (int i = 0; i < count; i++) {
+                    doubles[i] = din.readDouble();
+                }
+                return new Column(encoding, doubles, null);
+            case GraphBinaryWriter.COLUMN_STRING:
+                final String[] dictionary = new String[din.readInt()];
+                for (int i = 0; i < dictionary.length; i++) {
+                    dictionary[i] = readString(din);
+                }
+                return new Column(encoding, readInts(din, count), dictionary);
+            case GraphBinaryWriter.COLUMN_PROVIDER:
+                final byte[] json = new byte[din.readInt()];
+                din.readFully(json);
+                return new Column(encoding, decodeProviderColumn(json, count, attrLabel), null);
+            default:
+                throw new GraphParseException(String.format("Unknown column encoding %d for attribute '%s'", encoding, attrLabel));
+        }
+    }
+
+    private static JsonNode[] decodeProviderColumn(final byte[] json, final int count, final String attrLabel) throws IOException, GraphParseException {
+        final JsonNode[] nodes = new JsonNode[count];
+        try (final JsonParser jp = new MappingJsonFactory().createParser(json)) {
+            if (jp.nextToken() != JsonToken.START_ARRAY) {
+                throw new GraphParseException(String.format("Expected '%s' START_ARRAY, found '%s'", attrLabel, jp.getCurrentToken()));
+            }
+            for (int i = 0; i < count; i++) {
+                if (jp.nextToken() != JsonToken.START_OBJECT) {
+                    throw new GraphParseException(String.format("Expected '%s' START_OBJECT, found '%s'", attrLabel, jp.getCurrentToken()));
+                }
+                final JsonNode node = jp.readValueAsTree();
+                nodes[i] = node.get(attrLabel);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Apply a decoded column to the elements with the given ids.
+     * <p>
+     * IO providers do not write values that are the same as the default, so
+     * when clearMissing is true, elements without a value in a provider column
+     * are reset to the default rather than left as they are.
+     */
+    void applyColumn(final Column column, final GraphWriteMethods graph, final int attrId, final String attrType, final int[] ids,
+            final Map<Integer, Integer> vertexMap, final Map<Integer, Integer> transactionMap, final ImmutableObjectCache immutableObjectCache,
+            final boolean clearMissing) throws IOException, GraphParseException {
+        switch (column.encoding) {
+            case GraphBinaryWriter.COLUMN_BOOLEAN:
+                final boolean[] booleans = (boolean[]) column.values;
+                for (int i = 0; i < ids.length; i++) {
+                    graph.setBooleanValue(attrId, ids[i], booleans[i]);
+                }
+                break;
+            case GraphBinaryWriter.COLUMN_BYTE:
+                final byte[] bytes = (byte[]) column.values;
+                for (int i = 0; i < ids.length; i++) {
+                    graph.setByteValue(attrId, ids[i], bytes[i]);
+                }
+                break;
+            case GraphBinaryWriter.COLUMN_SHORT:
+                final short[] shorts = (short[]) column.values;
+                for (int i = 0; i < ids.length; i++) {
+                    graph.setShortValue(attrId, ids[i], shorts[i]);
+                }
+                break;
+            case GraphBinaryWriter.COLUMN_INT:
+                final int[] ints = (int[]) column.values;
+                for (int i = 0; i < ids.length; i++) {
+                    graph.setIntValue(attrId, ids[i], ints[i]);
+                }
+                break;
+            case GraphBinaryWriter.COLUMN_LONG:
+                final long[] longs = (long[]) column.values;
+                for (int i = 0; i < ids.length; i++) {
+                    graph.setLongValue(attrId, ids[i], longs[i]);
+                }
+                break;
+            case GraphBinaryWriter.COLUMN_FLOAT:
+                final float[] floats = (float[]) column.values;
+                for (int i = 0; i < ids.length; i++) {
+                    graph.setFloatValue(attrId, ids[i], floats[i]);
+                }
+                break;
+            case GraphBinaryWriter.COLUMN_DOUBLE:
+                final double[] doubles = (double[]) column.values;
+                for (int i = 0; i < ids.length; i++) {
+                    graph.setDoubleValue(attrId, ids[i], doubles[i]);
+                }
+                break;
+            case GraphBinaryWriter.COLUMN_STRING:
+                final String[] dictionary = column.dictionary;
+                for (int i = 0; i < dictionary.length; i++) {
+                    dictionary[i] = immutableObjectCache.deduplicate(dictionary[i]);
+                }
+                final int[] codes = (int[]) column.values;
+                for (int i = 0; i < ids.length; i++) {
+                    graph.setStringValue(attrId, ids[i], codes[i] == -1 ? null : dictionary[codes[i]]);
+                }
+                break;
+            case GraphBinaryWriter.COLUMN_PROVIDER:
+                final AbstractGraphIOProvider ioProvider = providers.get(attrType);
+                if (ioProvider == null) {
+                    throw new GraphParseException("No IO provider found for attribute type: " + attrType);
+                }
+                final JsonNode[] nodes = (JsonNode[]) column.values;
+                for (int i = 0; i < ids.length; i++) {
+                    if (nodes[i] != null) {
+                        ioProvider.readObject(attrId, ids[i], nodes[i], graph, vertexMap, transactionMap, byteReader, immutableObjectCache);
+                    } else if (clearMissing) {
+                        graph.clearValue(attrId, ids[i]);
+                    }
+                }
+                break;
+            default:
+                throw new GraphParseException(String.format("Unknown column encoding %d", column.encoding));
+        }
+    }
+
+    static Object readDefault(final DataInputStream din) throws IOException, GraphParseException {
+        final byte type = din.readByte();
+        switch (type) {
+            case GraphBinaryWriter.DEFAULT_NULL:
+                return null;
+            case GraphBinaryWriter.DEFAULT_NUMBER:
+                return din.readDouble();
+            case GraphBinaryWriter.DEFAULT_BOOLEAN:
+                return din.readBoolean();
+            case GraphBinaryWriter.DEFAULT_STRING:
+                return readString(din);
+            default:
+                throw new GraphParseException(String.format("Unknown default value type %d", type));
+        }
+    }
+
+    static int[] readIntArray(final DataInputStream din) throws IOException {
+        return readInts(din, din.readInt());
+    }
+
+    static int[] readInts(final DataInputStream din, final int length) throws IOException {
+        final int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = din.readInt();
+        }
+        return values;
+    }
+
+    /**
+     * Read a string written by {@link GraphBinaryWriter#writeString}.
+     */
+    static String readString(final DataInputStream din) throws IOException {
+        final int length = din.readInt();
+        if (length == -1) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        din.readFully(bytes);
+        return IoUtilities.decode(bytes);
+    }
+}
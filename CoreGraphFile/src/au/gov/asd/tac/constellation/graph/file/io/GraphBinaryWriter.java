@@ -0,0 +1,488 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.io;
+
+import au.gov.asd.tac.constellation.graph.Attribute;
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphAttribute;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.attribute.BooleanAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.ByteAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.DoubleAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.LongAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.ObjectAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.ShortAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.io.AbstractGraphIOProvider;
+import au.gov.asd.tac.constellation.graph.attribute.io.GraphByteWriter;
+import au.gov.asd.tac.constellation.graph.schema.BareSchemaFactory;
+import au.gov.asd.tac.constellation.graph.schema.Schema;
+import au.gov.asd.tac.constellation.graph.versioning.UpdateProviderManager;
+import au.gov.asd.tac.constellation.utilities.gui.IoProgress;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.openide.util.Cancellable;
+
+/**
+ * Write a graph in a binary, column per attribute format.
+ * <p>
+ * The binary format holds the same information as the JSON format written by
+ * {@link GraphJsonWriter}, but rather than writing each element as an object
+ * it writes the structure of the graph as arrays of ids, followed by one column
+ * of values for each attribute. Primitive attribute types are written as raw
+ * arrays, string attributes are dictionary encoded, and all other attribute
+ * types are written as a block of JSON produced by their
+ * {@link AbstractGraphIOProvider}, so every attribute type that can be saved
+ * as JSON can also be saved in this format.
+ * <p>
+ * The binary graph is written as the {@link #GRAPH_ENTRY} entry of the same
+ * zip container used by the JSON format, and ancillary files written by IO
+ * providers are stored alongside it as before. {@link GraphJsonReader} detects
+ * which format a file uses when it is opened.
+ * <p>
+ * Columns are independent of each other, so they are encoded in parallel on
+ * the common fork-join pool and written to the stream in order as each one
+ * becomes available. Each column is prefixed with its length so that it can
+ * also be decoded in parallel when read.
+ *
+ * @author algol
+ */
+public final class GraphBinaryWriter implements Cancellable {
+
+    /**
+     * The name of the zip entry holding a binary graph.
+     */
+    public static final String GRAPH_ENTRY = "graph.bin";
+
+    /**
+     * The magic number at the start of a binary graph ("CSTB").
+     */
+    public static final int MAGIC = 0x43535442;
+
+    /**
+     * The current binary format version.
+     */
+    public static final int BINARY_VERSION = 1;
+
+    // Column encodings.
+    static final byte COLUMN_BOOLEAN = 1;
+    static final byte COLUMN_BYTE = 2;
+    static final byte COLUMN_SHORT = 3;
+    static final byte COLUMN_INT = 4;
+    static final byte COLUMN_LONG = 5;
+    static final byte COLUMN_FLOAT = 6;
+    static final byte COLUMN_DOUBLE = 7;
+    static final byte COLUMN_STRING = 8;
+    static final byte COLUMN_PROVIDER = 9;
+
+    // Default value encodings.
+    static final byte DEFAULT_NULL = 0;
+    static final byte DEFAULT_NUMBER = 1;
+    static final byte DEFAULT_BOOLEAN = 2;
+    static final byte DEFAULT_STRING = 3;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Map<String, AbstractGraphIOProvider> graphIoProviders;
+    private final GraphByteWriter byteWriter;
+    private IoProgress progress;
+    private int counter;
+    private volatile boolean isCancelled;
+
+    /**
+     * Construct a new GraphBinaryWriter.
+     *
+     * @param graphIoProviders The IO providers to use for attribute types that
+     * are not written as raw columns, keyed by attribute type name.
+     * @param byteWriter The writer that IO providers write ancillary files to.
+     */
+    public GraphBinaryWriter(final Map<String, AbstractGraphIOProvider> graphIoProviders, final GraphByteWriter byteWriter) {
+        this.graphIoProviders = graphIoProviders;
+        this.byteWriter = byteWriter;
+    }
+
+    /**
+     * Serialise a graph in binary format to an OutputStream.
+     * <p>
+     * The OutputStream is flushed but not closed, so it can be an entry in a
+     * zip file. Ancillary files are not written: only the graph is done here.
+     *
+     * @param graph The graph to serialise.
+     * @param out The OutputStream to write to.
+     * @param progress A progress indicator.
+     * @param elementTypes The GraphElementTypes to write the data of. The
+     * attributes of every element type are always written.
+     *
+     * @return True if the user cancelled the write, false otherwise.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public boolean writeGraphToStream(final GraphReadMethods graph, final OutputStream out, final IoProgress progress, final List<GraphElementType> elementTypes) throws IOException {
+        this.progress = progress;
+        counter = 0;
+        isCancelled = false;
+
+        final DataOutputStream dout = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        try {
+            if (progress != null) {
+                progress.start(graph.getVertexCount() + graph.getTransactionCount());
+            }
+
+            dout.writeInt(MAGIC);
+            dout.writeInt(BINARY_VERSION);
+            dout.writeInt(GraphJsonWriter.VERSION);
+
+            final Map<String, Integer> latestVersions = UpdateProviderManager.getLatestVersions();
+            dout.writeInt(latestVersions.size());
+            for (final Entry<String, Integer> itemVersion : latestVersions.entrySet()) {
+                writeString(dout, itemVersion.getKey());
+                dout.writeInt(itemVersion.getValue());
+            }
+
+            final Schema schema = graph.getSchema();
+            writeString(dout, schema == null ? new BareSchemaFactory().getName() : schema.getFactory().getName());
+
+            dout.writeLong(graph.getGlobalModificationCounter());
+            dout.writeLong(graph.getStructureModificationCounter());
+            dout.writeLong(graph.getAttributeModificationCounter());
+
+            for (final GraphElementType elementType : GraphBinaryReader.ELEMENT_TYPES_FILE_ORDER) {
+                if (isCancelled) {
+                    break;
+                }
+                writeElements(dout, graph, elementType, elementTypes.contains(elementType));
+            }
+        } finally {
+            dout.flush();
+
+            if (progress != null) {
+                progress.finish();
+            }
+        }
+
+        return isCancelled;
+    }
+
+    /**
+     * Write the attributes, structure and attribute values of one element type.
+     */
+    private void writeElements(final DataOutputStream dout, final GraphReadMethods graph, final GraphElementType elementType, final boolean writeData) throws IOException {
+        final String elementTypeLabel = IoUtilities.getGraphElementTypeString(elementType);
+
+        if (progress != null) {
+            progress.progress("Writing " + elementTypeLabel + " elements...");
+        }
+
+        final List<Attribute> attrs = new ArrayList<>();
+        for (int position = 0; position < graph.getAttributeCount(elementType); position++) {
+            final Attribute attr = new GraphAttribute(graph, graph.getAttribute(elementType, position));
+
+            // Don't write non-META object types; we don't know what they are.
+            if (!attr.getAttributeType().equals(ObjectAttributeDescription.ATTRIBUTE_NAME) || elementType == GraphElementType.META) {
+                attrs.add(attr);
+            }
+        }
+
+        writeString(dout, elementTypeLabel);
+
+        // Write the attributes.
+        dout.writeInt(attrs.size());
+        for (final Attribute attr : attrs) {
+            writeString(dout, attr.getName());
+            writeString(dout, attr.getAttributeType());
+            writeString(dout, attr.getDescription());
+            writeDefault(dout, attr);
+            writeString(dout, attr.getAttributeMerger() == null ? null : attr.getAttributeMerger().getId());
+            dout.writeLong(graph.getValueModificationCounter(attr.getId()));
+        }
+
+        // Write the labels of the key attributes.
+        final int[] key = elementType == GraphElementType.VERTEX || elementType == GraphElementType.TRANSACTION ? graph.getPrimaryKey(elementType) : new int[0];
+        dout.writeInt(key.length);
+        for (final int keyAttribute : key) {
+            writeString(dout, graph.getAttributeName(keyAttribute));
+        }
+
+        // Write the structure.
+        final int[] ids;
+        if (!writeData) {
+            ids = new int[0];
+            dout.writeInt(0);
+        } else if (elementType == GraphElementType.VERTEX) {
+            ids = new int[graph.getVertexCount()];
+            for (int position = 0; position < ids.length; position++) {
+                ids[position] = graph.getVertex(position);
+            }
+            writeIntArray(dout, ids);
+        } else if (elementType == GraphElementType.TRANSACTION) {
+            ids = new int[graph.getTransactionCount()];
+            for (int position = 0; position < ids.length; position++) {
+                ids[position] = graph.getTransaction(position);
+            }
+            writeIntArray(dout, ids);
+            for (final int txId : ids) {
+                dout.writeInt(graph.getTransactionSourceVertex(txId));
+            }
+            for (final int txId : ids) {
+                dout.writeInt(graph.getTransactionDestinationVertex(txId));
+            }
+            for (final int txId : ids) {
+                dout.writeBoolean(graph.getTransactionDirection(txId) != Graph.UNDIRECTED);
+            }
+        } else {
+            ids = new int[]{0};
+            writeIntArray(dout, ids);
+        }
+
+        // Encode the attribute columns in parallel, writing each one as soon as it and the columns before it are ready.
+        final List<CompletableFuture<byte[]>> columns = new ArrayList<>(attrs.size());
+        for (final Attribute attr : attrs) {
+            columns.add(CompletableFuture.supplyAsync(() -> encodeColumn(graph, attr, ids)));
+        }
+        try {
+            for (final CompletableFuture<byte[]> column : columns) {
+                if (isCancelled) {
+                    return;
+                }
+                final byte[] bytes = join(column);
+                dout.writeInt(bytes.length);
+                dout.write(bytes);
+
+                if (elementType == GraphElementType.VERTEX || elementType == GraphElementType.TRANSACTION) {
+                    counter += ids.length / Math.max(1, attrs.size());
+                    if (progress != null) {
+                        progress.progress(counter);
+                    }
+                }
+            }
+        } finally {
+            columns.forEach(column -> column.cancel(false));
+        }
+    }
+
+    private static byte[] join(final CompletableFuture<byte[]> column) throws IOException {
+        try {
+            return column.join();
+        } catch (final CompletionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Encode the column of values of an attribute. This only reads from the
+     * graph, so columns can be encoded concurrently.
+     */
+    private byte[] encodeColumn(final GraphReadMethods graph, final Attribute attr, final int[] ids) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream dout = new DataOutputStream(bytes)) {
+            writeColumn(dout, graph, attr, ids, false);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Write the encoding of a column followed by its values.
+     * <p>
+     * If verbose is true, IO providers write every value rather than only the
+     * values that differ from the default, so that the column can be applied
+     * to elements that already have a value.
+     */
+    void writeColumn(final DataOutputStream dout, final GraphReadMethods graph, final Attribute attr, final int[] ids, final boolean verbose) throws IOException {
+        final int attrId = attr.getId();
+        switch (attr.getAttributeType()) {
+            case BooleanAttributeDescription.ATTRIBUTE_NAME:
+                dout.writeByte(COLUMN_BOOLEAN);
+                for (final int id : ids) {
+                    dout.writeBoolean(graph.getBooleanValue(attrId, id));
+                }
+                break;
+            case ByteAttributeDescription.ATTRIBUTE_NAME:
+                dout.writeByte(COLUMN_BYTE);
+                for (final int id : ids) {
+                    dout.writeByte(graph.getByteValue(attrId, id));
+                }
+                break;
+            case ShortAttributeDescription.ATTRIBUTE_NAME:
+                dout.writeByte(COLUMN_SHORT);
+                for (final int id : ids) {
+                    dout.writeShort(graph.getShortValue(attrId, id));
+                }
+                break;
+            case IntegerAttributeDescription.ATTRIBUTE_NAME:
+                dout.writeByte(COLUMN_INT);
+                for (final int id : ids) {
+                    dout.writeInt(graph.getIntValue(attrId, id));
+                }
+                break;
+            case LongAttributeDescription.ATTRIBUTE_NAME:
+                dout.writeByte(COLUMN_LONG);
+                for (final int id : ids) {
+                    dout.writeLong(graph.getLongValue(attrId, id));
+                }
+                break;
+            case FloatAttributeDescription.ATTRIBUTE_NAME:
+                dout.writeByte(COLUMN_FLOAT);
+                for (final int id : ids) {
+                    dout.writeFloat(graph.getFloatValue(attrId, id));
+                }
+                break;
+            case DoubleAttributeDescription.ATTRIBUTE_NAME:
+                dout.writeByte(COLUMN_DOUBLE);
+                for (final int id : ids) {
+                    dout.writeDouble(graph.getDoubleValue(attrId, id));
+                }
+                break;
+            case StringAttributeDescription.ATTRIBUTE_NAME:
+                writeStringColumn(dout, graph, attrId, ids);
+                break;
+            default:
+                writeProviderColumn(dout, graph, attr, ids, verbose);
+                break;
+        }
+    }
+
+    /**
+     * Write a string column as a dictionary of distinct values followed by the
+     * dictionary index of each value, where -1 represents null.
+     */
+    private static void writeStringColumn(final DataOutputStream dout, final GraphReadMethods graph, final int attrId, final int[] ids) throws IOException {
+        final Map<String, Integer> dictionary = new HashMap<>();
+        final List<String> values = new ArrayList<>();
+        final int[] codes = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            final String value = graph.getStringValue(attrId, ids[i]);
+            if (value == null) {
+                codes[i] = -1;
+            } else {
+                Integer code = dictionary.get(value);
+                if (code == null) {
+                    code = values.size();
+                    dictionary.put(value, code);
+                    values.add(value);
+                }
+                codes[i] = code;
+            }
+        }
+
+        dout.writeByte(COLUMN_STRING);
+        dout.writeInt(values.size());
+        for (final String value : values) {
+            writeString(dout, value);
+        }
+        for (final int code : codes) {
+            dout.writeInt(code);
+        }
+    }
+
+    /**
+     * Write a column using the IO provider for the attribute type. The column
+     * is a length prefixed JSON array with one object per element, holding
+     * whatever the IO provider writes for that element.
+     */
+    private void writeProviderColumn(final DataOutputStream dout, final GraphReadMethods graph, final Attribute attr, final int[] ids, final boolean verbose) throws IOException {
+        final AbstractGraphIOProvider ioProvider = graphIoProviders.get(attr.getAttributeType());
+        if (ioProvider == null) {
+            throw new IOException("No IO provider found for attribute type: " + attr.getAttributeType());
+        }
+
+        final ByteArrayOutputStream json = new ByteArrayOutputStream();
+        try (final JsonGenerator jg = new JsonFactory().createGenerator(json, JsonEncoding.UTF8)) {
+            jg.writeStartArray();
+            for (final int id : ids) {
+                jg.writeStartObject();
+                ioProvider.writeObject(attr, id, jg, graph, byteWriter, verbose);
+                jg.writeEndObject();
+            }
+            jg.writeEndArray();
+        }
+
+        dout.writeByte(COLUMN_PROVIDER);
+        dout.writeInt(json.size());
+        json.writeTo(dout);
+    }
+
+    /**
+     * Write the default value of an attribute, using the same representation
+     * as {@link GraphJsonWriter}.
+     */
+    static void writeDefault(final DataOutputStream dout, final Attribute attr) throws IOException {
+        final Object defaultValue = attr.getDefaultValue();
+        final String type = attr.getAttributeType();
+        if (defaultValue == null) {
+            dout.writeByte(DEFAULT_NULL);
+        } else if (type.equals(IntegerAttributeDescription.ATTRIBUTE_NAME) || type.equals(FloatAttributeDescription.ATTRIBUTE_NAME)) {
+            dout.writeByte(DEFAULT_NUMBER);
+            dout.writeDouble(((Number) defaultValue).doubleValue());
+        } else if (type.equals(BooleanAttributeDescription.ATTRIBUTE_NAME)) {
+            dout.writeByte(DEFAULT_BOOLEAN);
+            dout.writeBoolean((Boolean) defaultValue);
+        } else {
+            dout.writeByte(DEFAULT_STRING);
+            writeString(dout, defaultValue.toString());
+        }
+    }
+
+    static void writeIntArray(final DataOutputStream dout, final int[] values) throws IOException {
+        dout.writeInt(values.length);
+        for (final int value : values) {
+            dout.writeInt(value);
+        }
+    }
+
+    /**
+     * Write a string as its UTF-8 length followed by its UTF-8 bytes, where a
+     * length of -1 represents null. Unlike {@link DataOutputStream#writeUTF},
+     * this has no limit on the length of the string.
+     */
+    static void writeString(final DataOutputStream dout, final String value) throws IOException {
+        if (value == null) {
+            dout.writeInt(-1);
+        } else {
+            final byte[] bytes = IoUtilities.encode(value);
+            dout.writeInt(bytes.length);
+            dout.write(bytes);
+        }
+    }
+
+    @Override
+    public boolean cancel() {
+        isCancelled = true;
+
+        return true;
+    }
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.io;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.attribute.io.AbstractGraphIOProvider;
+import au.gov.asd.tac.constellation.graph.attribute.io.GraphByteReader;
+import au.gov.asd.tac.constellation.utilities.datastructure.ImmutableObjectCache;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Replay a journal written by {@link GraphJournalWriter} onto the snapshot it
+ * belongs to.
+ * <p>
+ * The snapshot is read as usual using {@link GraphJsonReader}, which adds the
+ * vertices and transactions to the new graph in the order they were written.
+ * The journal header records the ids of those elements in the same order, so
+ * the ids used by the journal can be mapped to the ids in the new graph.
+ *
+ * @author algol
+ */
+public final class GraphJournalReader {
+
+    private static final Logger LOGGER = Logger.getLogger(GraphJournalReader.class.getName());
+
+    private final Map<String, AbstractGraphIOProvider> providers = new HashMap<>();
+
+    /**
+     * Construct a new GraphJournalReader.
+     */
+    public GraphJournalReader() {
+        for (final AbstractGraphIOProvider agiop : AbstractGraphIOProvider.getProviders()) {
+            providers.put(agiop.getName(), agiop);
+        }
+    }
+
+    /**
+     * Replay a journal onto the graph read from its snapshot.
+     * <p>
+     * A record that was only partly written when the journal was last
+     * appended to is ignored.
+     *
+     * @param journalFile The journal file.
+     * @param graph The graph read from the snapshot that the journal belongs
+     * to.
+     *
+     * @return The number of records that were replayed.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws GraphParseException If the journal is not valid, or does not
+     * belong to the graph.
+     */
+    public int replay(final File journalFile, final GraphWriteMethods graph) throws IOException, GraphParseException {
+        try (final DataInputStream din = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+            if (din.readInt() != GraphJournalWriter.MAGIC) {
+                throw new GraphParseException(String.format("%s is not a graph journal", journalFile.getName()));
+            }
+
+            final int journalVersion = din.readInt();
+            if (journalVersion < 1 || journalVersion > GraphJournalWriter.JOURNAL_VERSION) {
+                throw new GraphParseException(String.format("Journal version number %d is unknown.", journalVersion));
+            }
+
+            final ElementMap vertices = new ElementMap();
+            final ElementMap transactions = new ElementMap();
+            final int[] snapshotVertices = GraphBinaryReader.readIntArray(din);
+            final long[] snapshotVertexUids = readLongs(din, snapshotVertices.length);
+            final int[] snapshotTransactions = GraphBinaryReader.readIntArray(din);
+            final long[] snapshotTransactionUids = readLongs(din, snapshotTransactions.length);
+            if (snapshotVertices.length != graph.getVertexCount() || snapshotTransactions.length != graph.getTransactionCount()) {
+                throw new GraphParseException(String.format("%s does not belong to this graph", journalFile.getName()));
+            }
+            for (int position = 0; position < snapshotVertices.length; position++) {
+                vertices.put(snapshotVertices[position], snapshotVertexUids[position], graph.getVertex(position));
+            }
+            for (int position = 0; position < snapshotTransactions.length; position++) {
+                transactions.put(snapshotTransactions[position], snapshotTransactionUids[position], graph.getTransaction(position));
+            }
+
+            final ImmutableObjectCache immutableObjectCache = new ImmutableObjectCache();
+            int recordCount = 0;
+            while (true) {
+                final byte[] record;
+                try {
+                    record = new byte[din.readInt()];
+                    din.readFully(record);
+                } catch (final EOFException ex) {
+                    // Either the end of the journal, or a record that wasn't completely written.
+                    break;
+                }
+
+                try (final DataInputStream recordIn = new DataInputStream(new ByteArrayInputStream(record))) {
+                    replayRecord(recordIn, graph, vertices, transactions, immutableObjectCache);
+                }
+                recordCount++;
+            }
+
+            LOGGER.log(Level.INFO, "Replayed {0} journal records from {1}", new Object[]{recordCount, journalFile});
+
+            return recordCount;
+        }
+    }
+
+    private void replayRecord(final DataInputStream din, final GraphWriteMethods graph, final ElementMap vertices,
+            final ElementMap transactions, final ImmutableObjectCache immutableObjectCache) throws IOException, GraphParseException {
+        final byte[] zipBytes = new byte[din.readInt()];
+        din.readFully(zipBytes);
+        final GraphByteReader byteReader = zipBytes.length == 0 ? null : new GraphByteReader(new ByteArrayInputStream(zipBytes));
+        final GraphBinaryReader columnReader = new GraphBinaryReader(providers, byteReader);
+
+        for (final GraphElementType elementType : GraphBinaryReader.ELEMENT_TYPES_FILE_ORDER) {
+            replayElements(din, columnReader, graph, elementType, vertices, transactions, immutableObjectCache);
+        }
+    }
+
+    private static void replayElements(final DataInputStream din, final GraphBinaryReader columnReader, final GraphWriteMethods graph,
+            final GraphElementType elementType, final ElementMap vertices, final ElementMap transactions,
+            final ImmutableObjectCache immutableObjectCache) throws IOException, GraphParseException {
+        final String elementTypeLabel = IoUtilities.getGraphElementTypeString(elementType);
+        final String label = GraphBinaryReader.readString(din);
+        if (!elementTypeLabel.equals(label)) {
+            throw new GraphParseException(String.format("Expected '%s' elements, found '%s'", elementTypeLabel, label));
+        }
+
+        // Add new attributes and remove the ones that no longer exist.
+        if (din.readBoolean()) {
+            final int attributeCount = din.readInt();
+            final Set<String> attrLabels = new HashSet<>();
+            for (int i = 0; i < attributeCount; i++) {
+                final String attrLabel = GraphBinaryReader.readString(din);
+                final String attrType = GraphBinaryReader.readString(din);
+                final String attrDesc = GraphBinaryReader.readString(din);
+                final Object attrDefault = GraphBinaryReader.readDefault(din);
+                final String attributeMergerId = GraphBinaryReader.readString(din);
+                attrLabels.add(attrLabel);
+
+                int attrId = graph.getAttribute(elementType, attrLabel);
+                if (attrId != Graph.NOT_FOUND && !graph.getAttributeType(attrId).equals(attrType)) {
+                    graph.removeAttribute(attrId);
+                    attrId = Graph.NOT_FOUND;
+                }
+                if (attrId == Graph.NOT_FOUND) {
+                    try {
+                        graph.addAttribute(elementType, attrType, attrLabel, attrDesc, attrDefault, attributeMergerId);
+                    } catch (final IllegalArgumentException ex) {
+                        // As when reading the snapshot, unknown META attribute types are skipped.
+                        if (elementType != GraphElementType.META) {
+                            throw ex;
+                        }
+                        LOGGER.warning(String.format("While adding %s attribute: %s", elementType, ex.getMessage()));
+                    }
+                }
+            }
+
+            for (int position = graph.getAttributeCount(elementType) - 1; position >= 0; position--) {
+                final int attrId = graph.getAttribute(elementType, position);
+                if (!attrLabels.contains(graph.getAttributeName(attrId))) {
+                    graph.removeAttribute(attrId);
+                }
+            }
+
+            final int keyLength = din.readInt();
+            final int[] keyAttributes = new int[keyLength];
+            for (int i = 0; i < keyLength; i++) {
+                final String keyLabel = GraphBinaryReader.readString(din);
+                keyAttributes[i] = graph.getAttribute(elementType, keyLabel);
+                if (keyAttributes[i] == Graph.NOT_FOUND) {
+                    throw new GraphParseException(String.format("Key '%s' is not a valid attribute", keyLabel));
+                }
+            }
+            if (elementType == GraphElementType.VERTEX || elementType == GraphElementType.TRANSACTION) {
+                graph.setPrimaryKey(elementType, keyAttributes);
+            }
+        }
+
+        // Bring the structure up to date, mapping the elements in the journal to ids in the graph.
+        final boolean structureChanged = din.readBoolean();
+        final int[] ids;
+        if (din.readBoolean()) {
+            final int[] fileIds = GraphBinaryReader.readIntArray(din);
+            final long[] uids = readLongs(din, fileIds.length);
+            if (elementType == GraphElementType.VERTEX) {
+                if (structureChanged) {
+                    replayVertices(graph, fileIds, uids, vertices);
+                }
+                ids = vertices.update(fileIds, uids);
+            } else {
+                if (structureChanged) {
+                    final long[] sources = readLongs(din, fileIds.length);
+                    final long[] destinations = readLongs(din, fileIds.length);
+                    final boolean[] directed = new boolean[fileIds.length];
+                    for (int i = 0; i < fileIds.length; i++) {
+                        directed[i] = din.readBoolean();
+                    }
+                    replayTransactions(graph, fileIds, uids, sources, destinations, directed, vertices, transactions);
+                }
+                ids = transactions.update(fileIds, uids);
+            }
+        } else {
+            // GRAPH and META have a single element with id 0.
+            ids = new int[]{0};
+        }
+
+        // Replace the values of the attributes that have changed.
+        final int columnCount = din.readInt();
+        for (int i = 0; i < columnCount; i++) {
+            final String attrLabel = GraphBinaryReader.readString(din);
+            final String attrType = GraphBinaryReader.readString(din);
+
+            // A column may only hold the values of the elements that were modified.
+            final int[] columnIds;
+            if (din.readBoolean()) {
+                final int[] fileIds = GraphBinaryReader.readIntArray(din);
+                final long[] uids = readLongs(din, fileIds.length);
+                columnIds = (elementType == GraphElementType.VERTEX ? vertices : transactions).update(fileIds, uids);
+            } else {
+                columnIds = ids;
+            }
+
+            final byte[] bytes = new byte[din.readInt()];
+            din.readFully(bytes);
+
+            final int attrId = graph.getAttribute(elementType, attrLabel);
+            if (attrId != Graph.NOT_FOUND) {
+                try (final DataInputStream columnIn = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                    final GraphBinaryReader.Column column = GraphBinaryReader.decodeColumn(columnIn, columnIds.length, attrLabel);
+                    columnReader.applyColumn(column, graph, attrId, attrType, columnIds, vertices.ids, transactions.ids, immutableObjectCache, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the vertices that are no longer in the journal and add the ones
+     * that are new.
+     */
+    private static void replayVertices(final GraphWriteMethods graph, final int[] fileIds, final long[] uids, final ElementMap vertices) {
+        final Set<Long> current = new HashSet<>();
+        for (final long uid : uids) {
+            current.add(uid);
+        }
+
+        final Iterator<Map.Entry<Long, Integer>> mapped = vertices.uids.entrySet().iterator();
+        while (mapped.hasNext()) {
+            final Map.Entry<Long, Integer> entry = mapped.next();
+            if (!current.contains(entry.getKey())) {
+                graph.removeVertex(entry.getValue());
+                mapped.remove();
+            }
+        }
+
+        for (int i = 0; i < uids.length; i++) {
+            if (!vertices.uids.containsKey(uids[i])) {
+                vertices.put(fileIds[i], uids[i], graph.addVertex());
+            }
+        }
+    }
+
+    /**
+     * Remove the transactions that are no longer in the journal, add the ones
+     * that are new, and move the ones whose ends have changed.
+     */
+    private static void replayTransactions(final GraphWriteMethods graph, final int[] fileIds, final long[] uids, final long[] sources,
+            final long[] destinations, final boolean[] directed, final ElementMap vertices, final ElementMap transactions) throws GraphParseException {
+        final Set<Long> current = new HashSet<>();
+        for (final long uid : uids) {
+            current.add(uid);
+        }
+
+        // Transactions may already have been removed along with their vertices.
+        final Iterator<Map.Entry<Long, Integer>> mapped = transactions.uids.entrySet().iterator();
+        while (mapped.hasNext()) {
+            final Map.Entry<Long, Integer> entry = mapped.next();
+            if (!current.contains(entry.getKey()) || !graph.transactionExists(entry.getValue())) {
+                if (graph.transactionExists(entry.getValue())) {
+                    graph.removeTransaction(entry.getValue());
+                }
+                mapped.remove();
+            }
+        }
+
+        for (int i = 0; i < uids.length; i++) {
+            final int source = vertices.get(sources[i]);
+            final int destination = vertices.get(destinations[i]);
+            final Integer txId = transactions.uids.get(uids[i]);
+            if (txId == null) {
+                transactions.put(fileIds[i], uids[i], graph.addTransaction(source, destination, directed[i]));
+            } else {
+                if (graph.getTransactionSourceVertex(txId) != source) {
+                    graph.setTransactionSourceVertex(txId, source);
+                }
+                if (graph.getTransactionDestinationVertex(txId) != destination) {
+                    graph.setTransactionDestinationVertex(txId, destination);
+                }
+            }
+        }
+    }
+
+    private static long[] readLongs(final DataInputStream din, final int length) throws IOException {
+        final long[] values = new long[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = din.readLong();
+        }
+        return values;
+    }
+
+    /**
+     * The mapping from the elements recorded in the journal to elements in the
+     * graph being recovered.
+     * <p>
+     * Elements are identified by their UID, since ids are reused. The mapping
+     * from ids at the time of the latest record is kept as well, since that is
+     * how IO providers refer to other elements.
+     */
+    private static final class ElementMap {
+
+        private final Map<Long, Integer> uids = new HashMap<>();
+        private final Map<Integer, Integer> ids = new HashMap<>();
+
+        void put(final int fileId, final long uid, final int id) {
+            uids.put(uid, id);
+            ids.put(fileId, id);
+        }
+
+        int get(final long uid) throws GraphParseException {
+            final Integer id = uids.get(uid);
+            if (id == null) {
+                throw new GraphParseException(String.format("Element %d in the journal is not in the graph", uid));
+            }
+            return id;
+        }
+
+        /**
+         * Map the elements of a record to the graph, updating the mapping of
+         * ids to the ids used by the record.
+         */
+        int[] update(final int[] fileIds, final long[] fileUids) throws GraphParseException {
+            final int[] mappedIds = new int[fileIds.length];
+            for (int i = 0; i < fileIds.length; i++) {
+                mappedIds[i] = get(fileUids[i]);
+                ids.put(fileIds[i], mappedIds[i]);
+            }
+            return mappedIds;
+        }
+    }
+}
@@ -0,0 +1,494 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.file.io;
+
+import au.gov.asd.tac.constellation.graph.Attribute;
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphAttribute;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.attribute.ObjectAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.io.AbstractGraphIOProvider;
+import au.gov.asd.tac.constellation.graph.attribute.io.GraphByteWriter;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Write an append-only journal of the changes made to a graph since it was
+ * last written in full.
+ * <p>
+ * A journal belongs to a snapshot of a graph written by
+ * {@link GraphJsonWriter}. When the snapshot is written, the journal is
+ * restarted by {@link #writeCheckpoint} with a header recording the ids and
+ * UIDs of the vertices and transactions in the snapshot, in the order they
+ * were written.
+ * After that, each call to {@link #createRecord} captures the changes made to
+ * the graph since the previous record, and {@link #appendRecord} appends them
+ * to the journal. {@link GraphJournalReader} replays the records onto the
+ * snapshot to recover the graph.
+ * <p>
+ * Changes are found using the modification counters of the graph rather than
+ * by comparing values, so a record holds the structure of the graph if it has
+ * changed, plus a column (in the format written by {@link GraphBinaryWriter})
+ * for each attribute whose values have changed. Where the graph knows which
+ * elements were modified (see {@link GraphReadMethods#getModifiedElements}),
+ * the column only holds the values of those elements; otherwise, for instance
+ * after a change too large for the graph to log, it holds every value.
+ * Undoing a modification can return the counters to earlier values, so the
+ * first record after an undo holds the whole graph. Typical edits such as
+ * selection, layout or colouring touch a handful of attributes and elements,
+ * so a record is a small fraction of the size of the snapshot.
+ * <p>
+ * The journal should be compacted by writing a new snapshot once
+ * {@link #shouldCompact} returns true, since replaying a long journal takes
+ * longer than reading a snapshot.
+ *
+ * @author algol
+ */
+public final class GraphJournalWriter {
+
+    /**
+     * The magic number at the start of a journal ("CSTJ").
+     */
+    public static final int MAGIC = 0x4353544A;
+
+    /**
+     * The current journal format version.
+     */
+    public static final int JOURNAL_VERSION = 1;
+
+    /**
+     * The number of records after which the journal should be compacted.
+     */
+    private static final int MAX_RECORDS = 100;
+
+    private final File journalFile;
+    private final Map<String, AbstractGraphIOProvider> graphIoProviders = new HashMap<>();
+    private Checkpoint checkpoint = null;
+    private int recordCount = 0;
+    private long snapshotSize = 0;
+
+    /**
+     * Construct a new GraphJournalWriter.
+     *
+     * @param journalFile The file holding the journal.
+     */
+    public GraphJournalWriter(final File journalFile) {
+        this.journalFile = journalFile;
+        for (final AbstractGraphIOProvider agiop : AbstractGraphIOProvider.getProviders()) {
+            graphIoProviders.put(agiop.getName(), agiop);
+        }
+    }
+
+    public File getJournalFile() {
+        return journalFile;
+    }
+
+    /**
+     * Determine whether records can be appended to the journal.
+     *
+     * @return True if a checkpoint has been written and the journal file still
+     * exists, false if a snapshot must be written first.
+     */
+    public boolean hasCheckpoint() {
+        return checkpoint != null && journalFile.exists();
+    }
+
+    /**
+     * Determine whether the journal has grown large enough that a new snapshot
+     * should be written instead of another record.
+     *
+     * @return True if the journal should be compacted.
+     */
+    public boolean shouldCompact() {
+        return recordCount >= MAX_RECORDS || journalFile.length() > snapshotSize;
+    }
+
+    /**
+     * Forget the current checkpoint and delete the journal.
+     * <p>
+     * This must be done before a new snapshot is written, so that a crash
+     * while writing the snapshot can't leave a journal that belongs to the
+     * previous snapshot. If the journal can't be deleted it is truncated
+     * instead, since an empty journal has nothing to replay.
+     *
+     * @throws IOException If the journal could be neither deleted nor
+     * truncated, in which case the snapshot must not be written.
+     */
+    public void reset() throws IOException {
+        checkpoint = null;
+        recordCount = 0;
+        if (journalFile.exists() && !journalFile.delete()) {
+            new FileOutputStream(journalFile).close();
+        }
+    }
+
+    /**
+     * Capture the state of a graph that is about to be written as a snapshot.
+     * <p>
+     * This only reads the modification counters of the graph, so it is cheap
+     * to do while holding the read lock that the snapshot copy is taken under.
+     *
+     * @param graph The graph that the snapshot is being copied from.
+     *
+     * @return The state of the graph, to be passed to
+     * {@link #writeCheckpoint}.
+     */
+    public Checkpoint createCheckpoint(final GraphReadMethods graph) {
+        return new Checkpoint(graph);
+    }
+
+    /**
+     * Restart the journal after a snapshot has been written.
+     *
+     * @param checkpoint The state returned by {@link #createCheckpoint} when
+     * the snapshot was copied.
+     * @param snapshot The graph that was written as the snapshot.
+     * @param snapshotFile The snapshot file.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeCheckpoint(final Checkpoint checkpoint, final GraphReadMethods snapshot, final File snapshotFile) throws IOException {
+        reset();
+
+        try (final DataOutputStream dout = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile)))) {
+            dout.writeInt(MAGIC);
+            dout.writeInt(JOURNAL_VERSION);
+
+            writeIds(dout, snapshot, GraphElementType.VERTEX, getIds(snapshot, GraphElementType.VERTEX));
+            writeIds(dout, snapshot, GraphElementType.TRANSACTION, getIds(snapshot, GraphElementType.TRANSACTION));
+        }
+
+        this.checkpoint = checkpoint;
+        snapshotSize = snapshotFile.length();
+    }
+
+    /**
+     * Capture the changes made to a graph since the previous record or
+     * checkpoint.
+     * <p>
+     * Only the changed attributes are read, so this can be done while holding
+     * a read lock; the record can then be written with {@link #appendRecord}
+     * after the lock is released.
+     *
+     * @param graph The graph to record the changes of.
+     *
+     * @return The encoded record, or null if nothing has changed.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public byte[] createRecord(final GraphReadMethods graph) throws IOException {
+        if (checkpoint == null) {
+            throw new IllegalStateException("A checkpoint must be written before a journal record");
+        }
+
+        // After an undo the counters can return to the checkpoint values with different changes, so record everything.
+        final boolean undone = graph.getUndoCounter() != checkpoint.undoCounter;
+        if (!undone && graph.getGlobalModificationCounter() == checkpoint.globalModificationCounter) {
+            return null;
+        }
+
+        final boolean structureChanged = undone || graph.getStructureModificationCounter() != checkpoint.structureModificationCounter;
+        final boolean attributesChanged = undone || graph.getAttributeModificationCounter() != checkpoint.attributeModificationCounter;
+
+        final GraphByteWriter byteWriter = new GraphByteWriter();
+        try {
+            final GraphBinaryWriter columnWriter = new GraphBinaryWriter(graphIoProviders, byteWriter);
+            final ByteArrayOutputStream elements = new ByteArrayOutputStream();
+            try (final DataOutputStream dout = new DataOutputStream(elements)) {
+                for (final GraphElementType elementType : GraphBinaryReader.ELEMENT_TYPES_FILE_ORDER) {
+                    writeElements(dout, columnWriter, graph, elementType, structureChanged, attributesChanged);
+                }
+            }
+
+            // Ancillary files written by IO providers are stored as a small zip file, as in a .star file.
+            // They come first so that they are available when the columns are replayed.
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (final DataOutputStream dout = new DataOutputStream(bytes)) {
+                final Map<String, File> files = byteWriter.getFileMap();
+                if (files.isEmpty()) {
+                    dout.writeInt(0);
+                } else {
+                    final ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+                    try (final ZipOutputStream zout = new ZipOutputStream(zipBytes)) {
+                        for (final Map.Entry<String, File> entry : files.entrySet()) {
+                            zout.putNextEntry(new ZipEntry(entry.getKey()));
+                            try (final InputStream in = new FileInputStream(entry.getValue())) {
+                                final byte[] buffer = new byte[1 << 16];
+                                int length = in.read(buffer);
+                                while (length >= 0) {
+                                    zout.write(buffer, 0, length);
+                                    length = in.read(buffer);
+                                }
+                            }
+                            zout.closeEntry();
+                        }
+                    }
+                    dout.writeInt(zipBytes.size());
+                    zipBytes.writeTo(dout);
+                }
+                elements.writeTo(dout);
+            }
+
+            checkpoint = new Checkpoint(graph);
+
+            return bytes.toByteArray();
+        } finally {
+            byteWriter.reset();
+        }
+    }
+
+    /**
+     * Append a record created by {@link #createRecord} to the journal.
+     * <p>
+     * Each record is prefixed with its length, so a record that was only
+     * partly written when the application stopped is ignored when the journal
+     * is replayed.
+     *
+     * @param record The record to append.
+     *
+     * @throws IOException If an I/O error occurs. The checkpoint is discarded,
+     * so the next autosave will write a snapshot.
+     */
+    public void appendRecord(final byte[] record) throws IOException {
+        try (final FileOutputStream fout = new FileOutputStream(journalFile, true);
+                final DataOutputStream dout = new DataOutputStream(new BufferedOutputStream(fout))) {
+            dout.writeInt(record.length);
+            dout.write(record);
+            dout.flush();
+            fout.getFD().sync();
+            recordCount++;
+        } catch (final IOException ex) {
+            try {
+                reset();
+            } catch (final IOException resetEx) {
+                ex.addSuppressed(resetEx);
+            }
+            throw ex;
+        }
+    }
+
+    private void writeElements(final DataOutputStream dout, final GraphBinaryWriter columnWriter, final GraphReadMethods graph,
+            final GraphElementType elementType, final boolean structureChanged, final boolean attributesChanged) throws IOException {
+        final List<Attribute> attrs = new ArrayList<>();
+        final List<Attribute> changedAttrs = new ArrayList<>();
+        for (int position = 0; position < graph.getAttributeCount(elementType); position++) {
+            final Attribute attr = new GraphAttribute(graph, graph.getAttribute(elementType, position));
+
+            // Don't write non-META object types; we don't know what they are.
+            if (!attr.getAttributeType().equals(ObjectAttributeDescription.ATTRIBUTE_NAME) || elementType == GraphElementType.META) {
+                attrs.add(attr);
+                if (checkpoint.hasChanged(graph, attr)) {
+                    changedAttrs.add(attr);
+                }
+            }
+        }
+
+        GraphBinaryWriter.writeString(dout, IoUtilities.getGraphElementTypeString(elementType));
+
+        // Write every attribute if any have been added, removed or renamed, so removed attributes can be found.
+        dout.writeBoolean(attributesChanged);
+        if (attributesChanged) {
+            dout.writeInt(attrs.size());
+            for (final Attribute attr : attrs) {
+                GraphBinaryWriter.writeString(dout, attr.getName());
+                GraphBinaryWriter.writeString(dout, attr.getAttributeType());
+                GraphBinaryWriter.writeString(dout, attr.getDescription());
+                GraphBinaryWriter.writeDefault(dout, attr);
+                GraphBinaryWriter.writeString(dout, attr.getAttributeMerger() == null ? null : attr.getAttributeMerger().getId());
+            }
+
+            final int[] key = elementType == GraphElementType.VERTEX || elementType == GraphElementType.TRANSACTION ? graph.getPrimaryKey(elementType) : new int[0];
+            dout.writeInt(key.length);
+            for (final int keyAttribute : key) {
+                GraphBinaryWriter.writeString(dout, graph.getAttributeName(keyAttribute));
+            }
+        }
+
+        // Find the elements whose values have changed; null means they are unknown, so the whole column is written.
+        final boolean hasStructure = elementType == GraphElementType.VERTEX || elementType == GraphElementType.TRANSACTION;
+        final int[][] modifiedIds = new int[changedAttrs.size()][];
+        boolean fullColumns = false;
+        for (int i = 0; i < changedAttrs.size(); i++) {
+            modifiedIds[i] = hasStructure ? checkpoint.getModifiedElements(graph, elementType, changedAttrs.get(i)) : null;
+            fullColumns |= modifiedIds[i] == null;
+        }
+
+        // Write the structure if it has changed, or if there are whole columns that need it.
+        final int[] ids = getIds(graph, elementType);
+        final boolean writeIds = hasStructure && (structureChanged || fullColumns);
+        dout.writeBoolean(hasStructure && structureChanged);
+        dout.writeBoolean(writeIds);
+        if (writeIds) {
+            writeIds(dout, graph, elementType, ids);
+            if (elementType == GraphElementType.TRANSACTION && structureChanged) {
+                for (final int txId : ids) {
+                    dout.writeLong(graph.getVertexUID(graph.getTransactionSourceVertex(txId)));
+                }
+                for (final int txId : ids) {
+                    dout.writeLong(graph.getVertexUID(graph.getTransactionDestinationVertex(txId)));
+                }
+                for (final int txId : ids) {
+                    dout.writeBoolean(graph.getTransactionDirection(txId) != Graph.UNDIRECTED);
+                }
+            }
+        }
+
+        // Write the columns that have changed, preceded by the elements they hold values for if they aren't whole columns.
+        // Values are written verbosely since they replace existing values.
+        dout.writeInt(changedAttrs.size());
+        for (int i = 0; i < changedAttrs.size(); i++) {
+            final Attribute attr = changedAttrs.get(i);
+            GraphBinaryWriter.writeString(dout, attr.getName());
+            GraphBinaryWriter.writeString(dout, attr.getAttributeType());
+            dout.writeBoolean(modifiedIds[i] != null);
+            if (modifiedIds[i] != null) {
+                writeIds(dout, graph, elementType, modifiedIds[i]);
+            }
+
+            final ByteArrayOutputStream column = new ByteArrayOutputStream();
+            try (final DataOutputStream columnOut = new DataOutputStream(column)) {
+                columnWriter.writeColumn(columnOut, graph, attr, modifiedIds[i] != null ? modifiedIds[i] : ids, true);
+            }
+            dout.writeInt(column.size());
+            column.writeTo(dout);
+        }
+    }
+
+    private static int[] getIds(final GraphReadMethods graph, final GraphElementType elementType) {
+        final int[] ids;
+        if (elementType == GraphElementType.VERTEX) {
+            ids = new int[graph.getVertexCount()];
+            for (int position = 0; position < ids.length; position++) {
+                ids[position] = graph.getVertex(position);
+            }
+        } else if (elementType == GraphElementType.TRANSACTION) {
+            ids = new int[graph.getTransactionCount()];
+            for (int position = 0; position < ids.length; position++) {
+                ids[position] = graph.getTransaction(position);
+            }
+        } else {
+            ids = new int[]{0};
+        }
+        return ids;
+    }
+
+    /**
+     * Write the ids of elements followed by their UIDs.
+     * <p>
+     * The ids of removed elements are reused, so elements are identified in
+     * the journal by their UIDs. The ids are still needed to map references to
+     * elements written by IO providers.
+     */
+    private static void writeIds(final DataOutputStream dout, final GraphReadMethods graph, final GraphElementType elementType, final int[] ids) throws IOException {
+        GraphBinaryWriter.writeIntArray(dout, ids);
+        for (final int id : ids) {
+            dout.writeLong(elementType == GraphElementType.VERTEX ? graph.getVertexUID(id) : graph.getTransactionUID(id));
+        }
+    }
+
+    /**
+     * The modification counters of a graph at the time of the last checkpoint
+     * or record.
+     */
+    public static final class Checkpoint {
+
+        private final long globalModificationCounter;
+        private final long structureModificationCounter;
+        private final long attributeModificationCounter;
+        private final long undoCounter;
+        private final Map<Integer, Long> attributeUids = new HashMap<>();
+        private final Map<Integer, Long> valueModificationCounters = new HashMap<>();
+
+        Checkpoint(final GraphReadMethods graph) {
+            globalModificationCounter = graph.getGlobalModificationCounter();
+            structureModificationCounter = graph.getStructureModificationCounter();
+            attributeModificationCounter = graph.getAttributeModificationCounter();
+            undoCounter = graph.getUndoCounter();
+            for (final GraphElementType elementType : GraphBinaryReader.ELEMENT_TYPES_FILE_ORDER) {
+                for (int position = 0; position < graph.getAttributeCount(elementType); position++) {
+                    final int attribute = graph.getAttribute(elementType, position);
+                    final long counter = graph.getValueModificationCounter(attribute);
+                    attributeUids.put(attribute, graph.getAttributeUID(attribute));
+                    valueModificationCounters.put(attribute, counter);
+
+                    // A graph typically only starts logging modified elements when first asked, so ask now.
+                    if (elementType == GraphElementType.VERTEX || elementType == GraphElementType.TRANSACTION) {
+                        graph.getModifiedElements(attribute, counter);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Get the ids of the elements whose values for an attribute have been
+         * set since the checkpoint, leaving out elements that have since been
+         * removed.
+         *
+         * @return The ids of the existing modified elements, or null if they
+         * are unknown and every value must be written.
+         */
+        int[] getModifiedElements(final GraphReadMethods graph, final GraphElementType elementType, final Attribute attr) {
+            final Long counter = valueModificationCounters.get(attr.getId());
+            if (counter == null
+                    || undoCounter != graph.getUndoCounter()
+                    || attributeUids.get(attr.getId()) != graph.getAttributeUID(attr.getId())) {
+                return null;
+            }
+
+            final int[] modified = graph.getModifiedElements(attr.getId(), counter);
+            if (modified == null) {
+                return null;
+            }
+
+            // The values of removed elements are cleared, so they are logged as modified too.
+            final int[] existing = new int[modified.length];
+            int count = 0;
+            for (final int id : modified) {
+                if (elementType == GraphElementType.VERTEX ? graph.vertexExists(id) : graph.transactionExists(id)) {
+                    existing[count++] = id;
+                }
+            }
+            return Arrays.copyOf(existing, count);
+        }
+
+        /**
+         * An attribute has changed if its values have changed, or if its id
+         * now belongs to a different attribute. Once a modification has been
+         * undone, any attribute may have changed.
+         */
+        boolean hasChanged(final GraphReadMethods graph, final Attribute attr) {
+            final Long counter = valueModificationCounters.get(attr.getId());
+            return counter == null
+                    || undoCounter != graph.getUndoCounter()
+                    || counter != graph.getValueModificationCounter(attr.getId())
+                    || attributeUids.get(attr.getId()) != graph.getAttributeUID(attr.getId());
+        }
+    }
+}
@@ -36,9 +36,7 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.MappingJsonFactory;
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -48,6 +46,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.ZipFile;
 import org.openide.util.Exceptions;
 import org.openide.util.Lookup;
 
@@ -97,10 +96,32 @@ public final class GraphJsonReader {
         byteReader = null;
     }
 
+    /**
+     * Read a graph from a zip file.
+     * <p>
+     * The entries of the zip file are decompressed in parallel before the
+     * graph is read.
+     *
+     * @param graphFile The zip file to read.
+     * @param progress A progress indicator.
+     *
+     * @return A new Graph.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws GraphParseException On graph parsing errors.
+     */
     public Graph readGraphZip(final File graphFile, final IoProgress progress) throws IOException, GraphParseException {
-        try (final InputStream in = new BufferedInputStream(new FileInputStream(graphFile))) {
-            return readGraphZip(graphFile.getPath(), in, progress);
+        try (final ZipFile zipFile = new ZipFile(graphFile)) {
+            progress.start(100);
+            byteReader = new GraphByteReader(zipFile);
+        } catch (final IOException ex) {
+            // An exception occured attempting to read a zip (star) file, mark progress as complete to allow status
+            // to be updated with either loading of backup file if it exists
+            progress.finish();
+            throw ex;
         }
+
+        return readGraphEntries(graphFile.getPath(), progress);
     }
 
     public Graph readGraphZip(final String name, InputStream bin, final IoProgress progress) throws IOException, GraphParseException {
@@ -114,7 +135,27 @@ public final class GraphJsonReader {
             throw ex;
         }
 
+        return readGraphEntries(name, progress);
+    }
+
+    /**
+     * Read the graph from the zip entries held by the byte reader.
+     */
+    private Graph readGraphEntries(final String name, final IoProgress progress) throws IOException, GraphParseException {
         try {
+            // A binary graph is read in preference to a JSON graph if present.
+            final ExtendedBuffer binaryIn = byteReader.read(GraphBinaryWriter.GRAPH_ENTRY);
+            if (binaryIn != null) {
+                try {
+                    graph = new GraphBinaryReader(providers, byteReader).readGraph(name, binaryIn.getInputStream(), progress);
+                } catch (final IllegalStateException | IllegalArgumentException ex) {
+                    throw new GraphParseException(ex.getMessage(), ex);
+                } finally {
+                    binaryIn.getInputStream().close();
+                }
+                return graph;
+            }
+
             // Get the graph first.
             final String graphEntry = "graph" + GraphFileConstants.FILE_EXTENSION;
             ExtendedBuffer in = byteReader.read(graphEntry);
@@ -315,22 +356,10 @@ public final class GraphJsonReader {
             throw new GraphParseException(String.format(EXPECTED_END_OBJECT_FORMAT, current));
         }
 
-        SchemaFactory schemaFactory = SchemaFactoryUtilities.getSchemaFactory(schemaFactoryName);
-        if (schemaFactory == null) {
-            final SchemaFactory defaultSchemaFactory = SchemaFactoryUtilities.getDefaultSchemaFactory();
-            LOGGER.warning(String.format("Unknown schema factory '%s'; falling back to '%s'", schemaFactoryName, defaultSchemaFactory.getName()));
-            schemaFactory = defaultSchemaFactory;
-        }
+        final SchemaFactory schemaFactory = getSchemaFactory(schemaFactoryName);
 
         storeGraph = new StoreGraph(schemaFactory.createSchema());
-        UpdateProviderManager.getRegisteredProviders().forEach((item, itemProviders) -> {
-            if (item.appliesToGraph(storeGraph)) {
-                final int currentVersion = versionedItems.containsKey(item.getName()) ? versionedItems.get(item.getName()) : UpdateProvider.DEFAULT_VERSION;
-                if (itemProviders.containsKey(currentVersion)) {
-                    itemProviders.get(currentVersion).configure(storeGraph);
-                }
-            }
-        });
+        configureGraph(storeGraph, versionedItems);
 
         try {
             // Depending on the version number, different things could happen.
@@ -440,8 +469,64 @@ public final class GraphJsonReader {
             }
         }
 
+        updateGraph(storeGraph, versionedItems);
+
+        graph = new DualGraph(schemaFactory.createSchema(), storeGraph);
+
+        if (progress != null) {
+            progress.finish();
+        }
+
+        LOGGER.log(Level.INFO, "immutableObjectCache={0}", immutableObjectCache);
+
+        return graph;
+    }
+
+    /**
+     * Get the schema factory with the specified name, falling back to the
+     * default schema factory if it is not known.
+     *
+     * @param schemaFactoryName The name of the schema factory.
+     *
+     * @return A schema factory.
+     */
+    static SchemaFactory getSchemaFactory(final String schemaFactoryName) {
+        SchemaFactory schemaFactory = SchemaFactoryUtilities.getSchemaFactory(schemaFactoryName);
+        if (schemaFactory == null) {
+            final SchemaFactory defaultSchemaFactory = SchemaFactoryUtilities.getDefaultSchemaFactory();
+            LOGGER.warning(String.format("Unknown schema factory '%s'; falling back to '%s'", schemaFactoryName, defaultSchemaFactory.getName()));
+            schemaFactory = defaultSchemaFactory;
+        }
+        return schemaFactory;
+    }
+
+    /**
+     * Allow any relevant version providers to configure a newly created graph
+     * before it is read.
+     *
+     * @param storeGraph The graph being read.
+     * @param versionedItems The versions of the versioned items in the file.
+     */
+    static void configureGraph(final StoreGraph storeGraph, final Map<String, Integer> versionedItems) {
+        UpdateProviderManager.getRegisteredProviders().forEach((item, itemProviders) -> {
+            if (item.appliesToGraph(storeGraph)) {
+                final int currentVersion = versionedItems.containsKey(item.getName()) ? versionedItems.get(item.getName()) : UpdateProvider.DEFAULT_VERSION;
+                if (itemProviders.containsKey(currentVersion)) {
+                    itemProviders.get(currentVersion).configure(storeGraph);
+                }
+            }
+        });
+    }
+
+    /**
+     * Allow any relevant version providers to update a graph that has been
+     * read if necessary.
+     *
+     * @param storeGraph The graph that was read.
+     * @param versionedItems The versions of the versioned items in the file.
+     */
+    static void updateGraph(final StoreGraph storeGraph, final Map<String, Integer> versionedItems) {
         try {
-            // Allow any relevant version providers to update the graph if necessary.
             UpdateProviderManager.getRegisteredProviders().forEach((item, itemProviders) -> {
                 if (item.appliesToGraph(storeGraph)) {
                     int currentVersion = versionedItems.containsKey(item.getName()) ? versionedItems.get(item.getName()) : UpdateProvider.DEFAULT_VERSION;
@@ -459,16 +544,6 @@ public final class GraphJsonReader {
             LOGGER.warning(msg);
             Exceptions.printStackTrace(ex);
         }
-
-        graph = new DualGraph(schemaFactory.createSchema(), storeGraph);
-
-        if (progress != null) {
-            progress.finish();
-        }
-
-        LOGGER.log(Level.INFO, "immutableObjectCache={0}", immutableObjectCache);
-
-        return graph;
     }
 
     /**
@@ -56,6 +56,11 @@ public final class GraphJsonWriter implements Cancellable {
      * The current file format version.
      */
     public static final int VERSION = 2;
+    /**
+     * The system property that determines whether graphs are written to zip
+     * files in the binary format by default.
+     */
+    public static final String BINARY_FORMAT_PROPERTY = "constellation.graph.file.binaryFormat";
     private static final List<GraphElementType> ELEMENT_TYPES_FILE_ORDER = Arrays.asList(GraphElementType.GRAPH, GraphElementType.VERTEX, GraphElementType.TRANSACTION, GraphElementType.META);
     private static final int REPORT_INTERVAL = 10000;
     private IoProgress progress;
@@ -63,6 +68,8 @@ public final class GraphJsonWriter implements Cancellable {
     private volatile boolean isCancelled;
     private final GraphByteWriter byteWriter;
     private final HashMap<String, AbstractGraphIOProvider> graphIoProviders = new HashMap<>();
+    private final GraphBinaryWriter binaryWriter;
+    private boolean binaryFormat = Boolean.getBoolean(BINARY_FORMAT_PROPERTY);
 
     private static final String DEFAULT_FIELD = "default";
 
@@ -74,6 +81,30 @@ public final class GraphJsonWriter implements Cancellable {
         for (AbstractGraphIOProvider agiop : AbstractGraphIOProvider.getProviders()) {
             graphIoProviders.put(agiop.getName(), agiop);
         }
+        binaryWriter = new GraphBinaryWriter(graphIoProviders, byteWriter);
+    }
+
+    /**
+     * Determine whether graphs written to zip files use the binary format
+     * written by {@link GraphBinaryWriter} rather than JSON.
+     *
+     * @return True if the binary format is used, false otherwise.
+     */
+    public boolean isBinaryFormat() {
+        return binaryFormat;
+    }
+
+    /**
+     * Set whether graphs written to zip files use the binary format written by
+     * {@link GraphBinaryWriter} rather than JSON. The default is taken from
+     * the {@link #BINARY_FORMAT_PROPERTY} system property.
+     * <p>
+     * Both formats are read by {@link GraphJsonReader#readGraphZip}.
+     *
+     * @param binaryFormat True to use the binary format, false to use JSON.
+     */
+    public void setBinaryFormat(final boolean binaryFormat) {
+        this.binaryFormat = binaryFormat;
     }
 
     /**
@@ -147,7 +178,7 @@ public final class GraphJsonWriter implements Cancellable {
      * Serialise a graph to a zip file with element writing optimised.
      * <p>
      * The OutputStream will be wrapped in a ZipOutputStream and the graph and any ancillary files will be written as
-     * ZipEntry files.
+     * ZipEntry files. The graph is written as JSON, or in the binary format if {@link #isBinaryFormat()} is true.
      *
      * @param graph The graph to serialise.
      * @param out The OutputStream to write a zip file to.
@@ -162,9 +193,14 @@ public final class GraphJsonWriter implements Cancellable {
         this.progress = progress;
 
         try (ZipOutputStream zout = new ZipOutputStream(out)) {
-            final ZipEntry zentry = new ZipEntry("graph" + GraphFileConstants.FILE_EXTENSION);
-            zout.putNextEntry(zentry);
-            writeGraphToStream(graph, zout, false, elementTypes);
+            if (binaryFormat) {
+                zout.putNextEntry(new ZipEntry(GraphBinaryWriter.GRAPH_ENTRY));
+                isCancelled = binaryWriter.writeGraphToStream(graph, zout, progress, elementTypes);
+            } else {
+                final ZipEntry zentry = new ZipEntry("graph" + GraphFileConstants.FILE_EXTENSION);
+                zout.putNextEntry(zentry);
+                writeGraphToStream(graph, zout, false, elementTypes);
+            }
             try {
                 if (!isCancelled) {
                     for (Map.Entry<String, File> entry : byteWriter.getFileMap().entrySet()) {
@@ -469,6 +505,7 @@ public final class GraphJsonWriter implements Cancellable {
     @Override
     public boolean cancel() {
         isCancelled = true;
+        binaryWriter.cancel();
 
         return true;
     }
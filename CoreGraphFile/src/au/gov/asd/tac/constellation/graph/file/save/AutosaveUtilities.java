@@ -15,8 +15,16 @@
  */
 package au.gov.asd.tac.constellation.graph.file.save;
 
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.WritableGraph;
 import au.gov.asd.tac.constellation.graph.file.GraphDataObject;
+import au.gov.asd.tac.constellation.graph.file.io.GraphJournalReader;
+import au.gov.asd.tac.constellation.graph.file.io.GraphJsonReader;
+import au.gov.asd.tac.constellation.graph.file.io.GraphJsonWriter;
+import au.gov.asd.tac.constellation.graph.file.io.GraphParseException;
 import au.gov.asd.tac.constellation.preferences.ApplicationPreferenceKeys;
+import au.gov.asd.tac.constellation.utilities.gui.IoProgress;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -45,6 +53,7 @@ public final class AutosaveUtilities {
     public static final String UNSAVED = "unsaved";
     public static final String DT = "dt";
     public static final String AUTO_EXT = ".star_auto";
+    public static final String JOURNAL_EXT = ".star_journal";
     private static final Logger LOGGER = Logger.getLogger(AutosaveUtilities.class.getName());
     private static final String AUTOSAVE_DIR = "Autosave";
 
@@ -98,7 +107,8 @@ public final class AutosaveUtilities {
     /**
      * Delete a pair of autosave files.
      * <p>
-     * If the .star is given, the matching .star_auto will be deleted, and vice versa.
+     * If the .star is given, the matching .star_auto will be deleted, and vice versa. The journal of changes made since
+     * the .star was written is deleted as well.
      *
      * @param f A .star or .star_auto to be deleted.
      */
@@ -124,6 +134,26 @@ public final class AutosaveUtilities {
                 //TODO: Handle case where file not successfully deleted
             }
         }
+
+        final File journal = getJournal(path.endsWith(AUTO_EXT) ? new File(path.substring(0, path.length() - 5)) : f);
+        if (journal.exists() && !journal.delete()) {
+            // The journal is ignored without its .star, and removed by cleanup() next time.
+            LOGGER.log(Level.WARNING, "Unable to delete autosave journal {0}", journal);
+        }
+    }
+
+    /**
+     * Return the journal file belonging to an autosaved .star file.
+     * <p>
+     * The journal holds the changes made to the graph since the .star was written, so that an autosave doesn't have
+     * to write the whole graph each time.
+     *
+     * @param star An autosaved .star file.
+     *
+     * @return The matching .star_journal file, which may not exist.
+     */
+    public static File getJournal(final File star) {
+        return new File(star.getPath() + "_journal");
     }
 
     /**
@@ -157,6 +187,82 @@ public final class AutosaveUtilities {
         return null;
     }
 
+    /**
+     * Replay the changes recorded in the journal of an autosave onto the graph
+     * read from the autosaved .star file.
+     * <p>
+     * If the journal can't be replayed, the graph is left as it was when the
+     * .star file was written.
+     *
+     * @param graph The graph read from the autosaved .star file.
+     * @param star The autosaved .star file.
+     *
+     * @return True if the graph is up to date with the journal, false if the
+     * journal could not be replayed.
+     */
+    public static boolean replayJournal(final Graph graph, final File star) {
+        final File journal = getJournal(star);
+        if (!journal.exists() || journal.length() == 0) {
+            return true;
+        }
+
+        try {
+            final WritableGraph wg = graph.getWritableGraph("Recover Autosave", false);
+            boolean replayed = false;
+            try {
+                new GraphJournalReader().replay(journal, wg);
+                replayed = true;
+            } finally {
+                if (replayed) {
+                    wg.commit();
+                } else {
+                    wg.rollBack();
+                }
+            }
+            return true;
+        } catch (final GraphParseException | IOException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Error replaying autosave journal; recovering the last full autosave instead", ex);
+        } catch (final InterruptedException ex) {
+            LOGGER.log(Level.WARNING, "Interrupted while replaying autosave journal", ex);
+            Thread.currentThread().interrupt();
+        }
+
+        return false;
+    }
+
+    /**
+     * Bring an autosaved .star file up to date with its journal, so that it
+     * can be used on its own.
+     *
+     * @param star The autosaved .star file.
+     * @param progress A progress indicator.
+     *
+     * @throws IOException If an I/O error occurs.
+     * @throws GraphParseException If the .star file can't be read.
+     */
+    public static void compactAutosave(final File star, final IoProgress progress) throws IOException, GraphParseException {
+        final File journal = getJournal(star);
+        if (!journal.exists() || journal.length() == 0) {
+            return;
+        }
+
+        final Graph graph = new GraphJsonReader().readGraphZip(star, progress);
+        if (replayJournal(graph, star)) {
+            final ReadableGraph rg = graph.getReadableGraph();
+            try {
+                new GraphJsonWriter().writeGraphToZip(rg, star.getPath(), progress);
+            } finally {
+                rg.release();
+            }
+        }
+
+        // The journal must not be replayed again onto the compacted .star, so empty it if it can't be deleted.
+        if (!journal.delete()) {
+            LOGGER.log(Level.WARNING, "Unable to delete autosave journal {0}; truncating it instead", journal);
+            new FileOutputStream(journal).close();
+        }
+    }
+
     /**
      * Safely move a file.
      * <p>
@@ -217,6 +323,15 @@ public final class AutosaveUtilities {
             }
         }
 
+        // Find .star_journal files without a .star.
+        for (final File journal : getAutosaves(JOURNAL_EXT)) {
+            final String journals = journal.getPath();
+            final File star = new File(journals.substring(0, journals.length() - 8));
+            if (!star.exists() && !journal.delete()) {
+                LOGGER.log(Level.WARNING, "Unable to delete autosave journal {0}", journal);
+            }
+        }
+
         // Find .star_auto files without a .star.
         for (final File auto : getAutosaves(AUTO_EXT)) {
             final String autos = auto.getPath();
@@ -17,16 +17,22 @@ package au.gov.asd.tac.constellation.graph.file.io;
 
 import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
 import au.gov.asd.tac.constellation.graph.WritableGraph;
 import au.gov.asd.tac.constellation.graph.attribute.BooleanAttributeDescription;
 import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
 import au.gov.asd.tac.constellation.graph.attribute.StringAttributeDescription;
 import au.gov.asd.tac.constellation.graph.locking.DualGraph;
+import au.gov.asd.tac.constellation.graph.locking.GraphOperationMode;
 import au.gov.asd.tac.constellation.utilities.gui.TextIoProgress;
 import java.io.File;
 import static org.testng.Assert.fail;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -224,6 +230,280 @@ public class GraphSavingNGTest {
         }
     }
 
+    @Test
+    public void writeReadBinaryGraphTest() throws Exception {
+        final File graphFile = File.createTempFile("tmp1", ".star");
+
+        ReadableGraph rg = graph.getReadableGraph();
+        try {
+            final GraphJsonWriter writer = new GraphJsonWriter();
+            writer.setBinaryFormat(true);
+            writer.writeGraphToZip(rg, graphFile.getPath(), new TextIoProgress(false));
+        } finally {
+            rg.release();
+        }
+        assertTrue("file created", graphFile.exists());
+
+        final Graph newGraph = new GraphJsonReader().readGraphZip(graphFile, new TextIoProgress(false));
+        graphFile.delete();
+
+        rg = newGraph.getReadableGraph();
+        try {
+            assertEquals("num nodes", 7, rg.getVertexCount());
+            assertEquals("num transactions", 5, rg.getTransactionCount());
+            assertTrue("nd 'name1' found", nodeFound(rg, "name1"));
+            assertTrue("nd 'name7' found", nodeFound(rg, "name7"));
+            assertTrue("tx 'name101' found", transactionFound(rg, "name101"));
+            assertTrue("tx 'name105' found", transactionFound(rg, "name105"));
+
+            final int newAttrY = rg.getAttribute(GraphElementType.VERTEX, "y");
+            final int newVSelAttr = rg.getAttribute(GraphElementType.VERTEX, "selected");
+            final int newNameAttr = rg.getAttribute(GraphElementType.VERTEX, "name");
+            for (int position = 0; position < rg.getVertexCount(); position++) {
+                final int vxId = rg.getVertex(position);
+                if ("name6".equals(rg.getStringValue(newNameAttr, vxId))) {
+                    assertEquals("y", 6.6f, rg.getFloatValue(newAttrY, vxId));
+                    assertTrue("selected", rg.getBooleanValue(newVSelAttr, vxId));
+                }
+            }
+
+            int directedCount = 0;
+            for (int position = 0; position < rg.getTransactionCount(); position++) {
+                if (rg.getTransactionDirection(rg.getTransaction(position)) != Graph.UNDIRECTED) {
+                    directedCount++;
+                }
+            }
+            assertEquals("directed transactions", 2, directedCount);
+        } finally {
+            rg.release();
+        }
+    }
+
+    @Test
+    public void writeReplayJournalTest() throws Exception {
+        final File graphFile = File.createTempFile("tmp1", ".star");
+        final File journalFile = new File(graphFile.getPath() + "_journal");
+        final GraphJournalWriter journal = new GraphJournalWriter(journalFile);
+
+        ReadableGraph rg = graph.getReadableGraph();
+        try {
+            final GraphReadMethods copy = rg.copy();
+            final GraphJournalWriter.Checkpoint checkpoint = journal.createCheckpoint(rg);
+            new GraphJsonWriter().writeGraphToZip(copy, graphFile.getPath(), new TextIoProgress(false));
+            journal.writeCheckpoint(checkpoint, copy, graphFile);
+
+            // Nothing has changed yet, so there is nothing to record.
+            assertNull("empty record", journal.createRecord(rg));
+        } finally {
+            rg.release();
+        }
+        assertTrue("journal created", journal.hasCheckpoint());
+
+        // Change some values, then change the structure and attributes in a second record.
+        WritableGraph wg = graph.getWritableGraph("edit", true);
+        try {
+            wg.setFloatValue(attrY, vxId1, 9.9f);
+            wg.setBooleanValue(vSelAttr, vxId6, false);
+        } finally {
+            wg.commit();
+        }
+        rg = graph.getReadableGraph();
+        try {
+            journal.appendRecord(journal.createRecord(rg));
+        } finally {
+            rg.release();
+        }
+
+        wg = graph.getWritableGraph("edit", true);
+        try {
+            wg.removeVertex(vxId7);
+            final int vxId8 = wg.addVertex();
+            wg.setStringValue(vNameAttr, vxId8, "name8");
+            final int txId6 = wg.addTransaction(vxId8, vxId1, true);
+            wg.setStringValue(tNameAttr, txId6, "name106");
+            final int colourAttr = wg.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "colour", "colour", null, null);
+            wg.setStringValue(colourAttr, vxId8, "red");
+        } finally {
+            wg.commit();
+        }
+        rg = graph.getReadableGraph();
+        try {
+            journal.appendRecord(journal.createRecord(rg));
+        } finally {
+            rg.release();
+        }
+
+        final Graph newGraph = new GraphJsonReader().readGraphZip(graphFile, new TextIoProgress(false));
+        wg = newGraph.getWritableGraph("replay", false);
+        try {
+            assertEquals("records", 2, new GraphJournalReader().replay(journalFile, wg));
+        } finally {
+            wg.commit();
+        }
+        graphFile.delete();
+        journalFile.delete();
+
+        rg = newGraph.getReadableGraph();
+        try {
+            assertEquals("num nodes", 7, rg.getVertexCount());
+            assertEquals("num transactions", 6, rg.getTransactionCount());
+            assertFalse("nd 'name7' removed", nodeFound(rg, "name7"));
+            assertTrue("nd 'name8' found", nodeFound(rg, "name8"));
+            assertTrue("tx 'name106' found", transactionFound(rg, "name106"));
+
+            final int newAttrY = rg.getAttribute(GraphElementType.VERTEX, "y");
+            final int newVSelAttr = rg.getAttribute(GraphElementType.VERTEX, "selected");
+            final int newNameAttr = rg.getAttribute(GraphElementType.VERTEX, "name");
+            final int newColourAttr = rg.getAttribute(GraphElementType.VERTEX, "colour");
+            assertTrue("colour attribute added", newColourAttr != Graph.NOT_FOUND);
+            for (int position = 0; position < rg.getVertexCount(); position++) {
+                final int vxId = rg.getVertex(position);
+                final String name = rg.getStringValue(newNameAttr, vxId);
+                if ("name1".equals(name)) {
+                    assertEquals("y", 9.9f, rg.getFloatValue(newAttrY, vxId));
+                } else if ("name6".equals(name)) {
+                    assertFalse("selected", rg.getBooleanValue(newVSelAttr, vxId));
+                } else if ("name8".equals(name)) {
+                    assertEquals("colour", "red", rg.getStringValue(newColourAttr, vxId));
+                }
+            }
+        } finally {
+            rg.release();
+        }
+    }
+
+    @Test
+    public void writeReplayJournalAfterUndoTest() throws Exception {
+        final File graphFile = File.createTempFile("tmp2", ".star");
+        final File journalFile = new File(graphFile.getPath() + "_journal");
+        final GraphJournalWriter journal = new GraphJournalWriter(journalFile);
+
+        final StoreGraph storeGraph;
+        ReadableGraph rg = graph.getReadableGraph();
+        try {
+            storeGraph = (StoreGraph) rg.copy();
+        } finally {
+            rg.release();
+        }
+        final GraphJournalWriter.Checkpoint checkpoint = journal.createCheckpoint(storeGraph);
+        new GraphJsonWriter().writeGraphToZip(storeGraph, graphFile.getPath(), new TextIoProgress(false));
+        journal.writeCheckpoint(checkpoint, storeGraph, graphFile);
+
+        storeGraph.setFloatValue(attrY, vxId1, 9.9f);
+        journal.appendRecord(journal.createRecord(storeGraph));
+
+        // Undo the change, then make a different one, which returns the modification counters to the values in the last record.
+        storeGraph.setOperationMode(GraphOperationMode.UNDO);
+        storeGraph.setFloatValue(attrY, vxId1, 1.1f);
+        storeGraph.setOperationMode(GraphOperationMode.EXECUTE);
+        storeGraph.setFloatValue(attrY, vxId2, 8.8f);
+        final byte[] record = journal.createRecord(storeGraph);
+        assertNotNull("record after undo", record);
+        journal.appendRecord(record);
+
+        final Graph newGraph = new GraphJsonReader().readGraphZip(graphFile, new TextIoProgress(false));
+        WritableGraph wg = newGraph.getWritableGraph("replay", false);
+        try {
+            assertEquals("records", 2, new GraphJournalReader().replay(journalFile, wg));
+        } finally {
+            wg.commit();
+        }
+        graphFile.delete();
+        journalFile.delete();
+
+        rg = newGraph.getReadableGraph();
+        try {
+            final int newAttrY = rg.getAttribute(GraphElementType.VERTEX, "y");
+            final int newNameAttr = rg.getAttribute(GraphElementType.VERTEX, "name");
+            for (int position = 0; position < rg.getVertexCount(); position++) {
+                final int vxId = rg.getVertex(position);
+                final String name = rg.getStringValue(newNameAttr, vxId);
+                if ("name1".equals(name)) {
+                    assertEquals("y undone", 1.1f, rg.getFloatValue(newAttrY, vxId));
+                } else if ("name2".equals(name)) {
+                    assertEquals("y", 8.8f, rg.getFloatValue(newAttrY, vxId));
+                }
+            }
+        } finally {
+            rg.release();
+        }
+    }
+
+    @Test
+    public void writeReplayJournalModifiedElementsTest() throws Exception {
+        final File graphFile = File.createTempFile("tmp3", ".star");
+        final File journalFile = new File(graphFile.getPath() + "_journal");
+        final GraphJournalWriter journal = new GraphJournalWriter(journalFile);
+
+        final StoreGraph storeGraph;
+        ReadableGraph rg = graph.getReadableGraph();
+        try {
+            storeGraph = (StoreGraph) rg.copy();
+        } finally {
+            rg.release();
+        }
+        for (int i = 0; i < 1000; i++) {
+            final int vxId = storeGraph.addVertex();
+            storeGraph.setStringValue(vNameAttr, vxId, "extra" + i);
+            storeGraph.setFloatValue(attrY, vxId, i);
+        }
+        final GraphJournalWriter.Checkpoint checkpoint = journal.createCheckpoint(storeGraph);
+        new GraphJsonWriter().writeGraphToZip(storeGraph, graphFile.getPath(), new TextIoProgress(false));
+        journal.writeCheckpoint(checkpoint, storeGraph, graphFile);
+
+        // Only the modified element is written, rather than every value of the attribute.
+        storeGraph.setFloatValue(attrY, vxId1, 9.9f);
+        final byte[] record = journal.createRecord(storeGraph);
+        assertTrue("record holds modified elements only", record.length < 1000 * Float.BYTES);
+        journal.appendRecord(record);
+
+        // Modify more elements than the graph can log, so the whole column is written.
+        for (int i = 0; i < 20000; i++) {
+            storeGraph.setFloatValue(attrX, vxId2, i);
+        }
+        storeGraph.setFloatValue(attrX, vxId3, 3.5f);
+        storeGraph.removeVertex(vxId7);
+        storeGraph.setFloatValue(attrY, vxId4, 4.5f);
+        journal.appendRecord(journal.createRecord(storeGraph));
+
+        final Graph newGraph = new GraphJsonReader().readGraphZip(graphFile, new TextIoProgress(false));
+        WritableGraph wg = newGraph.getWritableGraph("replay", false);
+        try {
+            assertEquals("records", 2, new GraphJournalReader().replay(journalFile, wg));
+        } finally {
+            wg.commit();
+        }
+        graphFile.delete();
+        journalFile.delete();
+
+        rg = newGraph.getReadableGraph();
+        try {
+            assertEquals("num nodes", storeGraph.getVertexCount(), rg.getVertexCount());
+            assertFalse("nd 'name7' removed", nodeFound(rg, "name7"));
+
+            final int newAttrX = rg.getAttribute(GraphElementType.VERTEX, "x");
+            final int newAttrY = rg.getAttribute(GraphElementType.VERTEX, "y");
+            final int newNameAttr = rg.getAttribute(GraphElementType.VERTEX, "name");
+            for (int position = 0; position < rg.getVertexCount(); position++) {
+                final int vxId = rg.getVertex(position);
+                final String name = rg.getStringValue(newNameAttr, vxId);
+                if ("name1".equals(name)) {
+                    assertEquals("y", 9.9f, rg.getFloatValue(newAttrY, vxId));
+                } else if ("name2".equals(name)) {
+                    assertEquals("x", 19999.0f, rg.getFloatValue(newAttrX, vxId));
+                } else if ("name3".equals(name)) {
+                    assertEquals("x", 3.5f, rg.getFloatValue(newAttrX, vxId));
+                } else if ("name4".equals(name)) {
+                    assertEquals("y", 4.5f, rg.getFloatValue(newAttrY, vxId));
+                } else if (name.startsWith("extra")) {
+                    assertEquals("y", Float.parseFloat(name.substring(5)), rg.getFloatValue(newAttrY, vxId));
+                }
+            }
+        } finally {
+            rg.release();
+        }
+    }
+
     // determine whether the node of the specified name exists in the graph
     private boolean nodeFound(ReadableGraph graph, String base_name) {
         int nameAttrId = graph.getAttribute(GraphElementType.VERTEX, "name");
@@ -132,7 +132,10 @@ import java.util.stream.IntStream;
  * the values that existed before the original operation occurred. Therefore, if
  * attempting to detect changes in the graph, it is important that a test for
  * inequality is performed, rather than testing for a modification counter that
- * is greater than previously seen.
+ * is greater than previously seen. A different change made after an undo can
+ * return a counter to a value seen before, so the graph also has an undo
+ * counter that is incremented each time an operation is undone and is never
+ * decremented.
  *
  * <h3>Undo/Redo</h3>
  * The graph automatically records all operations performed on it to allow for
@@ -267,6 +270,47 @@ public interface GraphReadMethods extends GraphConstants {
      */
     long getValueModificationCounter(final int attribute);
 
+    /**
+     * Returns the undo counter of the graph. This counter is increased every
+     * time a modification of the graph is undone, and unlike the other
+     * modification counters it is never reverted.
+     * <p>
+     * Undoing a modification is the only way that the other modification
+     * counters decrease, so a counter can have the same value after a
+     * different set of changes once a modification has been undone. While
+     * this counter is unchanged, a modification counter that has the same
+     * value as before means that nothing it counts has changed.
+     *
+     * @return the undo counter of the graph.
+     */
+    long getUndoCounter();
+
+    /**
+     * Returns the ids of the elements whose value for the specified attribute
+     * has been set since the value modification counter of the attribute had
+     * the specified value. This allows listeners to update only the elements
+     * that have changed instead of every element of the graph.
+     * <p>
+     * A graph is not required to know which elements have changed, and
+     * typically only starts recording them for an attribute the first time
+     * this method is called for it. A null result means that the modified
+     * elements are unknown, in which case any element should be assumed to
+     * have changed.
+     * <p>
+     * Once a modification has been undone, a value modification counter can
+     * return to a value it had before with different attribute values, so a
+     * counter read before the {@link #getUndoCounter() undo counter} last
+     * changed must not be passed to this method.
+     *
+     * @param attribute the attribute.
+     * @param modificationCounter a value modification counter previously
+     * returned by {@link #getValueModificationCounter(int)} for the attribute,
+     * while the undo counter had its current value.
+     * @return the ids of the modified elements in ascending order, or null if
+     * they are unknown.
+     */
+    int[] getModifiedElements(final int attribute, final long modificationCounter);
+
     /**
      * Creates a complete deep copy of the graph that has the same id as this
      * graph. The copy is represented by a GraphReadMethods object meaning that
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph;
+
+import java.util.Arrays;
+
+/**
+ * A bounded log of the elements whose value for a single attribute has been
+ * set, used by a {@link StoreGraph} to answer
+ * {@link GraphReadMethods#getModifiedElements getModifiedElements()}.
+ * <p>
+ * Each entry holds the id of the modified element and the value modification
+ * counter of the attribute after the modification. The log also remembers the
+ * counter at which it started, so the elements modified since any counter
+ * that appears in the log can be found. When the log is full it is cleared and
+ * restarted, so a caller that has fallen too far behind is told that the
+ * modified elements are unknown rather than given a partial answer.
+ *
+ * @author sirius
+ */
+final class ModifiedElementLog {
+
+    /**
+     * Once this many modifications have been logged the log is restarted.
+     * Changes this large are cheaper to handle in full than element by element.
+     */
+    static final int MAX_SIZE = 16384;
+
+    private int[] ids = new int[16];
+    private long[] counters = new long[16];
+    private int size = 0;
+    private long baseCounter;
+
+    /**
+     * Create a new log.
+     *
+     * @param baseCounter the value modification counter of the attribute when
+     * logging starts.
+     */
+    ModifiedElementLog(final long baseCounter) {
+        this.baseCounter = baseCounter;
+    }
+
+    /**
+     * Log the modification of an element.
+     *
+     * @param id the id of the modified element.
+     * @param counter the value modification counter of the attribute after the
+     * modification.
+     */
+    void record(final int id, final long counter) {
+        if (size == MAX_SIZE) {
+            reset(counters[size - 1]);
+        } else if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            counters = Arrays.copyOf(counters, size * 2);
+        }
+        ids[size] = id;
+        counters[size] = counter;
+        size++;
+    }
+
+    /**
+     * Forget all logged modifications and restart the log. This is used when
+     * the attribute has been modified in a way that can't be attributed to
+     * individual elements.
+     *
+     * @param counter the value modification counter of the attribute when
+     * logging restarts.
+     */
+    void reset(final long counter) {
+        size = 0;
+        baseCounter = counter;
+    }
+
+    /**
+     * Get the ids of the elements modified since the attribute had the
+     * specified value modification counter.
+     * <p>
+     * The counter decreases when modifications are undone, after which it can
+     * return to a value it had before with different attribute values, so the
+     * graph resets the log whenever a modification is undone. The counters in
+     * the log then increase from the base counter, and appear at most once.
+     *
+     * @param counter a previous value modification counter of the attribute,
+     * read since a modification was last undone.
+     * @return the ids of the modified elements in ascending order without
+     * duplicates, or null if the counter does not appear in the log.
+     */
+    int[] getModifiedSince(final long counter) {
+        int start = -1;
+        for (int i = size - 1; i >= 0; i--) {
+            if (counters[i] == counter) {
+                start = i + 1;
+                break;
+            }
+        }
+        if (start < 0) {
+            if (counter != baseCounter) {
+                return null;
+            }
+            start = 0;
+        }
+
+        final int[] modified = Arrays.copyOfRange(ids, start, size);
+        Arrays.sort(modified);
+        int count = 0;
+        for (int i = 0; i < modified.length; i++) {
+            if (i == 0 || modified[i] != modified[i - 1]) {
+                modified[count++] = modified[i];
+            }
+        }
+        return count == modified.length ? modified : Arrays.copyOf(modified, count);
+    }
+}
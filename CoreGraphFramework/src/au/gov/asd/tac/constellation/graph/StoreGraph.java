@@ -95,10 +95,12 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
     private GraphIndex[] attributeIndices;
     private final Map<String, int[]> attributeNames;
     private long[] attributeModificationCounters;
+    private ModifiedElementLog[] modifiedElementLogs;
     private AttributeRegistry attributeRegistry;
     private long globalModificationCounter = 0;
     private long attributeModificationCounter = 0;
     private long structureModificationCounter = 0;
+    private long undoCounter = 0;
     private long lastFiredModificationCount = Long.MIN_VALUE;
     protected final int[][] primaryKeys;
     private int[] primaryKeyLookup;
@@ -189,6 +191,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         attributes = new GraphAttribute[attributeCapacity];
         attributeNames = new HashMap<>();
         attributeModificationCounters = new long[attributeCapacity];
+        modifiedElementLogs = new ModifiedElementLog[attributeCapacity];
 
         attributeIndices = new GraphIndex[attributeCapacity];
         Arrays.fill(attributeIndices, AttributeDescription.NULL_GRAPH_INDEX);
@@ -322,6 +325,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         this.globalModificationCounter = original.globalModificationCounter;
         this.attributeModificationCounter = original.attributeModificationCounter;
         this.structureModificationCounter = original.structureModificationCounter;
+        this.undoCounter = original.undoCounter;
 
         this.lastFiredModificationCount = original.lastFiredModificationCount;
 
@@ -343,6 +347,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             this.attributeNames.put(e.getKey(), Arrays.copyOf(e.getValue(), e.getValue().length));
         }
         this.attributeModificationCounters = Arrays.copyOf(original.attributeModificationCounters, original.attributeModificationCounters.length);
+        this.modifiedElementLogs = new ModifiedElementLog[original.modifiedElementLogs.length];
 
         this.primaryKeys = new int[original.primaryKeys.length][];
         for (int i = 0; i < this.primaryKeys.length; i++) {
@@ -390,6 +395,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
     public void setValueModificationCounter(final int attribute, final long modificationCounter) {
         attributeModificationCounters[attribute] = modificationCounter;
+        modifiedElementLogs[attribute] = null;
     }
 
     @Override
@@ -560,6 +566,59 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         return attributeModificationCounters[attribute];
     }
 
+    @Override
+    public long getUndoCounter() {
+        return undoCounter;
+    }
+
+    @Override
+    public void setOperationMode(final GraphOperationMode operationMode) {
+        // the modification counters may have returned to values they had before the undone modification
+        if (this.operationMode.getModificationIncrement() < 0 && operationMode != this.operationMode) {
+            // a rolled back edit was never seen by readers, so it doesn't count as an undo
+            if (this.operationMode == GraphOperationMode.UNDO) {
+                undoCounter++;
+            }
+            for (int attribute = 0; attribute < modifiedElementLogs.length; attribute++) {
+                resetModifiedElements(attribute);
+            }
+        }
+        super.setOperationMode(operationMode);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A StoreGraph starts logging the modified elements of an attribute the
+     * first time this method is called for it, so the first call always
+     * returns null. Creating the log is the only change made to the graph, so
+     * this is safe to call while holding a read lock. The log is bounded, so
+     * null is also returned after very large changes.
+     */
+    @Override
+    public int[] getModifiedElements(final int attribute, final long modificationCounter) {
+        final ModifiedElementLog log = modifiedElementLogs[attribute];
+        if (log == null) {
+            modifiedElementLogs[attribute] = new ModifiedElementLog(attributeModificationCounters[attribute]);
+            return null;
+        }
+        return log.getModifiedSince(modificationCounter);
+    }
+
+    private void recordModifiedElement(final int attribute, final int id) {
+        final ModifiedElementLog log = modifiedElementLogs[attribute];
+        if (log != null) {
+            log.record(id, attributeModificationCounters[attribute]);
+        }
+    }
+
+    private void resetModifiedElements(final int attribute) {
+        final ModifiedElementLog log = modifiedElementLogs[attribute];
+        if (log != null) {
+            log.reset(attributeModificationCounters[attribute]);
+        }
+    }
+
     @Override
     public int getVertexCapacity() {
         return vStore.getCapacity();
@@ -1399,6 +1458,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             attributeDescriptions = Arrays.copyOf(attributeDescriptions, aStore.getCapacity());
             attributes = Arrays.copyOf(attributes, aStore.getCapacity());
             attributeModificationCounters = Arrays.copyOf(attributeModificationCounters, aStore.getCapacity());
+            modifiedElementLogs = Arrays.copyOf(modifiedElementLogs, aStore.getCapacity());
 
             attributeIndices = Arrays.copyOf(attributeIndices, aStore.getCapacity());
             Arrays.fill(attributeIndices, oldAttributeCapacity, aStore.getCapacity(), AttributeDescription.NULL_GRAPH_INDEX);
@@ -1601,6 +1661,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         aStore.setUID(attributeId, globalModificationCounter);
 
         attributeModificationCounters[attributeId] = 0;
+        modifiedElementLogs[attributeId] = null;
 
         typeAttributes.addElement(elementType.ordinal(), attributeId, 0);
 
@@ -1824,6 +1885,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             attributeDescriptions[attribute].clear(id);
             attributeIndices[attribute].updateElement(id);
             attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            recordModifiedElement(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -1839,6 +1901,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
                 attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                recordModifiedElement(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1854,6 +1917,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             attributeDescriptions[attribute].setByte(id, value);
             attributeIndices[attribute].updateElement(id);
             attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            recordModifiedElement(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -1869,6 +1933,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
                 attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                recordModifiedElement(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1884,6 +1949,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             attributeDescriptions[attribute].setShort(id, value);
             attributeIndices[attribute].updateElement(id);
             attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            recordModifiedElement(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -1899,6 +1965,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
                 attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                recordModifiedElement(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1914,6 +1981,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             attributeDescriptions[attribute].setInt(id, value);
             attributeIndices[attribute].updateElement(id);
             attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            recordModifiedElement(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -1929,6 +1997,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
                 attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                recordModifiedElement(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1944,6 +2013,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             attributeDescriptions[attribute].setLong(id, value);
             attributeIndices[attribute].updateElement(id);
             attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            recordModifiedElement(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -1959,6 +2029,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
                 attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                recordModifiedElement(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -1974,6 +2045,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             attributeDescriptions[attribute].setFloat(id, value);
             attributeIndices[attribute].updateElement(id);
             attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            recordModifiedElement(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -1989,6 +2061,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
                 attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                recordModifiedElement(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2004,6 +2077,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             attributeDescriptions[attribute].setDouble(id, value);
             attributeIndices[attribute].updateElement(id);
             attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            recordModifiedElement(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -2019,6 +2093,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
                 attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                recordModifiedElement(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2034,6 +2109,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             attributeDescriptions[attribute].setBoolean(id, value);
             attributeIndices[attribute].updateElement(id);
             attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            recordModifiedElement(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -2049,6 +2125,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
                 attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                recordModifiedElement(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2065,6 +2142,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             attributeDescriptions[attribute].setChar(id, value);
             attributeIndices[attribute].updateElement(id);
             attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            recordModifiedElement(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -2080,6 +2158,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
                 attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                recordModifiedElement(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2095,6 +2174,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             attributeDescriptions[attribute].setString(id, value);
             attributeIndices[attribute].updateElement(id);
             attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            recordModifiedElement(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -2110,6 +2190,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
                 attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                recordModifiedElement(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2125,6 +2206,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             attributeDescriptions[attribute].setObject(id, value);
             attributeIndices[attribute].updateElement(id);
             attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+            recordModifiedElement(attribute, id);
             globalModificationCounter += operationMode.getModificationIncrement();
             int keyType = primaryKeyLookup[attribute];
             if (keyType >= 0) {
@@ -2140,6 +2222,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             if (nativeType.addEdit(this, graphEdit, attribute, id, oldValue)) {
                 attributeIndices[attribute].updateElement(id);
                 attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+                recordModifiedElement(attribute, id);
                 globalModificationCounter += operationMode.getModificationIncrement();
                 int keyType = primaryKeyLookup[attribute];
                 if (keyType >= 0) {
@@ -2161,6 +2244,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         for (int oldPrimaryKey : oldPrimaryKeys) {
             primaryKeyLookup[oldPrimaryKey] = -1;
             attributeModificationCounters[oldPrimaryKey]++;
+            resetModifiedElements(oldPrimaryKey);
             attributeModificationCounter++;
         }
 
@@ -2169,6 +2253,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         for (int attribute : newPrimaryKeys) {
             primaryKeyLookup[attribute] = elementType.ordinal();
             attributeModificationCounters[attribute]++;
+            resetModifiedElements(attribute);
             attributeModificationCounter++;
         }
 
@@ -2328,7 +2413,9 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
     protected void restore(final int attribute, final int id, final ParameterReadAccess access) {
         attributeDescriptions[attribute].restore(id, access);
+        attributeIndices[attribute].updateElement(id);
         attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+        recordModifiedElement(attribute, id);
         globalModificationCounter += operationMode.getModificationIncrement();
     }
 
@@ -2338,7 +2425,9 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
 
     protected void restoreData(final int attribute, final Object savedData) {
         attributeDescriptions[attribute].restoreData(savedData);
+        rebuildIndex(attribute);
         attributeModificationCounters[attribute] += operationMode.getModificationIncrement();
+        resetModifiedElements(attribute);
         globalModificationCounter += operationMode.getModificationIncrement();
     }
 
@@ -2376,14 +2465,7 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
             AttributeDescription attributeDescription = attributeDescriptions[attribute];
             if (attributeDescription.supportsIndexType(indexType)) {
                 attributeIndexTypes[attribute] = indexType;
-                GraphIndex index = attributeIndices[attribute] = attributeDescription.createIndex(indexType);
-
-                GraphElementType elementType = attributes[attribute].getElementType();
-                int elementCount = elementType.getElementCount(this);
-                for (int i = 0; i < elementCount; i++) {
-                    int element = elementType.getElement(this, i);
-                    index.addElement(element);
-                }
+                rebuildIndex(attribute);
 
                 if (graphEdit != null) {
                     graphEdit.setAttributeIndexType(attribute, oldIndexType, indexType);
@@ -2392,6 +2474,30 @@ public class StoreGraph extends LockingTarget implements GraphWriteMethods, Seri
         }
     }
 
+    /**
+     * Replace the index for the specified attribute with a newly created index
+     * of the current index type, populated with all existing elements. This is
+     * required whenever the attribute values are replaced wholesale rather
+     * than through the individual value setters.
+     *
+     * @param attribute the attribute whose index should be rebuilt.
+     */
+    private void rebuildIndex(final int attribute) {
+        final GraphIndexType indexType = attributeIndexTypes[attribute];
+        if (indexType == GraphIndexType.NONE) {
+            attributeIndices[attribute] = AttributeDescription.NULL_GRAPH_INDEX;
+            return;
+        }
+
+        final GraphIndex index = attributeIndices[attribute] = attributeDescriptions[attribute].createIndex(indexType);
+        final GraphElementType elementType = attributes[attribute].getElementType();
+        final int elementCount = elementType.getElementCount(this);
+        for (int i = 0; i < elementCount; i++) {
+            final int element = elementType.getElement(this, i);
+            index.addElement(element);
+        }
+    }
+
     public AttributeRegistry getAttributeRegistry() {
         return attributeRegistry;
     }
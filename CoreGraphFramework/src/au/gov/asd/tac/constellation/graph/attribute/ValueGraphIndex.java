@@ -0,0 +1,283 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphIndex;
+import au.gov.asd.tac.constellation.graph.GraphIndexResult;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * A general purpose {@link GraphIndex} for attributes whose values can be
+ * represented as objects with well behaved equals and hashCode methods (and,
+ * for ordered indices, a natural ordering).
+ * <p>
+ * Elements with equal values are grouped into buckets, where each bucket is a
+ * doubly linked list of element ids held in primitive arrays. An
+ * {@link GraphIndexType#UNORDERED} index locates buckets through a hash map,
+ * whilst an {@link GraphIndexType#ORDERED} index uses a sorted map and so is
+ * also able to answer range queries. Null values are held in their own bucket
+ * and are never included in the result of a range query.
+ * <p>
+ * The index remembers which bucket each element belongs to, and the value
+ * each bucket was created for, so it can be updated correctly after the
+ * underlying attribute value has already been overwritten.
+ *
+ * @author cygnus_x-1
+ */
+public final class ValueGraphIndex implements GraphIndex {
+
+    private static final int NO_BUCKET = -1;
+
+    private final IntFunction<Object> valueReader;
+    private final Function<Object, Object> valueConverter;
+    private final Map<Object, Integer> buckets;
+    private int nullBucket = NO_BUCKET;
+
+    private int[] elementBuckets;
+    private int[] nextElements;
+    private int[] previousElements;
+
+    private int[] bucketHeads = new int[16];
+    private int[] bucketSizes = new int[16];
+    private Object[] bucketValues = new Object[16];
+    private int bucketCapacity = 0;
+    private int[] freeBuckets = new int[16];
+    private int freeBucketCount = 0;
+
+    /**
+     * Create a new index.
+     *
+     * @param indexType the type of index, either
+     * {@link GraphIndexType#UNORDERED} or {@link GraphIndexType#ORDERED}.
+     * @param capacity the initial element capacity of the index.
+     * @param valueReader a function that returns the current value of the
+     * attribute for the specified element id. The returned values must be
+     * {@link Comparable} if the index is ordered.
+     * @param valueConverter a function that converts a query value into the
+     * same form as the values returned by the value reader.
+     */
+    public ValueGraphIndex(final GraphIndexType indexType, final int capacity, final IntFunction<Object> valueReader, final Function<Object, Object> valueConverter) {
+        if (indexType == GraphIndexType.NONE) {
+            throw new IllegalArgumentException("A value index must be either ordered or unordered");
+        }
+        this.valueReader = valueReader;
+        this.valueConverter = valueConverter;
+        this.buckets = indexType == GraphIndexType.ORDERED ? new TreeMap<>() : new HashMap<>();
+
+        elementBuckets = new int[capacity];
+        Arrays.fill(elementBuckets, NO_BUCKET);
+        nextElements = new int[capacity];
+        previousElements = new int[capacity];
+    }
+
+    @Override
+    public void addElement(final int element) {
+        if (elementBuckets[element] != NO_BUCKET) {
+            removeElement(element);
+        }
+
+        final Object value = valueReader.apply(element);
+        final int bucket;
+        if (value == null) {
+            if (nullBucket == NO_BUCKET) {
+                nullBucket = createBucket(null);
+            }
+            bucket = nullBucket;
+        } else {
+            final Integer existingBucket = buckets.get(value);
+            if (existingBucket == null) {
+                bucket = createBucket(value);
+                buckets.put(value, bucket);
+            } else {
+                bucket = existingBucket;
+            }
+        }
+
+        final int head = bucketHeads[bucket];
+        elementBuckets[element] = bucket;
+        previousElements[element] = Graph.NOT_FOUND;
+        nextElements[element] = head;
+        if (head != Graph.NOT_FOUND) {
+            previousElements[head] = element;
+        }
+        bucketHeads[bucket] = element;
+        bucketSizes[bucket]++;
+    }
+
+    @Override
+    public void removeElement(final int element) {
+        final int bucket = elementBuckets[element];
+        if (bucket == NO_BUCKET) {
+            return;
+        }
+
+        final int previous = previousElements[element];
+        final int next = nextElements[element];
+        if (previous == Graph.NOT_FOUND) {
+            bucketHeads[bucket] = next;
+        } else {
+            nextElements[previous] = next;
+        }
+        if (next != Graph.NOT_FOUND) {
+            previousElements[next] = previous;
+        }
+        elementBuckets[element] = NO_BUCKET;
+
+        if (--bucketSizes[bucket] == 0) {
+            if (bucket == nullBucket) {
+                nullBucket = NO_BUCKET;
+            } else {
+                buckets.remove(bucketValues[bucket]);
+            }
+            releaseBucket(bucket);
+        }
+    }
+
+    @Override
+    public void updateElement(final int element) {
+        removeElement(element);
+        addElement(element);
+    }
+
+    @Override
+    public GraphIndexResult getElementsWithAttributeValue(final Object value) {
+        final Object key = value == null ? null : valueConverter.apply(value);
+        final int bucket;
+        if (key == null) {
+            bucket = nullBucket;
+        } else {
+            final Integer existingBucket = buckets.get(key);
+            bucket = existingBucket == null ? NO_BUCKET : existingBucket;
+        }
+        return bucket == NO_BUCKET ? new IndexResult(new int[0], 0) : new IndexResult(new int[]{bucket}, bucketSizes[bucket]);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked") // The map will always be a TreeMap when the index is ordered
+    public GraphIndexResult getElementsWithAttributeValueRange(final Object start, final Object end) {
+        if (!(buckets instanceof NavigableMap)) {
+            return null;
+        }
+
+        final NavigableMap<Object, Integer> sortedBuckets = (NavigableMap<Object, Integer>) buckets;
+        final Object startKey = start == null ? null : valueConverter.apply(start);
+        final Object endKey = end == null ? null : valueConverter.apply(end);
+
+        final Collection<Integer> range;
+        if (startKey == null && endKey == null) {
+            range = sortedBuckets.values();
+        } else if (startKey == null) {
+            range = sortedBuckets.headMap(endKey, false).values();
+        } else if (endKey == null) {
+            range = sortedBuckets.tailMap(startKey, true).values();
+        } else if (((Comparable<Object>) startKey).compareTo(endKey) >= 0) {
+            return new IndexResult(new int[0], 0);
+        } else {
+            range = sortedBuckets.subMap(startKey, true, endKey, false).values();
+        }
+
+        final int[] rangeBuckets = new int[range.size()];
+        int count = 0;
+        int position = 0;
+        for (final int bucket : range) {
+            rangeBuckets[position++] = bucket;
+            count += bucketSizes[bucket];
+        }
+        return new IndexResult(rangeBuckets, count);
+    }
+
+    @Override
+    public void expandCapacity(final int newCapacity) {
+        final int oldCapacity = elementBuckets.length;
+        if (newCapacity > oldCapacity) {
+            elementBuckets = Arrays.copyOf(elementBuckets, newCapacity);
+            Arrays.fill(elementBuckets, oldCapacity, newCapacity, NO_BUCKET);
+            nextElements = Arrays.copyOf(nextElements, newCapacity);
+            previousElements = Arrays.copyOf(previousElements, newCapacity);
+        }
+    }
+
+    private int createBucket(final Object value) {
+        final int bucket;
+        if (freeBucketCount > 0) {
+            bucket = freeBuckets[--freeBucketCount];
+        } else {
+            if (bucketCapacity == bucketHeads.length) {
+                bucketHeads = Arrays.copyOf(bucketHeads, bucketCapacity << 1);
+                bucketSizes = Arrays.copyOf(bucketSizes, bucketCapacity << 1);
+                bucketValues = Arrays.copyOf(bucketValues, bucketCapacity << 1);
+            }
+            bucket = bucketCapacity++;
+        }
+        bucketHeads[bucket] = Graph.NOT_FOUND;
+        bucketSizes[bucket] = 0;
+        bucketValues[bucket] = value;
+        return bucket;
+    }
+
+    private void releaseBucket(final int bucket) {
+        bucketValues[bucket] = null;
+        if (freeBucketCount == freeBuckets.length) {
+            freeBuckets = Arrays.copyOf(freeBuckets, freeBucketCount << 1);
+        }
+        freeBuckets[freeBucketCount++] = bucket;
+    }
+
+    private class IndexResult implements GraphIndexResult {
+
+        private final int[] resultBuckets;
+        private int count;
+        private int bucketPosition = 0;
+        private int nextElement;
+
+        public IndexResult(final int[] resultBuckets, final int count) {
+            this.resultBuckets = resultBuckets;
+            this.count = count;
+            this.nextElement = resultBuckets.length > 0 ? bucketHeads[resultBuckets[0]] : Graph.NOT_FOUND;
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public int getNextElement() {
+            if (count == 0) {
+                return Graph.NOT_FOUND;
+            }
+            while (nextElement == Graph.NOT_FOUND) {
+                if (++bucketPosition >= resultBuckets.length) {
+                    return Graph.NOT_FOUND;
+                }
+                nextElement = bucketHeads[resultBuckets[bucketPosition]];
+            }
+            final int element = nextElement;
+            nextElement = nextElements[element];
+            count--;
+            return element;
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package au.gov.asd.tac.constellation.graph.attribute;
 
+import au.gov.asd.tac.constellation.graph.GraphIndex;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
 import au.gov.asd.tac.constellation.utilities.temporal.TemporalConstants;
 import au.gov.asd.tac.constellation.utilities.temporal.TemporalFormatting;
 import au.gov.asd.tac.constellation.utilities.temporal.TimeZoneUtilities;
@@ -143,4 +145,20 @@ public final class ZonedDateTimeAttributeDescription extends AbstractObjectAttri
     public int hashCode(final int id) {
         return data[id] == null ? 0 : ((ZonedDateTime) data[id]).toInstant().hashCode();
     }
+
+    @Override
+    public boolean supportsIndexType(final GraphIndexType indexType) {
+        return true;
+    }
+
+    @Override
+    public GraphIndex createIndex(final GraphIndexType indexType) {
+        // index by instant so that the same instant in different time zones is in the same bucket, as in hashCode(int)
+        return indexType == GraphIndexType.NONE ? NULL_GRAPH_INDEX : new ValueGraphIndex(indexType, data.length,
+                id -> toEpochMilli(data[id]), value -> toEpochMilli(convertFromObject(value)));
+    }
+
+    private static Long toEpochMilli(final Object value) {
+        return value == null ? null : ((ZonedDateTime) value).toInstant().toEpochMilli();
+    }
 }
@@ -18,8 +18,11 @@ package au.gov.asd.tac.constellation.graph.attribute.io;
 import au.gov.asd.tac.constellation.utilities.stream.ExtendedBuffer;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
@@ -35,11 +38,32 @@ import java.util.zip.ZipInputStream;
  */
 public class GraphByteReader {
 
-    private ZipFile zf;
-    private final Map<String, ExtendedBuffer> contents = new HashMap<>();
+    private final Map<String, ExtendedBuffer> contents = new ConcurrentHashMap<>();
 
-    public GraphByteReader(final ZipFile zf) {
-        this.zf = zf;
+    /**
+     * Read the contents of every entry in a zip file.
+     * <p>
+     * Unlike a zip stream, a zip file allows its entries to be decompressed
+     * independently, so the entries are read in parallel.
+     *
+     * @param zf The zip file to read.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public GraphByteReader(final ZipFile zf) throws IOException {
+        try {
+            Collections.list(zf.entries()).parallelStream().forEach(entry -> {
+                final ExtendedBuffer out = new ExtendedBuffer(1 << 16);
+                try (final InputStream in = zf.getInputStream(entry); final OutputStream outStream = out.getOutputStream()) {
+                    GraphByteWriter.copy(in, outStream);
+                    contents.put(entry.getName(), out);
+                } catch (final IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (final UncheckedIOException ex) {
+            throw ex.getCause();
+        }
     }
 
     public GraphByteReader(final InputStream in) throws IOException {
@@ -20,9 +20,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Provide a mechanism for GraphIOProviders to write data to ancillary files in
@@ -47,7 +47,8 @@ public final class GraphByteWriter {
      * Construct a new instance.
      */
     public GraphByteWriter() {
-        fileMap = new HashMap<>();
+        // IO providers may write ancillary data from several threads at once.
+        fileMap = new ConcurrentHashMap<>();
     }
 
     /**
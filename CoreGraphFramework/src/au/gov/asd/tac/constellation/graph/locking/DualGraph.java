@@ -214,4 +214,14 @@ public class DualGraph implements Graph, Serializable {
     public void setUndoManager(final UndoManager undoManager) {
         lockingManager.setUndoManager(undoManager);
     }
+
+    /**
+     * Get the locking manager of this graph, which can be used to configure
+     * how commits are replayed and to retrieve commit timings.
+     *
+     * @return the locking manager of this graph.
+     */
+    public LockingManager<LockingStoreGraph> getLockingManager() {
+        return lockingManager;
+    }
 }
@@ -16,7 +16,7 @@
 package au.gov.asd.tac.constellation.graph.locking;
 
 /**
- * The GraphOperationMode represents the three possible modification modes of a
+ * The GraphOperationMode represents the possible modification modes of a
  * graph.
  *
  * @author sirius
@@ -47,6 +47,15 @@ public enum GraphOperationMode {
      * these operations to an undo stack.
      */
     REDO(1) {
+    },
+    /**
+     * Roll back mode. This represents the mode where the operations of an edit
+     * that failed are being undone before the edit is committed. As in undo
+     * mode, the graph modification counters are adjusted in the negative
+     * direction, but the edit was never visible to readers of the graph so
+     * this does not count as an undo.
+     */
+    ROLLBACK(-1) {
     };
 
     private final long modificationIncrement;
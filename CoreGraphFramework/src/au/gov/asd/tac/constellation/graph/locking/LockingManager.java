@@ -21,10 +21,17 @@ import au.gov.asd.tac.constellation.graph.undo.UndoGraphEdit;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.SwingUtilities;
 import javax.swing.event.UndoableEditEvent;
 import javax.swing.undo.CannotRedoException;
@@ -41,6 +48,21 @@ import javax.swing.undo.UndoableEdit;
  */
 public class LockingManager<T extends LockingTarget> implements Serializable {
 
+    private static final Logger LOGGER = Logger.getLogger(LockingManager.class.getName());
+
+    /**
+     * The system property used to choose whether commits replay their changes
+     * onto the stale graph in the background. Background replay is enabled
+     * unless this property is set to false.
+     */
+    public static final String BACKGROUND_REPLAY_PROPERTY = "constellation.graph.backgroundReplay";
+
+    private static final ExecutorService REPLAY_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "Graph Commit Replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     public static final boolean VERBOSE = false;
     private final ReentrantLock globalWriteLock = new ReentrantLock(true);
     private Context a;
@@ -51,6 +73,14 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
     private LockingEdit initialEdit = null;
     private UndoManager undoManager;
 
+    private volatile boolean backgroundReplay = Boolean.parseBoolean(System.getProperty(BACKGROUND_REPLAY_PROPERTY, "true"));
+    private transient volatile CompletableFuture<Void> pendingReplay = null;
+    private final AtomicLong commitCount = new AtomicLong();
+    private final AtomicLong totalLockWaitNanos = new AtomicLong();
+    private final AtomicLong totalReplayNanos = new AtomicLong();
+    private volatile long lastLockWaitNanos = 0;
+    private volatile long lastReplayNanos = 0;
+
     public void setTargets(final T targetA, final T targetB) {
         a = readContext = new Context(targetA);
         b = writeContext = new Context(targetB);
@@ -62,6 +92,115 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
         this.undoManager = undoManager;
     }
 
+    /**
+     * Choose whether a commit replays its changes onto the stale graph in the
+     * background.
+     * <p>
+     * When a commit replays synchronously, the committing thread holds the
+     * global write lock until the stale graph has caught up. When it replays
+     * in the background, the committing thread returns as soon as the graphs
+     * have been swapped, so readers and listeners see the new graph
+     * immediately, and the next writer waits for the replay to finish before
+     * it is given the graph. If a background replay fails, writers are refused
+     * with an {@link IllegalStateException} rather than given a graph that is
+     * only partly up to date.
+     *
+     * @param backgroundReplay true to replay commits in the background.
+     */
+    public void setBackgroundReplay(final boolean backgroundReplay) {
+        this.backgroundReplay = backgroundReplay;
+    }
+
+    public boolean isBackgroundReplay() {
+        return backgroundReplay;
+    }
+
+    /**
+     * The number of top level commits that have been replayed onto the stale
+     * graph.
+     *
+     * @return the number of commits.
+     */
+    public long getCommitCount() {
+        return commitCount.get();
+    }
+
+    /**
+     * The time spent by the most recent commit waiting for readers of the
+     * stale graph to release it before its changes could be replayed.
+     *
+     * @return the lock wait time in nanoseconds.
+     */
+    public long getLastLockWaitNanos() {
+        return lastLockWaitNanos;
+    }
+
+    /**
+     * The time spent by the most recent commit replaying its changes onto the
+     * stale graph, excluding the time spent waiting for the lock.
+     *
+     * @return the replay time in nanoseconds.
+     */
+    public long getLastReplayNanos() {
+        return lastReplayNanos;
+    }
+
+    public long getTotalLockWaitNanos() {
+        return totalLockWaitNanos.get();
+    }
+
+    public long getTotalReplayNanos() {
+        return totalReplayNanos.get();
+    }
+
+    /**
+     * Wait for any commit that is still being replayed in the background to
+     * finish. This must be called while holding the global write lock, before
+     * the write context is used.
+     *
+     * @throws IllegalStateException if the replay failed, leaving the write
+     * context only partly up to date. The failed replay is kept, so every
+     * later writer is refused as well.
+     */
+    private void awaitReplay() {
+        final CompletableFuture<Void> replay = pendingReplay;
+        if (replay != null) {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        replay.get();
+                        break;
+                    } catch (final InterruptedException ex) {
+                        // The write context is unusable until the replay finishes, so keep waiting
+                        interrupted = true;
+                    } catch (final ExecutionException ex) {
+                        LOGGER.log(Level.SEVERE, "Background replay of a graph commit failed", ex.getCause());
+                        throw new IllegalStateException("The graph can not be written because a commit could not be replayed", ex.getCause());
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            pendingReplay = null;
+        }
+    }
+
+    /**
+     * Wait for any background replay after acquiring the global write lock,
+     * releasing the lock again if the replay failed.
+     */
+    private void awaitReplayOrUnlock() {
+        try {
+            awaitReplay();
+        } catch (final IllegalStateException ex) {
+            globalWriteLock.unlock();
+            throw ex;
+        }
+    }
+
     private final class Context {
 
         ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
@@ -78,6 +217,7 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
         }
 
         globalWriteLock.lockInterruptibly();
+        awaitReplayOrUnlock();
         if (currentEdit == null) {
             currentEdit = new LockingEdit(name, significant, source);
             initialEdit = currentEdit;
@@ -105,6 +245,7 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
 
         try {
             if (globalWriteLock.tryLock(0, TimeUnit.SECONDS)) {
+                awaitReplayOrUnlock();
                 if (currentEdit == null) {
                     currentEdit = new LockingEdit(name, significant, source);
                     initialEdit = currentEdit;
@@ -238,6 +379,7 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
                 // Get the global write lock because we will change the graph
                 globalWriteLock.lock();
                 try {
+                    awaitReplay();
                     writeContext.target.setOperationMode(GraphOperationMode.UNDO);
                     undo(writeContext.target);
                     writeContext.target.validateKeys();
@@ -284,6 +426,7 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
                 // Get the global write lock because we will change the graph
                 globalWriteLock.lock();
                 try {
+                    awaitReplay();
                     writeContext.target.setOperationMode(GraphOperationMode.REDO);
                     execute(writeContext.target);
                     writeContext.target.validateKeys();
@@ -386,16 +529,21 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
                 Context originalReadContext = readContext;
                 readContext = writeContext;
 
-                originalReadContext.lock.writeLock().lock();
-                try {
-                    execute(originalReadContext.target);
-                    originalReadContext.target.validateKeys();
-                } finally {
-                    originalReadContext.lock.writeLock().unlock();
+                if (backgroundReplay) {
+                    // The write context is not reassigned until the replay is complete,
+                    // and the next writer will wait for that in awaitReplay().
+                    pendingReplay = CompletableFuture.runAsync(() -> {
+                        try {
+                            replay(originalReadContext);
+                        } finally {
+                            writeContext = originalReadContext;
+                        }
+                    }, REPLAY_EXECUTOR);
+                } else {
+                    replay(originalReadContext);
+                    writeContext = originalReadContext;
                 }
 
-                writeContext = originalReadContext;
-
                 if (undoManager != null) {
                     SwingUtilities.invokeLater(() -> undoManager.undoableEditHappened(new UndoableEditEvent(LockingManager.this, LockingEdit.this)));
                 }
@@ -430,13 +578,8 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
                 Context originalReadContext = readContext;
                 readContext = writeContext;
 
-                originalReadContext.lock.writeLock().lock();
-                try {
-                    execute(originalReadContext.target);
-                    originalReadContext.target.validateKeys();
-                } finally {
-                    originalReadContext.lock.writeLock().unlock();
-                }
+                // The writer keeps the lock after a flush, so the replay must finish here
+                replay(originalReadContext);
 
                 writeContext = originalReadContext;
 
@@ -462,6 +605,34 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
             return writeContext.target;
         }
 
+        /**
+         * Bring the stale graph in the specified context up to date by
+         * replaying this edit onto it, recording how long was spent waiting
+         * for its readers and replaying.
+         *
+         * @param staleContext the context holding the stale graph.
+         */
+        private void replay(final Context staleContext) {
+            final long waitStart = System.nanoTime();
+            staleContext.lock.writeLock().lock();
+            final long replayStart = System.nanoTime();
+            try {
+                execute(staleContext.target);
+                staleContext.target.validateKeys();
+            } finally {
+                staleContext.lock.writeLock().unlock();
+            }
+            final long replayEnd = System.nanoTime();
+
+            lastLockWaitNanos = replayStart - waitStart;
+            lastReplayNanos = replayEnd - replayStart;
+            totalLockWaitNanos.addAndGet(lastLockWaitNanos);
+            totalReplayNanos.addAndGet(lastReplayNanos);
+            commitCount.incrementAndGet();
+            LOGGER.log(Level.FINE, "Replayed commit \"{0}\": waited {1}ms for lock, replayed in {2}ms", new Object[]{
+                name, TimeUnit.NANOSECONDS.toMillis(lastLockWaitNanos), TimeUnit.NANOSECONDS.toMillis(lastReplayNanos)});
+        }
+
         public void rollBack() {
             rollBack(true);
         }
@@ -469,7 +640,7 @@ public class LockingManager<T extends LockingTarget> implements Serializable {
         public void rollBack(final boolean validateKeys) {
             writeContext.target.setGraphEdit(null);
             finished();
-            writeContext.target.setOperationMode(GraphOperationMode.UNDO);
+            writeContext.target.setOperationMode(GraphOperationMode.ROLLBACK);
             undo(writeContext.target);
             if (validateKeys) {
                 writeContext.target.validateKeys();
@@ -143,7 +143,7 @@ public class GraphRecordStore extends TabularRecordStore {
     /**
      * Append another RecordStore to this GraphRecordStore.
      *
-     * @param recordStore A GraphRecordStore to be appended to this GraphRecordStore.
+     * @param recordStore A RecordStore to be appended to this GraphRecordStore.
      */
     @Override
     public void add(final RecordStore recordStore) {
@@ -159,7 +159,7 @@ public class GraphRecordStore extends TabularRecordStore {
                 }
             }
         } else {
-            super.add();
+            super.add(recordStore);
         }
     }
 
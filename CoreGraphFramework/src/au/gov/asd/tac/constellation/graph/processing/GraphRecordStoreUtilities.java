@@ -35,11 +35,10 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -67,6 +66,16 @@ public class GraphRecordStoreUtilities {
     public static final String COMPLETE_WITH_SCHEMA_KEY = "[complete_with_schema]<string>";
     public static final String DELETE_KEY = "[delete]<string>";
 
+    // The keys which control how a record is added to the graph, indexed by the roles below
+    private static final List<String> SPECIAL_KEYS = Arrays.asList(ID, DELETE_KEY, GHOST, COMPLETE_WITH_SCHEMA_KEY, TYPE_KEY, DIRECTED_KEY);
+    private static final int NO_ROLE = -1;
+    private static final int ROLE_ID = 0;
+    private static final int ROLE_DELETE = 1;
+    private static final int ROLE_GHOST = 2;
+    private static final int ROLE_COMPLETE_WITH_SCHEMA = 3;
+    private static final int ROLE_TYPE = 4;
+    private static final int ROLE_DIRECTED = 5;
+
     private static final String SELECTED_ATTRIBUTE_NAME = "selected";
     private static final String FALSE = "false";
     private static final String NUMBER_STRING_STRING_FORMAT = "%d:%s:%s";
@@ -75,10 +84,230 @@ public class GraphRecordStoreUtilities {
 
     private static final Logger LOGGER = Logger.getLogger(GraphRecordStoreUtilities.class.getName());
 
-    private static int addVertex(final GraphWriteMethods graph, final Map<String, String> values,
+    /**
+     * The keys of a {@link RecordStore} parsed into the columns of the graph elements they are copied to, so that each
+     * key is only parsed once however many records are added to the graph. See {@link ElementColumns}.
+     */
+    private static final class IngestPlan {
+
+        private final ElementColumns source;
+        private final ElementColumns destination;
+        private final ElementColumns transaction;
+
+        private IngestPlan(final RecordStore recordStore, final List<String> vertexIdAttributes) {
+            // The primitive values of a TypedRecordStore are copied directly to the graph, unless they are needed as
+            // strings to build vertex ids
+            final TypedRecordStore typedRecordStore = recordStore instanceof TypedRecordStore && vertexIdAttributes == null ? (TypedRecordStore) recordStore : null;
+
+            final List<String> recordStoreKeys = (recordStore instanceof GraphRecordStore) ? ((GraphRecordStore) recordStore).keysWithType() : recordStore.keys();
+            final List<String[]> sourceKeys = new ArrayList<>();
+            final List<String[]> destinationKeys = new ArrayList<>();
+            final List<String[]> transactionKeys = new ArrayList<>();
+            for (final String key : recordStoreKeys) {
+                final int dividerPosition = key.indexOf('.');
+                if (dividerPosition > 0) {
+                    final String keyDescriptor = key.substring(0, dividerPosition).toLowerCase();
+                    final String[] parts = keyDescriptor.split("\\$"); // TODO: what ??
+
+                    final List<String[]> targetKeys;
+                    switch (parts[0]) {
+                        case "source":
+                            targetKeys = sourceKeys;
+                            break;
+                        case "destination":
+                            targetKeys = destinationKeys;
+                            break;
+                        case "transaction":
+                            targetKeys = transactionKeys;
+                            break;
+                        default:
+                            targetKeys = null;
+                            break;
+                    }
+
+                    if (targetKeys != null) {
+                        targetKeys.add(new String[]{key, key.substring(dividerPosition + 1)});
+                    }
+                }
+            }
+
+            source = new ElementColumns(GraphElementType.VERTEX, sourceKeys, typedRecordStore, vertexIdAttributes);
+            destination = new ElementColumns(GraphElementType.VERTEX, destinationKeys, typedRecordStore, vertexIdAttributes);
+            transaction = new ElementColumns(GraphElementType.TRANSACTION, transactionKeys, typedRecordStore, vertexIdAttributes);
+        }
+
+        /**
+         * Collect the values of the current record of a {@link RecordStore} into the source, destination and
+         * transaction columns.
+         */
+        private void collect(final RecordStore recordStore) {
+            source.collect(recordStore);
+            destination.collect(recordStore);
+            transaction.collect(recordStore);
+        }
+    }
+
+    /**
+     * The keys of a {@link RecordStore} which are copied to a single graph element, and the values of the current
+     * record for each of them.
+     * <p>
+     * The columns are sorted by the attribute they are copied to, which is the order vertex ids are built in. The
+     * attribute of a column is looked up the first time the column has a value, and primitive columns of a
+     * {@link TypedRecordStore} get a {@link TypedRecordStore.ValueWriter} at the same time, so neither is looked up by
+     * name again. When several keys are copied to the same attribute, only the last of them with a value is copied.
+     */
+    private static final class ElementColumns {
+
+        private static final int NO_COLUMN = -1;
+
+        private final GraphElementType elementType;
+        private final TypedRecordStore typedRecordStore;
+        private final String[] keys;
+        private final String[] attributeKeys;
+        private final boolean[] primitive;
+        private final boolean[] sameAttributeAsPrevious;
+        private final int[] roles;
+        private final boolean[] copied;
+        private final int[][] vertexIdColumns;
+        private final int[] attributes;
+        private final TypedRecordStore.ValueWriter[] writers;
+        private int typeAttribute = Graph.NOT_FOUND;
+
+        // The values of the current record
+        private final String[] values;
+        private final boolean[] present;
+        private final int[] roleColumns = new int[SPECIAL_KEYS.size()];
+        private int record;
+        private boolean empty;
+
+        private ElementColumns(final GraphElementType elementType, final List<String[]> columnKeys,
+                final TypedRecordStore typedRecordStore, final List<String> vertexIdAttributes) {
+            this.elementType = elementType;
+            this.typedRecordStore = typedRecordStore;
+
+            // the sort is stable, so keys copied to the same attribute stay in the order of the record store
+            columnKeys.sort((a, b) -> a[1].compareTo(b[1]));
+
+            final int size = columnKeys.size();
+            keys = new String[size];
+            attributeKeys = new String[size];
+            primitive = new boolean[size];
+            sameAttributeAsPrevious = new boolean[size];
+            roles = new int[size];
+            copied = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = columnKeys.get(i)[0];
+                attributeKeys[i] = columnKeys.get(i)[1];
+                sameAttributeAsPrevious[i] = i > 0 && attributeKeys[i].equals(attributeKeys[i - 1]);
+                roles[i] = SPECIAL_KEYS.indexOf(attributeKeys[i]);
+                primitive[i] = typedRecordStore != null && roles[i] == NO_ROLE && typedRecordStore.isPrimitive(keys[i]);
+                copied[i] = roles[i] == NO_ROLE || roles[i] == ROLE_TYPE
+                        || (roles[i] == ROLE_DIRECTED && elementType == GraphElementType.VERTEX)
+                        || (roles[i] == ROLE_GHOST && elementType == GraphElementType.TRANSACTION);
+            }
+
+            final int vertexIdAttributeCount = vertexIdAttributes == null ? 0 : vertexIdAttributes.size();
+            vertexIdColumns = new int[vertexIdAttributeCount][];
+            for (int v = 0; v < vertexIdAttributeCount; v++) {
+                final String vertexIdAttribute = vertexIdAttributes.get(v);
+                vertexIdColumns[v] = IntStream.range(0, size).filter(i -> attributeKeys[i].equals(vertexIdAttribute)).toArray();
+            }
+
+            attributes = new int[size];
+            Arrays.fill(attributes, Graph.NOT_FOUND);
+            writers = new TypedRecordStore.ValueWriter[size];
+            values = new String[size];
+            present = new boolean[size];
+        }
+
+        private void collect(final RecordStore recordStore) {
+            record = recordStore.index();
+            empty = true;
+            Arrays.fill(roleColumns, NO_COLUMN);
+            for (int i = 0; i < keys.length; i++) {
+                present[i] = recordStore.hasValue(keys[i]);
+                if (present[i]) {
+                    empty = false;
+                    values[i] = primitive[i] ? null : recordStore.get(keys[i]);
+                    for (int j = i; sameAttributeAsPrevious[j]; j--) {
+                        present[j - 1] = false;
+                    }
+                    if (roles[i] != NO_ROLE) {
+                        roleColumns[roles[i]] = i;
+                    }
+                } else {
+                    values[i] = null;
+                }
+            }
+        }
+
+        /**
+         * Check whether the current record has a value for one of the special keys.
+         */
+        private boolean has(final int role) {
+            return roleColumns[role] != NO_COLUMN;
+        }
+
+        /**
+         * Get the value of the current record for one of the special keys.
+         */
+        private String get(final int role) {
+            return has(role) ? values[roleColumns[role]] : null;
+        }
+
+        /**
+         * Get the value of the current record for one of the vertex id attributes.
+         */
+        private String getVertexIdValue(final int vertexIdAttribute) {
+            for (final int i : vertexIdColumns[vertexIdAttribute]) {
+                if (present[i]) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Copy the values of the current record to a graph element.
+         *
+         * @param typeName if not null, the value copied to the type attribute in place of the value of the record.
+         */
+        private void write(final GraphWriteMethods graph, final int element, final String typeName) {
+            for (int i = 0; i < keys.length; i++) {
+                if (present[i] && copied[i] && (typeName == null || roles[i] != ROLE_TYPE)) {
+                    if (attributes[i] == Graph.NOT_FOUND) {
+                        attributes[i] = ensureAttribute(graph, elementType, attributeKeys[i]);
+                        if (primitive[i]) {
+                            writers[i] = typedRecordStore.getWriter(keys[i], graph, attributes[i]);
+                        }
+                    }
+                    try {
+                        if (primitive[i]) {
+                            writers[i].write(record, element);
+                        } else {
+                            graph.setStringValue(attributes[i], element, values[i]);
+                        }
+                    } catch (final Exception ex) {
+                        // keeping this as an Exception to catch broad exceptions that can be thrown due to bad data
+                        final String value = primitive[i] ? typedRecordStore.get(record, keys[i]) : values[i];
+                        LOGGER.log(Level.SEVERE, "Discarding unexpected value {0} seen in attribute {1}", new Object[]{value, graph.getAttributeName(attributes[i])});
+                    }
+                }
+            }
+
+            if (typeName != null) {
+                if (typeAttribute == Graph.NOT_FOUND) {
+                    typeAttribute = ensureAttribute(graph, elementType, TYPE_KEY);
+                }
+                graph.setStringValue(typeAttribute, element, typeName);
+            }
+        }
+    }
+
+    private static int addVertex(final GraphWriteMethods graph, final ElementColumns columns,
             final Map<String, Integer> vertexMap, final boolean initializeWithSchema, boolean completeWithSchema,
             final List<Integer> newVertices, final Set<Integer> ghostVertices, final List<String> vertexIdAttributes) {
-        String idValue = values.remove(ID);
+        String idValue = columns.get(ROLE_ID);
 
         // If the idValue has not been set and we have vertexIdAttributes then create an idValue automatically
         if (idValue == null && vertexIdAttributes != null) {
@@ -87,10 +316,14 @@ public class GraphRecordStoreUtilities {
 
             // If the vertexIdAttributes is not null but empty then use all attributes of the vertex
             if (vertexIdAttributes.isEmpty()) {
-                for (Entry<String, String> e : values.entrySet()) {
-                    idBuilder.append(delimiter).append(e.getKey()).append("=");
-                    if (e.getValue() != null) {
-                        for (byte b : e.getValue().getBytes(UTF8)) {
+                for (int c = 0; c < columns.keys.length; c++) {
+                    if (!columns.present[c] || columns.roles[c] == ROLE_ID) {
+                        continue;
+                    }
+                    final String value = columns.values[c];
+                    idBuilder.append(delimiter).append(columns.attributeKeys[c]).append("=");
+                    if (value != null) {
+                        for (byte b : value.getBytes(UTF8)) {
                             int i = b;
                             if (i < 0) {
                                 i += 256;
@@ -106,8 +339,9 @@ public class GraphRecordStoreUtilities {
 
                 // Otherwise use the specified attributes to create the idValue
             } else {
-                for (String attribute : vertexIdAttributes) {
-                    final String value = values.get(attribute);
+                for (int v = 0; v < vertexIdAttributes.size(); v++) {
+                    final String attribute = vertexIdAttributes.get(v);
+                    final String value = columns.getVertexIdValue(v);
                     if (value != null) {
                         idBuilder.append(delimiter).append(attribute).append("=");
                         for (byte b : value.getBytes(UTF8)) {
@@ -130,21 +364,21 @@ public class GraphRecordStoreUtilities {
 
         final int vertex = getVertex(graph, idValue, vertexMap, initializeWithSchema, newVertices);
 
-        if (values.remove(DELETE_KEY) != null) {
+        if (columns.get(ROLE_DELETE) != null) {
             graph.removeVertex(vertex);
             return NO_ELEMENT;
         }
 
-        if (values.remove(GHOST) != null) {
+        if (columns.get(ROLE_GHOST) != null) {
             ghostVertices.add(vertex);
         }
 
-        final String completeWithSchemaValue = values.remove(COMPLETE_WITH_SCHEMA_KEY);
+        final String completeWithSchemaValue = columns.get(ROLE_COMPLETE_WITH_SCHEMA);
         if (completeWithSchemaValue != null) {
             completeWithSchema = Boolean.parseBoolean(completeWithSchemaValue);
         }
 
-        copyValues(graph, GraphElementType.VERTEX, vertex, values);
+        copyValues(graph, GraphElementType.VERTEX, vertex, columns);
 
         if (completeWithSchema && graph.getSchema() != null) {
             graph.getSchema().completeVertex(graph, vertex);
@@ -188,10 +422,11 @@ public class GraphRecordStoreUtilities {
         return vertex;
     }
 
-    private static int addTransaction(final GraphWriteMethods graph, final int source, final int destination, final Map<String, String> values,
+    private static int addTransaction(final GraphWriteMethods graph, final int source, final int destination,
+            final ElementColumns columns,
             final Map<String, Integer> transactionMap, final boolean initializeWithSchema, boolean completeWithSchema) {
-        final String type = values.get(TYPE_KEY);
-        final String directedValue = values.get(DIRECTED_KEY);
+        final String type = columns.get(ROLE_TYPE);
+        final String directedValue = columns.get(ROLE_DIRECTED);
         boolean directed = true;
         if (directedValue != null) {
             directed = !"False".equalsIgnoreCase(directedValue);
@@ -202,15 +437,15 @@ public class GraphRecordStoreUtilities {
             }
         }
 
-        final String completeWithSchemaValue = values.remove(COMPLETE_WITH_SCHEMA_KEY);
+        final String completeWithSchemaValue = columns.get(ROLE_COMPLETE_WITH_SCHEMA);
         if (completeWithSchemaValue != null) {
             completeWithSchema = Boolean.parseBoolean(completeWithSchemaValue);
         }
 
-        final String idValue = values.remove(ID);
+        final String idValue = columns.get(ROLE_ID);
         final int transaction = getTransaction(graph, idValue, source, destination, directed, transactionMap, initializeWithSchema);
 
-        if (values.remove(DELETE_KEY) != null) {
+        if (columns.get(ROLE_DELETE) != null) {
             graph.removeTransaction(transaction);
             return NO_ELEMENT;
         }
@@ -219,7 +454,7 @@ public class GraphRecordStoreUtilities {
             return NO_ELEMENT;
         }
 
-        copyValues(graph, GraphElementType.TRANSACTION, transaction, values);
+        copyValues(graph, GraphElementType.TRANSACTION, transaction, columns);
 
         if (completeWithSchema && graph.getSchema() != null) {
             graph.getSchema().completeTransaction(graph, transaction);
@@ -262,14 +497,15 @@ public class GraphRecordStoreUtilities {
     }
 
     private static void copyValues(final GraphWriteMethods graph,
-            final GraphElementType elementType, final int element, final Map<String, String> values) {
+            final GraphElementType elementType, final int element, final ElementColumns columns) {
+        String modifiedTypeName = null;
         /**
          * check whether a transaction type is inconsistent with the direction attribute, if so make a custom type
          */
         if (GraphElementType.TRANSACTION.equals(elementType)) {
-            final String requestedDirected = values.remove(DIRECTED_KEY);
+            final String requestedDirected = columns.get(ROLE_DIRECTED);
             if (requestedDirected != null) {
-                final String type = values.get(TYPE_KEY);
+                final String type = columns.get(ROLE_TYPE);
                 final SchemaTransactionType currentType = SchemaTransactionTypeUtilities.getType(type);
                 if (currentType != null) {
                     final boolean directed = Boolean.parseBoolean(requestedDirected);
@@ -283,39 +519,38 @@ public class GraphRecordStoreUtilities {
                         if (!SchemaTransactionTypeUtilities.containsType(modifiedType)) {
                             SchemaTransactionTypeUtilities.addCustomType(modifiedType, false);
                         }
-                        values.put(TYPE_KEY, modifiedType.getName());
+                        modifiedTypeName = modifiedType.getName();
                     }
                 }
             }
         }
 
-        values.entrySet().stream().forEach(entry -> {
-            String key = entry.getKey();
-            String type = "string";
-            if (key.endsWith(">")) {
-                int typeStart = key.lastIndexOf('<');
-                if (typeStart > 0) {
-                    type = key.substring(typeStart + 1, key.length() - 1);
-                    key = key.substring(0, typeStart);
-                }
-            }
+        columns.write(graph, element, modifiedTypeName);
+    }
 
-            // TODO: look at ensure(true/fale)
-            int attribute = graph.getAttribute(elementType, key);
-            if (attribute == Graph.NOT_FOUND) {
-                attribute = graph.getSchema() != null ? graph.getSchema().getFactory().ensureAttribute(graph, elementType, key) : Graph.NOT_FOUND;
-                if (attribute == Graph.NOT_FOUND) {
-                    attribute = graph.addAttribute(elementType, type, key, key, null, null);
-                }
+    /**
+     * Get the attribute for a key, which may end with the type of the attribute, creating the attribute if it doesn't
+     * exist.
+     */
+    private static int ensureAttribute(final GraphWriteMethods graph, final GraphElementType elementType, String key) {
+        String type = "string";
+        if (key.endsWith(">")) {
+            int typeStart = key.lastIndexOf('<');
+            if (typeStart > 0) {
+                type = key.substring(typeStart + 1, key.length() - 1);
+                key = key.substring(0, typeStart);
             }
+        }
 
-            try {
-                graph.setStringValue(attribute, element, entry.getValue());
-            } catch (final Exception ex) {
-                // keeping this as an Exception to catch broad exceptions that can be thrown due to bad data
-                LOGGER.log(Level.SEVERE, "Discarding unexpected value {0} seen in attribute {1}", new Object[]{entry.getValue(), graph.getAttributeName(attribute)});
+        // TODO: look at ensure(true/fale)
+        int attribute = graph.getAttribute(elementType, key);
+        if (attribute == Graph.NOT_FOUND) {
+            attribute = graph.getSchema() != null ? graph.getSchema().getFactory().ensureAttribute(graph, elementType, key) : Graph.NOT_FOUND;
+            if (attribute == Graph.NOT_FOUND) {
+                attribute = graph.addAttribute(elementType, type, key, key, null, null);
             }
-        });
+        }
+        return attribute;
     }
 
     /**
@@ -346,7 +581,8 @@ public class GraphRecordStoreUtilities {
      * @param completeWithSchema Whether or not to complete the graph with its schema after adding the
      * {@link RecordStore} to it.
      * @param vertexIdAttributes if not null, this list of attributes will be used to create an id value. An empty list
-     * will cause all attributes to be used.
+     * will cause all attributes to be used. If the {@link RecordStore} is a {@link TypedRecordStore}, its primitive
+     * values are only copied to the graph without being converted to strings when this is null.
      * @param vertexMap A map which will be populated with the mappings from vertex id in the {@link RecordStore} (or
      * created vertex id if no id was provided in the {@link RecordStore}) to vertex id on the graph.
      * @param transactionMap A map which will be populated with the mappings from transaction id in the
@@ -361,7 +597,7 @@ public class GraphRecordStoreUtilities {
         final Set<Integer> ghostVertices = new HashSet<>();
 
         recordStore.reset();
-        final List<String> keys = (recordStore instanceof GraphRecordStore) ? ((GraphRecordStore) recordStore).keysWithType() : recordStore.keys();
+        final IngestPlan plan = new IngestPlan(recordStore, vertexIdAttributes);
 
         if (vertexMap == null) {
             vertexMap = new HashMap<>();
@@ -371,47 +607,21 @@ public class GraphRecordStoreUtilities {
         }
 
         while (recordStore.next()) {
-            final Map<String, String> sourceValues = new TreeMap<>();
-            final Map<String, String> destinationValues = new TreeMap<>();
-            final Map<String, String> transactionValues = new TreeMap<>();
-            for (String key : keys) {
-                if (recordStore.hasValue(key)) {
-                    final String value = recordStore.get(key);
-                    final int dividerPosition = key.indexOf('.');
-
-                    if (dividerPosition > 0) {
-                        final String keyDescriptor = key.substring(0, dividerPosition).toLowerCase();
-                        final String keyAttribute = key.substring(dividerPosition + 1);
-                        final String[] parts = keyDescriptor.split("\\$"); // TODO: what ??
-
-                        switch (parts[0]) {
-                            case "source":
-                                sourceValues.put(keyAttribute, value);
-                                break;
-                            case "destination":
-                                destinationValues.put(keyAttribute, value);
-                                break;
-                            case "transaction":
-                                transactionValues.put(keyAttribute, value);
-                                break;
-                            default:
-                                break;
-                        }
-                    }
-                }
-            }
+            plan.collect(recordStore);
 
-            if (sourceValues.isEmpty() && destinationValues.isEmpty() && transactionValues.containsKey(ID)) {
+            final boolean hasSource = !plan.source.empty;
+            final boolean hasDestination = !plan.destination.empty;
+            if (!hasSource && !hasDestination && plan.transaction.has(ROLE_ID)) {
                 // This will not add a new transaction to the graph (as source and destination are both -1), but if the transaction exists already it will be returned allowing it to be selected.
-                addTransaction(graph, NO_ELEMENT, NO_ELEMENT, transactionValues, transactionMap, initializeWithSchema, completeWithSchema);
-            } else if (!sourceValues.isEmpty() && !destinationValues.isEmpty()) {
-                final int source = addVertex(graph, sourceValues, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes);
-                final int destination = addVertex(graph, destinationValues, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes);
-                addTransaction(graph, source, destination, transactionValues, transactionMap, initializeWithSchema, completeWithSchema);
-            } else if (!sourceValues.isEmpty()) {
-                addVertex(graph, sourceValues, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes);
-            } else if (!destinationValues.isEmpty()) {
-                addVertex(graph, destinationValues, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes);
+                addTransaction(graph, NO_ELEMENT, NO_ELEMENT, plan.transaction, transactionMap, initializeWithSchema, completeWithSchema);
+            } else if (hasSource && hasDestination) {
+                final int source = addVertex(graph, plan.source, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes);
+                final int destination = addVertex(graph, plan.destination, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes);
+                addTransaction(graph, source, destination, plan.transaction, transactionMap, initializeWithSchema, completeWithSchema);
+            } else if (hasSource) {
+                addVertex(graph, plan.source, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes);
+            } else if (hasDestination) {
+                addVertex(graph, plan.destination, vertexMap, initializeWithSchema, completeWithSchema, newVertices, ghostVertices, vertexIdAttributes);
             } else {
                 // Do nothing
             }
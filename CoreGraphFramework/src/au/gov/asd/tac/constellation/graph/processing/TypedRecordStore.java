@@ -0,0 +1,910 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.processing;
+
+import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.attribute.BooleanAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.DoubleAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.LongAttributeDescription;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An implementation of {@link RecordStore} which stores each column in a typed, chunked array rather than as strings.
+ * <p>
+ * Like a {@link GraphRecordStore}, keys may end with an attribute type, for example source.Count&lt;integer&gt;, and
+ * values can be looked up with or without the type. Columns with an integer, long, float, double or boolean type hold
+ * primitive values, and can be read and written without conversion through the typed accessors such as
+ * {@link #setInt(int, String, int)} and {@link #getInt(int, String)}. All other columns are dictionary encoded, so
+ * each distinct string is only held once however many times it appears in the record store.
+ * <p>
+ * Values written as strings to a primitive column are parsed, so they are returned in their canonical form. If a
+ * value can't be parsed, the column is converted to a string column and keeps all of its values. Writing a null value
+ * to a primitive column leaves the record without a value. When a TypedRecordStore is added to a graph by
+ * {@link GraphRecordStoreUtilities#addRecordStoreToGraph GraphRecordStoreUtilities.addRecordStoreToGraph()}, the
+ * values of primitive columns are written to matching graph attributes without being converted to strings.
+ * <p>
+ * Columns grow in fixed size chunks which are only allocated once a value is written to them, so sparse columns and
+ * growing the record store do not require large arrays to be copied.
+ *
+ * @author sirius
+ */
+public class TypedRecordStore implements RecordStore {
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final String DEFAULT_TYPE = "string";
+
+    private final Map<String, Column> typedColumns = new LinkedHashMap<>();
+    private final Map<String, Column> untypedColumns = new HashMap<>();
+    private final Dictionary dictionary = new Dictionary();
+    private int size = 0;
+    private int currentRecord = -1;
+
+    /**
+     * The distinct strings held by the string columns of a record store.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        private int encode(final String value) {
+            if (value == null) {
+                return -1;
+            }
+            final Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            strings.add(value);
+            codes.put(value, strings.size() - 1);
+            return strings.size() - 1;
+        }
+
+        private String decode(final int code) {
+            return code < 0 ? null : strings.get(code);
+        }
+    }
+
+    /**
+     * Writes the values of a column to an attribute of a graph.
+     */
+    @FunctionalInterface
+    interface ValueWriter {
+
+        void write(final int record, final int element);
+    }
+
+    /**
+     * A column of values, held in chunks with a bit for each record recording whether it has a value.
+     */
+    private abstract static class Column {
+
+        protected final String type;
+        private long[][] present = new long[1][];
+
+        protected Column(final String type) {
+            this.type = type;
+        }
+
+        protected final boolean hasValue(final int record) {
+            final int chunk = record >>> CHUNK_BITS;
+            if (chunk >= present.length || present[chunk] == null) {
+                return false;
+            }
+            final int offset = record & CHUNK_MASK;
+            return (present[chunk][offset >>> 6] & (1L << offset)) != 0;
+        }
+
+        /**
+         * Mark a record as having a value, allocating its chunk if required.
+         *
+         * @return the chunk holding the record.
+         */
+        protected final int markPresent(final int record) {
+            final int chunk = record >>> CHUNK_BITS;
+            if (chunk >= present.length) {
+                final int chunkCount = Math.max(chunk + 1, present.length * 2);
+                present = Arrays.copyOf(present, chunkCount);
+                growChunks(chunkCount);
+            }
+            if (present[chunk] == null) {
+                present[chunk] = new long[CHUNK_SIZE / Long.SIZE];
+                allocateChunk(chunk);
+            }
+            final int offset = record & CHUNK_MASK;
+            present[chunk][offset >>> 6] |= 1L << offset;
+            return chunk;
+        }
+
+        /**
+         * Mark a record as having no value.
+         */
+        protected final void markAbsent(final int record) {
+            final int chunk = record >>> CHUNK_BITS;
+            if (chunk < present.length && present[chunk] != null) {
+                final int offset = record & CHUNK_MASK;
+                present[chunk][offset >>> 6] &= ~(1L << offset);
+            }
+        }
+
+        protected abstract void growChunks(final int chunkCount);
+
+        protected abstract void allocateChunk(final int chunk);
+
+        /**
+         * Get the value of a record as a string, or null if it has no value.
+         */
+        protected abstract String getString(final int record);
+
+        /**
+         * Set the value of a record from a string.
+         *
+         * @return false if the value can't be held by this column.
+         */
+        protected abstract boolean setString(final int record, final String value);
+
+        protected abstract boolean isPrimitive();
+
+        /**
+         * Get a writer for the values of this column to a graph attribute, which doesn't convert them to strings if
+         * the attribute has the type of this column.
+         */
+        protected ValueWriter getWriter(final GraphWriteMethods graph, final int attribute) {
+            return (record, element) -> graph.setStringValue(attribute, element, getString(record));
+        }
+    }
+
+    private static final class StringColumn extends Column {
+
+        private final Dictionary dictionary;
+        private int[][] codes = new int[1][];
+
+        private StringColumn(final String type, final Dictionary dictionary) {
+            super(type);
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        protected void growChunks(final int chunkCount) {
+            codes = Arrays.copyOf(codes, chunkCount);
+        }
+
+        @Override
+        protected void allocateChunk(final int chunk) {
+            codes[chunk] = new int[CHUNK_SIZE];
+        }
+
+        @Override
+        protected String getString(final int record) {
+            return hasValue(record) ? dictionary.decode(codes[record >>> CHUNK_BITS][record & CHUNK_MASK]) : null;
+        }
+
+        @Override
+        protected boolean setString(final int record, final String value) {
+            final int chunk = markPresent(record);
+            codes[chunk][record & CHUNK_MASK] = dictionary.encode(value);
+            return true;
+        }
+
+        @Override
+        protected boolean isPrimitive() {
+            return false;
+        }
+    }
+
+    private static final class IntColumn extends Column {
+
+        private int[][] values = new int[1][];
+
+        private IntColumn() {
+            super(IntegerAttributeDescription.ATTRIBUTE_NAME);
+        }
+
+        @Override
+        protected void growChunks(final int chunkCount) {
+            values = Arrays.copyOf(values, chunkCount);
+        }
+
+        @Override
+        protected void allocateChunk(final int chunk) {
+            values[chunk] = new int[CHUNK_SIZE];
+        }
+
+        private int get(final int record) {
+            return hasValue(record) ? values[record >>> CHUNK_BITS][record & CHUNK_MASK] : 0;
+        }
+
+        private void set(final int record, final int value) {
+            final int chunk = markPresent(record);
+            values[chunk][record & CHUNK_MASK] = value;
+        }
+
+        @Override
+        protected String getString(final int record) {
+            return hasValue(record) ? String.valueOf(get(record)) : null;
+        }
+
+        @Override
+        protected boolean setString(final int record, final String value) {
+            try {
+                set(record, Integer.parseInt(value));
+                return true;
+            } catch (final NumberFormatException ex) {
+                return false;
+            }
+        }
+
+        @Override
+        protected boolean isPrimitive() {
+            return true;
+        }
+
+        @Override
+        protected ValueWriter getWriter(final GraphWriteMethods graph, final int attribute) {
+            return type.equals(graph.getAttributeType(attribute))
+                    ? (record, element) -> graph.setIntValue(attribute, element, get(record))
+                    : super.getWriter(graph, attribute);
+        }
+    }
+
+    private static final class LongColumn extends Column {
+
+        private long[][] values = new long[1][];
+
+        private LongColumn() {
+            super(LongAttributeDescription.ATTRIBUTE_NAME);
+        }
+
+        @Override
+        protected void growChunks(final int chunkCount) {
+            values = Arrays.copyOf(values, chunkCount);
+        }
+
+        @Override
+        protected void allocateChunk(final int chunk) {
+            values[chunk] = new long[CHUNK_SIZE];
+        }
+
+        private long get(final int record) {
+            return hasValue(record) ? values[record >>> CHUNK_BITS][record & CHUNK_MASK] : 0L;
+        }
+
+        private void set(final int record, final long value) {
+            final int chunk = markPresent(record);
+            values[chunk][record & CHUNK_MASK] = value;
+        }
+
+        @Override
+        protected String getString(final int record) {
+            return hasValue(record) ? String.valueOf(get(record)) : null;
+        }
+
+        @Override
+        protected boolean setString(final int record, final String value) {
+            try {
+                set(record, Long.parseLong(value));
+                return true;
+            } catch (final NumberFormatException ex) {
+                return false;
+            }
+        }
+
+        @Override
+        protected boolean isPrimitive() {
+            return true;
+        }
+
+        @Override
+        protected ValueWriter getWriter(final GraphWriteMethods graph, final int attribute) {
+            return type.equals(graph.getAttributeType(attribute))
+                    ? (record, element) -> graph.setLongValue(attribute, element, get(record))
+                    : super.getWriter(graph, attribute);
+        }
+    }
+
+    /**
+     * A column of float or double values, which are both held as doubles since every float can be held exactly as a
+     * double.
+     */
+    private static final class DoubleColumn extends Column {
+
+        private double[][] values = new double[1][];
+
+        private DoubleColumn(final String type) {
+            super(type);
+        }
+
+        @Override
+        protected void growChunks(final int chunkCount) {
+            values = Arrays.copyOf(values, chunkCount);
+        }
+
+        @Override
+        protected void allocateChunk(final int chunk) {
+            values[chunk] = new double[CHUNK_SIZE];
+        }
+
+        private double get(final int record) {
+            return hasValue(record) ? values[record >>> CHUNK_BITS][record & CHUNK_MASK] : 0.0;
+        }
+
+        private void set(final int record, final double value) {
+            final int chunk = markPresent(record);
+            values[chunk][record & CHUNK_MASK] = isFloat() ? (float) value : value;
+        }
+
+        private boolean isFloat() {
+            return FloatAttributeDescription.ATTRIBUTE_NAME.equals(type);
+        }
+
+        @Override
+        protected String getString(final int record) {
+            if (!hasValue(record)) {
+                return null;
+            }
+            return isFloat() ? String.valueOf((float) get(record)) : String.valueOf(get(record));
+        }
+
+        @Override
+        protected boolean setString(final int record, final String value) {
+            try {
+                set(record, isFloat() ? Float.parseFloat(value) : Double.parseDouble(value));
+                return true;
+            } catch (final NumberFormatException | NullPointerException ex) {
+                return false;
+            }
+        }
+
+        @Override
+        protected boolean isPrimitive() {
+            return true;
+        }
+
+        @Override
+        protected ValueWriter getWriter(final GraphWriteMethods graph, final int attribute) {
+            if (!type.equals(graph.getAttributeType(attribute))) {
+                return super.getWriter(graph, attribute);
+            } else if (isFloat()) {
+                return (record, element) -> graph.setFloatValue(attribute, element, (float) get(record));
+            } else {
+                return (record, element) -> graph.setDoubleValue(attribute, element, get(record));
+            }
+        }
+    }
+
+    private static final class BooleanColumn extends Column {
+
+        private boolean[][] values = new boolean[1][];
+
+        private BooleanColumn() {
+            super(BooleanAttributeDescription.ATTRIBUTE_NAME);
+        }
+
+        @Override
+        protected void growChunks(final int chunkCount) {
+            values = Arrays.copyOf(values, chunkCount);
+        }
+
+        @Override
+        protected void allocateChunk(final int chunk) {
+            values[chunk] = new boolean[CHUNK_SIZE];
+        }
+
+        private boolean get(final int record) {
+            return hasValue(record) && values[record >>> CHUNK_BITS][record & CHUNK_MASK];
+        }
+
+        private void set(final int record, final boolean value) {
+            final int chunk = markPresent(record);
+            values[chunk][record & CHUNK_MASK] = value;
+        }
+
+        @Override
+        protected String getString(final int record) {
+            return hasValue(record) ? String.valueOf(get(record)) : null;
+        }
+
+        @Override
+        protected boolean setString(final int record, final String value) {
+            if ("true".equalsIgnoreCase(value)) {
+                set(record, true);
+                return true;
+            } else if ("false".equalsIgnoreCase(value)) {
+                set(record, false);
+                return true;
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        protected boolean isPrimitive() {
+            return true;
+        }
+
+        @Override
+        protected ValueWriter getWriter(final GraphWriteMethods graph, final int attribute) {
+            return type.equals(graph.getAttributeType(attribute))
+                    ? (record, element) -> graph.setBooleanValue(attribute, element, get(record))
+                    : super.getWriter(graph, attribute);
+        }
+    }
+
+    private static String getType(final String key) {
+        final int typeIndex = key.indexOf('<');
+        return typeIndex == -1 || !key.endsWith(">") ? DEFAULT_TYPE : key.substring(typeIndex + 1, key.length() - 1);
+    }
+
+    private static String getTypedKey(final String key) {
+        return key.indexOf('<') == -1 ? key + "<" + DEFAULT_TYPE + ">" : key;
+    }
+
+    private static String getUntypedKey(final String key) {
+        final int typeIndex = key.indexOf('<');
+        return typeIndex == -1 ? key : key.substring(0, typeIndex);
+    }
+
+    private Column createColumn(final String type) {
+        switch (type) {
+            case IntegerAttributeDescription.ATTRIBUTE_NAME:
+                return new IntColumn();
+            case LongAttributeDescription.ATTRIBUTE_NAME:
+                return new LongColumn();
+            case FloatAttributeDescription.ATTRIBUTE_NAME:
+            case DoubleAttributeDescription.ATTRIBUTE_NAME:
+                return new DoubleColumn(type);
+            case BooleanAttributeDescription.ATTRIBUTE_NAME:
+                return new BooleanColumn();
+            default:
+                return new StringColumn(type, dictionary);
+        }
+    }
+
+    private Column getColumn(final String key) {
+        final Column column = typedColumns.get(key);
+        return column != null ? column : untypedColumns.get(key);
+    }
+
+    /**
+     * Get the column for a key, creating it if it doesn't exist.
+     *
+     * @param key the key, which may include a type.
+     * @param type the type of the column to create if the key has no type.
+     */
+    private Column ensureColumn(final String key, final String type) {
+        Column column = getColumn(key);
+        if (column == null) {
+            final String typedKey = key.indexOf('<') == -1 ? key + "<" + type + ">" : key;
+            column = createColumn(getType(typedKey));
+            typedColumns.put(typedKey, column);
+            untypedColumns.put(getUntypedKey(typedKey), column);
+        }
+        return column;
+    }
+
+    /**
+     * Replace a primitive column with a string column holding the same values, so that it can hold values that are
+     * not of its type.
+     */
+    private Column convertToStringColumn(final Column column) {
+        final StringColumn converted = new StringColumn(column.type, dictionary);
+        for (int record = 0; record < size; record++) {
+            if (column.hasValue(record)) {
+                converted.setString(record, column.getString(record));
+            }
+        }
+        for (final Map.Entry<String, Column> entry : typedColumns.entrySet()) {
+            if (entry.getValue() == column) {
+                entry.setValue(converted);
+                untypedColumns.put(getUntypedKey(entry.getKey()), converted);
+                break;
+            }
+        }
+        return converted;
+    }
+
+    private void checkRecord(final int record) {
+        if (record < 0 || record >= size) {
+            throw new IllegalArgumentException("Invalid record: " + record);
+        }
+    }
+
+    @Override
+    public int add() {
+        currentRecord = size++;
+        return currentRecord;
+    }
+
+    @Override
+    public void add(final RecordStore recordStore) {
+        if (recordStore instanceof TypedRecordStore) {
+            final TypedRecordStore typedRecordStore = (TypedRecordStore) recordStore;
+            final int offset = size;
+            size += typedRecordStore.size;
+            currentRecord = size - 1;
+            for (final Map.Entry<String, Column> entry : typedRecordStore.typedColumns.entrySet()) {
+                final Column from = entry.getValue();
+                Column to = ensureColumn(entry.getKey(), DEFAULT_TYPE);
+                for (int record = 0; record < typedRecordStore.size; record++) {
+                    if (from.hasValue(record)) {
+                        to = copyValue(from, record, to, offset + record);
+                    }
+                }
+            }
+        } else {
+            final List<String> keys = recordStore instanceof GraphRecordStore ? ((GraphRecordStore) recordStore).keysWithType() : recordStore.keys();
+            for (int record = 0; record < recordStore.size(); record++) {
+                final int newRecord = add();
+                for (final String key : keys) {
+                    final String value = recordStore.get(record, key);
+                    if (value != null) {
+                        set(newRecord, key, value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy a value between columns of the same type without converting it to a string where possible.
+     *
+     * @return the column copied to, which may have been converted to a string column.
+     */
+    private Column copyValue(final Column from, final int fromRecord, final Column to, final int toRecord) {
+        if (from instanceof IntColumn && to instanceof IntColumn) {
+            ((IntColumn) to).set(toRecord, ((IntColumn) from).get(fromRecord));
+        } else if (from instanceof LongColumn && to instanceof LongColumn) {
+            ((LongColumn) to).set(toRecord, ((LongColumn) from).get(fromRecord));
+        } else if (from instanceof DoubleColumn && to instanceof DoubleColumn) {
+            ((DoubleColumn) to).set(toRecord, ((DoubleColumn) from).get(fromRecord));
+        } else if (from instanceof BooleanColumn && to instanceof BooleanColumn) {
+            ((BooleanColumn) to).set(toRecord, ((BooleanColumn) from).get(fromRecord));
+        } else {
+            return setString(to, toRecord, from.getString(fromRecord));
+        }
+        return to;
+    }
+
+    /**
+     * Set the value of a record from a string, converting the column to a string column if the value can't be held
+     * by it.
+     *
+     * @return the column holding the value, which may have been converted to a string column.
+     */
+    private Column setString(final Column column, final int record, final String value) {
+        if (value == null && column.isPrimitive()) {
+            // there is no null primitive, so keep the column primitive and leave the record without a value
+            column.markAbsent(record);
+        } else if (!column.setString(record, value)) {
+            final Column converted = convertToStringColumn(column);
+            converted.setString(record, value);
+            return converted;
+        } else {
+            // Do nothing
+        }
+        return column;
+    }
+
+    @Override
+    public int index() {
+        return currentRecord;
+    }
+
+    @Override
+    public boolean next() {
+        if (++currentRecord >= size) {
+            currentRecord = size;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        currentRecord = -1;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+
+    @Override
+    public boolean hasValue(final String key) {
+        return hasValue(currentRecord, key);
+    }
+
+    @Override
+    public boolean hasValue(final int record, final String key) {
+        final Column column = getColumn(key);
+        return column != null && record >= 0 && column.hasValue(record);
+    }
+
+    @Override
+    public String get(final String key) {
+        return get(currentRecord, key);
+    }
+
+    @Override
+    public String get(final int record, final String key) {
+        final Column column = getColumn(key);
+        return column == null || record < 0 ? null : column.getString(record);
+    }
+
+    @Override
+    public void set(final String key, final String value) {
+        set(currentRecord, key, value);
+    }
+
+    @Override
+    public void set(final int record, final String key, final String value) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null.");
+        }
+        checkRecord(record);
+
+        setString(ensureColumn(key, DEFAULT_TYPE), record, value);
+    }
+
+    /**
+     * Get the value of an integer column without converting it from a string.
+     *
+     * @param record the record.
+     * @param key the key, with or without its type.
+     * @return the value, or 0 if the record has no value for the key.
+     * @throws NumberFormatException if the column is not an integer column and the value is not an integer.
+     */
+    public int getInt(final int record, final String key) {
+        final Column column = getColumn(key);
+        if (column instanceof IntColumn) {
+            return ((IntColumn) column).get(record);
+        }
+        final String value = get(record, key);
+        return value == null ? 0 : Integer.parseInt(value);
+    }
+
+    /**
+     * Set the value of a column to an integer. If the key has no type and does not exist yet, an integer column is
+     * created.
+     *
+     * @param record the record.
+     * @param key the key, with or without its type.
+     * @param value the value.
+     */
+    public void setInt(final int record, final String key, final int value) {
+        checkRecord(record);
+        final Column column = ensureColumn(key, IntegerAttributeDescription.ATTRIBUTE_NAME);
+        if (column instanceof IntColumn) {
+            ((IntColumn) column).set(record, value);
+        } else {
+            set(record, key, String.valueOf(value));
+        }
+    }
+
+    /**
+     * Get the value of a long column without converting it from a string.
+     *
+     * @param record the record.
+     * @param key the key, with or without its type.
+     * @return the value, or 0 if the record has no value for the key.
+     * @throws NumberFormatException if the column is not a long column and the value is not a long.
+     */
+    public long getLong(final int record, final String key) {
+        final Column column = getColumn(key);
+        if (column instanceof LongColumn) {
+            return ((LongColumn) column).get(record);
+        } else if (column instanceof IntColumn) {
+            return ((IntColumn) column).get(record);
+        } else {
+            final String value = get(record, key);
+            return value == null ? 0L : Long.parseLong(value);
+        }
+    }
+
+    /**
+     * Set the value of a column to a long. If the key has no type and does not exist yet, a long column is created.
+     *
+     * @param record the record.
+     * @param key the key, with or without its type.
+     * @param value the value.
+     */
+    public void setLong(final int record, final String key, final long value) {
+        checkRecord(record);
+        final Column column = ensureColumn(key, LongAttributeDescription.ATTRIBUTE_NAME);
+        if (column instanceof LongColumn) {
+            ((LongColumn) column).set(record, value);
+        } else {
+            set(record, key, String.valueOf(value));
+        }
+    }
+
+    /**
+     * Get the value of a float or double column without converting it from a string.
+     *
+     * @param record the record.
+     * @param key the key, with or without its type.
+     * @return the value, or 0 if the record has no value for the key.
+     * @throws NumberFormatException if the column is not a numeric column and the value is not a number.
+     */
+    public double getDouble(final int record, final String key) {
+        final Column column = getColumn(key);
+        if (column instanceof DoubleColumn) {
+            return ((DoubleColumn) column).get(record);
+        } else if (column instanceof IntColumn) {
+            return ((IntColumn) column).get(record);
+        } else if (column instanceof LongColumn) {
+            return ((LongColumn) column).get(record);
+        } else {
+            final String value = get(record, key);
+            return value == null ? 0.0 : Double.parseDouble(value);
+        }
+    }
+
+    /**
+     * Set the value of a column to a double. If the key has no type and does not exist yet, a double column is
+     * created. Values written to a float column are rounded to the nearest float.
+     *
+     * @param record the record.
+     * @param key the key, with or without its type.
+     * @param value the value.
+     */
+    public void setDouble(final int record, final String key, final double value) {
+        checkRecord(record);
+        final Column column = ensureColumn(key, DoubleAttributeDescription.ATTRIBUTE_NAME);
+        if (column instanceof DoubleColumn) {
+            ((DoubleColumn) column).set(record, value);
+        } else {
+            set(record, key, String.valueOf(value));
+        }
+    }
+
+    /**
+     * Get the value of a boolean column without converting it from a string.
+     *
+     * @param record the record.
+     * @param key the key, with or without its type.
+     * @return the value, or false if the record has no value for the key.
+     */
+    public boolean getBoolean(final int record, final String key) {
+        final Column column = getColumn(key);
+        if (column instanceof BooleanColumn) {
+            return ((BooleanColumn) column).get(record);
+        }
+        return Boolean.parseBoolean(get(record, key));
+    }
+
+    /**
+     * Set the value of a column to a boolean. If the key has no type and does not exist yet, a boolean column is
+     * created.
+     *
+     * @param record the record.
+     * @param key the key, with or without its type.
+     * @param value the value.
+     */
+    public void setBoolean(final int record, final String key, final boolean value) {
+        checkRecord(record);
+        final Column column = ensureColumn(key, BooleanAttributeDescription.ATTRIBUTE_NAME);
+        if (column instanceof BooleanColumn) {
+            ((BooleanColumn) column).set(record, value);
+        } else {
+            set(record, key, String.valueOf(value));
+        }
+    }
+
+    /**
+     * Check whether the column for a key holds primitive values, and so can be written to a graph without converting
+     * its values to strings.
+     *
+     * @param key the key, with or without its type.
+     * @return true if the key has a primitive column.
+     */
+    boolean isPrimitive(final String key) {
+        final Column column = getColumn(key);
+        return column != null && column.isPrimitive();
+    }
+
+    /**
+     * Get a writer for the values of the column for a key to an attribute of a graph, which doesn't convert them to
+     * strings if the attribute has the same type as the column. The types of the column and the attribute are only
+     * compared once, so the writer can be used for every record without looking up either of them again.
+     * <p>
+     * The writer holds the column as it is now, so it shouldn't be used after values that the column can't hold have
+     * been set.
+     *
+     * @param key the key, with or without its type.
+     * @param graph the graph to write to.
+     * @param attribute the attribute to write to.
+     * @return a writer for the values of the column.
+     */
+    ValueWriter getWriter(final String key, final GraphWriteMethods graph, final int attribute) {
+        return getColumn(key).getWriter(graph, attribute);
+    }
+
+    @Override
+    public List<String> values() {
+        return values(currentRecord);
+    }
+
+    @Override
+    public List<String> values(final int record) {
+        final List<String> values = new ArrayList<>(typedColumns.size());
+        for (final Column column : typedColumns.values()) {
+            values.add(record < 0 ? null : column.getString(record));
+        }
+        return values;
+    }
+
+    /**
+     * Get the keys of this record store. Each key includes its type, for example source.Identifier&lt;string&gt;.
+     *
+     * @return the keys of this record store.
+     */
+    @Override
+    public List<String> keys() {
+        return new ArrayList<>(typedColumns.keySet());
+    }
+
+    @Override
+    public List<String> getAll(final String key) {
+        final Column column = getColumn(key);
+        final List<String> result = new ArrayList<>(size);
+        for (int record = 0; record < size; record++) {
+            result.add(column == null ? null : column.getString(record));
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "Typed Record Store with " + size + " rows and " + typedColumns.size() + " columns.";
+    }
+
+    @Override
+    public String toStringVerbose() {
+        final StringBuilder out = new StringBuilder();
+        for (int record = 0; record < size; record++) {
+            boolean first = true;
+            for (final Map.Entry<String, Column> e : typedColumns.entrySet()) {
+                if (e.getValue().hasValue(record)) {
+                    if (!first) {
+                        out.append(", ");
+                    } else {
+                        first = false;
+                    }
+                    out.append(e.getKey());
+                    out.append(" = ");
+                    out.append(e.getValue().getString(record));
+                }
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.utilities;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphConstants;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable compressed sparse row (CSR) snapshot of the link structure of a
+ * graph, intended for read-only analytics that repeatedly walk the
+ * neighbourhood of every vertex.
+ * <p>
+ * Vertices are addressed by their position in the snapshot, which matches
+ * their position in the graph at the time the snapshot was taken. The
+ * neighbours of the vertex at position {@code p} are held in
+ * {@code getNeighbours()} between {@code getOffsets()[p]} (inclusive) and
+ * {@code getOffsets()[p + 1]} (exclusive), with one entry per link. Each entry
+ * also records which kinds of edges make up the link, as a combination of
+ * {@link #OUTGOING}, {@link #INCOMING} and {@link #UNDIRECTED}, and
+ * optionally a weight which is either the number of transactions in the link
+ * or the sum of a numeric transaction attribute over those transactions.
+ * <p>
+ * Snapshots are cached per graph by {@link #getSnapshot}, so a sequence of
+ * algorithms run against an unchanged graph structure will share a single
+ * snapshot.
+ *
+ * @author cygnus_x-1
+ */
+public final class AdjacencySnapshot {
+
+    /**
+     * The link contains a directed edge from the vertex to the neighbour.
+     */
+    public static final byte OUTGOING = 1;
+
+    /**
+     * The link contains a directed edge from the neighbour to the vertex.
+     */
+    public static final byte INCOMING = 2;
+
+    /**
+     * The link contains an undirected edge.
+     */
+    public static final byte UNDIRECTED = 4;
+
+    private static final int CACHE_SIZE = 4;
+    private static final Map<String, SoftReference<AdjacencySnapshot>> CACHE = new LinkedHashMap<>(CACHE_SIZE, 0.75F, true);
+
+    private final int vertexCount;
+    private final int[] positionToVertex;
+    private final int[] vertexToPosition;
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final byte[] directions;
+    private final double[] weights;
+
+    private final String graphId;
+    private final long structureModificationCounter;
+    private final long undoCounter;
+    private final int weightAttribute;
+    private final long weightModificationCounter;
+    private final boolean includeLoops;
+
+    private AdjacencySnapshot(final GraphReadMethods graph, final boolean includeLoops, final boolean includeWeights, final int weightAttribute) {
+        this.graphId = graph.getId();
+        this.structureModificationCounter = graph.getStructureModificationCounter();
+        this.undoCounter = graph.getUndoCounter();
+        this.includeLoops = includeLoops;
+        this.weightAttribute = includeWeights ? weightAttribute : Graph.NOT_FOUND;
+        this.weightModificationCounter = includeWeights && weightAttribute != Graph.NOT_FOUND ? graph.getValueModificationCounter(weightAttribute) : 0;
+
+        vertexCount = graph.getVertexCount();
+        positionToVertex = new int[vertexCount];
+        vertexToPosition = new int[graph.getVertexCapacity()];
+        Arrays.fill(vertexToPosition, Graph.NOT_FOUND);
+
+        offsets = new int[vertexCount + 1];
+        for (int position = 0; position < vertexCount; position++) {
+            final int vertex = graph.getVertex(position);
+            positionToVertex[position] = vertex;
+            vertexToPosition[vertex] = position;
+            offsets[position + 1] = offsets[position] + graph.getVertexLinkCount(vertex);
+        }
+
+        final int[] builtNeighbours = new int[offsets[vertexCount]];
+        final byte[] builtDirections = new byte[builtNeighbours.length];
+        final double[] builtWeights = includeWeights ? new double[builtNeighbours.length] : null;
+
+        int entry = 0;
+        for (int position = 0; position < vertexCount; position++) {
+            final int vertex = positionToVertex[position];
+            final int entryStart = entry;
+            final int linkCount = graph.getVertexLinkCount(vertex);
+            for (int linkPosition = 0; linkPosition < linkCount; linkPosition++) {
+                final int link = graph.getVertexLink(vertex, linkPosition);
+                final int lowVertex = graph.getLinkLowVertex(link);
+                final int highVertex = graph.getLinkHighVertex(link);
+                final int neighbour = lowVertex == vertex ? highVertex : lowVertex;
+
+                // a loop is listed twice against its vertex, so only keep the first occurrence
+                if (neighbour == vertex && (!includeLoops || containsLoop(builtNeighbours, entryStart, entry, position))) {
+                    continue;
+                }
+
+                byte direction = 0;
+                final int edgeCount = graph.getLinkEdgeCount(link);
+                for (int edgePosition = 0; edgePosition < edgeCount; edgePosition++) {
+                    final int edge = graph.getLinkEdge(link, edgePosition);
+                    if (graph.getEdgeDirection(edge) == GraphConstants.FLAT) {
+                        direction |= UNDIRECTED;
+                    } else if (graph.getEdgeSourceVertex(edge) == vertex) {
+                        direction |= OUTGOING;
+                    } else {
+                        direction |= INCOMING;
+                    }
+                }
+
+                builtNeighbours[entry] = vertexToPosition[neighbour];
+                builtDirections[entry] = direction;
+                if (builtWeights != null) {
+                    builtWeights[entry] = getLinkWeight(graph, link, weightAttribute);
+                }
+                entry++;
+            }
+            offsets[position + 1] = entry;
+        }
+
+        neighbours = entry == builtNeighbours.length ? builtNeighbours : Arrays.copyOf(builtNeighbours, entry);
+        directions = entry == builtDirections.length ? builtDirections : Arrays.copyOf(builtDirections, entry);
+        weights = builtWeights == null || entry == builtWeights.length ? builtWeights : Arrays.copyOf(builtWeights, entry);
+    }
+
+    private static boolean containsLoop(final int[] builtNeighbours, final int start, final int end, final int position) {
+        for (int i = start; i < end; i++) {
+            if (builtNeighbours[i] == position) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double getLinkWeight(final GraphReadMethods graph, final int link, final int weightAttribute) {
+        final int transactionCount = graph.getLinkTransactionCount(link);
+        if (weightAttribute == Graph.NOT_FOUND) {
+            return transactionCount;
+        }
+        double weight = 0;
+        for (int transactionPosition = 0; transactionPosition < transactionCount; transactionPosition++) {
+            weight += graph.getDoubleValue(weightAttribute, graph.getLinkTransaction(link, transactionPosition));
+        }
+        return weight;
+    }
+
+    /**
+     * Build a new snapshot of the specified graph without consulting the
+     * cache.
+     *
+     * @param graph the graph to take a snapshot of.
+     * @param includeLoops whether loops should be included as neighbour
+     * entries.
+     * @param includeWeights whether link weights should be recorded.
+     * @param weightAttribute a numeric transaction attribute whose values are
+     * summed to give the weight of a link, or {@link Graph#NOT_FOUND} to use
+     * the number of transactions in the link. Ignored if weights are not
+     * included.
+     * @return a new snapshot of the graph.
+     */
+    public static AdjacencySnapshot build(final GraphReadMethods graph, final boolean includeLoops, final boolean includeWeights, final int weightAttribute) {
+        return new AdjacencySnapshot(graph, includeLoops, includeWeights, weightAttribute);
+    }
+
+    /**
+     * Return a snapshot of the specified graph, reusing a cached snapshot if
+     * one was built with the same options and the graph structure (and weight
+     * attribute, if used) has not been modified since.
+     *
+     * @param graph the graph to take a snapshot of.
+     * @param includeLoops whether loops should be included as neighbour
+     * entries.
+     * @param includeWeights whether link weights should be recorded.
+     * @param weightAttribute a numeric transaction attribute whose values are
+     * summed to give the weight of a link, or {@link Graph#NOT_FOUND} to use
+     * the number of transactions in the link. Ignored if weights are not
+     * included.
+     * @return a snapshot of the graph.
+     */
+    public static AdjacencySnapshot getSnapshot(final GraphReadMethods graph, final boolean includeLoops, final boolean includeWeights, final int weightAttribute) {
+        final String key = graph.getId() + ":" + includeLoops + ":" + (includeWeights ? weightAttribute : "-");
+        synchronized (CACHE) {
+            final SoftReference<AdjacencySnapshot> reference = CACHE.get(key);
+            final AdjacencySnapshot cached = reference == null ? null : reference.get();
+            if (cached != null && cached.isValid(graph)) {
+                return cached;
+            }
+        }
+
+        final AdjacencySnapshot snapshot = build(graph, includeLoops, includeWeights, weightAttribute);
+        synchronized (CACHE) {
+            CACHE.put(key, new SoftReference<>(snapshot));
+            if (CACHE.size() > CACHE_SIZE) {
+                final Iterator<String> eldest = CACHE.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Determine whether this snapshot still reflects the specified graph.
+     *
+     * @param graph the graph to check against.
+     * @return true if the graph is the one this snapshot was built from and
+     * its structure (and weight attribute, if used) has not changed since.
+     */
+    public boolean isValid(final GraphReadMethods graph) {
+        return graphId.equals(graph.getId())
+                && structureModificationCounter == graph.getStructureModificationCounter()
+                && undoCounter == graph.getUndoCounter()
+                && vertexCount == graph.getVertexCount()
+                && vertexToPosition.length == graph.getVertexCapacity()
+                && (weightAttribute == Graph.NOT_FOUND || weightModificationCounter == graph.getValueModificationCounter(weightAttribute));
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public boolean includesLoops() {
+        return includeLoops;
+    }
+
+    public boolean hasWeights() {
+        return weights != null;
+    }
+
+    /**
+     * Return the id of the vertex at the specified position.
+     *
+     * @param position the position of the vertex in this snapshot.
+     * @return the id of the vertex in the graph.
+     */
+    public int getVertex(final int position) {
+        return positionToVertex[position];
+    }
+
+    /**
+     * Return the position of the specified vertex.
+     *
+     * @param vertex the id of the vertex in the graph.
+     * @return the position of the vertex in this snapshot, or
+     * {@link Graph#NOT_FOUND} if the vertex is not part of this snapshot.
+     */
+    public int getPosition(final int vertex) {
+        return vertex >= 0 && vertex < vertexToPosition.length ? vertexToPosition[vertex] : Graph.NOT_FOUND;
+    }
+
+    public int getNeighbourCount(final int position) {
+        return offsets[position + 1] - offsets[position];
+    }
+
+    /**
+     * The offsets into the neighbour arrays for each vertex position. This
+     * array has one more element than there are vertices. The returned array
+     * is shared and must not be modified.
+     *
+     * @return the neighbour offsets of each vertex position.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * The positions of the neighbours of every vertex, indexed using
+     * {@link #getOffsets()}. The returned array is shared and must not be
+     * modified.
+     *
+     * @return the neighbour positions.
+     */
+    public int[] getNeighbours() {
+        return neighbours;
+    }
+
+    /**
+     * The kinds of edges that make up each neighbour entry, as a combination
+     * of {@link #OUTGOING}, {@link #INCOMING} and {@link #UNDIRECTED}. The
+     * returned array is shared and must not be modified.
+     *
+     * @return the direction flags of each neighbour entry.
+     */
+    public byte[] getDirections() {
+        return directions;
+    }
+
+    /**
+     * The weight of each neighbour entry, or null if this snapshot was built
+     * without weights. The returned array is shared and must not be modified.
+     *
+     * @return the weight of each neighbour entry.
+     */
+    public double[] getWeights() {
+        return weights;
+    }
+}
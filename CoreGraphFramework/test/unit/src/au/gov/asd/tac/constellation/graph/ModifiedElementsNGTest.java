@@ -0,0 +1,132 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph;
+
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.locking.GraphOperationMode;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import org.testng.annotations.Test;
+
+/**
+ * Test the logging of modified elements in a StoreGraph.
+ *
+ * @author sirius
+ */
+public class ModifiedElementsNGTest {
+
+    private static StoreGraph buildGraph(final int vertexCount) {
+        final StoreGraph graph = new StoreGraph();
+        for (int i = 0; i < vertexCount; i++) {
+            graph.addVertex();
+        }
+        return graph;
+    }
+
+    @Test
+    public void testModifiedElements() {
+        final StoreGraph graph = buildGraph(10);
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "value", null, null, null);
+
+        final long start = graph.getValueModificationCounter(attribute);
+        assertNull(graph.getModifiedElements(attribute, start));
+
+        graph.setIntValue(attribute, 7, 1);
+        graph.setIntValue(attribute, 2, 1);
+        final long middle = graph.getValueModificationCounter(attribute);
+        graph.setIntValue(attribute, 7, 2);
+        graph.setIntValue(attribute, 4, 2);
+
+        assertEquals(graph.getModifiedElements(attribute, start), new int[]{2, 4, 7});
+        assertEquals(graph.getModifiedElements(attribute, middle), new int[]{4, 7});
+        assertEquals(graph.getModifiedElements(attribute, graph.getValueModificationCounter(attribute)), new int[0]);
+    }
+
+    @Test
+    public void testUnknownCounter() {
+        final StoreGraph graph = buildGraph(10);
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "value", null, null, null);
+
+        graph.setIntValue(attribute, 1, 1);
+        final long beforeLogging = graph.getValueModificationCounter(attribute) - 1;
+        assertNull(graph.getModifiedElements(attribute, beforeLogging));
+
+        graph.setIntValue(attribute, 3, 1);
+        assertNull(graph.getModifiedElements(attribute, beforeLogging));
+        assertEquals(graph.getModifiedElements(attribute, beforeLogging + 1), new int[]{3});
+    }
+
+    @Test
+    public void testLogRestart() {
+        final StoreGraph graph = buildGraph(10);
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "value", null, null, null);
+
+        final long start = graph.getValueModificationCounter(attribute);
+        graph.getModifiedElements(attribute, start);
+        for (int i = 0; i < ModifiedElementLog.MAX_SIZE; i++) {
+            graph.setIntValue(attribute, i % 10, i + 1);
+        }
+        final long beforeLast = graph.getValueModificationCounter(attribute);
+        graph.setIntValue(attribute, 5, -1);
+
+        assertNull(graph.getModifiedElements(attribute, start));
+        assertEquals(graph.getModifiedElements(attribute, beforeLast), new int[]{5});
+    }
+
+    @Test
+    public void testUndo() {
+        final StoreGraph graph = buildGraph(10);
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "value", null, null, null);
+
+        final long start = graph.getValueModificationCounter(attribute);
+        graph.getModifiedElements(attribute, start);
+        graph.setIntValue(attribute, 1, 1);
+        graph.setIntValue(attribute, 2, 1);
+        final long beforeUndo = graph.getValueModificationCounter(attribute);
+        final long undoCounter = graph.getUndoCounter();
+
+        graph.setOperationMode(GraphOperationMode.UNDO);
+        graph.setIntValue(attribute, 2, 0);
+        graph.setIntValue(attribute, 1, 0);
+        graph.setOperationMode(GraphOperationMode.EXECUTE);
+        assertEquals(graph.getValueModificationCounter(attribute), start);
+        assertEquals(graph.getUndoCounter(), undoCounter + 1);
+
+        // the log restarts, so counters logged before the undo are forgotten
+        graph.setIntValue(attribute, 3, 1);
+        final long afterEdit = graph.getValueModificationCounter(attribute);
+        assertNull(graph.getModifiedElements(attribute, beforeUndo));
+
+        // and counters that return to values seen before the undo only cover later changes
+        graph.setIntValue(attribute, 5, 1);
+        assertEquals(graph.getValueModificationCounter(attribute), beforeUndo);
+        assertEquals(graph.getModifiedElements(attribute, start), new int[]{3, 5});
+        assertEquals(graph.getModifiedElements(attribute, afterEdit), new int[]{5});
+    }
+
+    @Test
+    public void testCopyDoesNotLog() {
+        final StoreGraph graph = buildGraph(10);
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "value", null, null, null);
+
+        final long start = graph.getValueModificationCounter(attribute);
+        graph.getModifiedElements(attribute, start);
+        graph.setIntValue(attribute, 1, 1);
+
+        final StoreGraph copy = new StoreGraph(graph);
+        assertNull(copy.getModifiedElements(attribute, start));
+    }
+}
@@ -157,6 +157,16 @@ public final class StoreGraphValidator implements GraphWriteMethods {
         throw new UnsupportedOperationException("Not supported yet.");
     }
 
+    @Override
+    public long getUndoCounter() {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public int[] getModifiedElements(final int attribute, final long modificationCounter) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
     @Override
     public void setPrimaryKey(final GraphElementType elementType, final int... attributes) {
         throw new UnsupportedOperationException("Not supported yet.");
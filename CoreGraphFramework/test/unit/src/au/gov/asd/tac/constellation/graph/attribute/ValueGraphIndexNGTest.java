@@ -0,0 +1,129 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.attribute;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphIndexResult;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Test of ValueGraphIndex as used by the attribute descriptions.
+ *
+ * @author cygnus_x-1
+ */
+public class ValueGraphIndexNGTest {
+
+    private static Set<Integer> collect(final GraphIndexResult result) {
+        final Set<Integer> elements = new HashSet<>();
+        final int count = result.getCount();
+        for (int i = 0; i < count; i++) {
+            elements.add(result.getNextElement());
+        }
+        assertEquals(result.getNextElement(), Graph.NOT_FOUND);
+        return elements;
+    }
+
+    /**
+     * Test that an unordered string index tracks value changes and removals.
+     */
+    @Test
+    public void testUnorderedStringIndex() {
+        final StoreGraph graph = new StoreGraph();
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, StringAttributeDescription.ATTRIBUTE_NAME, "name", null, null, null);
+        final int vx0 = graph.addVertex();
+        final int vx1 = graph.addVertex();
+        final int vx2 = graph.addVertex();
+        graph.setStringValue(attribute, vx0, "a");
+        graph.setStringValue(attribute, vx1, "b");
+
+        graph.setAttributeIndexType(attribute, GraphIndexType.UNORDERED);
+        assertEquals(graph.getAttributeIndexType(attribute), GraphIndexType.UNORDERED);
+
+        graph.setStringValue(attribute, vx2, "a");
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, "a")), Set.of(vx0, vx2));
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, "b")), Set.of(vx1));
+        assertNull(graph.getElementsWithAttributeValueRange(attribute, "a", "c"));
+
+        graph.setStringValue(attribute, vx1, "a");
+        graph.removeVertex(vx0);
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, "a")), Set.of(vx1, vx2));
+        assertEquals(graph.getElementsWithAttributeValue(attribute, "b").getCount(), 0);
+
+        final int vx3 = graph.addVertex();
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, null)), Set.of(vx3));
+    }
+
+    /**
+     * Test that an ordered integer index answers range queries and grows with
+     * the graph.
+     */
+    @Test
+    public void testOrderedIntegerIndex() {
+        final StoreGraph graph = new StoreGraph();
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "count", null, null, null);
+        graph.setAttributeIndexType(attribute, GraphIndexType.ORDERED);
+
+        final int[] vertices = new int[100];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = graph.addVertex();
+            graph.setIntValue(attribute, vertices[i], i);
+        }
+
+        final Set<Integer> range = collect(graph.getElementsWithAttributeValueRange(attribute, 10, 20));
+        assertEquals(range.size(), 10);
+        for (int i = 10; i < 20; i++) {
+            assertTrue(range.contains(vertices[i]));
+        }
+
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, 42L)), Set.of(vertices[42]));
+        assertEquals(graph.getElementsWithAttributeValueRange(attribute, null, 50).getCount(), 50);
+        assertEquals(graph.getElementsWithAttributeValueRange(attribute, 90, null).getCount(), 10);
+        assertEquals(graph.getElementsWithAttributeValueRange(attribute, 20, 10).getCount(), 0);
+
+        graph.setAttributeIndexType(attribute, GraphIndexType.NONE);
+        assertEquals(graph.getAttributeIndexType(attribute), GraphIndexType.NONE);
+        assertNull(graph.getElementsWithAttributeValue(attribute, 42));
+    }
+
+    /**
+     * Test that a datetime index finds the same instant in any time zone.
+     */
+    @Test
+    public void testZonedDateTimeIndexByInstant() {
+        final StoreGraph graph = new StoreGraph();
+        final int attribute = graph.addAttribute(GraphElementType.VERTEX, ZonedDateTimeAttributeDescription.ATTRIBUTE_NAME, "time", null, null, null);
+        graph.setAttributeIndexType(attribute, GraphIndexType.ORDERED);
+
+        final ZonedDateTime utc = ZonedDateTime.of(2021, 7, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        final int vx0 = graph.addVertex();
+        final int vx1 = graph.addVertex();
+        graph.setObjectValue(attribute, vx0, utc);
+        graph.setObjectValue(attribute, vx1, utc.withZoneSameInstant(ZoneId.of("Australia/Sydney")));
+
+        assertEquals(collect(graph.getElementsWithAttributeValue(attribute, utc.withZoneSameInstant(ZoneOffset.ofHours(-5)))), Set.of(vx0, vx1));
+        assertEquals(graph.getElementsWithAttributeValueRange(attribute, utc.plusHours(1), null).getCount(), 0);
+        assertEquals(graph.getElementsWithAttributeValueRange(attribute, utc.withZoneSameInstant(ZoneOffset.ofHours(10)), utc.plusSeconds(1)).getCount(), 2);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.locking;
+
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.ReadableGraph;
+import au.gov.asd.tac.constellation.graph.WritableGraph;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.operations.GraphOperation;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that a DualGraph remains consistent when commits are replayed onto the
+ * stale graph in the background.
+ *
+ * @author cygnus_x-1
+ */
+public class BackgroundReplayNGTest {
+
+    private void runCommits(final DualGraph graph) throws InterruptedException {
+        final int attribute;
+        final int vertex;
+        WritableGraph wg = graph.getWritableGraph("add", true);
+        try {
+            vertex = wg.addVertex();
+            attribute = wg.addAttribute(GraphElementType.VERTEX, IntegerAttributeDescription.ATTRIBUTE_NAME, "count", null, 0, null);
+        } finally {
+            wg.commit();
+        }
+
+        for (int i = 1; i <= 50; i++) {
+            wg = graph.getWritableGraph("increment", true);
+            try {
+                assertEquals(wg.getIntValue(attribute, vertex), i - 1);
+                wg.setIntValue(attribute, vertex, i);
+                wg.addVertex();
+            } finally {
+                wg.commit();
+            }
+
+            final ReadableGraph rg = graph.getReadableGraph();
+            try {
+                assertEquals(rg.getIntValue(attribute, vertex), i);
+                assertEquals(rg.getVertexCount(), i + 1);
+            } finally {
+                rg.release();
+            }
+        }
+    }
+
+    @Test
+    public void testBackgroundReplay() throws InterruptedException {
+        final DualGraph graph = new DualGraph(null);
+        graph.getLockingManager().setBackgroundReplay(true);
+        runCommits(graph);
+        assertTrue(graph.getLockingManager().getCommitCount() >= 50);
+    }
+
+    @Test
+    public void testSynchronousReplay() throws InterruptedException {
+        final DualGraph graph = new DualGraph(null);
+        graph.getLockingManager().setBackgroundReplay(false);
+        runCommits(graph);
+        assertEquals(graph.getLockingManager().getCommitCount(), 51L);
+        assertTrue(graph.getLockingManager().getTotalReplayNanos() > 0);
+    }
+
+    @Test
+    public void testFailedBackgroundReplayRefusesWriters() throws InterruptedException {
+        final DualGraph graph = new DualGraph(null);
+        graph.getLockingManager().setBackgroundReplay(true);
+
+        // an operation which succeeds on the graph being written but fails when replayed onto the stale graph
+        final GraphOperation operation = new GraphOperation() {
+            private int executions = 0;
+
+            @Override
+            public void execute(final GraphWriteMethods graph) {
+                if (++executions > 1) {
+                    throw new IllegalArgumentException("replay failed");
+                }
+                graph.addVertex();
+            }
+
+            @Override
+            public void undo(final GraphWriteMethods graph) {
+                graph.removeVertex(graph.getVertex(graph.getVertexCount() - 1));
+            }
+        };
+
+        final WritableGraph wg = graph.getWritableGraph("operation", true);
+        try {
+            wg.executeGraphOperation(operation);
+        } finally {
+            wg.commit();
+        }
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                graph.getWritableGraph("after failure", true).commit();
+                fail("a writer was given a partly replayed graph");
+            } catch (final IllegalStateException ex) {
+                assertEquals(ex.getCause().getMessage(), "replay failed");
+            }
+        }
+
+        // the committed graph is still readable
+        final ReadableGraph rg = graph.getReadableGraph();
+        try {
+            assertEquals(rg.getVertexCount(), 1);
+        } finally {
+            rg.release();
+        }
+    }
+}
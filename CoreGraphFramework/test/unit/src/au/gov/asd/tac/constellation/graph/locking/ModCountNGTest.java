@@ -1059,4 +1059,39 @@ public class ModCountNGTest {
             assertTrue(ex.toString(), false);
         }
     }
+
+    /**
+     * Tests that rolling back an edit doesn't change the undo counter, so the
+     * undo counters of the two graphs in a DualGraph stay the same.
+     */
+    @Test
+    public void rollBackUndoCounter() {
+        final DualGraph g = new DualGraph(null);
+        try {
+            long undoCounter;
+            WritableGraph wg = g.getWritableGraph("", true);
+            try {
+                wg.addVertex();
+                undoCounter = wg.getUndoCounter();
+            } finally {
+                wg.commit();
+            }
+
+            wg = g.getWritableGraph("", true);
+            wg.addVertex();
+            wg.rollBack();
+
+            for (int i = 0; i < 2; i++) {
+                wg = g.getWritableGraph("", true);
+                try {
+                    assertEquals(1, wg.getVertexCount());
+                    assertEquals(undoCounter, wg.getUndoCounter());
+                } finally {
+                    wg.commit();
+                }
+            }
+        } catch (InterruptedException ex) {
+            assertTrue(ex.toString(), false);
+        }
+    }
 }
@@ -15,6 +15,7 @@
  */
 package au.gov.asd.tac.constellation.graph.processing;
 
+import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.StoreGraph;
 import au.gov.asd.tac.constellation.graph.attribute.BooleanAttributeDescription;
@@ -278,4 +279,53 @@ public class GraphRecordStoreUtilitiesNGTest {
         assertEquals(vx1, graph.getTransactionSourceVertex(tx1));
     }
 
+    @Test
+    public void addRecordStoreToGraphWithDifferentKeysInEachRecord() {
+        final StoreGraph graph = new StoreGraph();
+        final RecordStore recordStore = new GraphRecordStore();
+        recordStore.add();
+        recordStore.set(GraphRecordStoreUtilities.SOURCE + "Identifier", "vx0");
+        recordStore.set(GraphRecordStoreUtilities.SOURCE + "Label", "label0");
+        recordStore.set("other.Name", "ignored");
+        recordStore.add();
+        recordStore.set("Source$1.Identifier", "vx1");
+
+        final List<Integer> veritices = GraphRecordStoreUtilities.addRecordStoreToGraph(graph, recordStore, false, false, null);
+        assertEquals(veritices.size(), 2);
+
+        final int identifierAttribute = graph.getAttribute(GraphElementType.VERTEX, "Identifier");
+        final int labelAttribute = graph.getAttribute(GraphElementType.VERTEX, "Label");
+        assertEquals(graph.getStringValue(identifierAttribute, veritices.get(0)), "vx0");
+        assertEquals(graph.getStringValue(labelAttribute, veritices.get(0)), "label0");
+        assertEquals(graph.getStringValue(identifierAttribute, veritices.get(1)), "vx1");
+        assertEquals(graph.getStringValue(labelAttribute, veritices.get(1)), null);
+        assertEquals(graph.getAttribute(GraphElementType.VERTEX, "Name"), Graph.NOT_FOUND);
+    }
+
+    @Test
+    public void addRecordStoreToGraphWithVertexIdsFromAllAttributes() {
+        final StoreGraph graph = new StoreGraph();
+        final RecordStore recordStore = new GraphRecordStore();
+        recordStore.add();
+        recordStore.set(GraphRecordStoreUtilities.SOURCE + "Name", "a");
+        recordStore.set(GraphRecordStoreUtilities.SOURCE + "Colour", "red");
+        recordStore.add();
+        recordStore.set(GraphRecordStoreUtilities.SOURCE + "Colour", "red");
+        recordStore.set(GraphRecordStoreUtilities.SOURCE + "Name", "a");
+        recordStore.add();
+        recordStore.set(GraphRecordStoreUtilities.SOURCE + "Name", "b");
+        recordStore.set("Source.Name", "c");
+        recordStore.add();
+        recordStore.set("Source.Name", "c");
+
+        final List<Integer> veritices = GraphRecordStoreUtilities.addRecordStoreToGraph(graph, recordStore, false, false, new ArrayList<>());
+        assertEquals(veritices.size(), 2);
+        assertEquals(graph.getVertexCount(), 2);
+
+        // only the last of the keys copied to the same attribute is used
+        final int nameAttribute = graph.getAttribute(GraphElementType.VERTEX, "Name");
+        assertEquals(graph.getStringValue(nameAttribute, veritices.get(0)), "a");
+        assertEquals(graph.getStringValue(nameAttribute, veritices.get(1)), "c");
+        assertEquals(graph.getStringValue(graph.getAttribute(GraphElementType.VERTEX, "Colour"), veritices.get(1)), null);
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.processing;
+
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.DoubleAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import java.util.Arrays;
+import java.util.List;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Test the columnar storage of a TypedRecordStore.
+ *
+ * @author sirius
+ */
+public class TypedRecordStoreNGTest {
+
+    private static final String COUNT = GraphRecordStoreUtilities.SOURCE + "Count<integer>";
+    private static final String IDENTIFIER = GraphRecordStoreUtilities.SOURCE + "Identifier";
+
+    @Test
+    public void testTypedValues() {
+        final TypedRecordStore recordStore = new TypedRecordStore();
+        recordStore.add();
+        recordStore.setInt(0, COUNT, 7);
+        recordStore.setDouble(0, GraphRecordStoreUtilities.SOURCE + "Weight<float>", 0.1);
+        recordStore.setBoolean(0, GraphRecordStoreUtilities.SOURCE + "Flag<boolean>", true);
+        recordStore.add();
+        recordStore.setLong(1, GraphRecordStoreUtilities.SOURCE + "Size", 1L << 40);
+
+        assertEquals(recordStore.getInt(0, COUNT), 7);
+        assertEquals(recordStore.getInt(0, GraphRecordStoreUtilities.SOURCE + "Count"), 7);
+        assertEquals(recordStore.get(0, COUNT), "7");
+        assertEquals(recordStore.getDouble(0, GraphRecordStoreUtilities.SOURCE + "Weight"), (double) 0.1F);
+        assertEquals(recordStore.get(0, GraphRecordStoreUtilities.SOURCE + "Weight"), "0.1");
+        assertTrue(recordStore.getBoolean(0, GraphRecordStoreUtilities.SOURCE + "Flag"));
+        assertEquals(recordStore.getLong(1, GraphRecordStoreUtilities.SOURCE + "Size<long>"), 1L << 40);
+
+        assertEquals(recordStore.getInt(1, COUNT), 0);
+        assertFalse(recordStore.hasValue(1, COUNT));
+        assertNull(recordStore.get(1, COUNT));
+        assertTrue(recordStore.isPrimitive(COUNT));
+    }
+
+    @Test
+    public void testKeysIncludeType() {
+        final TypedRecordStore recordStore = new TypedRecordStore();
+        recordStore.add();
+        recordStore.set(IDENTIFIER, "a");
+        recordStore.setInt(0, COUNT, 1);
+
+        assertEquals(recordStore.keys(), Arrays.asList(IDENTIFIER + "<string>", COUNT));
+        assertEquals(recordStore.values(), Arrays.asList("a", "1"));
+    }
+
+    @Test
+    public void testStringsParsed() {
+        final TypedRecordStore recordStore = new TypedRecordStore();
+        recordStore.add();
+        recordStore.set(COUNT, "42");
+
+        assertTrue(recordStore.isPrimitive(COUNT));
+        assertEquals(recordStore.getInt(0, COUNT), 42);
+    }
+
+    @Test
+    public void testNullKeepsColumnPrimitive() {
+        final TypedRecordStore recordStore = new TypedRecordStore();
+        recordStore.add();
+        recordStore.setInt(0, COUNT, 7);
+        recordStore.add();
+        recordStore.setInt(1, COUNT, 8);
+        recordStore.set(1, COUNT, null);
+
+        assertTrue(recordStore.isPrimitive(COUNT));
+        assertEquals(recordStore.getInt(0, COUNT), 7);
+        assertFalse(recordStore.hasValue(1, COUNT));
+        assertNull(recordStore.get(1, COUNT));
+
+        recordStore.set(0, IDENTIFIER, "a");
+        recordStore.set(0, IDENTIFIER, null);
+        assertNull(recordStore.get(0, IDENTIFIER));
+    }
+
+    @Test
+    public void testUnparseableValueConvertsColumn() {
+        final TypedRecordStore recordStore = new TypedRecordStore();
+        for (int i = 0; i < 2000; i++) {
+            recordStore.add();
+            recordStore.setInt(i, COUNT, i);
+        }
+        recordStore.set(1500, COUNT, "many");
+
+        assertFalse(recordStore.isPrimitive(COUNT));
+        assertEquals(recordStore.get(1499, COUNT), "1499");
+        assertEquals(recordStore.get(1500, COUNT), "many");
+        assertEquals(recordStore.getInt(3, COUNT), 3);
+        assertEquals(recordStore.keys(), Arrays.asList(COUNT));
+    }
+
+    @Test
+    public void testAddRecordStore() {
+        final TypedRecordStore first = new TypedRecordStore();
+        first.add();
+        first.setInt(0, COUNT, 1);
+        first.set(IDENTIFIER, "a");
+
+        final TypedRecordStore second = new TypedRecordStore();
+        second.add();
+        second.set(0, COUNT, "2");
+        second.add();
+        second.set(1, COUNT, "lots");
+
+        final RecordStore tabular = new GraphRecordStore();
+        tabular.add();
+        tabular.set(IDENTIFIER, "b");
+
+        first.add(second);
+        first.add(tabular);
+
+        assertEquals(first.size(), 4);
+        assertEquals(first.getAll(COUNT), Arrays.asList("1", "2", "lots", null));
+        assertEquals(first.getAll(IDENTIFIER), Arrays.asList("a", null, null, "b"));
+    }
+
+    @Test
+    public void testAddRecordStoreToGraph() {
+        final StoreGraph graph = new StoreGraph();
+        final int weightAttribute = graph.addAttribute(GraphElementType.TRANSACTION, DoubleAttributeDescription.ATTRIBUTE_NAME, "Weight", null, null, null);
+
+        final TypedRecordStore recordStore = new TypedRecordStore();
+        for (int i = 0; i < 3; i++) {
+            recordStore.add();
+            recordStore.set(GraphRecordStoreUtilities.SOURCE + GraphRecordStoreUtilities.ID, "s");
+            recordStore.setInt(i, COUNT, i);
+            recordStore.set(GraphRecordStoreUtilities.DESTINATION + GraphRecordStoreUtilities.ID, "d" + i);
+            recordStore.set(GraphRecordStoreUtilities.DESTINATION + "Identifier", "d" + i);
+            recordStore.setDouble(i, GraphRecordStoreUtilities.TRANSACTION + "Weight<double>", i / 2.0);
+        }
+
+        final List<Integer> vertices = GraphRecordStoreUtilities.addRecordStoreToGraph(graph, recordStore, false, false, null);
+        assertEquals(vertices.size(), 4);
+        assertEquals(graph.getTransactionCount(), 3);
+
+        final int countAttribute = graph.getAttribute(GraphElementType.VERTEX, "Count");
+        assertEquals(graph.getAttributeType(countAttribute), IntegerAttributeDescription.ATTRIBUTE_NAME);
+        assertEquals(graph.getIntValue(countAttribute, vertices.get(0)), 2);
+        assertEquals(graph.getStringValue(graph.getAttribute(GraphElementType.VERTEX, "Identifier"), vertices.get(3)), "d2");
+        for (int position = 0; position < graph.getTransactionCount(); position++) {
+            final int transaction = graph.getTransaction(position);
+            final int destination = graph.getTransactionDestinationVertex(transaction);
+            assertEquals(graph.getDoubleValue(weightAttribute, transaction), vertices.indexOf(destination) / 2.0 - 0.5);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.utilities;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.locking.GraphOperationMode;
+import java.util.Arrays;
+import static org.testng.Assert.*;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test of AdjacencySnapshot.
+ *
+ * @author cygnus_x-1
+ */
+public class AdjacencySnapshotNGTest {
+
+    private StoreGraph graph;
+    private int vxId0, vxId1, vxId2;
+    private int weightAttribute;
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        graph = new StoreGraph();
+        weightAttribute = graph.addAttribute(GraphElementType.TRANSACTION, FloatAttributeDescription.ATTRIBUTE_NAME, "weight", null, null, null);
+        vxId0 = graph.addVertex();
+        vxId1 = graph.addVertex();
+        vxId2 = graph.addVertex();
+
+        final int txId0 = graph.addTransaction(vxId0, vxId1, true);
+        final int txId1 = graph.addTransaction(vxId1, vxId0, true);
+        final int txId2 = graph.addTransaction(vxId1, vxId2, false);
+        final int txId3 = graph.addTransaction(vxId2, vxId2, true);
+        graph.setFloatValue(weightAttribute, txId0, 1.5F);
+        graph.setFloatValue(weightAttribute, txId1, 2.5F);
+        graph.setFloatValue(weightAttribute, txId2, 4F);
+        graph.setFloatValue(weightAttribute, txId3, 8F);
+    }
+
+    /**
+     * Test that the neighbours and direction flags match the graph structure.
+     */
+    @Test
+    public void testStructure() {
+        final AdjacencySnapshot snapshot = AdjacencySnapshot.build(graph, false, false, Graph.NOT_FOUND);
+        assertEquals(snapshot.getVertexCount(), 3);
+        assertFalse(snapshot.hasWeights());
+
+        final int p0 = snapshot.getPosition(vxId0);
+        final int p1 = snapshot.getPosition(vxId1);
+        final int p2 = snapshot.getPosition(vxId2);
+        assertEquals(snapshot.getVertex(p1), vxId1);
+        assertEquals(snapshot.getNeighbourCount(p0), 1);
+        assertEquals(snapshot.getNeighbourCount(p1), 2);
+        assertEquals(snapshot.getNeighbourCount(p2), 1);
+
+        final int[] offsets = snapshot.getOffsets();
+        final int entry0 = offsets[p0];
+        assertEquals(snapshot.getNeighbours()[entry0], p1);
+        assertEquals(snapshot.getDirections()[entry0], AdjacencySnapshot.OUTGOING | AdjacencySnapshot.INCOMING);
+
+        final int entry2 = offsets[p2];
+        assertEquals(snapshot.getNeighbours()[entry2], p1);
+        assertEquals(snapshot.getDirections()[entry2], AdjacencySnapshot.UNDIRECTED);
+    }
+
+    /**
+     * Test that loops and weights are recorded when requested.
+     */
+    @Test
+    public void testLoopsAndWeights() {
+        final AdjacencySnapshot counted = AdjacencySnapshot.build(graph, true, true, Graph.NOT_FOUND);
+        final int p0 = counted.getPosition(vxId0);
+        final int p2 = counted.getPosition(vxId2);
+        assertEquals(counted.getNeighbourCount(p2), 2);
+        assertEquals(counted.getWeights()[counted.getOffsets()[p0]], 2.0);
+
+        final AdjacencySnapshot weighted = AdjacencySnapshot.build(graph, false, true, weightAttribute);
+        assertEquals(weighted.getWeights()[weighted.getOffsets()[p0]], 4.0);
+    }
+
+    /**
+     * Test that cached snapshots are reused until the graph structure changes.
+     */
+    @Test
+    public void testCache() {
+        final AdjacencySnapshot first = AdjacencySnapshot.getSnapshot(graph, false, false, Graph.NOT_FOUND);
+        assertSame(AdjacencySnapshot.getSnapshot(graph, false, false, Graph.NOT_FOUND), first);
+
+        graph.addVertex();
+        assertFalse(first.isValid(graph));
+        final AdjacencySnapshot second = AdjacencySnapshot.getSnapshot(graph, false, false, Graph.NOT_FOUND);
+        assertNotSame(second, first);
+        assertEquals(second.getVertexCount(), 4);
+    }
+
+    /**
+     * Test that a cached snapshot is not reused after an undo and a different
+     * change return the structure modification counter to the same value.
+     */
+    @Test
+    public void testCacheAfterUndo() {
+        final int txId = graph.addTransaction(vxId0, vxId2, true);
+        final AdjacencySnapshot first = AdjacencySnapshot.getSnapshot(graph, false, false, Graph.NOT_FOUND);
+        final long structureModificationCounter = graph.getStructureModificationCounter();
+
+        graph.setOperationMode(GraphOperationMode.UNDO);
+        graph.removeTransaction(txId);
+        graph.setOperationMode(GraphOperationMode.EXECUTE);
+        graph.addTransaction(vxId2, vxId0, false);
+        assertEquals(graph.getStructureModificationCounter(), structureModificationCounter);
+
+        assertFalse(first.isValid(graph));
+        final AdjacencySnapshot second = AdjacencySnapshot.getSnapshot(graph, false, false, Graph.NOT_FOUND);
+        assertNotSame(second, first);
+        assertFalse(Arrays.equals(second.getDirections(), first.getDirections()));
+    }
+}
@@ -19,12 +19,14 @@ import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphConstants;
 import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
 import au.gov.asd.tac.constellation.graph.StoreGraph;
 import au.gov.asd.tac.constellation.graph.schema.Schema;
 import au.gov.asd.tac.constellation.graph.schema.analytic.concept.AnalyticConcept;
 import au.gov.asd.tac.constellation.graph.schema.type.SchemaTransactionType;
 import au.gov.asd.tac.constellation.graph.utilities.io.CopyGraphUtilities;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * Provides functionality for creating subgraphs of a given graph
@@ -41,7 +43,18 @@ public class SubgraphUtilities {
      * @return An exact copy of the graph
      */
     public static StoreGraph copyGraph(final GraphReadMethods graph) {
-        final StoreGraph subgraph = new StoreGraph(graph.getSchema());
+        return copyGraph(graph, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Make an exact copy of the given graph with the given id.
+     *
+     * @param graph The source graph
+     * @param id The id of the copy
+     * @return An exact copy of the graph
+     */
+    public static StoreGraph copyGraph(final GraphReadMethods graph, final String id) {
+        final StoreGraph subgraph = new StoreGraph(graph.getSchema(), id);
 
         // add the graph attributes
         CopyGraphUtilities.copyGraphTypeElements(graph, subgraph);
@@ -140,8 +153,7 @@ public class SubgraphUtilities {
             // check transaction is of desired type
             final SchemaTransactionType transactionType = graph.getObjectValue(transactionTypeAttributeId, transactionId);
             for (SchemaTransactionType type : types) {
-                if ((!isExclusive && ((transactionType == null && type == null) || (transactionType != null && transactionType.isSubTypeOf(type))))
-                        || (isExclusive && !((transactionType == null && type == null) || (transactionType != null && transactionType.isSubTypeOf(type))))) {
+                if (isSelectedType(transactionType, type, isExclusive)) {
                     final int sourceVertexId = graph.getTransactionSourceVertex(transactionId);
                     final int destinationVertexId = graph.getTransactionDestinationVertex(transactionId);
 
@@ -199,4 +211,30 @@ public class SubgraphUtilities {
 
         return subgraph;
     }
+
+    /**
+     * Return a view of the subgraph of the given graph filtered by transaction
+     * type. Unlike {@link #getSubgraph getSubgraph()}, the graph is not copied,
+     * so values written to the view are written to the given graph.
+     *
+     * @param graph The graph to view
+     * @param types The transaction types to filter by
+     * @param isExclusive If true, the view contains the transactions which are
+     * not of the given types
+     * @return A view of the subgraph
+     */
+    public static TransactionSubgraph getSubgraphView(final GraphWriteMethods graph, final Set<SchemaTransactionType> types, final boolean isExclusive) {
+        final int transactionTypeAttributeId = AnalyticConcept.TransactionAttribute.TYPE.get(graph);
+        assert transactionTypeAttributeId != GraphConstants.NOT_FOUND : "The transaction 'Type' attribute does not exist on this graph";
+
+        return new TransactionSubgraph(graph, transactionId -> {
+            final SchemaTransactionType transactionType = graph.getObjectValue(transactionTypeAttributeId, transactionId);
+            return types.stream().anyMatch(type -> isSelectedType(transactionType, type, isExclusive));
+        });
+    }
+
+    private static boolean isSelectedType(final SchemaTransactionType transactionType, final SchemaTransactionType type, final boolean isExclusive) {
+        final boolean matches = (transactionType == null && type == null) || (transactionType != null && transactionType.isSubTypeOf(type));
+        return matches != isExclusive;
+    }
 }
@@ -0,0 +1,1179 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.utilities;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphAttributeMerger;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphIndexResult;
+import au.gov.asd.tac.constellation.graph.GraphIndexType;
+import au.gov.asd.tac.constellation.graph.GraphKey;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.graph.NativeAttributeType;
+import au.gov.asd.tac.constellation.graph.attribute.AttributeDescription;
+import au.gov.asd.tac.constellation.graph.operations.GraphOperation;
+import au.gov.asd.tac.constellation.graph.schema.Schema;
+import au.gov.asd.tac.constellation.graph.value.readables.IntReadable;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * A view of the subgraph of a graph made up of the transactions accepted by a
+ * filter, along with their vertices, links and edges.
+ * <p>
+ * The view does not copy the graph. Elements keep their ids in the view, so
+ * attribute values are read from and written to the underlying graph directly,
+ * while positions, counts and adjacency are restricted to the elements in the
+ * view. The adjacency of each kind of element is only worked out the first
+ * time it is asked for.
+ * <p>
+ * Adding or removing vertices and transactions through the view changes the
+ * underlying graph and updates the view to match. Structural changes made to
+ * the underlying graph by any other means, including merges performed by
+ * {@link #validateKey validateKey()}, are not reflected in the view.
+ * <p>
+ * Each view has its own id, so caches keyed on the graph id, such as
+ * {@link AdjacencySnapshot#getSnapshot AdjacencySnapshot.getSnapshot()}, keep
+ * the view apart from the underlying graph.
+ *
+ * @author cygnus_x-1
+ */
+public class TransactionSubgraph implements GraphWriteMethods {
+
+    private static final int DIRECTIONS = 3;
+
+    /**
+     * The ids and positions of the elements of one type in the view.
+     */
+    private static final class ElementPositions {
+
+        private int[] ids;
+        private int[] positions;
+        private int count = 0;
+
+        private ElementPositions(final int capacity) {
+            ids = new int[Math.max(capacity, 1)];
+            positions = new int[Math.max(capacity, 1)];
+            Arrays.fill(positions, Graph.NOT_FOUND);
+        }
+
+        private boolean contains(final int id) {
+            return id >= 0 && id < positions.length && positions[id] != Graph.NOT_FOUND;
+        }
+
+        private void add(final int id) {
+            if (contains(id)) {
+                return;
+            }
+            if (id >= positions.length) {
+                final int oldCapacity = positions.length;
+                positions = Arrays.copyOf(positions, Math.max(id + 1, oldCapacity * 2));
+                Arrays.fill(positions, oldCapacity, positions.length, Graph.NOT_FOUND);
+            }
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count] = id;
+            positions[id] = count++;
+        }
+
+        private void remove(final int id) {
+            if (!contains(id)) {
+                return;
+            }
+            final int position = positions[id];
+            final int last = ids[--count];
+            ids[position] = last;
+            positions[last] = position;
+            positions[id] = Graph.NOT_FOUND;
+        }
+
+        private int getPosition(final int id) {
+            return contains(id) ? positions[id] : Graph.NOT_FOUND;
+        }
+
+        private IntStream stream() {
+            return Arrays.stream(ids, 0, count);
+        }
+    }
+
+    /**
+     * The kinds of adjacency between elements, each given by the type of the
+     * element that owns the adjacency list, the type of the elements in it,
+     * and whether the list is divided into directions.
+     */
+    private enum AdjacencyType {
+        VERTEX_TRANSACTIONS(GraphElementType.VERTEX, GraphElementType.TRANSACTION, true),
+        VERTEX_EDGES(GraphElementType.VERTEX, GraphElementType.EDGE, true),
+        VERTEX_LINKS(GraphElementType.VERTEX, GraphElementType.LINK, false),
+        LINK_TRANSACTIONS(GraphElementType.LINK, GraphElementType.TRANSACTION, true),
+        LINK_EDGES(GraphElementType.LINK, GraphElementType.EDGE, true),
+        EDGE_TRANSACTIONS(GraphElementType.EDGE, GraphElementType.TRANSACTION, false);
+
+        private final GraphElementType ownerType;
+        private final GraphElementType elementType;
+        private final int directions;
+
+        private AdjacencyType(final GraphElementType ownerType, final GraphElementType elementType, final boolean directed) {
+            this.ownerType = ownerType;
+            this.elementType = elementType;
+            this.directions = directed ? DIRECTIONS : 1;
+        }
+    }
+
+    /**
+     * The elements in the view adjacent to each owning element in the view.
+     * The list for each owner holds the number of elements in each direction,
+     * followed by the elements themselves grouped by direction.
+     */
+    private final class Adjacency {
+
+        private final AdjacencyType type;
+        private final ElementPositions owners;
+        private final ElementPositions elements;
+        private int[][] lists;
+
+        private Adjacency(final AdjacencyType type) {
+            this.type = type;
+            this.owners = getPositions(type.ownerType);
+            this.elements = getPositions(type.elementType);
+            this.lists = new int[getCapacity(type.ownerType)][];
+            owners.stream().forEach(this::update);
+        }
+
+        private int getParentCount(final int owner, final int direction) {
+            switch (type) {
+                case VERTEX_TRANSACTIONS:
+                    return proxy.getVertexTransactionCount(owner, direction);
+                case VERTEX_EDGES:
+                    return proxy.getVertexEdgeCount(owner, direction);
+                case VERTEX_LINKS:
+                    return proxy.getVertexLinkCount(owner);
+                case LINK_TRANSACTIONS:
+                    return proxy.getLinkTransactionCount(owner, direction);
+                case LINK_EDGES:
+                    return proxy.getLinkEdgeCount(owner, direction);
+                case EDGE_TRANSACTIONS:
+                    return proxy.getEdgeTransactionCount(owner);
+                default:
+                    throw new IllegalStateException("Unknown adjacency type: " + type);
+            }
+        }
+
+        private int getParentElement(final int owner, final int direction, final int position) {
+            switch (type) {
+                case VERTEX_TRANSACTIONS:
+                    return proxy.getVertexTransaction(owner, direction, position);
+                case VERTEX_EDGES:
+                    return proxy.getVertexEdge(owner, direction, position);
+                case VERTEX_LINKS:
+                    return proxy.getVertexLink(owner, position);
+                case LINK_TRANSACTIONS:
+                    return proxy.getLinkTransaction(owner, direction, position);
+                case LINK_EDGES:
+                    return proxy.getLinkEdge(owner, direction, position);
+                case EDGE_TRANSACTIONS:
+                    return proxy.getEdgeTransaction(owner, position);
+                default:
+                    throw new IllegalStateException("Unknown adjacency type: " + type);
+            }
+        }
+
+        /**
+         * Rebuild the list of an owner from the underlying graph.
+         */
+        private void update(final int owner) {
+            if (owner >= lists.length) {
+                lists = Arrays.copyOf(lists, Math.max(owner + 1, lists.length * 2));
+            }
+            if (!owners.contains(owner)) {
+                lists[owner] = null;
+                return;
+            }
+
+            int[] list = new int[type.directions + 8];
+            int size = type.directions;
+            for (int direction = 0; direction < type.directions; direction++) {
+                final int parentCount = getParentCount(owner, direction);
+                for (int position = 0; position < parentCount; position++) {
+                    final int element = getParentElement(owner, direction, position);
+                    if (elements.contains(element)) {
+                        if (size == list.length) {
+                            list = Arrays.copyOf(list, size * 2);
+                        }
+                        list[size++] = element;
+                        list[direction]++;
+                    }
+                }
+            }
+            lists[owner] = size == list.length ? list : Arrays.copyOf(list, size);
+        }
+
+        private int getCount(final int owner) {
+            final int[] list = owner >= 0 && owner < lists.length ? lists[owner] : null;
+            return list == null ? 0 : list.length - type.directions;
+        }
+
+        private int getCount(final int owner, final int direction) {
+            final int[] list = owner >= 0 && owner < lists.length ? lists[owner] : null;
+            return list == null ? 0 : list[direction];
+        }
+
+        private int get(final int owner, final int position) {
+            return lists[owner][type.directions + position];
+        }
+
+        private int get(final int owner, final int direction, final int position) {
+            final int[] list = lists[owner];
+            int offset = type.directions;
+            for (int d = 0; d < direction; d++) {
+                offset += list[d];
+            }
+            return list[offset + position];
+        }
+    }
+
+    /**
+     * An index result restricted to the elements in the view.
+     */
+    private static final class FilteredIndexResult implements GraphIndexResult {
+
+        private final int[] elements;
+        private int next = 0;
+
+        private FilteredIndexResult(final int[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public int getCount() {
+            return elements.length;
+        }
+
+        @Override
+        public int getNextElement() {
+            return elements[next++];
+        }
+    }
+
+    protected final GraphWriteMethods proxy;
+    private final String id = UUID.randomUUID().toString();
+
+    private final ElementPositions vertices;
+    private final ElementPositions links;
+    private final ElementPositions edges;
+    private final ElementPositions transactions;
+    private final AtomicReferenceArray<Adjacency> adjacencies = new AtomicReferenceArray<>(AdjacencyType.values().length);
+
+    /**
+     * Create a view of the subgraph of a graph made up of the transactions
+     * accepted by a filter.
+     *
+     * @param proxy the graph to view.
+     * @param transactionFilter accepts the ids of the transactions in the view.
+     */
+    public TransactionSubgraph(final GraphWriteMethods proxy, final IntPredicate transactionFilter) {
+        this.proxy = proxy;
+        vertices = new ElementPositions(proxy.getVertexCapacity());
+        links = new ElementPositions(proxy.getLinkCapacity());
+        edges = new ElementPositions(proxy.getEdgeCapacity());
+        transactions = new ElementPositions(proxy.getTransactionCapacity());
+
+        final int transactionCount = proxy.getTransactionCount();
+        for (int transactionPosition = 0; transactionPosition < transactionCount; transactionPosition++) {
+            final int transactionId = proxy.getTransaction(transactionPosition);
+            if (transactionFilter.test(transactionId)) {
+                transactions.add(transactionId);
+                vertices.add(proxy.getTransactionSourceVertex(transactionId));
+                vertices.add(proxy.getTransactionDestinationVertex(transactionId));
+                links.add(proxy.getTransactionLink(transactionId));
+                edges.add(proxy.getTransactionEdge(transactionId));
+            }
+        }
+    }
+
+    private ElementPositions getPositions(final GraphElementType elementType) {
+        switch (elementType) {
+            case VERTEX:
+                return vertices;
+            case LINK:
+                return links;
+            case EDGE:
+                return edges;
+            case TRANSACTION:
+                return transactions;
+            default:
+                return null;
+        }
+    }
+
+    private int getCapacity(final GraphElementType elementType) {
+        switch (elementType) {
+            case VERTEX:
+                return proxy.getVertexCapacity();
+            case LINK:
+                return proxy.getLinkCapacity();
+            case EDGE:
+                return proxy.getEdgeCapacity();
+            case TRANSACTION:
+                return proxy.getTransactionCapacity();
+            default:
+                return 0;
+        }
+    }
+
+    private Adjacency getAdjacency(final AdjacencyType type) {
+        Adjacency adjacency = adjacencies.get(type.ordinal());
+        if (adjacency == null) {
+            synchronized (this) {
+                adjacency = adjacencies.get(type.ordinal());
+                if (adjacency == null) {
+                    adjacency = new Adjacency(type);
+                    adjacencies.set(type.ordinal(), adjacency);
+                }
+            }
+        }
+        return adjacency;
+    }
+
+    /**
+     * Rebuild the adjacency lists that have been built so far for the given
+     * elements after a change to the structure of the view.
+     */
+    private void updateAdjacencies(final int[] changedVertices, final int[] changedLinks, final int[] changedEdges) {
+        for (final AdjacencyType type : AdjacencyType.values()) {
+            final Adjacency adjacency = adjacencies.get(type.ordinal());
+            if (adjacency != null) {
+                final int[] owners = type.ownerType == GraphElementType.VERTEX ? changedVertices
+                        : type.ownerType == GraphElementType.LINK ? changedLinks : changedEdges;
+                for (final int owner : owners) {
+                    adjacency.update(owner);
+                }
+            }
+        }
+    }
+
+    private void includeTransaction(final int transaction) {
+        final int sourceVertex = proxy.getTransactionSourceVertex(transaction);
+        final int destinationVertex = proxy.getTransactionDestinationVertex(transaction);
+        final int link = proxy.getTransactionLink(transaction);
+        final int edge = proxy.getTransactionEdge(transaction);
+        transactions.add(transaction);
+        vertices.add(sourceVertex);
+        vertices.add(destinationVertex);
+        links.add(link);
+        edges.add(edge);
+        updateAdjacencies(new int[]{sourceVertex, destinationVertex}, new int[]{link}, new int[]{edge});
+    }
+
+    /**
+     * Remove a link and an edge from the view if they no longer have any
+     * transactions in the view.
+     */
+    private void refreshLinkAndEdge(final int link, final int edge) {
+        boolean linkIncluded = false;
+        if (proxy.linkExists(link)) {
+            final int linkTransactionCount = proxy.getLinkTransactionCount(link);
+            for (int position = 0; position < linkTransactionCount && !linkIncluded; position++) {
+                linkIncluded = transactions.contains(proxy.getLinkTransaction(link, position));
+            }
+        }
+        if (!linkIncluded) {
+            links.remove(link);
+        }
+
+        boolean edgeIncluded = false;
+        if (proxy.edgeExists(edge)) {
+            final int edgeTransactionCount = proxy.getEdgeTransactionCount(edge);
+            for (int position = 0; position < edgeTransactionCount && !edgeIncluded; position++) {
+                edgeIncluded = transactions.contains(proxy.getEdgeTransaction(edge, position));
+            }
+        }
+        if (!edgeIncluded) {
+            edges.remove(edge);
+        }
+    }
+
+    private GraphIndexResult filterIndexResult(final int attribute, final GraphIndexResult result) {
+        final ElementPositions positions = getPositions(proxy.getAttributeElementType(attribute));
+        if (result == null || positions == null) {
+            return result;
+        }
+        final int[] elements = new int[result.getCount()];
+        int count = 0;
+        for (int i = 0; i < elements.length; i++) {
+            final int element = result.getNextElement();
+            if (positions.contains(element)) {
+                elements[count++] = element;
+            }
+        }
+        return new FilteredIndexResult(Arrays.copyOf(elements, count));
+    }
+
+    @Override
+    public boolean vertexExists(final int vertex) {
+        return vertices.contains(vertex);
+    }
+
+    @Override
+    public boolean linkExists(final int link) {
+        return links.contains(link);
+    }
+
+    @Override
+    public boolean edgeExists(final int edge) {
+        return edges.contains(edge);
+    }
+
+    @Override
+    public boolean transactionExists(final int transaction) {
+        return transactions.contains(transaction);
+    }
+
+    @Override
+    public int getVertex(final int position) {
+        return vertices.ids[position];
+    }
+
+    @Override
+    public int getLink(final int position) {
+        return links.ids[position];
+    }
+
+    @Override
+    public int getEdge(final int position) {
+        return edges.ids[position];
+    }
+
+    @Override
+    public int getTransaction(final int position) {
+        return transactions.ids[position];
+    }
+
+    @Override
+    public int getVertexCount() {
+        return vertices.count;
+    }
+
+    @Override
+    public int getLinkCount() {
+        return links.count;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edges.count;
+    }
+
+    @Override
+    public int getTransactionCount() {
+        return transactions.count;
+    }
+
+    @Override
+    public int getVertexPosition(final int vertex) {
+        return vertices.getPosition(vertex);
+    }
+
+    @Override
+    public int getLinkPosition(final int link) {
+        return links.getPosition(link);
+    }
+
+    @Override
+    public int getEdgePosition(final int edge) {
+        return edges.getPosition(edge);
+    }
+
+    @Override
+    public int getTransactionPosition(final int transaction) {
+        return transactions.getPosition(transaction);
+    }
+
+    @Override
+    public IntStream vertexStream() {
+        return vertices.stream();
+    }
+
+    @Override
+    public IntStream linkStream() {
+        return links.stream();
+    }
+
+    @Override
+    public IntStream edgeStream() {
+        return edges.stream();
+    }
+
+    @Override
+    public IntStream transactionStream() {
+        return transactions.stream();
+    }
+
+    @Override
+    public int addVertex() {
+        final int vertex = proxy.addVertex();
+        vertices.add(vertex);
+        updateAdjacencies(new int[]{vertex}, new int[0], new int[0]);
+        return vertex;
+    }
+
+    @Override
+    public void removeVertex(final int vertex) {
+        // removing a vertex removes all of its transactions from the underlying graph
+        final int transactionCount = proxy.getVertexTransactionCount(vertex);
+        final int[] removedTransactions = new int[transactionCount];
+        final int[] changedVertices = new int[transactionCount + 1];
+        final int[] changedLinks = new int[transactionCount];
+        final int[] changedEdges = new int[transactionCount];
+        int count = 0;
+        for (int position = 0; position < transactionCount; position++) {
+            final int transaction = proxy.getVertexTransaction(vertex, position);
+            if (transactions.contains(transaction)) {
+                removedTransactions[count] = transaction;
+                final int sourceVertex = proxy.getTransactionSourceVertex(transaction);
+                changedVertices[count] = sourceVertex == vertex ? proxy.getTransactionDestinationVertex(transaction) : sourceVertex;
+                changedLinks[count] = proxy.getTransactionLink(transaction);
+                changedEdges[count] = proxy.getTransactionEdge(transaction);
+                count++;
+            }
+        }
+        changedVertices[count] = vertex;
+
+        proxy.removeVertex(vertex);
+
+        for (int i = 0; i < count; i++) {
+            transactions.remove(removedTransactions[i]);
+            refreshLinkAndEdge(changedLinks[i], changedEdges[i]);
+        }
+        vertices.remove(vertex);
+        updateAdjacencies(Arrays.copyOf(changedVertices, count + 1), Arrays.copyOf(changedLinks, count), Arrays.copyOf(changedEdges, count));
+    }
+
+    @Override
+    public int addTransaction(final int sourceVertex, final int destinationVertex, final boolean directed) {
+        final int transaction = proxy.addTransaction(sourceVertex, destinationVertex, directed);
+        includeTransaction(transaction);
+        return transaction;
+    }
+
+    @Override
+    public int addTransaction(final int transaction, final int sourceVertex, final int destinationVertex, final boolean directed) {
+        final int newTransaction = proxy.addTransaction(transaction, sourceVertex, destinationVertex, directed);
+        includeTransaction(newTransaction);
+        return newTransaction;
+    }
+
+    @Override
+    public void removeTransaction(final int transaction) {
+        if (!transactions.contains(transaction)) {
+            proxy.removeTransaction(transaction);
+            return;
+        }
+        final int sourceVertex = proxy.getTransactionSourceVertex(transaction);
+        final int destinationVertex = proxy.getTransactionDestinationVertex(transaction);
+        final int link = proxy.getTransactionLink(transaction);
+        final int edge = proxy.getTransactionEdge(transaction);
+
+        proxy.removeTransaction(transaction);
+
+        transactions.remove(transaction);
+        refreshLinkAndEdge(link, edge);
+        updateAdjacencies(new int[]{sourceVertex, destinationVertex}, new int[]{link}, new int[]{edge});
+    }
+
+    @Override
+    public void setTransactionSourceVertex(final int transaction, final int newSourceVertex) {
+        final int oldSourceVertex = proxy.getTransactionSourceVertex(transaction);
+        final int link = proxy.getTransactionLink(transaction);
+        final int edge = proxy.getTransactionEdge(transaction);
+
+        proxy.setTransactionSourceVertex(transaction, newSourceVertex);
+
+        if (transactions.contains(transaction)) {
+            refreshLinkAndEdge(link, edge);
+            updateAdjacencies(new int[]{oldSourceVertex}, new int[]{link}, new int[]{edge});
+            includeTransaction(transaction);
+        }
+    }
+
+    @Override
+    public void setTransactionDestinationVertex(final int transaction, final int newDestinationVertex) {
+        final int oldDestinationVertex = proxy.getTransactionDestinationVertex(transaction);
+        final int link = proxy.getTransactionLink(transaction);
+        final int edge = proxy.getTransactionEdge(transaction);
+
+        proxy.setTransactionDestinationVertex(transaction, newDestinationVertex);
+
+        if (transactions.contains(transaction)) {
+            refreshLinkAndEdge(link, edge);
+            updateAdjacencies(new int[]{oldDestinationVertex}, new int[]{link}, new int[]{edge});
+            includeTransaction(transaction);
+        }
+    }
+
+    @Override
+    public int getEdgeTransactionCount(final int edge) {
+        return getAdjacency(AdjacencyType.EDGE_TRANSACTIONS).getCount(edge);
+    }
+
+    @Override
+    public int getEdgeTransaction(final int edge, final int position) {
+        return getAdjacency(AdjacencyType.EDGE_TRANSACTIONS).get(edge, position);
+    }
+
+    @Override
+    public int getLinkEdgeCount(final int link) {
+        return getAdjacency(AdjacencyType.LINK_EDGES).getCount(link);
+    }
+
+    @Override
+    public int getLinkEdge(final int link, final int position) {
+        return getAdjacency(AdjacencyType.LINK_EDGES).get(link, position);
+    }
+
+    @Override
+    public int getLinkEdgeCount(final int link, final int direction) {
+        return getAdjacency(AdjacencyType.LINK_EDGES).getCount(link, direction);
+    }
+
+    @Override
+    public int getLinkEdge(final int link, final int direction, final int position) {
+        return getAdjacency(AdjacencyType.LINK_EDGES).get(link, direction, position);
+    }
+
+    @Override
+    public int getLinkTransaction(final int link, final int position) {
+        return getAdjacency(AdjacencyType.LINK_TRANSACTIONS).get(link, position);
+    }
+
+    @Override
+    public int getLinkTransaction(final int link, final int direction, final int position) {
+        return getAdjacency(AdjacencyType.LINK_TRANSACTIONS).get(link, direction, position);
+    }
+
+    @Override
+    public int getLinkTransactionCount(final int link) {
+        return getAdjacency(AdjacencyType.LINK_TRANSACTIONS).getCount(link);
+    }
+
+    @Override
+    public int getLinkTransactionCount(final int link, final int direction) {
+        return getAdjacency(AdjacencyType.LINK_TRANSACTIONS).getCount(link, direction);
+    }
+
+    @Override
+    public int getVertexLink(final int vertex, final int position) {
+        return getAdjacency(AdjacencyType.VERTEX_LINKS).get(vertex, position);
+    }
+
+    @Override
+    public int getVertexLinkCount(final int vertex) {
+        return getAdjacency(AdjacencyType.VERTEX_LINKS).getCount(vertex);
+    }
+
+    @Override
+    public int getVertexNeighbourCount(final int vertex) {
+        return getVertexLinkCount(vertex);
+    }
+
+    @Override
+    public int getVertexNeighbour(final int vertex, final int position) {
+        final int link = getVertexLink(vertex, position);
+        final int lowVertex = proxy.getLinkLowVertex(link);
+        return lowVertex == vertex ? proxy.getLinkHighVertex(link) : lowVertex;
+    }
+
+    @Override
+    public int getVertexEdgeCount(final int vertex) {
+        return getAdjacency(AdjacencyType.VERTEX_EDGES).getCount(vertex);
+    }
+
+    @Override
+    public int getVertexEdge(final int vertex, final int position) {
+        return getAdjacency(AdjacencyType.VERTEX_EDGES).get(vertex, position);
+    }
+
+    @Override
+    public int getVertexEdgeCount(final int vertex, final int direction) {
+        return getAdjacency(AdjacencyType.VERTEX_EDGES).getCount(vertex, direction);
+    }
+
+    @Override
+    public int getVertexEdge(final int vertex, final int direction, final int position) {
+        return getAdjacency(AdjacencyType.VERTEX_EDGES).get(vertex, direction, position);
+    }
+
+    @Override
+    public int getVertexTransaction(final int vertex, final int position) {
+        return getAdjacency(AdjacencyType.VERTEX_TRANSACTIONS).get(vertex, position);
+    }
+
+    @Override
+    public int getVertexTransaction(final int vertex, final int direction, final int position) {
+        return getAdjacency(AdjacencyType.VERTEX_TRANSACTIONS).get(vertex, direction, position);
+    }
+
+    @Override
+    public int getVertexTransactionCount(final int vertex) {
+        return getAdjacency(AdjacencyType.VERTEX_TRANSACTIONS).getCount(vertex);
+    }
+
+    @Override
+    public int getVertexTransactionCount(final int vertex, final int direction) {
+        return getAdjacency(AdjacencyType.VERTEX_TRANSACTIONS).getCount(vertex, direction);
+    }
+
+    @Override
+    public int getLink(final int vertex1, final int vertex2) {
+        final int link = proxy.getLink(vertex1, vertex2);
+        return links.contains(link) ? link : Graph.NOT_FOUND;
+    }
+
+    @Override
+    public GraphIndexResult getElementsWithAttributeValue(final int attribute, final Object value) {
+        return filterIndexResult(attribute, proxy.getElementsWithAttributeValue(attribute, value));
+    }
+
+    @Override
+    public GraphIndexResult getElementsWithAttributeValueRange(final int attribute, final Object start, final Object end) {
+        return filterIndexResult(attribute, proxy.getElementsWithAttributeValueRange(attribute, start, end));
+    }
+
+    @Override
+    public GraphReadMethods copy() {
+        return SubgraphUtilities.copyGraph(this);
+    }
+
+    @Override
+    public GraphReadMethods copy(final String id) {
+        return SubgraphUtilities.copyGraph(this, id);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public Schema getSchema() {
+        return proxy.getSchema();
+    }
+
+    @Override
+    public long getGlobalModificationCounter() {
+        return proxy.getGlobalModificationCounter();
+    }
+
+    @Override
+    public long getAttributeModificationCounter() {
+        return proxy.getAttributeModificationCounter();
+    }
+
+    @Override
+    public long getStructureModificationCounter() {
+        return proxy.getStructureModificationCounter();
+    }
+
+    @Override
+    public long getValueModificationCounter(final int attribute) {
+        return proxy.getValueModificationCounter(attribute);
+    }
+
+    @Override
+    public long getUndoCounter() {
+        return proxy.getUndoCounter();
+    }
+
+    @Override
+    public int[] getModifiedElements(final int attribute, final long modificationCounter) {
+        return proxy.getModifiedElements(attribute, modificationCounter);
+    }
+
+    @Override
+    public int getVertexCapacity() {
+        return proxy.getVertexCapacity();
+    }
+
+    @Override
+    public int getLinkCapacity() {
+        return proxy.getLinkCapacity();
+    }
+
+    @Override
+    public int getEdgeCapacity() {
+        return proxy.getEdgeCapacity();
+    }
+
+    @Override
+    public int getTransactionCapacity() {
+        return proxy.getTransactionCapacity();
+    }
+
+    @Override
+    public int getEdgeDirection(final int edge) {
+        return proxy.getEdgeDirection(edge);
+    }
+
+    @Override
+    public int getEdgeSourceVertex(final int edge) {
+        return proxy.getEdgeSourceVertex(edge);
+    }
+
+    @Override
+    public int getEdgeDestinationVertex(final int edge) {
+        return proxy.getEdgeDestinationVertex(edge);
+    }
+
+    @Override
+    public int getEdgeLink(final int edge) {
+        return proxy.getEdgeLink(edge);
+    }
+
+    @Override
+    public int getLinkLowVertex(final int link) {
+        return proxy.getLinkLowVertex(link);
+    }
+
+    @Override
+    public int getLinkHighVertex(final int link) {
+        return proxy.getLinkHighVertex(link);
+    }
+
+    @Override
+    public int getTransactionDirection(final int transaction) {
+        return proxy.getTransactionDirection(transaction);
+    }
+
+    @Override
+    public int getTransactionLink(final int transaction) {
+        return proxy.getTransactionLink(transaction);
+    }
+
+    @Override
+    public int getTransactionEdge(final int transaction) {
+        return proxy.getTransactionEdge(transaction);
+    }
+
+    @Override
+    public int getTransactionSourceVertex(final int transaction) {
+        return proxy.getTransactionSourceVertex(transaction);
+    }
+
+    @Override
+    public int getTransactionDestinationVertex(final int transaction) {
+        return proxy.getTransactionDestinationVertex(transaction);
+    }
+
+    @Override
+    public int addAttribute(final GraphElementType elementType, final String attributeType, final String label, final String description, final Object defaultValue, final String attributeMergerId) {
+        return proxy.addAttribute(elementType, attributeType, label, description, defaultValue, attributeMergerId);
+    }
+
+    @Override
+    public void removeAttribute(final int attribute) {
+        proxy.removeAttribute(attribute);
+    }
+
+    @Override
+    public void updateAttributeName(final int attribute, final String newName) {
+        proxy.updateAttributeName(attribute, newName);
+    }
+
+    @Override
+    public void updateAttributeDescription(final int attribute, final String newDescription) {
+        proxy.updateAttributeDescription(attribute, newDescription);
+    }
+
+    @Override
+    public void updateAttributeDefaultValue(final int attribute, final Object newObject) {
+        proxy.updateAttributeDefaultValue(attribute, newObject);
+    }
+
+    @Override
+    public int getAttributeCount(final GraphElementType elementType) {
+        return proxy.getAttributeCount(elementType);
+    }
+
+    @Override
+    public int getAttributeCapacity() {
+        return proxy.getAttributeCapacity();
+    }
+
+    @Override
+    public int getAttribute(final GraphElementType elementType, final int position) {
+        return proxy.getAttribute(elementType, position);
+    }
+
+    @Override
+    public int getAttribute(final GraphElementType elementType, final String label) {
+        return proxy.getAttribute(elementType, label);
+    }
+
+    @Override
+    public String getAttributeName(final int attribute) {
+        return proxy.getAttributeName(attribute);
+    }
+
+    @Override
+    public String getAttributeType(final int attribute) {
+        return proxy.getAttributeType(attribute);
+    }
+
+    @Override
+    public String getAttributeDescription(final int attribute) {
+        return proxy.getAttributeDescription(attribute);
+    }
+
+    @Override
+    public GraphElementType getAttributeElementType(final int attribute) {
+        return proxy.getAttributeElementType(attribute);
+    }
+
+    @Override
+    public Class<? extends AttributeDescription> getAttributeDataType(final int attribute) {
+        return proxy.getAttributeDataType(attribute);
+    }
+
+    @Override
+    public Object getAttributeDefaultValue(final int attribute) {
+        return proxy.getAttributeDefaultValue(attribute);
+    }
+
+    @Override
+    public GraphAttributeMerger getAttributeMerger(final int attribute) {
+        return proxy.getAttributeMerger(attribute);
+    }
+
+    @Override
+    public byte getByteValue(final int attribute, final int id) {
+        return proxy.getByteValue(attribute, id);
+    }
+
+    @Override
+    public short getShortValue(final int attribute, final int id) {
+        return proxy.getShortValue(attribute, id);
+    }
+
+    @Override
+    public int getIntValue(final int attribute, final int id) {
+        return proxy.getIntValue(attribute, id);
+    }
+
+    @Override
+    public long getLongValue(final int attribute, final int id) {
+        return proxy.getLongValue(attribute, id);
+    }
+
+    @Override
+    public float getFloatValue(final int attribute, final int id) {
+        return proxy.getFloatValue(attribute, id);
+    }
+
+    @Override
+    public double getDoubleValue(final int attribute, final int id) {
+        return proxy.getDoubleValue(attribute, id);
+    }
+
+    @Override
+    public boolean getBooleanValue(final int attribute, final int id) {
+        return proxy.getBooleanValue(attribute, id);
+    }
+
+    @Override
+    public char getCharValue(final int attribute, final int id) {
+        return proxy.getCharValue(attribute, id);
+    }
+
+    @Override
+    public String getStringValue(final int attribute, final int id) {
+        return proxy.getStringValue(attribute, id);
+    }
+
+    @Override
+    public String acceptsStringValue(final int attribute, final String value) {
+        return proxy.acceptsStringValue(attribute, value);
+    }
+
+    @Override
+    public <T> T getObjectValue(final int attribute, final int id) {
+        return proxy.<T>getObjectValue(attribute, id);
+    }
+
+    @Override
+    public boolean isDefaultValue(final int attribute, final int id) {
+        return proxy.isDefaultValue(attribute, id);
+    }
+
+    @Override
+    public void clearValue(final int attribute, final int id) {
+        proxy.clearValue(attribute, id);
+    }
+
+    @Override
+    public void setByteValue(final int attribute, final int id, final byte value) {
+        proxy.setByteValue(attribute, id, value);
+    }
+
+    @Override
+    public void setShortValue(final int attribute, final int id, final short value) {
+        proxy.setShortValue(attribute, id, value);
+    }
+
+    @Override
+    public void setIntValue(final int attribute, final int id, final int value) {
+        proxy.setIntValue(attribute, id, value);
+    }
+
+    @Override
+    public void setLongValue(final int attribute, final int id, final long value) {
+        proxy.setLongValue(attribute, id, value);
+    }
+
+    @Override
+    public void setFloatValue(final int attribute, final int id, final float value) {
+        proxy.setFloatValue(attribute, id, value);
+    }
+
+    @Override
+    public void setDoubleValue(final int attribute, final int id, final double value) {
+        proxy.setDoubleValue(attribute, id, value);
+    }
+
+    @Override
+    public void setBooleanValue(final int attribute, final int id, final boolean value) {
+        proxy.setBooleanValue(attribute, id, value);
+    }
+
+    @Override
+    public void setCharValue(final int attribute, final int id, final char value) {
+        proxy.setCharValue(attribute, id, value);
+    }
+
+    @Override
+    public void setStringValue(final int attribute, final int id, final String value) {
+        proxy.setStringValue(attribute, id, value);
+    }
+
+    @Override
+    public void setObjectValue(final int attribute, final int id, final Object value) {
+        proxy.setObjectValue(attribute, id, value);
+    }
+
+    @Override
+    public void setPrimaryKey(final GraphElementType elementType, final int... attributes) {
+        proxy.setPrimaryKey(elementType, attributes);
+    }
+
+    @Override
+    public int[] getPrimaryKey(final GraphElementType elementType) {
+        return proxy.getPrimaryKey(elementType);
+    }
+
+    @Override
+    public GraphKey getPrimaryKeyValue(final GraphElementType elementType, final int id) {
+        return proxy.getPrimaryKeyValue(elementType, id);
+    }
+
+    @Override
+    public boolean isPrimaryKey(final int attribute) {
+        return proxy.isPrimaryKey(attribute);
+    }
+
+    @Override
+    public void validateKey(final GraphElementType elementType, final boolean allowMerging) {
+        proxy.validateKey(elementType, allowMerging);
+    }
+
+    @Override
+    public void validateKey(final GraphElementType elementType, final int element, final boolean allowMerging) {
+        proxy.validateKey(elementType, element, allowMerging);
+    }
+
+    @Override
+    public Object copyAttribute(final int attribute) {
+        return proxy.copyAttribute(attribute);
+    }
+
+    @Override
+    public NativeAttributeType getNativeAttributeType(final int attribute) {
+        return proxy.getNativeAttributeType(attribute);
+    }
+
+    @Override
+    public Object createWriteAttributeObject(final int attribute, final IntReadable indexReadable) {
+        return proxy.createWriteAttributeObject(attribute, indexReadable);
+    }
+
+    @Override
+    public Object createReadAttributeObject(final int attribute, final IntReadable indexReadable) {
+        return proxy.createReadAttributeObject(attribute, indexReadable);
+    }
+
+    @Override
+    public long getVertexUID(final int vertex) {
+        return proxy.getVertexUID(vertex);
+    }
+
+    @Override
+    public long getLinkUID(final int link) {
+        return proxy.getLinkUID(link);
+    }
+
+    @Override
+    public long getEdgeUID(final int edge) {
+        return proxy.getEdgeUID(edge);
+    }
+
+    @Override
+    public long getTransactionUID(final int transaction) {
+        return proxy.getTransactionUID(transaction);
+    }
+
+    @Override
+    public long getAttributeUID(final int attribute) {
+        return proxy.getAttributeUID(attribute);
+    }
+
+    @Override
+    public void executeGraphOperation(final GraphOperation operation) {
+        proxy.executeGraphOperation(operation);
+    }
+
+    @Override
+    public boolean isRecordingEdit() {
+        return proxy.isRecordingEdit();
+    }
+
+    @Override
+    public void setAttributeIndexType(final int attribute, final GraphIndexType indexType) {
+        proxy.setAttributeIndexType(attribute, indexType);
+    }
+
+    @Override
+    public boolean attributeSupportsIndexType(final int attribute, final GraphIndexType indexType) {
+        return proxy.attributeSupportsIndexType(attribute, indexType);
+    }
+
+    @Override
+    public GraphIndexType getAttributeIndexType(final int attribute) {
+        return proxy.getAttributeIndexType(attribute);
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.graph.utilities;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.StoreGraph;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Test the transaction filtered subgraph view against a copy of the same
+ * subgraph.
+ *
+ * @author cygnus_x-1
+ */
+public class TransactionSubgraphNGTest {
+
+    private static StoreGraph randomGraph(final long seed) {
+        final Random random = new Random(seed);
+        final StoreGraph graph = new StoreGraph();
+        for (int i = 0; i < 40; i++) {
+            graph.addVertex();
+        }
+        for (int i = 0; i < 300; i++) {
+            final int source = graph.getVertex(random.nextInt(40));
+            final int destination = random.nextInt(10) == 0 ? source : graph.getVertex(random.nextInt(40));
+            graph.addTransaction(source, destination, random.nextBoolean());
+        }
+        return graph;
+    }
+
+    private static StoreGraph copyTransactions(final GraphReadMethods graph) {
+        final StoreGraph copy = new StoreGraph();
+        graph.vertexStream().sorted().forEach(copy::addVertex);
+        graph.transactionStream().sorted().forEach(transaction -> {
+            final int source = graph.getTransactionSourceVertex(transaction);
+            final int destination = graph.getTransactionDestinationVertex(transaction);
+            copy.addTransaction(transaction, source, destination, graph.getTransactionDirection(transaction) != Graph.FLAT);
+        });
+        return copy;
+    }
+
+    private static Set<Integer> getVertexTransactions(final GraphReadMethods graph, final int vertex, final int direction) {
+        final Set<Integer> transactions = new TreeSet<>();
+        for (int position = 0; position < graph.getVertexTransactionCount(vertex, direction); position++) {
+            transactions.add(graph.getVertexTransaction(vertex, direction, position));
+        }
+        return transactions;
+    }
+
+    private static Set<Integer> getNeighbours(final GraphReadMethods graph, final int vertex) {
+        final Set<Integer> neighbours = new TreeSet<>();
+        for (int position = 0; position < graph.getVertexNeighbourCount(vertex); position++) {
+            neighbours.add(graph.getVertexNeighbour(vertex, position));
+        }
+        return neighbours;
+    }
+
+    private static Set<Integer> getEdgeTransactions(final GraphReadMethods graph, final int edge) {
+        final Set<Integer> transactions = new TreeSet<>();
+        for (int position = 0; position < graph.getEdgeTransactionCount(edge); position++) {
+            transactions.add(graph.getEdgeTransaction(edge, position));
+        }
+        return transactions;
+    }
+
+    private static void assertSameStructure(final GraphReadMethods view, final GraphReadMethods expected) {
+        assertEquals(view.getVertexCount(), expected.getVertexCount());
+        assertEquals(view.getLinkCount(), expected.getLinkCount());
+        assertEquals(view.getEdgeCount(), expected.getEdgeCount());
+        assertEquals(view.getTransactionCount(), expected.getTransactionCount());
+
+        for (int position = 0; position < view.getVertexCount(); position++) {
+            final int vertex = view.getVertex(position);
+            assertEquals(view.getVertexPosition(vertex), position);
+            assertTrue(expected.vertexExists(vertex));
+            assertEquals(view.getVertexTransactionCount(vertex), expected.getVertexTransactionCount(vertex));
+            assertEquals(view.getVertexEdgeCount(vertex), expected.getVertexEdgeCount(vertex));
+            assertEquals(view.getVertexLinkCount(vertex), expected.getVertexLinkCount(vertex));
+            for (int direction = 0; direction < 3; direction++) {
+                assertEquals(getVertexTransactions(view, vertex, direction), getVertexTransactions(expected, vertex, direction));
+                assertEquals(view.getVertexEdgeCount(vertex, direction), expected.getVertexEdgeCount(vertex, direction));
+            }
+            assertEquals(getNeighbours(view, vertex), getNeighbours(expected, vertex));
+        }
+
+        for (int position = 0; position < view.getTransactionCount(); position++) {
+            final int transaction = view.getTransaction(position);
+            assertTrue(expected.transactionExists(transaction));
+
+            final int link = view.getTransactionLink(transaction);
+            final int expectedLink = expected.getTransactionLink(transaction);
+            assertEquals(view.getLink(view.getLinkLowVertex(link), view.getLinkHighVertex(link)), link);
+            for (int direction = 0; direction < 3; direction++) {
+                assertEquals(view.getLinkTransactionCount(link, direction), expected.getLinkTransactionCount(expectedLink, direction));
+                assertEquals(view.getLinkEdgeCount(link, direction), expected.getLinkEdgeCount(expectedLink, direction));
+            }
+            assertEquals(getEdgeTransactions(view, view.getTransactionEdge(transaction)),
+                    getEdgeTransactions(expected, expected.getTransactionEdge(transaction)));
+        }
+    }
+
+    @Test
+    public void testMatchesCopiedSubgraph() {
+        final StoreGraph graph = randomGraph(1);
+        final TransactionSubgraph view = new TransactionSubgraph(graph, transaction -> transaction % 3 == 0);
+
+        assertTrue(view.getTransactionCount() > 0);
+        assertTrue(view.getVertexCount() < graph.getVertexCount() || view.getLinkCount() < graph.getLinkCount());
+        assertEquals(view.getTransactionCount(), graph.transactionStream().filter(transaction -> transaction % 3 == 0).count());
+        view.transactionStream().forEach(transaction -> assertEquals(transaction % 3, 0));
+        view.vertexStream().forEach(vertex -> assertTrue(view.getVertexTransactionCount(vertex) > 0));
+        assertSameStructure(view, copyTransactions(view));
+    }
+
+    @Test
+    public void testCopyWithId() {
+        final StoreGraph graph = randomGraph(3);
+        final TransactionSubgraph view = new TransactionSubgraph(graph, transaction -> transaction % 3 == 0);
+
+        final GraphReadMethods copy = view.copy("view-copy");
+        assertEquals(copy.getId(), "view-copy");
+        assertSameStructure(view, copy);
+    }
+
+    @Test
+    public void testExcludedElements() {
+        final StoreGraph graph = new StoreGraph();
+        final int vx0 = graph.addVertex();
+        final int vx1 = graph.addVertex();
+        final int vx2 = graph.addVertex();
+        final int tx0 = graph.addTransaction(vx0, vx1, true);
+        final int tx1 = graph.addTransaction(vx1, vx2, true);
+        final TransactionSubgraph view = new TransactionSubgraph(graph, transaction -> transaction == tx0);
+
+        assertTrue(view.vertexExists(vx0));
+        assertFalse(view.vertexExists(vx2));
+        assertFalse(view.transactionExists(tx1));
+        assertEquals(view.getLink(vx1, vx2), Graph.NOT_FOUND);
+        assertEquals(view.getVertexTransactionCount(vx1), 1);
+        assertEquals(view.getVertexNeighbour(vx1, 0), vx0);
+        assertEquals(view.getVertexPosition(vx2), Graph.NOT_FOUND);
+    }
+
+    @Test
+    public void testWritesGoThroughToGraph() {
+        final StoreGraph graph = randomGraph(2);
+        final int scoreAttribute = graph.addAttribute(GraphElementType.VERTEX, FloatAttributeDescription.ATTRIBUTE_NAME, "score", "", 0F, null);
+        final TransactionSubgraph view = new TransactionSubgraph(graph, transaction -> transaction % 2 == 0);
+
+        // build the adjacency before changing the structure so that it is updated rather than built afresh
+        assertSameStructure(view, copyTransactions(view));
+
+        final int vertex = view.getVertex(0);
+        view.setFloatValue(scoreAttribute, vertex, 3.5F);
+        assertEquals(graph.getFloatValue(scoreAttribute, vertex), 3.5F);
+
+        final int newVertex = view.addVertex();
+        final int newTransaction = view.addTransaction(vertex, newVertex, false);
+        assertTrue(graph.transactionExists(newTransaction));
+        assertTrue(view.transactionExists(newTransaction));
+        assertEquals(view.getVertexNeighbour(newVertex, 0), vertex);
+        assertSameStructure(view, copyTransactions(view));
+
+        view.removeTransaction(newTransaction);
+        assertFalse(graph.transactionExists(newTransaction));
+        assertEquals(view.getVertexTransactionCount(newVertex), 0);
+        assertEquals(view.getLink(vertex, newVertex), Graph.NOT_FOUND);
+
+        final int transaction = view.getTransaction(0);
+        view.setTransactionDestinationVertex(transaction, newVertex);
+        assertEquals(graph.getTransactionDestinationVertex(transaction), newVertex);
+        assertSameStructure(view, copyTransactions(view));
+
+        final int graphTransactionCount = graph.getTransactionCount();
+        final int removedTransactions = getVertexTransactions(graph, vertex, Graph.OUTGOING).size()
+                + getVertexTransactions(graph, vertex, Graph.INCOMING).size()
+                + getVertexTransactions(graph, vertex, Graph.UNDIRECTED).size();
+        view.removeVertex(vertex);
+        assertFalse(graph.vertexExists(vertex));
+        assertFalse(view.vertexExists(vertex));
+        assertEquals(graph.getTransactionCount(), graphTransactionCount - removedTransactions);
+        assertSameStructure(view, copyTransactions(view));
+        view.transactionStream().forEach(tx -> assertTrue(graph.transactionExists(tx)));
+    }
+}
@@ -51,12 +51,14 @@ import au.gov.asd.tac.constellation.utilities.gui.NotifyDisplayer;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.application.Platform;
 import javafx.scene.control.Alert;
+import org.apache.commons.io.input.CountingInputStream;
 import org.openide.util.NbBundle;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -123,11 +125,14 @@ public class ImportDelimitedPlugin extends SimpleEditPlugin {
      * @param importedRows Number of rows successfully imported (from valid
      * files)
      * @param validFilenames List of filenames that were imported from
+     * @param partialFilenames List of files that failed to parse part way
+     * through, along with the number of rows imported from each before the
+     * failure.
      * @param invalidFilenames List of files that couldn't be opened/parsed. We
      * try to limit this possibility by pre-screening files during the initial
      * file selection.
      */
-    private void displaySummaryAlert(final int importedRows, final List<String> validFilenames, final List<String> invalidFilenames) {
+    private void displaySummaryAlert(final int importedRows, final List<String> validFilenames, final List<String> partialFilenames, final List<String> invalidFilenames) {
         Platform.runLater(() -> {
             boolean success = true;
             final StringBuilder sbHeader = new StringBuilder();
@@ -136,12 +141,21 @@ public class ImportDelimitedPlugin extends SimpleEditPlugin {
             if (importedRows > 0) {
                 // At least 1 row was successfully imported. List all successful file imports, as well as any files that there were
                 // issues for. If there were any files with issues use a warning dialog.
-                sbHeader.append(String.format("Imported %d rows of data from %d files", importedRows, validFilenames.size()));
+                sbHeader.append(String.format("Imported %d rows of data from %d files", importedRows, validFilenames.size() + partialFilenames.size()));
                 sbMessage.append("The following file(s) contained data:");
                 validFilenames.forEach(filename -> {
                     sbMessage.append("\n  ");
                     sbMessage.append(filename);
                 });
+                if (partialFilenames.size() > 0) {
+                    // some files failed part way through - warning condition.
+                    success = false;
+                    sbMessage.append("\n\nThe following file(s) could only be partially parsed. Rows before the failure were imported:");
+                    partialFilenames.forEach(filename -> {
+                        sbMessage.append("\n  ");
+                        sbMessage.append(filename);
+                    });
+                }
                 if (invalidFilenames.size() > 0) {
                     // some invalid files were found - warning condition.
                     success = false;
@@ -179,48 +193,51 @@ public class ImportDelimitedPlugin extends SimpleEditPlugin {
         final List<Integer> newVertices = new ArrayList<>();
         boolean positionalAtrributesExist = false;
         final List<String> validFiles = new ArrayList<>();
+        final List<String> partialFiles = new ArrayList<>();
         final List<String> invalidFiles = new ArrayList<>();
         int importRows = 0;
 
         for (final File file : files) {
             interaction.setProgress(0, 0, "Reading File: " + file.getName(), true);
-            List<String[]> data = null;
 
+            final CountingInputSource input = new CountingInputSource(file);
+            final BatchImporter importer = new BatchImporter(graph, definitions, initialiseWithSchema, interaction, input, file, newVertices);
+            boolean parsed = false;
             try {
-                data = parser.parse(new InputSource(file), parserParameters);
-                importRows = importRows + data.size() - 1;
-                validFiles.add(file.getPath());
-                LOGGER.log(Level.INFO, "Imported {0} rows of data from file {1}. {2} total rows imported", new Object[]{(data.size() - 1), file.getPath(), importRows});
+                parser.parse(input, parserParameters, importer);
+                importer.flush();
+                parsed = true;
             } catch (FileNotFoundException ex) {
                 final String errorMsg = file.getPath() + " could not be found. Ignoring file during import.";
                 LOGGER.log(Level.INFO, errorMsg);
-                invalidFiles.add(file.getPath());
             } catch (IOException ex) {
                 final String errorMsg = file.getPath() + " could not be parsed. Removing file during import.";
                 LOGGER.log(Level.INFO, errorMsg);
+            }
+
+            if (parsed) {
+                validFiles.add(file.getPath());
+            } else if (importer.getImportedRowCount() > 0) {
+                // Batches read before the failure are already in the graph, so report them rather than ignoring the file.
+                LOGGER.log(Level.INFO, "{0} was only partially parsed. {1} rows were imported before the failure.", new Object[]{file.getPath(), importer.getImportedRowCount()});
+                partialFiles.add(String.format("%s (%d rows)", file.getPath(), importer.getImportedRowCount()));
+            } else {
                 invalidFiles.add(file.getPath());
             }
 
-            if (data != null) {
-                for (final ImportDefinition definition : definitions) {
-                    if (definition.getDefinitions(AttributeType.SOURCE_VERTEX).isEmpty()) {
-                        if (!definition.getDefinitions(AttributeType.DESTINATION_VERTEX).isEmpty()) {
-                            processVertices(definition, graph, data, AttributeType.DESTINATION_VERTEX, initialiseWithSchema, interaction, file.getName(), newVertices);
-                        }
-                    } else if (definition.getDefinitions(AttributeType.DESTINATION_VERTEX).isEmpty()) {
-                        processVertices(definition, graph, data, AttributeType.SOURCE_VERTEX, initialiseWithSchema, interaction, file.getName(), newVertices);
-                    } else {
-                        processTransactions(definition, graph, data, initialiseWithSchema, interaction, file.getName());
-                    }
+            if (parsed || importer.getImportedRowCount() > 0) {
+                importRows += importer.getImportedRowCount();
+                LOGGER.log(Level.INFO, "Imported {0} rows of data from file {1}. {2} total rows imported", new Object[]{importer.getImportedRowCount(), file.getPath(), importRows});
 
+                for (final ImportDefinition definition : definitions) {
                     // Determine if a positional attribute has been defined, if so update the overall flag
                     final boolean isPositional = attributeDefintionIsPositional(definition.getDefinitions(AttributeType.SOURCE_VERTEX), definition.getDefinitions(AttributeType.DESTINATION_VERTEX));
                     positionalAtrributesExist = (positionalAtrributesExist || isPositional);
                 }
             }
         }
-        LOGGER.log(Level.INFO, "Imported {0} rows of data. {1} files contained data. {2} files were ignored.", new Object[]{importRows, validFiles.size(), invalidFiles.size()});
-        displaySummaryAlert(importRows, validFiles, invalidFiles);
+        LOGGER.log(Level.INFO, "Imported {0} rows of data. {1} files contained data. {2} files were partially imported. {3} files were ignored.", new Object[]{importRows, validFiles.size(), partialFiles.size(), invalidFiles.size()});
+        displaySummaryAlert(importRows, validFiles, partialFiles, invalidFiles);
 
         ConstellationLoggerHelper.importPropertyBuilder(
                 this,
@@ -260,20 +277,57 @@ public class ImportDelimitedPlugin extends SimpleEditPlugin {
         return destAttributeDefinitions.stream().map(attribute -> attribute.getAttribute().getName()).anyMatch(name -> (VisualConcept.VertexAttribute.X.getName().equals(name) || VisualConcept.VertexAttribute.Y.getName().equals(name) || VisualConcept.VertexAttribute.Z.getName().equals(name)));
     }
 
-    private static void processVertices(ImportDefinition definition, GraphWriteMethods graph, List<String[]> data, AttributeType attributeType, boolean initialiseWithSchema, PluginInteraction interaction, String source, final List<Integer> newVertices) throws InterruptedException {
-        final List<ImportAttributeDefinition> attributeDefinitions = definition.getDefinitions(attributeType);
+    /**
+     * Add the graph attributes required by the specified definition.
+     *
+     * @param graph the graph being imported into.
+     * @param definition the import definition.
+     */
+    private static void addDefinitionAttributes(final GraphWriteMethods graph, final ImportDefinition definition) {
+        final List<ImportAttributeDefinition> sourceVertexDefinitions = definition.getDefinitions(AttributeType.SOURCE_VERTEX);
+        final List<ImportAttributeDefinition> destinationVertexDefinitions = definition.getDefinitions(AttributeType.DESTINATION_VERTEX);
+        if (sourceVertexDefinitions.isEmpty()) {
+            addAttributes(graph, GraphElementType.VERTEX, destinationVertexDefinitions);
+        } else if (destinationVertexDefinitions.isEmpty()) {
+            addAttributes(graph, GraphElementType.VERTEX, sourceVertexDefinitions);
+        } else {
+            addAttributes(graph, GraphElementType.VERTEX, sourceVertexDefinitions);
+            addAttributes(graph, GraphElementType.VERTEX, destinationVertexDefinitions);
+            addAttributes(graph, GraphElementType.TRANSACTION, definition.getDefinitions(AttributeType.TRANSACTION));
+        }
+    }
 
-        addAttributes(graph, GraphElementType.VERTEX, attributeDefinitions);
+    /**
+     * Import a batch of rows using the specified definition.
+     *
+     * @param definition the import definition.
+     * @param graph the graph being imported into.
+     * @param rows the batch of rows.
+     * @param firstRowIndex the index within the file of the first row in the
+     * batch, where the header row has index 0.
+     * @param initialiseWithSchema whether the schema should complete new
+     * elements.
+     * @param newVertices a list that new vertices will be added to.
+     */
+    private static void processRows(final ImportDefinition definition, final GraphWriteMethods graph, final List<String[]> rows, final int firstRowIndex, final boolean initialiseWithSchema, final List<Integer> newVertices) {
+        if (definition.getDefinitions(AttributeType.SOURCE_VERTEX).isEmpty()) {
+            if (!definition.getDefinitions(AttributeType.DESTINATION_VERTEX).isEmpty()) {
+                processVertices(definition, graph, rows, firstRowIndex, AttributeType.DESTINATION_VERTEX, initialiseWithSchema, newVertices);
+            }
+        } else if (definition.getDefinitions(AttributeType.DESTINATION_VERTEX).isEmpty()) {
+            processVertices(definition, graph, rows, firstRowIndex, AttributeType.SOURCE_VERTEX, initialiseWithSchema, newVertices);
+        } else {
+            processTransactions(definition, graph, rows, firstRowIndex, initialiseWithSchema);
+        }
+    }
 
-        int currentRow = 0;
-        final int totalRows = data.size() - definition.getFirstRow();
+    private static void processVertices(ImportDefinition definition, GraphWriteMethods graph, List<String[]> rows, int firstRowIndex, AttributeType attributeType, boolean initialiseWithSchema, final List<Integer> newVertices) {
+        final List<ImportAttributeDefinition> attributeDefinitions = definition.getDefinitions(attributeType);
 
         final RowFilter filter = definition.getRowFilter();
 
-        for (int i = definition.getFirstRow(); i < data.size(); i++) {
-            interaction.setProgress(++currentRow, totalRows, "Importing Vertices: " + source, true);
-
-            final String[] row = data.get(i);
+        for (int i = Math.max(definition.getFirstRow(), firstRowIndex); i < firstRowIndex + rows.size(); i++) {
+            final String[] row = rows.get(i - firstRowIndex);
             if (filter == null || filter.passesFilter(i - 1, row)) {
                 final int vertexId = graph.addVertex();
                 newVertices.add(vertexId);
@@ -289,7 +343,7 @@ public class ImportDelimitedPlugin extends SimpleEditPlugin {
         }
     }
 
-    private static void processTransactions(ImportDefinition definition, GraphWriteMethods graph, List<String[]> data, boolean initialiseWithSchema, PluginInteraction interaction, String source) throws InterruptedException {
+    private static void processTransactions(ImportDefinition definition, GraphWriteMethods graph, List<String[]> rows, int firstRowIndex, boolean initialiseWithSchema) {
         final List<ImportAttributeDefinition> sourceVertexDefinitions = definition.getDefinitions(AttributeType.SOURCE_VERTEX);
         final List<ImportAttributeDefinition> destinationVertexDefinitions = definition.getDefinitions(AttributeType.DESTINATION_VERTEX);
         final List<ImportAttributeDefinition> transactionDefinitions = definition.getDefinitions(AttributeType.TRANSACTION);
@@ -302,19 +356,10 @@ public class ImportDelimitedPlugin extends SimpleEditPlugin {
             }
         }
 
-        addAttributes(graph, GraphElementType.VERTEX, sourceVertexDefinitions);
-        addAttributes(graph, GraphElementType.VERTEX, destinationVertexDefinitions);
-        addAttributes(graph, GraphElementType.TRANSACTION, transactionDefinitions);
-
-        int currentRow = 0;
-        final int totalRows = data.size() - definition.getFirstRow();
-
         final RowFilter filter = definition.getRowFilter();
 
-        for (int i = definition.getFirstRow(); i < data.size(); i++) {
-            interaction.setProgress(++currentRow, totalRows, "Importing Transactions: " + source, true);
-
-            final String[] row = data.get(i);
+        for (int i = Math.max(definition.getFirstRow(), firstRowIndex); i < firstRowIndex + rows.size(); i++) {
+            final String[] row = rows.get(i - firstRowIndex);
 
             if (filter == null || filter.passesFilter(i - 1, row)) {
                 final int sourceVertexId = graph.addVertex();
@@ -375,4 +420,91 @@ public class ImportDelimitedPlugin extends SimpleEditPlugin {
 
         }
     }
+
+    /**
+     * An InputSource for a file that keeps track of how many bytes have been
+     * read from the most recently opened stream, so that import progress can
+     * be reported against the size of the file.
+     */
+    private static class CountingInputSource extends InputSource {
+
+        private CountingInputStream currentStream = null;
+
+        public CountingInputSource(final File file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            currentStream = new CountingInputStream(super.getInputStream());
+            return currentStream;
+        }
+
+        public long getBytesRead() {
+            return currentStream == null ? 0 : currentStream.getByteCount();
+        }
+    }
+
+    /**
+     * Receives rows from the parser as they are read and adds them to the graph
+     * in batches, so that the contents of a file never have to be held in
+     * memory all at once.
+     */
+    private static class BatchImporter extends ImportFileParser.BatchRowHandler {
+
+        private static final int BATCH_SIZE = 10000;
+        private static final int PROGRESS_SCALE = 1000;
+
+        private final GraphWriteMethods graph;
+        private final List<ImportDefinition> definitions;
+        private final boolean initialiseWithSchema;
+        private final PluginInteraction interaction;
+        private final CountingInputSource input;
+        private final String source;
+        private final long fileLength;
+        private final List<Integer> newVertices;
+
+        private int flushedRowCount = 0;
+
+        public BatchImporter(final GraphWriteMethods graph, final List<ImportDefinition> definitions, final boolean initialiseWithSchema,
+                final PluginInteraction interaction, final CountingInputSource input, final File file, final List<Integer> newVertices) {
+            super(BATCH_SIZE);
+            this.graph = graph;
+            this.definitions = definitions;
+            this.initialiseWithSchema = initialiseWithSchema;
+            this.interaction = interaction;
+            this.input = input;
+            this.source = file.getName();
+            this.fileLength = file.length();
+            this.newVertices = newVertices;
+        }
+
+        @Override
+        protected void handleBatch(final List<String[]> rows, final int firstRowIndex) throws InterruptedException {
+            // attributes are only added once the file has produced rows, so that a file that can't be parsed leaves the graph alone
+            if (flushedRowCount == 0) {
+                for (final ImportDefinition definition : definitions) {
+                    addDefinitionAttributes(graph, definition);
+                }
+            }
+
+            for (final ImportDefinition definition : definitions) {
+                processRows(definition, graph, rows, firstRowIndex, initialiseWithSchema, newVertices);
+            }
+            flushedRowCount = firstRowIndex + rows.size();
+
+            final int progress = fileLength > 0 ? (int) Math.min(PROGRESS_SCALE, input.getBytesRead() * PROGRESS_SCALE / fileLength) : 0;
+            interaction.setProgress(progress, PROGRESS_SCALE, String.format("Importing %s: %d rows read", source, getRowCount() - 1), true);
+        }
+
+        /**
+         * The number of data rows that have been added to the graph, not
+         * counting the header row.
+         *
+         * @return the number of imported rows.
+         */
+        public int getImportedRowCount() {
+            return Math.max(0, flushedRowCount - 1);
+        }
+    }
 }
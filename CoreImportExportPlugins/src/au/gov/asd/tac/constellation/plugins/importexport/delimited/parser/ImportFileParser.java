@@ -172,4 +172,111 @@ public abstract class ImportFileParser {
      */
     public abstract List<String[]> preview(final InputSource input, final PluginParameters parameters, final int limit) throws IOException;
 
+    /**
+     * Reads the entire file, passing each row of the resulting table to the
+     * specified handler as soon as it has been read.
+     * <p>
+     * The default implementation calls
+     * {@link #parse(InputSource, PluginParameters)} and so holds the whole
+     * table in memory before the first row is handled. Parsers that are able
+     * to read their input incrementally should override this method so that
+     * the memory required to import a file does not depend on its size.
+     *
+     * @param input Input file
+     * @param parameters the parameters that configure the parse operation.
+     * @param handler the handler that will receive each row, in order,
+     * starting with the header row.
+     * @throws IOException if an error occurred while reading the file.
+     * @throws InterruptedException if the handler was interrupted.
+     */
+    public void parse(final InputSource input, final PluginParameters parameters, final RowHandler handler) throws IOException, InterruptedException {
+        for (final String[] row : parse(input, parameters)) {
+            handler.handleRow(row);
+        }
+    }
+
+    /**
+     * Receives rows from an ImportFileParser as they are read.
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+
+        /**
+         * Handle the next row read from the file.
+         *
+         * @param row the values in the row.
+         * @throws InterruptedException if the handler was interrupted.
+         */
+        public void handleRow(final String[] row) throws InterruptedException;
+    }
+
+    /**
+     * A RowHandler that collects rows into batches of a fixed size and passes
+     * each batch on as soon as it is full.
+     * <p>
+     * Any rows left over at the end of the file are only passed on when
+     * {@link #flush} is called.
+     */
+    public abstract static class BatchRowHandler implements RowHandler {
+
+        private final int batchSize;
+        private final List<String[]> batch = new ArrayList<>();
+        private int batchStart = 0;
+        private int rowCount = 0;
+
+        /**
+         * Create a new BatchRowHandler.
+         *
+         * @param batchSize the number of rows in each batch.
+         */
+        protected BatchRowHandler(final int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void handleRow(final String[] row) throws InterruptedException {
+            if (batch.isEmpty()) {
+                batchStart = rowCount;
+            }
+            batch.add(row);
+            rowCount++;
+            if (batch.size() == batchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Pass on any rows that are waiting in the current batch.
+         *
+         * @throws InterruptedException if the handler was interrupted.
+         */
+        public void flush() throws InterruptedException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            handleBatch(batch, batchStart);
+            batch.clear();
+        }
+
+        /**
+         * The number of rows that have been received so far, including any
+         * that are waiting in the current batch.
+         *
+         * @return the number of rows received.
+         */
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Handle a batch of rows.
+         *
+         * @param rows the rows in the batch. The list is reused once this
+         * method returns, so it should not be held on to.
+         * @param firstRowIndex the index within the file of the first row in
+         * the batch, where the header row has index 0.
+         * @throws InterruptedException if the handler was interrupted.
+         */
+        protected abstract void handleBatch(final List<String[]> rows, final int firstRowIndex) throws InterruptedException;
+    }
 }
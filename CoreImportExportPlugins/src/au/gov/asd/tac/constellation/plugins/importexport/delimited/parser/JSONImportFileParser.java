@@ -18,6 +18,8 @@ package au.gov.asd.tac.constellation.plugins.importexport.delimited.parser;
 import au.gov.asd.tac.constellation.plugins.parameters.PluginParameters;
 import au.gov.asd.tac.constellation.utilities.text.SeparatorConstants;
 import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
@@ -431,6 +433,191 @@ public class JSONImportFileParser extends ImportFileParser {
         return getResults(input, limit);
     }
 
+    /**
+     * Reads the entire file, passing each row of the resulting table to the
+     * specified handler as soon as it has been read.
+     * <p>
+     * When the input is a file, it is read twice with a streaming parser: the
+     * first pass locates the list to import and collects its column names,
+     * and the second pass converts the entries of that list into rows one at a
+     * time. Only a single list entry is held in memory at once. Inputs that
+     * cannot be read twice fall back to reading the whole document.
+     *
+     * @param input Input file
+     * @param parameters the parameters that configure the parse operation.
+     * @param handler the handler that will receive each row.
+     * @throws IOException if an error occurred while reading the file.
+     * @throws InterruptedException if the handler was interrupted.
+     */
+    @Override
+    public void parse(final InputSource input, final PluginParameters parameters, final RowHandler handler) throws IOException, InterruptedException {
+        if (input.getFile() == null) {
+            super.parse(input, parameters, handler);
+            return;
+        }
+
+        final ObjectMapper mapper = new ObjectMapper();
+        try {
+            final ListCandidate selected;
+            try (final InputStream in = input.getInputStream(); final JsonParser jsonParser = mapper.getFactory().createParser(in)) {
+                selected = findList(jsonParser);
+            }
+            if (selected == null) {
+                throw new IOException(WARN_NO_VALID_LIST);
+            }
+
+            final Map<String, Integer> columnMap = new HashMap<>();
+            selected.columns.forEach(column -> columnMap.put(column, columnMap.size()));
+            handler.handleRow(selected.columns.toArray(new String[selected.columns.size()]));
+
+            try (final InputStream in = input.getInputStream(); final JsonParser jsonParser = mapper.getFactory().createParser(in)) {
+                moveToList(jsonParser, selected.path);
+                boolean first = true;
+                while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                    final JsonNode listNode = jsonParser.readValueAsTree();
+                    // If we are dealing with a list of lists, the first row is used
+                    // as column headings, so skip over it.
+                    if (listNode.isObject() || !first) {
+                        handler.handleRow(getLineContent(listNode, columnMap, "", null));
+                    }
+                    first = false;
+                }
+            }
+        } catch (final JsonParseException ex) {
+            // Catch case where invalid JSON file has been supplied gracefully
+            throw new IOException(WARN_INVALID_JSON);
+        }
+    }
+
+    /**
+     * A list found during a streaming scan that could be imported.
+     */
+    private static class ListCandidate {
+
+        private final List<String> path;
+        private final int depth;
+        private final ArrayList<String> columns;
+
+        public ListCandidate(final List<String> path, final int depth, final ArrayList<String> columns) {
+            this.path = path;
+            this.depth = depth;
+            this.columns = columns;
+        }
+    }
+
+    /**
+     * Scan a JSON document and return the list that would be selected by
+     * {@link #lookForChildArrays}, along with its column names, without
+     * reading the whole document into memory.
+     *
+     * @param jsonParser a parser positioned before the start of the document.
+     * @return the selected list, or null if no valid list was found.
+     * @throws IOException if the document could not be read.
+     */
+    private ListCandidate findList(final JsonParser jsonParser) throws IOException {
+        final JsonToken rootToken = jsonParser.nextToken();
+        if (rootToken == JsonToken.START_ARRAY) {
+            return scanList(jsonParser, new ArrayList<>(), 1);
+        } else if (rootToken == JsonToken.START_OBJECT) {
+            return scanObject(jsonParser, new ArrayList<>(), 0, null);
+        } else {
+            return null;
+        }
+    }
+
+    private ListCandidate scanObject(final JsonParser jsonParser, final List<String> path, final int depth, final ListCandidate best) throws IOException {
+        ListCandidate selected = best;
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            final String fieldName = jsonParser.getCurrentName();
+            final JsonToken valueToken = jsonParser.nextToken();
+            final int selectedDepth = selected == null ? NO_LIST_LEVEL : selected.depth;
+            if (valueToken == JsonToken.START_ARRAY && depth < selectedDepth) {
+                final List<String> listPath = new ArrayList<>(path);
+                listPath.add(fieldName);
+                final ListCandidate candidate = scanList(jsonParser, listPath, depth);
+                if (candidate != null) {
+                    selected = candidate;
+                }
+            } else if (valueToken == JsonToken.START_OBJECT && depth < selectedDepth) {
+                final List<String> objectPath = new ArrayList<>(path);
+                objectPath.add(fieldName);
+                selected = scanObject(jsonParser, objectPath, depth + 1, selected);
+            } else {
+                jsonParser.skipChildren();
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Read the list that the parser is positioned at, one entry at a time,
+     * applying the same checks as {@link #checkAllArrayItemsAreObjects} and
+     * collecting the column names as {@link #extractAllColNames} does.
+     */
+    private ListCandidate scanList(final JsonParser jsonParser, final List<String> path, final int depth) throws IOException {
+        final ArrayList<String> columns = new ArrayList<>();
+        boolean valid = true;
+        JsonNode firstChild = null;
+        while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+            if (!valid) {
+                jsonParser.skipChildren();
+                continue;
+            }
+
+            final JsonNode childNode = jsonParser.readValueAsTree();
+            if (firstChild == null) {
+                firstChild = childNode;
+                if (firstChild.isArray()) {
+                    for (final JsonNode listNode : firstChild) {
+                        columns.add(listNode.toString());
+                    }
+                }
+            }
+
+            if (firstChild.isObject()) {
+                valid = childNode.isObject() && childNode.size() > 0;
+                if (valid) {
+                    extractColNamesFromFields(childNode, columns, "");
+                }
+            } else if (firstChild.isArray()) {
+                valid = childNode.isArray() && firstChild.size() == childNode.size() && firstChild.size() > 0;
+                for (final JsonNode grandchildNode : childNode) {
+                    if (grandchildNode.isArray() || grandchildNode.isObject()) {
+                        valid = false;
+                    }
+                }
+            } else {
+                valid = false;
+            }
+        }
+        return valid && firstChild != null ? new ListCandidate(path, depth, columns) : null;
+    }
+
+    /**
+     * Advance the parser to the start of the list at the specified path.
+     */
+    private static void moveToList(final JsonParser jsonParser, final List<String> path) throws IOException {
+        JsonToken token = jsonParser.nextToken();
+        for (final String fieldName : path) {
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException(WARN_NO_VALID_LIST);
+            }
+            token = null;
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                final String currentName = jsonParser.getCurrentName();
+                token = jsonParser.nextToken();
+                if (fieldName.equals(currentName)) {
+                    break;
+                }
+                jsonParser.skipChildren();
+                token = null;
+            }
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new IOException(WARN_NO_VALID_LIST);
+        }
+    }
+
     /**
      * Returns the extension filter to use when browsing for files of this type.
      *
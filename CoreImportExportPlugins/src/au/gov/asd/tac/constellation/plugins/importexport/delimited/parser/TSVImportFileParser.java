@@ -56,6 +56,19 @@ public class TSVImportFileParser extends ImportFileParser {
         return result;
     }
 
+    @Override
+    public void parse(final InputSource input, final PluginParameters parameters, final RowHandler handler) throws IOException, InterruptedException {
+        try (InputStream in = input.getInputStream()) {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8.name()));
+
+            String line = reader.readLine();
+            while (line != null) {
+                handler.handleRow(line.split(SeparatorConstants.TAB, -1));
+                line = reader.readLine();
+            }
+        }
+    }
+
     @Override
     public List<String[]> preview(final InputSource input, final PluginParameters parameters, final int limit) throws IOException {
         final List<String[]> result = new ArrayList<>();
@@ -16,9 +16,12 @@
 package au.gov.asd.tac.constellation.plugins.importexport;
 
 import au.gov.asd.tac.constellation.plugins.importexport.delimited.parser.CSVImportFileParser;
+import au.gov.asd.tac.constellation.plugins.importexport.delimited.parser.ImportFileParser;
 import au.gov.asd.tac.constellation.plugins.importexport.delimited.parser.InputSource;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.fail;
@@ -35,6 +38,8 @@ import org.testng.annotations.Test;
  */
 public class CSVImportNGTest {
 
+    private static final int BATCH_SIZE = 10000;
+
     @BeforeClass
     public static void setUpClass() throws Exception {
     }
@@ -62,4 +67,55 @@ public class CSVImportNGTest {
         }
 
     }
+
+    @Test
+    public void checkCSVStreamTest() throws InterruptedException {
+        // Confirm that streaming the file hands over the same rows, in the
+        // same order, as parsing it all at once.
+        final CSVImportFileParser parser = new CSVImportFileParser();
+        try {
+            final InputSource input = new InputSource(new File(this.getClass().getResource("./resources/large.csv").getFile()));
+            final List<String[]> expectedData = parser.parse(input, null);
+            final List<String[]> data = new ArrayList<>();
+            parser.parse(input, null, data::add);
+            assertEquals(data.size(), expectedData.size());
+            for (int i = 0; i < data.size(); i++) {
+                assertEquals(data.get(i), expectedData.get(i));
+            }
+        } catch (IOException ex) {
+            fail("IO Exception : " + ex.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    public void checkCSVStreamBatchesTest() throws InterruptedException {
+        // Confirm that a batching handler is given each batch as soon as it
+        // is full, and the remaining rows only when it is flushed.
+        final CSVImportFileParser parser = new CSVImportFileParser();
+        final List<Integer> batchStarts = new ArrayList<>();
+        final List<Integer> batchSizes = new ArrayList<>();
+        final ImportFileParser.BatchRowHandler handler = new ImportFileParser.BatchRowHandler(BATCH_SIZE) {
+            @Override
+            protected void handleBatch(final List<String[]> rows, final int firstRowIndex) {
+                batchStarts.add(firstRowIndex);
+                batchSizes.add(rows.size());
+            }
+        };
+        try {
+            parser.parse(new InputSource(new File(this.getClass().getResource("./resources/large.csv").getFile())), null, handler);
+            assertEquals(handler.getRowCount(), 53000);
+            assertEquals(batchStarts, Arrays.asList(0, 10000, 20000, 30000, 40000));
+            assertEquals(batchSizes, Arrays.asList(BATCH_SIZE, BATCH_SIZE, BATCH_SIZE, BATCH_SIZE, BATCH_SIZE));
+
+            handler.flush();
+            assertEquals(batchStarts, Arrays.asList(0, 10000, 20000, 30000, 40000, 50000));
+            assertEquals(batchSizes, Arrays.asList(BATCH_SIZE, BATCH_SIZE, BATCH_SIZE, BATCH_SIZE, BATCH_SIZE, 3000));
+
+            // Flushing an empty batch does nothing.
+            handler.flush();
+            assertEquals(batchSizes.size(), 6);
+        } catch (IOException ex) {
+            fail("IO Exception : " + ex.getLocalizedMessage());
+        }
+    }
 }
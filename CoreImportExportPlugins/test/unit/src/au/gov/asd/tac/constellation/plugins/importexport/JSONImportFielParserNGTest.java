@@ -15,12 +15,14 @@
  */
 package au.gov.asd.tac.constellation.plugins.importexport;
 
+import au.gov.asd.tac.constellation.plugins.importexport.delimited.parser.ImportFileParser;
 import au.gov.asd.tac.constellation.plugins.importexport.delimited.parser.InputSource;
 import au.gov.asd.tac.constellation.plugins.importexport.delimited.parser.JSONImportFileParser;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.IntStream;
 import org.testng.Assert;
@@ -434,4 +436,122 @@ public class JSONImportFielParserNGTest {
             Assert.fail("Unexpected exception received: " + ex.getClass().getName());
         }
     }
+
+    @Test
+    public void checkStreamIgnoreInvalidNestedLists() throws InterruptedException {
+        // Confirm that streaming JSON containing invalid nested lists returns
+        // the same rows as parsing it.
+        checkStreamMatchesParse("./resources/JSON-nested-skipInvalidContent.json");
+    }
+
+    @Test
+    public void checkStreamFindShallowestList() throws InterruptedException {
+        // Confirm that streaming JSON containing multiple valid lists returns
+        // the same rows as parsing it.
+        checkStreamMatchesParse("./resources/JSON-nested-getShallowest.json");
+    }
+
+    @Test
+    public void checkStreamNestedObjects() throws InterruptedException {
+        // Confirm that streaming JSON containing nested objects returns the
+        // same rows, with the same flattened columns, as parsing it.
+        checkStreamMatchesParse("./resources/JSON-nested-processNestedObjects.json");
+    }
+
+    @Test
+    public void checkStreamInvalidJSON() throws InterruptedException {
+        // Confirm that attempts to stream invalid JSON return a clean
+        // IOException exception without handling any rows.
+        checkStreamFails("./resources/JSON-invalidContent.json", private_invalidJSONMsg);
+    }
+
+    @Test
+    public void checkStreamEmptyJSON() throws InterruptedException {
+        // Confirm that attempts to stream empty JSON, or JSON without a
+        // non-empty list, return a clean IOException exception without
+        // handling any rows.
+        checkStreamFails("./resources/JSON-emptyContent.json", private_noValidListMsg);
+        checkStreamFails("./resources/JSON-emptyObject.json", private_noValidListMsg);
+        checkStreamFails("./resources/JSON-emptyList1.json", private_noValidListMsg);
+        checkStreamFails("./resources/JSON-emptyList2.json", private_noValidListMsg);
+        checkStreamFails("./resources/JSON-emptyList3.json", private_noValidListMsg);
+    }
+
+    @Test
+    public void checkStreamInconsistentListLength() throws InterruptedException {
+        // Confirm that attempts to stream JSON containing a list with rows
+        // of different lengths return a clean IOException exception without
+        // handling any rows.
+        checkStreamFails("./resources/JSON-inconsistentListLength.json", private_noValidListMsg);
+    }
+
+    @Test
+    public void checkStreamListWithInvalidObjects() throws InterruptedException {
+        // Confirm that attempts to stream JSON containing a list with rows
+        // containing nested complex objects return a clean IOException
+        // exception without handling any rows.
+        checkStreamFails("./resources/JSON-complexMembersInList.json", private_noValidListMsg);
+    }
+
+    @Test
+    public void checkStreamBatches() throws InterruptedException {
+        // Confirm that a batching handler is given each batch as soon as it
+        // is full, and the remaining rows only when it is flushed.
+        final JSONImportFileParser parser = new JSONImportFileParser();
+        final List<Integer> batchStarts = new ArrayList<>();
+        final List<String[]> data = new ArrayList<>();
+        final ImportFileParser.BatchRowHandler handler = new ImportFileParser.BatchRowHandler(2) {
+            @Override
+            protected void handleBatch(final List<String[]> rows, final int firstRowIndex) {
+                Assert.assertEquals(firstRowIndex, data.size());
+                batchStarts.add(firstRowIndex);
+                data.addAll(rows);
+            }
+        };
+        try {
+            final InputSource input = new InputSource(new File(this.getClass().getResource("./resources/JSON-nested-processNestedObjects.json").getFile()));
+            parser.parse(input, null, handler);
+            Assert.assertEquals(handler.getRowCount(), 3);
+            Assert.assertEquals(batchStarts, Arrays.asList(0));
+
+            handler.flush();
+            Assert.assertEquals(batchStarts, Arrays.asList(0, 2));
+
+            final List<String[]> expectedData = parser.parse(input, null);
+            Assert.assertEquals(data.size(), expectedData.size(), "Returned results size is not as expected");
+            IntStream.range(0, data.size()).forEach(idx -> {
+                Assert.assertEquals(data.get(idx), expectedData.get(idx));
+            });
+        } catch (IOException ex) {
+            Assert.fail("Unexpected exception received: " + ex.getClass().getName());
+        }
+    }
+
+    private void checkStreamMatchesParse(final String resource) throws InterruptedException {
+        final JSONImportFileParser parser = new JSONImportFileParser();
+        try {
+            final InputSource input = new InputSource(new File(this.getClass().getResource(resource).getFile()));
+            final List<String[]> expectedData = parser.parse(input, null);
+            final List<String[]> data = new ArrayList<>();
+            parser.parse(input, null, data::add);
+            Assert.assertEquals(data.size(), expectedData.size(), "Returned results size is not as expected");
+            IntStream.range(0, data.size()).forEach(idx -> {
+                Assert.assertEquals(data.get(idx), expectedData.get(idx));
+            });
+        } catch (IOException ex) {
+            Assert.fail("Unexpected exception received: " + ex.getClass().getName());
+        }
+    }
+
+    private void checkStreamFails(final String resource, final String message) throws InterruptedException {
+        final JSONImportFileParser parser = new JSONImportFileParser();
+        final List<String[]> data = new ArrayList<>();
+        try {
+            parser.parse(new InputSource(new File(this.getClass().getResource(resource).getFile())), null, data::add);
+            Assert.fail("Expected exception not received");
+        } catch (IOException ex) {
+            Assert.assertTrue(ex.getMessage().contains(message));
+        }
+        Assert.assertTrue(data.isEmpty());
+    }
 }
@@ -114,8 +114,9 @@ public final class VisualGraphOpener extends GraphOpener {
                         // Backup the current actual file and replace it with the autosave file.
                         final File autosaved = new File(AutosaveUtilities.getAutosaveDir(), props.getProperty(AutosaveUtilities.ID) + GraphDataObject.FILE_EXTENSION);
                         try {
+                            AutosaveUtilities.compactAutosave(autosaved, new HandleIoProgress(String.format("Recovering %s...", f.getName())));
                             AutosaveUtilities.copyFile(autosaved, f);
-                        } catch (final IOException ex) {
+                        } catch (final GraphParseException | IOException ex) {
                             LOGGER.log(Level.WARNING, "Copying autosaved file", ex);
                         }
                     }
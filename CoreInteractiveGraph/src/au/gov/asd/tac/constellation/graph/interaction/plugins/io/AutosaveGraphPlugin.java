@@ -19,8 +19,11 @@ import au.gov.asd.tac.constellation.graph.Graph;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.graph.ReadableGraph;
 import au.gov.asd.tac.constellation.graph.file.GraphDataObject;
+import au.gov.asd.tac.constellation.graph.file.io.GraphJournalWriter;
 import au.gov.asd.tac.constellation.graph.file.io.GraphJsonWriter;
 import au.gov.asd.tac.constellation.graph.file.save.AutosaveUtilities;
+import au.gov.asd.tac.constellation.graph.manager.GraphManager;
+import au.gov.asd.tac.constellation.graph.manager.GraphManagerListener;
 import au.gov.asd.tac.constellation.graph.node.GraphNode;
 import au.gov.asd.tac.constellation.graph.processing.GraphRecordStoreUtilities;
 import au.gov.asd.tac.constellation.graph.schema.visual.concept.VisualConcept;
@@ -41,7 +44,9 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.time.ZonedDateTime;
 import java.util.Date;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.openide.awt.StatusDisplayer;
@@ -52,6 +57,12 @@ import org.openide.util.lookup.ServiceProvider;
  * Autosave a single graph.
  * <p>
  * The caller has to go through the graphs and pass them one by one.
+ * <p>
+ * The first autosave of a graph writes the whole graph as a snapshot. After
+ * that, each autosave appends the changes made since the previous autosave to
+ * a journal belonging to the snapshot (see {@link GraphJournalWriter}), and a
+ * new snapshot is only written when the journal has grown large enough that it
+ * is worth compacting.
  *
  * @author algol
  */
@@ -62,6 +73,29 @@ public final class AutosaveGraphPlugin extends SimplePlugin {
 
     private static final Logger LOGGER = Logger.getLogger(AutosaveGraphPlugin.class.getName());
 
+    // The journal of each autosaved graph, keyed by graph id.
+    private static final Map<String, GraphJournalWriter> JOURNALS = new ConcurrentHashMap<>();
+
+    static {
+        GraphManager.getDefault().addGraphManagerListener(new GraphManagerListener() {
+
+            @Override
+            public void graphOpened(final Graph graph) {
+                // Method required for GraphManagerListener, intentionally left blank
+            }
+
+            @Override
+            public void graphClosed(final Graph graph) {
+                JOURNALS.remove(graph.getId());
+            }
+
+            @Override
+            public void newActiveGraph(final Graph graph) {
+                // Method required for GraphManagerListener, intentionally left blank
+            }
+        });
+    }
+
     @Override
     public void execute(final PluginGraphs graphs, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
         final Graph graph = graphs.getGraph();
@@ -73,32 +107,55 @@ public final class AutosaveGraphPlugin extends SimplePlugin {
 
             interaction.setProgress(-1, -1, "Autosaving: " + graphId, true);
 
+            final File saveDir = AutosaveUtilities.getAutosaveDir();
+            final String gname = graph.getId() + GraphDataObject.FILE_EXTENSION;
+            final File saveFile = new File(saveDir, gname);
+            final GraphJournalWriter journal = JOURNALS.computeIfAbsent(graphId, id -> new GraphJournalWriter(AutosaveUtilities.getJournal(saveFile)));
+
             // We don't want to hold the user up while we're reading from a graph they might be using.
-            // Make a copy of the graph so that we can release the read lock as soon as possible.
-            GraphReadMethods copy;
-            ReadableGraph rg = graph.getReadableGraph();
+            // Either record the changes since the last autosave, which only reads the attributes that have changed,
+            // or make a copy of the graph to write as a new snapshot, so that we can release the read lock as soon as possible.
+            GraphReadMethods copy = null;
+            GraphJournalWriter.Checkpoint checkpoint = null;
+            byte[] record = null;
             try {
-                copy = rg.copy();
-            } finally {
-                rg.release();
-            }
+                ReadableGraph rg = graph.getReadableGraph();
+                try {
+                    if (journal.hasCheckpoint() && saveFile.exists() && !journal.shouldCompact()) {
+                        record = journal.createRecord(rg);
+                        if (record == null) {
+                            // Nothing has changed since the last autosave.
+                            interaction.setProgress(1, 0, "Finished", true);
+                            return;
+                        }
+                    } else {
+                        copy = rg.copy();
+                        checkpoint = journal.createCheckpoint(rg);
+                    }
+                } finally {
+                    rg.release();
+                }
 
-            interaction.setProgress(1, 0, "Finished", true);
+                interaction.setProgress(1, 0, "Finished", true);
 
-            final File saveDir = AutosaveUtilities.getAutosaveDir();
+                if (record != null) {
+                    StatusDisplayer.getDefault().setStatusText(String.format("Auto saving changes to %s in %s at %s...", graphId, journal.getJournalFile().getName(), new Date()));
+                    journal.appendRecord(record);
+                } else {
+                    StatusDisplayer.getDefault().setStatusText(String.format("Auto saving %s as %s at %s...", graphId, gname, new Date()));
 
-            try {
-                final String gname = graph.getId() + GraphDataObject.FILE_EXTENSION;
-                StatusDisplayer.getDefault().setStatusText(String.format("Auto saving %s as %s at %s...", graphId, gname, new Date()));
-                final File saveFile = new File(saveDir, gname);
-                new GraphJsonWriter().writeGraphToZip(copy, saveFile.getPath(), new HandleIoProgress("Autosaving..."));
-
-                ConstellationLoggerHelper.exportPropertyBuilder(
-                        this,
-                        GraphRecordStoreUtilities.getVertices(copy, false, false, false).getAll(GraphRecordStoreUtilities.SOURCE + VisualConcept.VertexAttribute.LABEL),
-                        saveFile,
-                        ConstellationLoggerHelper.SUCCESS
-                );
+                    // Get rid of the old journal first, so it can't be replayed onto the new snapshot.
+                    journal.reset();
+                    new GraphJsonWriter().writeGraphToZip(copy, saveFile.getPath(), new HandleIoProgress("Autosaving..."));
+                    journal.writeCheckpoint(checkpoint, copy, saveFile);
+
+                    ConstellationLoggerHelper.exportPropertyBuilder(
+                            this,
+                            GraphRecordStoreUtilities.getVertices(copy, false, false, false).getAll(GraphRecordStoreUtilities.SOURCE + VisualConcept.VertexAttribute.LABEL),
+                            saveFile,
+                            ConstellationLoggerHelper.SUCCESS
+                    );
+                }
 
                 final Properties p = new Properties();
                 p.setProperty(AutosaveUtilities.ID, graph.getId());
@@ -112,6 +169,8 @@ public final class AutosaveGraphPlugin extends SimplePlugin {
             } catch (IOException ex) {
                 LOGGER.log(Level.SEVERE, ex.getLocalizedMessage(), ex);
             }
+        } else {
+            JOURNALS.remove(graphId);
         }
     }
 }
@@ -86,7 +86,9 @@ public final class AutosaveStartup implements Runnable {
                                             // Remove the "_auto" from the end and load the matching graph.
                                             String path = f.getPath();
                                             path = path.substring(0, path.length() - 5);
-                                            final Graph g = new GraphJsonReader().readGraphZip(new File(path), new HandleIoProgress(loading));
+                                            final File star = new File(path);
+                                            final Graph g = new GraphJsonReader().readGraphZip(star, new HandleIoProgress(loading));
+                                            AutosaveUtilities.replayJournal(g, star);
                                             GraphOpener.getDefault().openGraph(g, name, false);
 
                                             AutosaveUtilities.deleteAutosave(f);
@@ -119,4 +121,5 @@ public final class AutosaveStartup implements Runnable {
             Autosaver.schedule(0);
         }
     }
+
 }
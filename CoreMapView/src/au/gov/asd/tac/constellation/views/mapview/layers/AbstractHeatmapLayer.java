@@ -17,9 +17,12 @@ package au.gov.asd.tac.constellation.views.mapview.layers;
 
 import au.gov.asd.tac.constellation.utilities.image.GaussianBlur;
 import au.gov.asd.tac.constellation.views.mapview.markers.ConstellationAbstractMarker;
-import de.fhpotsdam.unfolding.marker.Marker;
+import au.gov.asd.tac.constellation.views.mapview.markers.ConstellationClusterMarker;
+import au.gov.asd.tac.constellation.views.mapview.utilities.ClusterIndex;
+import au.gov.asd.tac.constellation.views.mapview.utilities.DensityIndex;
+import de.fhpotsdam.unfolding.geo.Location;
 import de.fhpotsdam.unfolding.utils.ScreenPosition;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 import processing.core.PConstants;
@@ -27,6 +30,12 @@ import processing.core.PImage;
 
 /**
  * A layer which generates a heatmap over markers in the Map View.
+ * <p>
+ * The weights of the visible markers are held in a {@link DensityIndex}, which
+ * is rebuilt only when the markers change, so each update only accumulates the
+ * cells within the current view of the map into an image. The image buffers
+ * are reused between updates, and the heatmap is only blurred again when the
+ * markers or the view change.
  *
  * @author cygnus_x-1
  */
@@ -37,72 +46,111 @@ public abstract class AbstractHeatmapLayer extends MapLayer {
     private static final int THRESHOLD = 20;
     private static final float SEVERITY = 2f;
 
-    private List<Marker> onScreenMarkers = new ArrayList<>();
-    private int onScreenMarkerCount = 0;
+    // two locations used to find where the map currently projects normalised coordinates onto the screen
+    private static final Location PROJECTION_ORIGIN = new Location(-45, -90);
+    private static final Location PROJECTION_EXTENT = new Location(45, 90);
+
+    private volatile boolean updating = false;
+    private volatile int markerModificationCount = -1;
+    private volatile double[] viewport = null;
+    private DensityIndex densityIndex = null;
+    private float[] pointImage = null;
+    private float[] gaussImage = null;
+    private float[] scratchImage = null;
+    private PImage heatmapImage = null;
 
     @Override
     public boolean requiresUpdate() {
-        final ScreenPosition topLeft = map.getScreenPosition(map.getTopLeftBorder());
-        final ScreenPosition bottomRight = map.getScreenPosition(map.getBottomRightBorder());
-        return onScreenMarkerCount != renderer.getMarkerCache().keys().stream()
-                .filter(marker -> {
-                    final ScreenPosition markerPosition = map.getScreenPosition(marker.getLocation());
-                    return !marker.isHidden()
-                            && markerPosition != null
-                            && markerPosition.x > topLeft.x
-                            && markerPosition.y > topLeft.y
-                            && markerPosition.x < bottomRight.x
-                            && markerPosition.y < bottomRight.y;
-                }).count();
+        return !updating && (renderer.getMarkerCache().getModificationCount() != markerModificationCount
+                || !Arrays.equals(getViewport(), viewport));
     }
 
     @Override
-    public PImage update() {
+    public synchronized PImage update() {
+        updating = true;
+        try {
+            // rebuild the density index if the markers have changed
+            final int modificationCount = renderer.getMarkerCache().getModificationCount();
+            if (densityIndex == null || modificationCount != markerModificationCount) {
+                densityIndex = buildDensityIndex();
+                markerModificationCount = modificationCount;
+                heatmapImage = null;
+            }
+
+            // reuse the heatmap if the view has not changed
+            final double[] currentViewport = getViewport();
+            if (heatmapImage != null && Arrays.equals(currentViewport, viewport)) {
+                return heatmapImage;
+            }
+            viewport = currentViewport;
+            heatmapImage = currentViewport == null ? null : createHeatmap(currentViewport);
+            return heatmapImage;
+        } finally {
+            updating = false;
+        }
+    }
 
-        // update on screen markers
-        final ScreenPosition topLeft = map.getScreenPosition(map.getTopLeftBorder());
-        final ScreenPosition bottomRight = map.getScreenPosition(map.getBottomRightBorder());
-        onScreenMarkers = renderer.getMarkerCache().keys().stream()
-                .filter(marker -> {
-                    final ScreenPosition markerPosition = map.getScreenPosition(marker.getLocation());
-                    return !marker.isHidden()
-                            && markerPosition != null
-                            && markerPosition.x > topLeft.x
-                            && markerPosition.y > topLeft.y
-                            && markerPosition.x < bottomRight.x
-                            && markerPosition.y < bottomRight.y;
-                })
+    private DensityIndex buildDensityIndex() {
+        final List<ConstellationAbstractMarker> markers = renderer.getMarkerCache().keys().stream()
+                .filter(marker -> !marker.isHidden() && !(marker instanceof ConstellationClusterMarker))
                 .collect(Collectors.toList());
+        final double[] x = new double[markers.size()];
+        final double[] y = new double[markers.size()];
+        final float[] weights = new float[markers.size()];
+        for (int i = 0; i < markers.size(); i++) {
+            final ConstellationAbstractMarker marker = markers.get(i);
+            final Location location = marker.getLocation();
+            x[i] = ClusterIndex.projectX(location.getLon());
+            y[i] = ClusterIndex.projectY(location.getLat());
+            weights[i] = getWeight(marker);
+        }
+        return new DensityIndex(x, y, weights);
+    }
 
-        onScreenMarkerCount = onScreenMarkers.size();
+    /**
+     * Get the size of the heatmap and the projection of normalised
+     * coordinates onto it, as {width, height, scale, minX, minY}.
+     */
+    private double[] getViewport() {
+        final ScreenPosition origin = map.getScreenPosition(PROJECTION_ORIGIN);
+        final ScreenPosition extent = map.getScreenPosition(PROJECTION_EXTENT);
+        if (origin == null || extent == null) {
+            return null;
+        }
+        final double originX = ClusterIndex.projectX(PROJECTION_ORIGIN.getLon());
+        final double originY = ClusterIndex.projectY(PROJECTION_ORIGIN.getLat());
+        final double scale = (extent.x - origin.x) / (ClusterIndex.projectX(PROJECTION_EXTENT.getLon()) - originX);
+        return new double[]{renderer.width - 5, renderer.height - 5, scale, originX - origin.x / scale, originY - origin.y / scale};
+    }
 
-        if (onScreenMarkers.isEmpty()) {
+    private PImage createHeatmap(final double[] currentViewport) {
+        final int width = (int) currentViewport[0];
+        final int height = (int) currentViewport[1];
+        if (width <= 0 || height <= 0) {
             return null;
         }
 
         // create point image from markers
-        final int width = renderer.width - 5;
-        final int height = renderer.height - 5;
-        final float[] pointImage = new float[width * height];
-        onScreenMarkers.forEach(marker -> {
-            final ConstellationAbstractMarker constellationMarker = (ConstellationAbstractMarker) marker;
-            final ScreenPosition markerPosition = map.getScreenPosition(constellationMarker.getLocation());
-            final float markerWeight = getWeight(constellationMarker);
-            if (markerPosition != null) {
-                pointImage[(int) markerPosition.y * width + (int) markerPosition.x] = markerWeight;
-            }
-        });
+        if (pointImage == null || pointImage.length != width * height) {
+            pointImage = new float[width * height];
+            gaussImage = new float[width * height];
+            scratchImage = new float[width * height];
+        } else {
+            Arrays.fill(pointImage, 0);
+        }
+        if (densityIndex.accumulate(currentViewport[3], currentViewport[4], currentViewport[2], width, height, pointImage) == 0) {
+            return null;
+        }
 
         // generate gaussian blur around points
-        final float[] gaussImage = new float[width * height];
-        GaussianBlur.gaussianBlurBox(pointImage, gaussImage,
+        GaussianBlur.gaussianBlurBox(pointImage, gaussImage, scratchImage,
                 width, height, RADIUS, PASSES, GaussianBlur.BoxBlurType.FASTEST);
 
-        final PImage heatmapImage = renderer.createImage(width, height, PConstants.ARGB);
-        heatmapImage.loadPixels();
-        GaussianBlur.colorise(gaussImage, heatmapImage.pixels, THRESHOLD, SEVERITY);
-        heatmapImage.updatePixels();
-        return heatmapImage;
+        final PImage image = renderer.createImage(width, height, PConstants.ARGB);
+        image.loadPixels();
+        GaussianBlur.colorise(gaussImage, image.pixels, THRESHOLD, SEVERITY);
+        image.updatePixels();
+        return image;
     }
 
     protected abstract float getWeight(final ConstellationAbstractMarker marker);
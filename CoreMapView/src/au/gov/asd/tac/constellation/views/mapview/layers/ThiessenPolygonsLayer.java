@@ -17,27 +17,38 @@ package au.gov.asd.tac.constellation.views.mapview.layers;
 
 import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
 import au.gov.asd.tac.constellation.views.mapview.utilities.MarkerUtilities;
+import au.gov.asd.tac.constellation.views.mapview.utilities.VoronoiRaster;
 import de.fhpotsdam.unfolding.marker.Marker;
 import de.fhpotsdam.unfolding.utils.ScreenPosition;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 import org.openide.util.lookup.ServiceProvider;
 import processing.core.PConstants;
 import processing.core.PImage;
 
 /**
+ * A layer which colours the Map View by the nearest on screen marker to each
+ * pixel.
  *
  * @author cygnus_x-1
  */
 @ServiceProvider(service = MapLayer.class, position = 600)
 public class ThiessenPolygonsLayer extends MapLayer {
 
+    private static final VoronoiRaster.DistanceMetric DISTANCE_METRIC = VoronoiRaster.DistanceMetric.EUCLIDEAN;
+
     private List<Marker> onScreenMarkers = new ArrayList<>();
     private int onScreenMarkerCount = 0;
 
+    // the most recent image, and the marker positions and size it was computed for
+    private PImage voronoiImage = null;
+    private int voronoiWidth = 0;
+    private int voronoiHeight = 0;
+    private int[] voronoiSiteX = null;
+    private int[] voronoiSiteY = null;
+
     @Override
     public String getName() {
         return "Thiessen Polygons";
@@ -85,67 +96,44 @@ public class ThiessenPolygonsLayer extends MapLayer {
         }
 
         // map markers to screen positions
-        final Map<Marker, ScreenPosition> positionMap = onScreenMarkers.stream()
-                .collect(Collectors.toMap(marker -> marker,
-                        marker -> map.getScreenPosition(marker.getLocation()),
-                        (marker1, marker2) -> marker1));
-
-        // map markers to colors
-        final ConstellationColor[] palette = ConstellationColor.createPalette(onScreenMarkerCount);
-        final Map<Marker, Integer> paletteMap = new HashMap<>();
-        onScreenMarkers.forEach(marker -> paletteMap.put(marker,
-                MarkerUtilities.color(palette[onScreenMarkers.indexOf(marker)])));
+        final int[] siteX = new int[onScreenMarkerCount];
+        final int[] siteY = new int[onScreenMarkerCount];
+        for (int i = 0; i < onScreenMarkerCount; i++) {
+            final ScreenPosition markerPosition = map.getScreenPosition(onScreenMarkers.get(i).getLocation());
+            siteX[i] = (int) markerPosition.x;
+            siteY[i] = (int) markerPosition.y;
+        }
 
         final int width = renderer.width - 5;
         final int height = renderer.height - 5;
-        final PImage voronoiImage = renderer.createImage(width, height, PConstants.ARGB);
-        voronoiImage.loadPixels();
-
-        for (int pixelIndex = 0; pixelIndex < voronoiImage.pixels.length; pixelIndex++) {
-            // find the closest marker to this pixel
-            final ScreenPosition pixelPosition = pixelPosition(pixelIndex, width, height);
-            Marker closestMarker = null;
-            for (final Marker marker : onScreenMarkers) {
-                if (closestMarker == null) {
-                    closestMarker = marker;
-                } else {
-                    final ScreenPosition markerPosition = positionMap.get(marker);
-                    final ScreenPosition closestMarkerPosition = positionMap.get(closestMarker);
-                    if (markerPosition != null && closestMarkerPosition != null
-                            && euclidianDistance((int) pixelPosition.x, (int) pixelPosition.y, (int) markerPosition.x, (int) markerPosition.y)
-                            < euclidianDistance((int) pixelPosition.x, (int) pixelPosition.y, (int) closestMarkerPosition.x, (int) closestMarkerPosition.y)) {
-                        closestMarker = marker;
-                    }
-                }
-            }
-
-            // color this pixel based on its closest marker
-            if (closestMarker != null && paletteMap.get(closestMarker) != null) {
-                voronoiImage.pixels[pixelIndex] = paletteMap.get(closestMarker);
-            }
-        }
-
-        voronoiImage.updatePixels();
-        return voronoiImage;
-    }
 
-    private ScreenPosition pixelPosition(final int pixel, final int width, final int height) {
-        if (pixel > width * height) {
-            throw new IllegalArgumentException("pixel is outside of the image bounds");
+        // the polygons only change when the markers move on screen or the view is resized
+        if (voronoiImage != null && width == voronoiWidth && height == voronoiHeight
+                && Arrays.equals(siteX, voronoiSiteX) && Arrays.equals(siteY, voronoiSiteY)) {
+            return voronoiImage;
         }
-        return new ScreenPosition(Math.floorMod(pixel, width), Math.floorDiv(pixel, width));
-    }
-
-    private double euclidianDistance(final int x1, final int y1, final int x2, final int y2) {
-        return Math.sqrt(Math.pow((x2 - x1), 2) + Math.pow((y2 - y1), 2));
-    }
 
-    private double manhattanDistance(final int x1, final int y1, final int x2, final int y2) {
-        return Math.abs((double) x1 - x2) + Math.abs((double) y1 - y2);
-    }
+        // map markers to colors
+        final ConstellationColor[] palette = ConstellationColor.createPalette(onScreenMarkerCount);
+        final int[] colors = new int[onScreenMarkerCount];
+        for (int i = 0; i < onScreenMarkerCount; i++) {
+            colors[i] = MarkerUtilities.color(palette[i]);
+        }
 
-    private double minkovskiDistance(final int x1, final int y1, final int x2, final int y2) {
-        final int p = 3;
-        return Math.pow(Math.pow(Math.abs(x2 - x1), p) + Math.pow(Math.abs(y2 - y1), p), (1 / p));
+        // color each pixel based on its closest marker
+        final int[] nearestSites = VoronoiRaster.nearestSites(width, height, siteX, siteY, DISTANCE_METRIC);
+        final PImage image = renderer.createImage(width, height, PConstants.ARGB);
+        image.loadPixels();
+        for (int pixelIndex = 0; pixelIndex < image.pixels.length; pixelIndex++) {
+            image.pixels[pixelIndex] = colors[nearestSites[pixelIndex]];
+        }
+        image.updatePixels();
+
+        voronoiImage = image;
+        voronoiWidth = width;
+        voronoiHeight = height;
+        voronoiSiteX = siteX;
+        voronoiSiteY = siteY;
+        return image;
     }
 }
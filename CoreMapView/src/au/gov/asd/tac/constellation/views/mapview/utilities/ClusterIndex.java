@@ -0,0 +1,298 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.mapview.utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A hierarchy of clusters of points, precomputed for each zoom level of a map.
+ * <p>
+ * Points are given in normalised Web Mercator coordinates, where the world
+ * spans [0, 1] on each axis, so that the distance between two points in pixels
+ * at a zoom level is their distance multiplied by {@link #TILE_SIZE} * 2^zoom.
+ * Clusters are built greedily from the highest zoom level down: at each level,
+ * every cluster from the level above absorbs all unclustered neighbours within
+ * the cluster radius, and the new cluster is placed at the weighted centroid of
+ * what it absorbed. Neighbours are found using a {@link SpatialIndex}, so
+ * building the hierarchy is O(n log n) for each zoom level, and levels where
+ * nothing merges share the clusters of the level above.
+ * <p>
+ * Once built, the clusters visible at any zoom level are found with a range
+ * query over that level, so panning and zooming the map does not require any
+ * clustering.
+ *
+ * @author cygnus_x-1
+ */
+public class ClusterIndex {
+
+    public static final int TILE_SIZE = 256;
+    private static final double MAX_LATITUDE = 85.0511287798;
+
+    /**
+     * The clusters at one zoom level. The children of each cluster are the
+     * indices of clusters in the finer level, or of points if there is no
+     * finer level.
+     */
+    private static final class Level {
+
+        private final double[] x;
+        private final double[] y;
+        private final int[] weights;
+        private final int[] childStart;
+        private final int[] children;
+        private final Level finer;
+        private SpatialIndex index = null;
+
+        private Level(final double[] x, final double[] y, final int[] weights, final int[] childStart, final int[] children, final Level finer) {
+            this.x = x;
+            this.y = y;
+            this.weights = weights;
+            this.childStart = childStart;
+            this.children = children;
+            this.finer = finer;
+        }
+
+        private SpatialIndex getIndex() {
+            if (index == null) {
+                index = new SpatialIndex(x, y);
+            }
+            return index;
+        }
+
+        private int size() {
+            return x.length;
+        }
+    }
+
+    private final int minZoom;
+    private final int maxZoom;
+    private final double radius;
+    private final Level[] levels;
+
+    /**
+     * Build the clusters of the given points for each zoom level between
+     * minZoom and maxZoom.
+     *
+     * @param x the normalised x coordinate of each point.
+     * @param y the normalised y coordinate of each point.
+     * @param radius the maximum distance in pixels between a cluster and the
+     * points it absorbs.
+     * @param minZoom the lowest zoom level to build clusters for.
+     * @param maxZoom the highest zoom level to build clusters for. At higher
+     * zoom levels, only points at the same location are clustered.
+     */
+    public ClusterIndex(final double[] x, final double[] y, final double radius, final int minZoom, final int maxZoom) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("Each point must have an x and y coordinate");
+        }
+        if (minZoom > maxZoom) {
+            throw new IllegalArgumentException("The minimum zoom level cannot be greater than the maximum zoom level");
+        }
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.radius = radius;
+
+        levels = new Level[maxZoom - minZoom + 2];
+        levels[levels.length - 1] = buildBaseLevel(x, y);
+        for (int zoom = maxZoom; zoom >= minZoom; zoom--) {
+            final Level finer = levels[zoom - minZoom + 1];
+            final Level level = buildLevel(finer, getRadius(zoom));
+            levels[zoom - minZoom] = level.size() == finer.size() ? finer : level;
+        }
+        for (final Level level : levels) {
+            level.getIndex();
+        }
+    }
+
+    /**
+     * Project a longitude to a normalised Web Mercator x coordinate.
+     *
+     * @param longitude the longitude in degrees.
+     * @return the x coordinate, between 0 and 1.
+     */
+    public static double projectX(final double longitude) {
+        return longitude / 360 + 0.5;
+    }
+
+    /**
+     * Project a latitude to a normalised Web Mercator y coordinate, which
+     * increases to the south.
+     *
+     * @param latitude the latitude in degrees.
+     * @return the y coordinate, between 0 and 1.
+     */
+    public static double projectY(final double latitude) {
+        final double sin = Math.sin(Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude))));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    /**
+     * Get the cluster radius in normalised coordinates at a zoom level.
+     */
+    private double getRadius(final int zoom) {
+        return radius / (TILE_SIZE * Math.pow(2, zoom));
+    }
+
+    private Level getLevel(final int zoom) {
+        return levels[Math.max(minZoom, Math.min(maxZoom + 1, zoom)) - minZoom];
+    }
+
+    /**
+     * Group points with the same location into the clusters of the base level.
+     */
+    private static Level buildBaseLevel(final double[] x, final double[] y) {
+        final Integer[] order = new Integer[x.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> x[a] != x[b] ? Double.compare(x[a], x[b]) : Double.compare(y[a], y[b]));
+
+        final List<Integer> starts = new ArrayList<>();
+        final int[] children = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            children[i] = order[i];
+            if (i == 0 || x[order[i]] != x[order[i - 1]] || y[order[i]] != y[order[i - 1]]) {
+                starts.add(i);
+            }
+        }
+
+        final double[] baseX = new double[starts.size()];
+        final double[] baseY = new double[starts.size()];
+        final int[] weights = new int[starts.size()];
+        final int[] childStart = new int[starts.size() + 1];
+        for (int i = 0; i < baseX.length; i++) {
+            childStart[i] = starts.get(i);
+            baseX[i] = x[children[childStart[i]]];
+            baseY[i] = y[children[childStart[i]]];
+        }
+        childStart[baseX.length] = children.length;
+        for (int i = 0; i < baseX.length; i++) {
+            weights[i] = childStart[i + 1] - childStart[i];
+        }
+        return new Level(baseX, baseY, weights, childStart, children, null);
+    }
+
+    /**
+     * Cluster the clusters of a finer level.
+     */
+    private Level buildLevel(final Level finer, final double levelRadius) {
+        final int finerSize = finer.size();
+        final int[] weights = finer.weights;
+        final boolean[] clustered = new boolean[finerSize];
+        final double[] clusterX = new double[finerSize];
+        final double[] clusterY = new double[finerSize];
+        final int[] clusterWeights = new int[finerSize];
+        final int[] childStart = new int[finerSize + 1];
+        final int[] children = new int[finerSize];
+        final int[] neighbours = new int[finerSize];
+        int clusterCount = 0;
+        int childCount = 0;
+
+        for (int i = 0; i < finerSize; i++) {
+            if (clustered[i]) {
+                continue;
+            }
+            clustered[i] = true;
+            childStart[clusterCount] = childCount;
+            children[childCount++] = i;
+
+            final int[] neighbourCount = {0};
+            finer.getIndex().within(finer.x[i], finer.y[i], levelRadius, neighbour -> {
+                if (!clustered[neighbour]) {
+                    clustered[neighbour] = true;
+                    neighbours[neighbourCount[0]++] = neighbour;
+                }
+            });
+
+            int weight = weights[i];
+            double sumX = finer.x[i] * weight;
+            double sumY = finer.y[i] * weight;
+            for (int n = 0; n < neighbourCount[0]; n++) {
+                final int neighbour = neighbours[n];
+                children[childCount++] = neighbour;
+                weight += weights[neighbour];
+                sumX += finer.x[neighbour] * weights[neighbour];
+                sumY += finer.y[neighbour] * weights[neighbour];
+            }
+            clusterX[clusterCount] = sumX / weight;
+            clusterY[clusterCount] = sumY / weight;
+            clusterWeights[clusterCount] = weight;
+            clusterCount++;
+        }
+        childStart[clusterCount] = childCount;
+
+        return new Level(Arrays.copyOf(clusterX, clusterCount), Arrays.copyOf(clusterY, clusterCount),
+                Arrays.copyOf(clusterWeights, clusterCount), Arrays.copyOf(childStart, clusterCount + 1), children, finer);
+    }
+
+    private static void collectPoints(final Level level, final int cluster, final List<Integer> points) {
+        for (int c = level.childStart[cluster]; c < level.childStart[cluster + 1]; c++) {
+            if (level.finer == null) {
+                points.add(level.children[c]);
+            } else {
+                collectPoints(level.finer, level.children[c], points);
+            }
+        }
+    }
+
+    /**
+     * Get the number of clusters at a zoom level.
+     *
+     * @param zoom the zoom level.
+     * @return the number of clusters.
+     */
+    public int getClusterCount(final int zoom) {
+        return getLevel(zoom).size();
+    }
+
+    /**
+     * Get the clusters at a zoom level which may be visible within the given
+     * bounds. A cluster can extend up to twice the cluster radius from its
+     * centre, so clusters are included if their centre is within that distance
+     * of the bounds.
+     *
+     * @param zoom the zoom level.
+     * @param minX the minimum normalised x coordinate of the bounds.
+     * @param minY the minimum normalised y coordinate of the bounds.
+     * @param maxX the maximum normalised x coordinate of the bounds.
+     * @param maxY the maximum normalised y coordinate of the bounds.
+     * @return the ids of the clusters, which can be passed to
+     * {@link #getPoints getPoints()} with the same zoom level.
+     */
+    public List<Integer> getClusters(final int zoom, final double minX, final double minY, final double maxX, final double maxY) {
+        final Level level = getLevel(zoom);
+        final double margin = 2 * getRadius(Math.max(minZoom, Math.min(maxZoom, zoom)));
+        final List<Integer> clusters = new ArrayList<>();
+        level.getIndex().range(minX - margin, minY - margin, maxX + margin, maxY + margin, clusters::add);
+        return clusters;
+    }
+
+    /**
+     * Get the points in a cluster.
+     *
+     * @param zoom the zoom level of the cluster.
+     * @param cluster the id of the cluster.
+     * @return the indices of the points in the cluster.
+     */
+    public List<Integer> getPoints(final int zoom, final int cluster) {
+        final Level level = getLevel(zoom);
+        final List<Integer> points = new ArrayList<>(level.weights[cluster]);
+        collectPoints(level, cluster, points);
+        return points;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.mapview.utilities;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The weights of a set of points, aggregated into pixel cells for each zoom
+ * level of a map so that the density of the points within a view of the map
+ * can be accumulated into an image.
+ * <p>
+ * Points are given in normalised Web Mercator coordinates, as used by
+ * {@link ClusterIndex}. At each zoom level, points within the same pixel of
+ * the world at that zoom level are combined into a single cell placed at their
+ * centroid and carrying their total weight, and the cells are indexed with a
+ * {@link SpatialIndex}. Accumulating a view then only visits the cells within
+ * the view, and at most one cell per pixel of the view, regardless of how many
+ * points there are. Levels are built the first time they are required.
+ *
+ * @author cygnus_x-1
+ */
+public class DensityIndex {
+
+    private static final int MAX_ZOOM = 20;
+
+    /**
+     * The cells at one zoom level.
+     */
+    private static final class Level {
+
+        private final double[] x;
+        private final double[] y;
+        private final float[] weights;
+        private final SpatialIndex index;
+
+        private Level(final double[] x, final double[] y, final float[] weights) {
+            this.x = x;
+            this.y = y;
+            this.weights = weights;
+            this.index = new SpatialIndex(x, y);
+        }
+    }
+
+    private final double[] x;
+    private final double[] y;
+    private final float[] weights;
+    private final Map<Integer, Level> levels = new ConcurrentHashMap<>();
+
+    /**
+     * Build an index over the given points.
+     *
+     * @param x the normalised x coordinate of each point.
+     * @param y the normalised y coordinate of each point.
+     * @param weights the weight of each point.
+     */
+    public DensityIndex(final double[] x, final double[] y, final float[] weights) {
+        if (x.length != y.length || x.length != weights.length) {
+            throw new IllegalArgumentException("Each point must have an x and y coordinate and a weight");
+        }
+        this.x = x;
+        this.y = y;
+        this.weights = weights;
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    /**
+     * Add the weights of the points within a view of the map to an image of
+     * that view. A point at normalised coordinates (x, y) is added to the
+     * pixel at ((x - minX) * scale, (y - minY) * scale), and points outside
+     * the image are ignored.
+     *
+     * @param minX the normalised x coordinate of the left edge of the image.
+     * @param minY the normalised y coordinate of the top edge of the image.
+     * @param scale the number of pixels per normalised unit, which is
+     * {@link ClusterIndex#TILE_SIZE} * 2^zoom.
+     * @param width the width of the image.
+     * @param height the height of the image.
+     * @param image the image in row-major order.
+     * @return the number of cells added to the image.
+     */
+    public int accumulate(final double minX, final double minY, final double scale,
+            final int width, final int height, final float[] image) {
+        if (image.length < width * height) {
+            throw new IllegalArgumentException("Image is smaller than its dimensions");
+        }
+        final Level level = getLevel(getZoom(scale));
+        final int[] count = {0};
+        level.index.range(minX, minY, minX + width / scale, minY + height / scale, cell -> {
+            final int px = (int) ((level.x[cell] - minX) * scale);
+            final int py = (int) ((level.y[cell] - minY) * scale);
+            if (px >= 0 && px < width && py >= 0 && py < height) {
+                image[py * width + px] += level.weights[cell];
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * Get the highest zoom level whose pixels are no larger than a pixel at
+     * the given scale, so that aggregating points into pixels at that zoom
+     * level moves no point by more than a pixel in the image.
+     */
+    private static int getZoom(final double scale) {
+        final int zoom = (int) Math.floor(Math.log(scale / ClusterIndex.TILE_SIZE) / Math.log(2));
+        return Math.max(0, Math.min(MAX_ZOOM, zoom));
+    }
+
+    private Level getLevel(final int zoom) {
+        return levels.computeIfAbsent(zoom, this::buildLevel);
+    }
+
+    /**
+     * Aggregate the points within each pixel of the world at a zoom level. At
+     * the maximum zoom level the points are not aggregated.
+     */
+    private Level buildLevel(final int zoom) {
+        if (zoom >= MAX_ZOOM) {
+            return new Level(x, y, weights);
+        }
+
+        final long pixels = (long) ClusterIndex.TILE_SIZE << zoom;
+        final long[] keys = new long[x.length];
+        for (int i = 0; i < keys.length; i++) {
+            final long px = Math.max(0, Math.min(pixels - 1, (long) (x[i] * pixels)));
+            final long py = Math.max(0, Math.min(pixels - 1, (long) (y[i] * pixels)));
+            keys[i] = px * pixels + py;
+        }
+
+        final long[] cellKeys = keys.clone();
+        Arrays.sort(cellKeys);
+        int cellCount = 0;
+        for (int i = 0; i < cellKeys.length; i++) {
+            if (i == 0 || cellKeys[i] != cellKeys[i - 1]) {
+                cellKeys[cellCount++] = cellKeys[i];
+            }
+        }
+
+        final double[] cellX = new double[cellCount];
+        final double[] cellY = new double[cellCount];
+        final float[] cellWeights = new float[cellCount];
+        final int[] cellSizes = new int[cellCount];
+        for (int i = 0; i < keys.length; i++) {
+            final int cell = Arrays.binarySearch(cellKeys, 0, cellCount, keys[i]);
+            cellX[cell] += x[i];
+            cellY[cell] += y[i];
+            cellWeights[cell] += weights[i];
+            cellSizes[cell]++;
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            cellX[cell] /= cellSizes[cell];
+            cellY[cell] /= cellSizes[cell];
+        }
+
+        return new Level(cellX, cellY, cellWeights);
+    }
+}
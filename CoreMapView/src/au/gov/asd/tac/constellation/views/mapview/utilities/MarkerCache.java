@@ -26,7 +26,6 @@ import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
 import au.gov.asd.tac.constellation.utilities.datastructure.ObjectCache;
 import au.gov.asd.tac.constellation.utilities.geospatial.Shape;
 import au.gov.asd.tac.constellation.views.mapview.features.ConstellationAbstractFeature;
-import au.gov.asd.tac.constellation.views.mapview.features.ConstellationMultiFeature;
 import au.gov.asd.tac.constellation.views.mapview.features.ConstellationPointFeature;
 import au.gov.asd.tac.constellation.views.mapview.markers.ConstellationAbstractMarker;
 import au.gov.asd.tac.constellation.views.mapview.markers.ConstellationClusterMarker;
@@ -44,13 +43,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import javax.swing.SwingUtilities;
-import org.apache.commons.math3.ml.clustering.Cluster;
-import org.apache.commons.math3.ml.clustering.DBSCANClusterer;
-import org.apache.commons.math3.ml.clustering.DoublePoint;
 import org.openide.util.Exceptions;
 import org.openide.util.Lookup;
 
@@ -65,10 +64,44 @@ public abstract class MarkerCache extends ObjectCache<ConstellationAbstractMarke
     private static final Logger LOGGER = Logger.getLogger(MarkerCache.class.getName());
 
     private static final int CLUSTER_DISTANCE = 80;
+    private static final int MAX_CLUSTER_ZOOM = 20;
     private static final String MULTIPLE_VALUES = "<Multiple Values>";
 
     protected final Object LOCK = new Object();
 
+    private static final ExecutorService CLUSTER_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    // the clusters of the markers currently in the cache, built in the background when they are first required
+    private volatile MarkerClusters markerClusters = null;
+    private volatile int markerModifications = 0;
+    private volatile int markerStyleModifications = 0;
+    private Future<?> markerClustersBuild = null;
+
+    /**
+     * The clusters of a set of markers at every zoom level, along with the
+     * cluster markers most recently built from them so they can be reused
+     * until the zoom level changes.
+     */
+    private static final class MarkerClusters {
+
+        private final List<ConstellationAbstractMarker> markers;
+        private final ClusterIndex index;
+        private final Map<Integer, ConstellationClusterMarker> clusterMarkers = new HashMap<>();
+        private int clusterMarkersZoom = -1;
+
+        private MarkerClusters(final List<ConstellationAbstractMarker> markers) {
+            this.markers = markers;
+            final double[] x = new double[markers.size()];
+            final double[] y = new double[markers.size()];
+            for (int i = 0; i < markers.size(); i++) {
+                final Location location = markers.get(i).getLocation();
+                x[i] = ClusterIndex.projectX(location.getLon());
+                y[i] = ClusterIndex.projectY(location.getLat());
+            }
+            this.index = new ClusterIndex(x, y, CLUSTER_DISTANCE, 0, MAX_CLUSTER_ZOOM);
+        }
+    }
+
     public static MarkerCache getDefault() {
         return Lookup.getDefault().lookup(MarkerCache.class);
     }
@@ -170,6 +203,19 @@ public abstract class MarkerCache extends ObjectCache<ConstellationAbstractMarke
         return getAllMarkers();
     }
 
+    /**
+     * Build cluster markers for the markers in the cache which are visible on
+     * the given map. Clusters are precomputed in the background for every zoom
+     * level the first time they are required after the markers in the cache
+     * change, so this only needs to look up the clusters within the current
+     * view of the map. No cluster markers are returned until the clusters have
+     * been precomputed.
+     *
+     * @param map the map to cluster markers for.
+     * @param markerFactory the factory used to create markers.
+     * @param markerState the current state of the map markers.
+     * @return the cluster markers which are visible on the map.
+     */
     public Set<ConstellationClusterMarker> buildClusters(final UnfoldingMap map, final ConstellationMarkerFactory markerFactory, final MarkerState markerState) {
         assert !SwingUtilities.isEventDispatchThread();
 
@@ -181,34 +227,51 @@ public abstract class MarkerCache extends ObjectCache<ConstellationAbstractMarke
 
         final Set<ConstellationClusterMarker> clusterMarkers = new HashSet<>();
         if (markerState.isShowClusterMarkers()) {
-            // generate points for clusters
-            final Map<DoublePoint, List<ConstellationAbstractMarker>> markerPoints = new HashMap<>();
-            CACHE.keySet().forEach(marker -> {
-                final DoublePoint point = new DoublePoint(
-                        new double[]{
-                            map.getScreenPosition(marker.getLocation()).x,
-                            map.getScreenPosition(marker.getLocation()).y});
-                if (!markerPoints.containsKey(point)) {
-                    markerPoints.put(point, new ArrayList<>());
+            final MarkerClusters clusters = markerClusters;
+            if (clusters == null) {
+                if (markerClustersBuild == null || markerClustersBuild.isDone()) {
+                    final int modifications = markerModifications;
+                    final List<ConstellationAbstractMarker> markers = new ArrayList<>(CACHE.keySet());
+                    markerClustersBuild = CLUSTER_EXECUTOR.submit(() -> {
+                        final MarkerClusters builtClusters = new MarkerClusters(markers);
+                        if (modifications == markerModifications) {
+                            markerClusters = builtClusters;
+                        }
+                    });
                 }
-                markerPoints.get(point).add(marker);
-            });
+                return clusterMarkers;
+            }
 
-            // calculate new clusters
-            final DBSCANClusterer<DoublePoint> clusterer = new DBSCANClusterer<>(CLUSTER_DISTANCE, 0);
-            final List<Cluster<DoublePoint>> clusters = clusterer.cluster(markerPoints.keySet());
+            // find the clusters within the current view, which may wrap around the antimeridian
+            final Location topLeft = map.getTopLeftBorder();
+            final Location bottomRight = map.getBottomRightBorder();
+            double minX = ClusterIndex.projectX(topLeft.getLon());
+            double maxX = ClusterIndex.projectX(bottomRight.getLon());
+            if (minX > maxX) {
+                minX = 0;
+                maxX = 1;
+            }
+            final int zoom = map.getZoomLevel();
+            final List<Integer> visibleClusters = clusters.index.getClusters(zoom, minX,
+                    ClusterIndex.projectY(topLeft.getLat()), maxX, ClusterIndex.projectY(bottomRight.getLat()));
+            if (zoom != clusters.clusterMarkersZoom) {
+                clusters.clusterMarkers.clear();
+                clusters.clusterMarkersZoom = zoom;
+            }
 
-            // build new cluster markers
-            clusters.forEach(cluster -> {
+            // build cluster markers, reusing those already built at this zoom level
+            visibleClusters.forEach(cluster -> {
                 try {
-                    final List<ConstellationAbstractMarker> markersInCluster = cluster.getPoints().stream()
-                            .map(point -> markerPoints.get(point))
-                            .flatMap(List::stream)
-                            .collect(Collectors.toList());
-                    final ConstellationMultiFeature clusterFeature = new ConstellationMultiFeature(ConstellationAbstractFeature.ConstellationFeatureType.CLUSTER);
-                    final ConstellationClusterMarker clusterMarker = new ConstellationClusterMarker();
-                    clusterMarker.setColor(MarkerUtilities.DEFAULT_CLUSTER_COLOR);
-                    clusterMarker.setMarkers(markersInCluster);
+                    ConstellationClusterMarker clusterMarker = clusters.clusterMarkers.get(cluster);
+                    if (clusterMarker == null) {
+                        final List<ConstellationAbstractMarker> markersInCluster = clusters.index.getPoints(zoom, cluster).stream()
+                                .map(clusters.markers::get)
+                                .collect(Collectors.toList());
+                        clusterMarker = new ConstellationClusterMarker();
+                        clusterMarker.setColor(MarkerUtilities.DEFAULT_CLUSTER_COLOR);
+                        clusterMarker.setMarkers(markersInCluster);
+                        clusters.clusterMarkers.put(cluster, clusterMarker);
+                    }
                     clusterMarkers.add(clusterMarker);
                     add(clusterMarker, GraphElement.NON_ELEMENT);
                 } catch (Exception ex) {
@@ -220,6 +283,45 @@ public abstract class MarkerCache extends ObjectCache<ConstellationAbstractMarke
         return clusterMarkers;
     }
 
+    @Override
+    public void add(final ConstellationAbstractMarker marker, final GraphElement element) {
+        if (!(marker instanceof ConstellationClusterMarker) && !contains(marker)) {
+            markerModified();
+        }
+        super.add(marker, element);
+    }
+
+    @Override
+    public Set<GraphElement> remove(final ConstellationAbstractMarker marker) {
+        if (!(marker instanceof ConstellationClusterMarker)) {
+            markerModified();
+        }
+        return super.remove(marker);
+    }
+
+    @Override
+    public void clear() {
+        markerModified();
+        super.clear();
+    }
+
+    private void markerModified() {
+        markerModifications++;
+        markerClusters = null;
+    }
+
+    /**
+     * Get a count of the changes made to the markers in the cache, including
+     * changes to their style, excluding cluster markers. The count can be
+     * compared with a previous count to tell whether anything derived from
+     * the markers needs to be recomputed.
+     *
+     * @return the number of changes made to the markers.
+     */
+    public int getModificationCount() {
+        return markerModifications + markerStyleModifications;
+    }
+
     public void styleMarkers(final Graph graph, final MarkerState markerState) {
         assert !SwingUtilities.isEventDispatchThread();
 
@@ -361,6 +463,7 @@ public abstract class MarkerCache extends ObjectCache<ConstellationAbstractMarke
             } finally {
                 readableGraph.release();
             }
+            markerStyleModifications++;
         }
     }
 
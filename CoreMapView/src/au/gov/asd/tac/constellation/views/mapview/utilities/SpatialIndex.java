@@ -0,0 +1,199 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.mapview.utilities;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A static KD-tree over a set of 2D points, supporting range and radius
+ * queries.
+ * <p>
+ * The tree is stored as a pair of arrays sorted in place, so it cannot be
+ * modified once built, but building it is O(n log n) and it has no per-point
+ * object overhead. Points are identified by their index in the arrays the
+ * index was built from.
+ *
+ * @author cygnus_x-1
+ */
+public class SpatialIndex {
+
+    private static final int NODE_SIZE = 64;
+
+    private final int[] ids;
+    private final double[] coordinates;
+
+    /**
+     * Build an index over the given points.
+     *
+     * @param x the x coordinate of each point.
+     * @param y the y coordinate of each point, in the same order as x.
+     */
+    public SpatialIndex(final double[] x, final double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("Each point must have an x and y coordinate");
+        }
+        ids = new int[x.length];
+        coordinates = new double[x.length * 2];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+            coordinates[2 * i] = x[i];
+            coordinates[2 * i + 1] = y[i];
+        }
+        sort(0, ids.length - 1, 0);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Find the points within the given bounds, inclusive.
+     *
+     * @param minX the minimum x coordinate.
+     * @param minY the minimum y coordinate.
+     * @param maxX the maximum x coordinate.
+     * @param maxY the maximum y coordinate.
+     * @param consumer a consumer of the index of each point found.
+     */
+    public void range(final double minX, final double minY, final double maxX, final double maxY, final IntConsumer consumer) {
+        search(minX, minY, maxX, maxY, 0, 0, -1, consumer);
+    }
+
+    /**
+     * Find the points within the given distance of a location.
+     *
+     * @param qx the x coordinate of the location.
+     * @param qy the y coordinate of the location.
+     * @param radius the maximum distance from the location, inclusive.
+     * @param consumer a consumer of the index of each point found.
+     */
+    public void within(final double qx, final double qy, final double radius, final IntConsumer consumer) {
+        search(qx - radius, qy - radius, qx + radius, qy + radius, qx, qy, radius * radius, consumer);
+    }
+
+    /**
+     * Find the points within the given bounds and, if radiusSquared is not
+     * negative, within the given distance of (qx, qy).
+     */
+    private void search(final double minX, final double minY, final double maxX, final double maxY,
+            final double qx, final double qy, final double radiusSquared, final IntConsumer consumer) {
+        final int[] stack = new int[192];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = ids.length - 1;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            final int axis = stack[--top];
+            final int right = stack[--top];
+            final int left = stack[--top];
+
+            if (right - left <= NODE_SIZE) {
+                for (int i = left; i <= right; i++) {
+                    if (matches(i, minX, minY, maxX, maxY, qx, qy, radiusSquared)) {
+                        consumer.accept(ids[i]);
+                    }
+                }
+                continue;
+            }
+
+            final int middle = (left + right) >>> 1;
+            if (matches(middle, minX, minY, maxX, maxY, qx, qy, radiusSquared)) {
+                consumer.accept(ids[middle]);
+            }
+
+            final double value = coordinates[2 * middle + axis];
+            if ((axis == 0 ? minX : minY) <= value) {
+                stack[top++] = left;
+                stack[top++] = middle - 1;
+                stack[top++] = 1 - axis;
+            }
+            if ((axis == 0 ? maxX : maxY) >= value) {
+                stack[top++] = middle + 1;
+                stack[top++] = right;
+                stack[top++] = 1 - axis;
+            }
+        }
+    }
+
+    private boolean matches(final int i, final double minX, final double minY, final double maxX, final double maxY,
+            final double qx, final double qy, final double radiusSquared) {
+        final double x = coordinates[2 * i];
+        final double y = coordinates[2 * i + 1];
+        if (radiusSquared >= 0) {
+            final double dx = x - qx;
+            final double dy = y - qy;
+            return dx * dx + dy * dy <= radiusSquared;
+        }
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    /**
+     * Sort the points so that the median of each range on its axis is in the
+     * middle of the range, with smaller points to its left and larger points
+     * to its right.
+     */
+    private void sort(final int left, final int right, final int axis) {
+        if (right - left > NODE_SIZE) {
+            final int middle = (left + right) >>> 1;
+            select(middle, left, right, axis);
+            sort(left, middle - 1, 1 - axis);
+            sort(middle + 1, right, 1 - axis);
+        }
+    }
+
+    /**
+     * Partially sort a range so that the k-th point on the given axis is in its
+     * sorted position.
+     */
+    private void select(final int k, int left, int right, final int axis) {
+        while (right > left) {
+            final double pivot = coordinates[2 * ((left + right) >>> 1) + axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coordinates[2 * i + axis] < pivot) {
+                    i++;
+                }
+                while (coordinates[2 * j + axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(final int i, final int j) {
+        final int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        final double x = coordinates[2 * i];
+        coordinates[2 * i] = coordinates[2 * j];
+        coordinates[2 * j] = x;
+        final double y = coordinates[2 * i + 1];
+        coordinates[2 * i + 1] = coordinates[2 * j + 1];
+        coordinates[2 * j + 1] = y;
+    }
+}
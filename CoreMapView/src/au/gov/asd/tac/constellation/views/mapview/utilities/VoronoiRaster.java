@@ -0,0 +1,150 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.mapview.utilities;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Compute the Voronoi diagram of a set of sites as a raster, assigning each
+ * pixel to its nearest site.
+ * <p>
+ * Sites are sorted by x coordinate, and the search for the nearest site to a
+ * pixel starts at the nearest site of the previous pixel in the row and scans
+ * outwards in x, stopping in each direction once the horizontal distance alone
+ * is larger than the nearest distance found. Since neighbouring pixels almost
+ * always share a nearest site, each pixel typically only needs to consider the
+ * sites in a narrow band around it rather than every site. Rows are computed
+ * in parallel.
+ *
+ * @author cygnus_x-1
+ */
+public class VoronoiRaster {
+
+    public static final int NO_SITE = -1;
+
+    /**
+     * The metric used to measure the distance between a pixel and a site. Each
+     * metric compares distances by a value which increases with the distance,
+     * avoiding a square or cube root for every comparison.
+     */
+    public enum DistanceMetric {
+        EUCLIDEAN {
+            @Override
+            protected long compare(final long dx, final long dy) {
+                return dx * dx + dy * dy;
+            }
+        },
+        MANHATTAN {
+            @Override
+            protected long compare(final long dx, final long dy) {
+                return Math.abs(dx) + Math.abs(dy);
+            }
+        },
+        MINKOWSKI {
+            // the Minkowski distance of order 3
+            @Override
+            protected long compare(final long dx, final long dy) {
+                return Math.abs(dx * dx * dx) + Math.abs(dy * dy * dy);
+            }
+        };
+
+        /**
+         * A value which increases with the distance between two points, and is
+         * never smaller for (dx, dy) than for (dx, 0).
+         */
+        protected abstract long compare(final long dx, final long dy);
+    }
+
+    private VoronoiRaster() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Find the nearest site to every pixel of an image. Where sites are equally
+     * near to a pixel, the site with the lowest index is chosen.
+     *
+     * @param width the width of the image.
+     * @param height the height of the image.
+     * @param siteX the x coordinate of each site.
+     * @param siteY the y coordinate of each site.
+     * @param metric the distance metric.
+     * @return the index of the nearest site to each pixel in row-major order,
+     * or {@link #NO_SITE} for every pixel if there are no sites.
+     */
+    public static int[] nearestSites(final int width, final int height, final int[] siteX, final int[] siteY, final DistanceMetric metric) {
+        if (siteX.length != siteY.length) {
+            throw new IllegalArgumentException("Each site must have an x and y coordinate");
+        }
+
+        final int[] nearest = new int[width * height];
+        final int siteCount = siteX.length;
+        if (siteCount == 0) {
+            Arrays.fill(nearest, NO_SITE);
+            return nearest;
+        }
+
+        // sort the sites by x, keeping the original index for tie breaking
+        final int[] order = IntStream.range(0, siteCount).boxed()
+                .sorted((a, b) -> siteX[a] != siteX[b] ? Integer.compare(siteX[a], siteX[b]) : Integer.compare(a, b))
+                .mapToInt(Integer::intValue).toArray();
+        final int[] sortedX = new int[siteCount];
+        final int[] sortedY = new int[siteCount];
+        for (int i = 0; i < siteCount; i++) {
+            sortedX[i] = siteX[order[i]];
+            sortedY[i] = siteY[order[i]];
+        }
+
+        IntStream.range(0, height).parallel().forEach(y -> {
+            int start = 0;
+            for (int x = 0; x < width; x++) {
+                int best = start;
+                long bestDistance = metric.compare(x - sortedX[start], y - sortedY[start]);
+
+                // scan sites to the right of the start
+                for (int i = start + 1; i < siteCount; i++) {
+                    final long dx = (long) sortedX[i] - x;
+                    if (dx > 0 && metric.compare(dx, 0) > bestDistance) {
+                        break;
+                    }
+                    final long distance = metric.compare(dx, (long) sortedY[i] - y);
+                    if (distance < bestDistance || (distance == bestDistance && order[i] < order[best])) {
+                        best = i;
+                        bestDistance = distance;
+                    }
+                }
+
+                // scan sites to the left of the start
+                for (int i = start - 1; i >= 0; i--) {
+                    final long dx = (long) x - sortedX[i];
+                    if (dx > 0 && metric.compare(dx, 0) > bestDistance) {
+                        break;
+                    }
+                    final long distance = metric.compare(dx, (long) sortedY[i] - y);
+                    if (distance < bestDistance || (distance == bestDistance && order[i] < order[best])) {
+                        best = i;
+                        bestDistance = distance;
+                    }
+                }
+
+                nearest[y * width + x] = order[best];
+                start = best;
+            }
+        });
+
+        return nearest;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.mapview.utilities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Test the spatial index and the zoom level clusters built from it.
+ *
+ * @author cygnus_x-1
+ */
+public class ClusterIndexNGTest {
+
+    private static double[][] randomPoints(final int count, final long seed) {
+        final Random random = new Random(seed);
+        final double[][] points = new double[2][count];
+        for (int i = 0; i < count; i++) {
+            points[0][i] = random.nextDouble();
+            points[1][i] = random.nextDouble();
+        }
+        return points;
+    }
+
+    @Test
+    public void testSpatialIndexQueries() {
+        final double[][] points = randomPoints(5000, 1);
+        final SpatialIndex index = new SpatialIndex(points[0], points[1]);
+
+        final Set<Integer> inRange = new TreeSet<>();
+        index.range(0.2, 0.3, 0.4, 0.5, inRange::add);
+        final Set<Integer> inRadius = new TreeSet<>();
+        index.within(0.5, 0.5, 0.1, inRadius::add);
+
+        final Set<Integer> expectedInRange = new TreeSet<>();
+        final Set<Integer> expectedInRadius = new TreeSet<>();
+        for (int i = 0; i < points[0].length; i++) {
+            final double x = points[0][i];
+            final double y = points[1][i];
+            if (x >= 0.2 && x <= 0.4 && y >= 0.3 && y <= 0.5) {
+                expectedInRange.add(i);
+            }
+            if (Math.hypot(x - 0.5, y - 0.5) <= 0.1) {
+                expectedInRadius.add(i);
+            }
+        }
+        assertEquals(inRange, expectedInRange);
+        assertEquals(inRadius, expectedInRadius);
+    }
+
+    @Test
+    public void testEveryPointInOneCluster() {
+        final double[][] points = randomPoints(2000, 2);
+        final ClusterIndex index = new ClusterIndex(points[0], points[1], 80, 0, 16);
+
+        int previousCount = Integer.MAX_VALUE;
+        for (int zoom = 17; zoom >= 0; zoom--) {
+            final List<Integer> clustered = new ArrayList<>();
+            final int clusterZoom = zoom;
+            index.getClusters(zoom, 0, 0, 1, 1).forEach(cluster -> clustered.addAll(index.getPoints(clusterZoom, cluster)));
+            Collections.sort(clustered);
+            assertEquals(clustered.size(), points[0].length);
+            for (int i = 0; i < clustered.size(); i++) {
+                assertEquals((int) clustered.get(i), i);
+            }
+
+            // clusters only merge as the map zooms out
+            assertTrue(index.getClusterCount(zoom) <= previousCount);
+            previousCount = index.getClusterCount(zoom);
+        }
+    }
+
+    @Test
+    public void testClustersByZoom() {
+        // two points 100 pixels apart at zoom level 4, and a third point at the same location as the first
+        final double offset = 100.0 / (ClusterIndex.TILE_SIZE * 16);
+        final double[] x = {0.5, 0.5 + offset, 0.5};
+        final double[] y = {0.5, 0.5, 0.5};
+        final ClusterIndex index = new ClusterIndex(x, y, 80, 0, 10);
+
+        assertEquals(index.getClusterCount(4), 2);
+        assertEquals(index.getClusterCount(3), 1);
+        assertEquals(index.getClusterCount(20), 2);
+    }
+
+    @Test
+    public void testViewportQuery() {
+        final double[] x = {0.1, 0.9};
+        final double[] y = {0.5, 0.5};
+        final ClusterIndex index = new ClusterIndex(x, y, 80, 0, 10);
+
+        final List<Integer> clusters = index.getClusters(8, 0.0, 0.4, 0.2, 0.6);
+        assertEquals(clusters.size(), 1);
+        assertEquals(index.getPoints(8, clusters.get(0)), Collections.singletonList(0));
+    }
+
+    @Test
+    public void testProjection() {
+        assertEquals(ClusterIndex.projectX(-180), 0.0);
+        assertEquals(ClusterIndex.projectX(180), 1.0);
+        assertEquals(ClusterIndex.projectY(0), 0.5, 1e-12);
+        assertTrue(ClusterIndex.projectY(45) < 0.5);
+        assertEquals(ClusterIndex.projectY(90), 0.0, 1e-9);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.mapview.utilities;
+
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+/**
+ * Test the accumulation of point weights into a view of the map.
+ *
+ * @author cygnus_x-1
+ */
+public class DensityIndexNGTest {
+
+    @Test
+    public void testAccumulateMatchesPoints() {
+        final Random random = new Random(1);
+        final int count = 10000;
+        final double[] x = new double[count];
+        final double[] y = new double[count];
+        final float[] weights = new float[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = random.nextDouble();
+            y[i] = random.nextDouble();
+            weights[i] = 1 + random.nextInt(4);
+        }
+        final DensityIndex index = new DensityIndex(x, y, weights);
+
+        // at every zoom level, each point within the view is counted once, in or next to its own pixel
+        for (int zoom = 0; zoom <= 22; zoom += 2) {
+            final double scale = ClusterIndex.TILE_SIZE * Math.pow(2, zoom);
+            final int width = 300;
+            final int height = 200;
+            final double minX = 0.5 - width / scale / 2;
+            final double minY = 0.5 - height / scale / 2;
+
+            final float[] expected = new float[width * height];
+            float expectedTotal = 0;
+            for (int i = 0; i < count; i++) {
+                final int px = (int) ((x[i] - minX) * scale);
+                final int py = (int) ((y[i] - minY) * scale);
+                if (px >= 1 && px < width - 1 && py >= 1 && py < height - 1) {
+                    expected[py * width + px] += weights[i];
+                    expectedTotal += weights[i];
+                }
+            }
+
+            final float[] image = new float[width * height];
+            index.accumulate(minX, minY, scale, width, height, image);
+            float total = 0;
+            for (int py = 1; py < height - 1; py++) {
+                for (int px = 1; px < width - 1; px++) {
+                    total += image[py * width + px];
+                }
+            }
+            if (zoom >= 20) {
+                assertEquals(image, expected);
+            } else {
+                assertEquals(total, expectedTotal, expectedTotal * 0.02 + 8);
+            }
+        }
+    }
+
+    @Test
+    public void testAggregatesPointsInSamePixel() {
+        final double[] x = {0.5, 0.5 + 1e-9, 0.25};
+        final double[] y = {0.5, 0.5, 0.25};
+        final float[] weights = {1, 2, 4};
+        final DensityIndex index = new DensityIndex(x, y, weights);
+
+        final float[] image = new float[4 * 4];
+        final int cells = index.accumulate(0, 0, 4, 4, 4, image);
+        assertEquals(cells, 2);
+        assertEquals(image[2 * 4 + 2], 3f);
+        assertEquals(image[1 * 4 + 1], 4f);
+    }
+}
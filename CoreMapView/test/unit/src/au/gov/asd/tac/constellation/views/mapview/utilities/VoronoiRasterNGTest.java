@@ -0,0 +1,70 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.mapview.utilities;
+
+import au.gov.asd.tac.constellation.views.mapview.utilities.VoronoiRaster.DistanceMetric;
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+/**
+ * Test the Voronoi raster against a brute force search of every site.
+ *
+ * @author cygnus_x-1
+ */
+public class VoronoiRasterNGTest {
+
+    private static final int WIDTH = 160;
+    private static final int HEIGHT = 90;
+
+    private static int[] bruteForce(final int[] siteX, final int[] siteY, final DistanceMetric metric) {
+        final int[] nearest = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int best = 0;
+                for (int i = 1; i < siteX.length; i++) {
+                    if (metric.compare(siteX[i] - x, siteY[i] - y) < metric.compare(siteX[best] - x, siteY[best] - y)) {
+                        best = i;
+                    }
+                }
+                nearest[y * WIDTH + x] = best;
+            }
+        }
+        return nearest;
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        final Random random = new Random(7);
+        final int[] siteX = new int[200];
+        final int[] siteY = new int[200];
+        for (int i = 0; i < siteX.length; i++) {
+            // use a coarse grid so that there are duplicate sites and ties
+            siteX[i] = random.nextInt(WIDTH / 4) * 4;
+            siteY[i] = random.nextInt(HEIGHT / 3) * 3;
+        }
+
+        for (final DistanceMetric metric : DistanceMetric.values()) {
+            assertEquals(VoronoiRaster.nearestSites(WIDTH, HEIGHT, siteX, siteY, metric), bruteForce(siteX, siteY, metric), metric.name());
+        }
+    }
+
+    @Test
+    public void testNoSites() {
+        final int[] nearest = VoronoiRaster.nearestSites(4, 3, new int[0], new int[0], DistanceMetric.EUCLIDEAN);
+        assertEquals(nearest, new int[]{-1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1});
+    }
+}
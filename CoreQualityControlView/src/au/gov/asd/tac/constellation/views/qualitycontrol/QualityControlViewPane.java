@@ -44,13 +44,15 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.prefs.BackingStoreException;
 import java.util.prefs.Preferences;
+import java.util.stream.Collectors;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ObservableValue;
-import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.geometry.HPos;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -58,7 +60,6 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
-import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.RadioButton;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.SelectionMode;
@@ -108,6 +109,7 @@ public final class QualityControlViewPane extends BorderPane {
     private final TableColumn<QualityControlEvent, QualityControlEvent> reasonColumn;
     private final TableView<QualityControlEvent> qualityTable;
     private final FlowPane optionsPane;
+    private String currentGraphId = null;
 
     public QualityControlViewPane() {
         readSerializedRulePriorities();
@@ -150,6 +152,7 @@ public final class QualityControlViewPane extends BorderPane {
         qualityTable.getSortOrder().add(qualityColumn);
         qualityTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
         qualityTable.setPlaceholder(wrappedLabel(Bundle.MSG_SelectSomething()));
+        setCellFactories();
         setCenter(qualityTable);
 
         optionsPane = new FlowPane();
@@ -216,139 +219,170 @@ public final class QualityControlViewPane extends BorderPane {
     /**
      * Refresh the data inside QualityControlView with data from the current
      * graph.
+     * <p>
+     * When the state is for the graph already shown, only the rows whose
+     * events have changed are removed or added.
      *
      * @param state The new state to display in the view.
      */
     public void refreshQualityControlView(final QualityControlState state) {
-        Platform.runLater(() -> {
-            final ProgressIndicator progress = new ProgressIndicator();
-            progress.setMaxSize(50, 50);
-            setCenter(progress);
-        });
-
         final String graphId = state != null ? state.getGraphId() : null;
+        final List<QualityControlEvent> events = state != null ? state.getQualityControlEvents() : Collections.emptyList();
 
         Platform.runLater(() -> {
-            // The data is being changed.
-            // If there are any selections in the table, they almost certainly have no relevance to the new data.
-            // This leads to (for example) 10 things being selected, but only 5 things in the table, with nasty results.
-            // Therefore, just clear the selections.
-            // We should probably save the selection somewhere so when the user switches back they have the same things selected,
-            // but that can be a future feature request.
-            qualityTable.getSelectionModel().clearSelection();
-
-            for (final TableColumn column : qualityTable.getColumns()) {
-                column.setCellValueFactory(new Callback<TableColumn.CellDataFeatures<QualityControlEvent, QualityControlEvent>, ObservableValue<QualityControlEvent>>() {
-                    @Override
-                    public ObservableValue<QualityControlEvent> call(final TableColumn.CellDataFeatures<QualityControlEvent, QualityControlEvent> p) {
-                        return new SimpleObjectProperty<>(p.getValue());
-                    }
-                });
+            final ObservableList<QualityControlEvent> items = qualityTable.getItems();
+            if (!Objects.equals(graphId, currentGraphId)) {
+                // The data is from a different graph.
+                // If there are any selections in the table, they have no relevance to the new data, so clear them.
+                // We should probably save the selection somewhere so when the user switches back they have the same things selected,
+                // but that can be a future feature request.
+                currentGraphId = graphId;
+                qualityTable.getSelectionModel().clearSelection();
+                items.setAll(events);
+                qualityTable.sort();
+
+                final String displayName = graphId != null && GraphNode.getGraphNode(graphId) != null
+                        ? GraphNode.getGraphNode(graphId).getDisplayName()
+                        : "a graph";
+                qualityTable.setPlaceholder(wrappedLabel(String.format(Bundle.MSG_SelectSomething(), displayName)));
+            } else {
+                // Events are reused for vertices which have not changed, so
+                // only remove and add the rows whose events are different.
+                final Set<QualityControlEvent> newEvents = new HashSet<>(events);
+                final Set<QualityControlEvent> oldEvents = new HashSet<>(items);
+                final Set<QualityControlEvent> removedEvents = oldEvents.stream()
+                        .filter(event -> !newEvents.contains(event))
+                        .collect(Collectors.toSet());
+                final List<QualityControlEvent> addedEvents = events.stream()
+                        .filter(event -> !oldEvents.contains(event))
+                        .collect(Collectors.toList());
+
+                if (!removedEvents.isEmpty() || !addedEvents.isEmpty()) {
+                    items.removeAll(removedEvents);
+                    items.addAll(addedEvents);
+                    qualityTable.sort();
+                }
             }
+        });
+    }
 
-            identifierColumn.setCellFactory(p -> {
-                final TableCell<QualityControlEvent, QualityControlEvent> cell = new TableCell<QualityControlEvent, QualityControlEvent>() {
-                    @Override
-                    public void updateItem(final QualityControlEvent item, final boolean empty) {
-                        super.updateItem(item, empty);
-                        if (item != null) {
-                            setText(item.getIdentifier());
-                            setStyle(qualityStyle(item.getCategory()));
-                        }
-                    }
-                };
+    /**
+     * Set the factories which display each column of the quality table.
+     */
+    private void setCellFactories() {
+        for (final TableColumn column : qualityTable.getColumns()) {
+            column.setCellValueFactory(new Callback<TableColumn.CellDataFeatures<QualityControlEvent, QualityControlEvent>, ObservableValue<QualityControlEvent>>() {
+                @Override
+                public ObservableValue<QualityControlEvent> call(final TableColumn.CellDataFeatures<QualityControlEvent, QualityControlEvent> p) {
+                    return new SimpleObjectProperty<>(p.getValue());
+                }
+            });
+        }
 
-                cell.setOnMouseClicked(value -> {
-                    if (value.getClickCount() == 2) {
-                        @SuppressWarnings("unchecked") //sourceCell will be a Table cell of quality control events which extends from object type
-                        final TableCell<QualityControlEvent, QualityControlEvent> sourceCell = (TableCell<QualityControlEvent, QualityControlEvent>) value.getSource();
-                        showRuleDialog(sourceCell);
+        identifierColumn.setCellFactory(p -> {
+            final TableCell<QualityControlEvent, QualityControlEvent> cell = new TableCell<QualityControlEvent, QualityControlEvent>() {
+                @Override
+                public void updateItem(final QualityControlEvent item, final boolean empty) {
+                    super.updateItem(item, empty);
+                    if (item != null) {
+                        setText(item.getIdentifier());
+                        setStyle(qualityStyle(item.getCategory()));
+                    } else {
+                        // cells are reused as rows are removed, so clear any previous item
+                        setText(null);
+                        setStyle(null);
                     }
-                });
+                }
+            };
 
-                return cell;
+            cell.setOnMouseClicked(value -> {
+                if (value.getClickCount() == 2) {
+                    @SuppressWarnings("unchecked") //sourceCell will be a Table cell of quality control events which extends from object type
+                    final TableCell<QualityControlEvent, QualityControlEvent> sourceCell = (TableCell<QualityControlEvent, QualityControlEvent>) value.getSource();
+                    showRuleDialog(sourceCell);
+                }
             });
 
-            typeColumn.setCellFactory(p -> {
-                final TableCell<QualityControlEvent, QualityControlEvent> cell = new TableCell<QualityControlEvent, QualityControlEvent>() {
-                    @Override
-                    public void updateItem(final QualityControlEvent item, final boolean empty) {
-                        super.updateItem(item, empty);
-                        if (item != null) {
-                            setText(item.getType());
-                            setStyle(qualityStyle(item.getCategory()));
-                        }
-                    }
-                };
+            return cell;
+        });
 
-                cell.setOnMouseClicked(value -> {
-                    if (value.getClickCount() == 2) {
-                        @SuppressWarnings("unchecked") //sourceCell will be a Table cell of quality control events which extends from object type
-                        final TableCell<QualityControlEvent, QualityControlEvent> sourceCell = (TableCell<QualityControlEvent, QualityControlEvent>) value.getSource();
-                        showRuleDialog(sourceCell);
+        typeColumn.setCellFactory(p -> {
+            final TableCell<QualityControlEvent, QualityControlEvent> cell = new TableCell<QualityControlEvent, QualityControlEvent>() {
+                @Override
+                public void updateItem(final QualityControlEvent item, final boolean empty) {
+                    super.updateItem(item, empty);
+                    if (item != null) {
+                        setText(item.getType());
+                        setStyle(qualityStyle(item.getCategory()));
+                    } else {
+                        setText(null);
+                        setStyle(null);
                     }
-                });
+                }
+            };
 
-                return cell;
+            cell.setOnMouseClicked(value -> {
+                if (value.getClickCount() == 2) {
+                    @SuppressWarnings("unchecked") //sourceCell will be a Table cell of quality control events which extends from object type
+                    final TableCell<QualityControlEvent, QualityControlEvent> sourceCell = (TableCell<QualityControlEvent, QualityControlEvent>) value.getSource();
+                    showRuleDialog(sourceCell);
+                }
             });
 
-            qualityColumn.setCellFactory(p -> {
-                final TableCell<QualityControlEvent, QualityControlEvent> cell = new TableCell<QualityControlEvent, QualityControlEvent>() {
-                    @Override
-                    public void updateItem(final QualityControlEvent item, final boolean empty) {
-                        super.updateItem(item, empty);
-                        if (item != null) {
-                            setText(item.getCategory() == QualityCategory.DEFAULT ? Bundle.MSG_NotApplicable() : String.valueOf(item.getCategory().name()));
-                            setAlignment(Pos.CENTER);
-                            setStyle(qualityStyle(item.getCategory()));
-                        }
-                    }
-                };
+            return cell;
+        });
 
-                cell.setOnMouseClicked(value -> {
-                    if (value.getClickCount() == 2) {
-                        @SuppressWarnings("unchecked") //sourceCell will be a Table cell of quality control events which extends from object type
-                        final TableCell<QualityControlEvent, QualityControlEvent> sourceCell = (TableCell<QualityControlEvent, QualityControlEvent>) value.getSource();
-                        showRuleDialog(sourceCell);
+        qualityColumn.setCellFactory(p -> {
+            final TableCell<QualityControlEvent, QualityControlEvent> cell = new TableCell<QualityControlEvent, QualityControlEvent>() {
+                @Override
+                public void updateItem(final QualityControlEvent item, final boolean empty) {
+                    super.updateItem(item, empty);
+                    if (item != null) {
+                        setText(item.getCategory() == QualityCategory.DEFAULT ? Bundle.MSG_NotApplicable() : String.valueOf(item.getCategory().name()));
+                        setAlignment(Pos.CENTER);
+                        setStyle(qualityStyle(item.getCategory()));
+                    } else {
+                        setText(null);
+                        setStyle(null);
                     }
-                });
+                }
+            };
 
-                return cell;
+            cell.setOnMouseClicked(value -> {
+                if (value.getClickCount() == 2) {
+                    @SuppressWarnings("unchecked") //sourceCell will be a Table cell of quality control events which extends from object type
+                    final TableCell<QualityControlEvent, QualityControlEvent> sourceCell = (TableCell<QualityControlEvent, QualityControlEvent>) value.getSource();
+                    showRuleDialog(sourceCell);
+                }
             });
 
-            reasonColumn.setCellFactory(p -> {
-                final TableCell<QualityControlEvent, QualityControlEvent> cell = new TableCell<QualityControlEvent, QualityControlEvent>() {
-                    @Override
-                    public void updateItem(final QualityControlEvent item, final boolean empty) {
-                        super.updateItem(item, empty);
-                        if (item != null) {
-                            setText(item.getReasons());
-                            setStyle(qualityStyle(item.getCategory()));
-                        }
-                    }
-                };
+            return cell;
+        });
 
-                cell.setOnMouseClicked(value -> {
-                    if (value.getClickCount() == 2) {
-                        @SuppressWarnings("unchecked") //sourceCell will be a Table cell of quality control events which extends from object type
-                        final TableCell<QualityControlEvent, QualityControlEvent> sourceCell = (TableCell<QualityControlEvent, QualityControlEvent>) value.getSource();
-                        showRuleDialog(sourceCell);
+        reasonColumn.setCellFactory(p -> {
+            final TableCell<QualityControlEvent, QualityControlEvent> cell = new TableCell<QualityControlEvent, QualityControlEvent>() {
+                @Override
+                public void updateItem(final QualityControlEvent item, final boolean empty) {
+                    super.updateItem(item, empty);
+                    if (item != null) {
+                        setText(item.getReasons());
+                        setStyle(qualityStyle(item.getCategory()));
+                    } else {
+                        setText(null);
+                        setStyle(null);
                     }
-                });
+                }
+            };
 
-                return cell;
+            cell.setOnMouseClicked(value -> {
+                if (value.getClickCount() == 2) {
+                    @SuppressWarnings("unchecked") //sourceCell will be a Table cell of quality control events which extends from object type
+                    final TableCell<QualityControlEvent, QualityControlEvent> sourceCell = (TableCell<QualityControlEvent, QualityControlEvent>) value.getSource();
+                    showRuleDialog(sourceCell);
+                }
             });
 
-            qualityTable.setItems(state != null
-                    ? FXCollections.observableArrayList(state.getQualityControlEvents())
-                    : FXCollections.emptyObservableList());
-
-            final String displayName = graphId != null && GraphNode.getGraphNode(graphId) != null
-                    ? GraphNode.getGraphNode(graphId).getDisplayName()
-                    : "a graph";
-            qualityTable.setPlaceholder(wrappedLabel(String.format(Bundle.MSG_SelectSomething(), displayName)));
-
-            setCenter(qualityTable);
+            return cell;
         });
     }
 
@@ -98,6 +98,7 @@ public final class QualityControlAutoVetter implements GraphManagerListener, Gra
 
         // remove dangling reference to the graph
         currentGraph = null;
+        QualityControlStateUpdater.clearCache();
 
         // inform all listeners to clear any Quality Control data
         setQualityControlState(null);
@@ -177,6 +178,8 @@ public final class QualityControlAutoVetter implements GraphManagerListener, Gra
     public void updateQualityEvents() {
         final Graph graph = currentGraph;
         if (graph != null) {
+            // the events of every vertex depend on the priorities, so check them all again
+            QualityControlStateUpdater.clearCache();
             final ReadableGraph readableGraph = graph.getReadableGraph();
             try {
                 updateQualityControlState(graph);
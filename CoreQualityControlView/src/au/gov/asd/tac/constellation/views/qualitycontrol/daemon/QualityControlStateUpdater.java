@@ -30,9 +30,20 @@ import au.gov.asd.tac.constellation.views.qualitycontrol.QualityControlEvent;
 import au.gov.asd.tac.constellation.views.qualitycontrol.rules.QualityControlRule;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
+ * Build the quality control state of the selected vertices in a graph.
+ * <p>
+ * The rules only depend on the identifier and type of a vertex, so the event
+ * for each selected vertex is kept between updates and the rules are only run
+ * again for vertices which are newly selected or whose identifier or type has
+ * changed.
  *
  * @author aldebaran30701
  */
@@ -41,68 +52,136 @@ public class QualityControlStateUpdater extends SimpleReadPlugin {
 
     protected static final String PLUGIN_NAME = "Quality Control View: Update State";
 
+    private static String cachedGraphId = null;
+    private static Map<Integer, CachedEvent> cachedEvents = new HashMap<>();
+
+    /**
+     * Forget the results of all previous updates so that the rules are run on
+     * every selected vertex by the next update, for example after the priority
+     * of a rule has changed.
+     */
+    protected static synchronized void clearCache() {
+        cachedGraphId = null;
+        cachedEvents = new HashMap<>();
+    }
+
     @Override
     public void read(final GraphReadMethods graph, final PluginInteraction interaction, final PluginParameters parameters) throws InterruptedException, PluginException {
+        if (graph != null) {
+            synchronized (QualityControlStateUpdater.class) {
+                updateState(graph);
+            }
+        }
+    }
+
+    private static void updateState(final GraphReadMethods graph) {
         final List<QualityControlRule> registeredRules = new ArrayList<>();
         final List<Integer> vertexList = new ArrayList<>();
         final List<String> identifierList = new ArrayList<>();
         final List<SchemaVertexType> typeList = new ArrayList<>();
 
-        if (graph != null) {
-            final int selectedAttribute = VisualConcept.VertexAttribute.SELECTED.get(graph);
-            final int identifierAttribute = VisualConcept.VertexAttribute.IDENTIFIER.get(graph);
-            final int typeAttribute = AnalyticConcept.VertexAttribute.TYPE.get(graph);
-
-            if (selectedAttribute != Graph.NOT_FOUND
-                    && identifierAttribute != Graph.NOT_FOUND
-                    && typeAttribute != Graph.NOT_FOUND) {
-                final int vxCount = graph.getVertexCount();
-                for (int position = 0; position < vxCount; position++) {
-                    final int vertex = graph.getVertex(position);
-                    final String identifier = graph.getStringValue(identifierAttribute, vertex);
-                    final SchemaVertexType type = graph.getObjectValue(typeAttribute, vertex);
-                    final boolean selected = graph.getBooleanValue(selectedAttribute, vertex);
-
-                    if (selected) {
-                        vertexList.add(vertex);
-                        identifierList.add(identifier);
-                        typeList.add(type);
-                    }
+        final int selectedAttribute = VisualConcept.VertexAttribute.SELECTED.get(graph);
+        final int identifierAttribute = VisualConcept.VertexAttribute.IDENTIFIER.get(graph);
+        final int typeAttribute = AnalyticConcept.VertexAttribute.TYPE.get(graph);
+
+        if (selectedAttribute != Graph.NOT_FOUND
+                && identifierAttribute != Graph.NOT_FOUND
+                && typeAttribute != Graph.NOT_FOUND) {
+            final int vxCount = graph.getVertexCount();
+            for (int position = 0; position < vxCount; position++) {
+                final int vertex = graph.getVertex(position);
+                final boolean selected = graph.getBooleanValue(selectedAttribute, vertex);
+
+                if (selected) {
+                    vertexList.add(vertex);
+                    identifierList.add(graph.getStringValue(identifierAttribute, vertex));
+                    typeList.add(graph.getObjectValue(typeAttribute, vertex));
                 }
             }
+        }
 
-            // Set up and run each rule.
-            if (!vertexList.isEmpty()) {
-                for (final QualityControlRule rule : QualityControlAutoVetter.getRules()) {
-                    rule.clearResults();
-                    rule.executeRule(graph, vertexList);
-                    registeredRules.add(rule);
-                }
+        // The rule results of another graph are no use to this one.
+        if (!graph.getId().equals(cachedGraphId)) {
+            cachedGraphId = graph.getId();
+            cachedEvents = new HashMap<>();
+            QualityControlAutoVetter.getRules().forEach(QualityControlRule::clearResults);
+        }
+
+        // Keep the events of vertices whose identifier and type are unchanged,
+        // and find the vertices which need to be checked again.
+        final Map<Integer, CachedEvent> previousEvents = cachedEvents;
+        final Map<Integer, CachedEvent> currentEvents = new HashMap<>();
+        final List<Integer> changedVertices = new ArrayList<>();
+        for (int i = 0; i < vertexList.size(); i++) {
+            final int vertex = vertexList.get(i);
+            final CachedEvent cachedEvent = previousEvents.remove(vertex);
+            if (cachedEvent != null && cachedEvent.matches(identifierList.get(i), typeList.get(i))) {
+                currentEvents.put(vertex, cachedEvent);
+            } else {
+                changedVertices.add(vertex);
             }
+        }
+
+        // Anything left over is no longer selected or has changed.
+        final Set<Integer> staleVertices = new HashSet<>(previousEvents.keySet());
+        staleVertices.addAll(changedVertices);
 
-            final List<QualityControlRule> uRegisteredRules = Collections.unmodifiableList(registeredRules);
-
-            // Build quality control events based on results of rules.
-            // Sort by descending risk.
-            final List<QualityControlEvent> qualityControlEvents = new ArrayList<>();
-            for (int i = 0; i < vertexList.size(); i++) {
-                final QualityControlEvent qualityControlEvent = new QualityControlEvent(
-                        vertexList.get(i),
-                        identifierList.get(i), typeList.get(i),
-                        uRegisteredRules
-                );
-                qualityControlEvents.add(qualityControlEvent);
+        // Set up and run each rule on the changed vertices.
+        if (!vertexList.isEmpty()) {
+            registeredRules.addAll(QualityControlAutoVetter.getRules());
+        }
+        for (final QualityControlRule rule : QualityControlAutoVetter.getRules()) {
+            rule.clearResults(staleVertices);
+            if (!changedVertices.isEmpty()) {
+                rule.executeRule(graph, changedVertices);
             }
-            Collections.sort(qualityControlEvents, Collections.reverseOrder());
+        }
 
-            QualityControlAutoVetter.getInstance().setQualityControlState(
-                    new QualityControlState(graph.getId(), qualityControlEvents, registeredRules)
-            );
+        final List<QualityControlRule> uRegisteredRules = Collections.unmodifiableList(registeredRules);
+
+        // Build quality control events based on results of rules.
+        // Sort by descending risk.
+        final List<QualityControlEvent> qualityControlEvents = new ArrayList<>();
+        for (int i = 0; i < vertexList.size(); i++) {
+            final int vertex = vertexList.get(i);
+            CachedEvent cachedEvent = currentEvents.get(vertex);
+            if (cachedEvent == null) {
+                cachedEvent = new CachedEvent(identifierList.get(i), typeList.get(i),
+                        new QualityControlEvent(vertex, identifierList.get(i), typeList.get(i), uRegisteredRules));
+                currentEvents.put(vertex, cachedEvent);
+            }
+            qualityControlEvents.add(cachedEvent.event);
         }
+        Collections.sort(qualityControlEvents, Collections.reverseOrder());
+        cachedEvents = currentEvents;
+
+        QualityControlAutoVetter.getInstance().setQualityControlState(
+                new QualityControlState(graph.getId(), qualityControlEvents, registeredRules)
+        );
     }
 
     @Override
     public String getName() {
         return PLUGIN_NAME;
     }
+
+    /**
+     * The event of a vertex along with the values the rules were run against.
+     */
+    private static class CachedEvent {
+
+        private final String identifier;
+        private final SchemaVertexType type;
+        private final QualityControlEvent event;
+
+        CachedEvent(final String identifier, final SchemaVertexType type, final QualityControlEvent event) {
+            this.identifier = identifier;
+            this.type = type;
+            this.event = event;
+        }
+
+        boolean matches(final String identifier, final SchemaVertexType type) {
+            return Objects.equals(this.identifier, identifier) && Objects.equals(this.type, type);
+        }
+    }
 }
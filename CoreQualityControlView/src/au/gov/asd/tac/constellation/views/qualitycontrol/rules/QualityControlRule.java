@@ -18,11 +18,14 @@ package au.gov.asd.tac.constellation.views.qualitycontrol.rules;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
 import au.gov.asd.tac.constellation.views.qualitycontrol.QualityControlEvent;
 import au.gov.asd.tac.constellation.views.qualitycontrol.QualityControlEvent.QualityCategory;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.openide.util.Lookup;
 
 /**
@@ -36,6 +39,9 @@ public abstract class QualityControlRule {
     private static final int CATEGORY_2_HIGHER = 1;
     private static final int CATEGORIES_EQUAL = 0;
 
+    // the number of vertices checked together by each thread
+    private static final int CHUNK_SIZE = 1000;
+
     /**
      * Test the priority between the two categories and determine which priority
      * is highest.
@@ -130,18 +136,34 @@ public abstract class QualityControlRule {
         results.clear();
     }
 
+    /**
+     * Clear the results of this Rule for the specified vertices, so that they
+     * can be checked again without clearing the results of any other vertices.
+     *
+     * @param vertexIds The vertex ids to remove from the results.
+     */
+    public void clearResults(final Collection<Integer> vertexIds) {
+        results.removeAll(vertexIds);
+    }
+
     /**
      * Check all specified nodes against this Rule.
+     * <p>
+     * The nodes are split into chunks which are checked in parallel, so
+     * {@link #executeRule(GraphReadMethods, int)} must only read from the
+     * graph.
      *
      * @param graph The graph to execute the rule on.
      * @param vertexIds The list of vertex ids to execute the rule on.
      */
     public void executeRule(final GraphReadMethods graph, final List<Integer> vertexIds) {
-        vertexIds.forEach(vxId -> {
-            if (this.executeRule(graph, vxId)) {
-                results.add(vxId);
-            }
-        });
+        final int chunkCount = (vertexIds.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunkCount).parallel()
+                .mapToObj(chunk -> vertexIds.subList(chunk * CHUNK_SIZE, Math.min((chunk + 1) * CHUNK_SIZE, vertexIds.size())).stream()
+                .filter(vxId -> this.executeRule(graph, vxId))
+                .collect(Collectors.toList()))
+                .collect(Collectors.toList())
+                .forEach(results::addAll);
     }
 
     /**
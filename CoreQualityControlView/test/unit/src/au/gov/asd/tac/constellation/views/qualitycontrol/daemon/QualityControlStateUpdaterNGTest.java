@@ -31,6 +31,10 @@ import java.util.Collections;
 import java.util.List;
 import org.openide.util.Lookup;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
@@ -231,6 +235,71 @@ public class QualityControlStateUpdaterNGTest {
         assertEquals(registeredRules, expectedRegisteredRules);
     }
 
+    @Test
+    public void testReadOnlyUpdatesChangedNodes() throws Exception {
+        System.out.println("read Only Updates Changed Nodes");
+
+        graph = new DualGraph(SchemaFactoryUtilities.getSchemaFactory(VisualSchemaFactory.VISUAL_SCHEMA_ID).createSchema());
+        WritableGraph wg = graph.getWritableGraph("Add Elements", true);
+        try {
+            vSelectedAttrId = VisualConcept.VertexAttribute.SELECTED.ensure(wg);
+            vxIdentifierAttrId = VisualConcept.VertexAttribute.IDENTIFIER.ensure(wg);
+            typeAttrId = AnalyticConcept.VertexAttribute.TYPE.ensure(wg);
+
+            vxId1 = wg.addVertex();
+            vxId2 = wg.addVertex();
+            wg.setBooleanValue(vSelectedAttrId, vxId1, true);
+            wg.setBooleanValue(vSelectedAttrId, vxId2, true);
+            wg.setStringValue(vxIdentifierAttrId, vxId1, "Vertex1");
+            wg.setStringValue(vxIdentifierAttrId, vxId2, "Vertex2");
+            wg.setObjectValue(typeAttrId, vxId1, SchemaVertexType.unknownType());
+            wg.setObjectValue(typeAttrId, vxId2, SchemaVertexType.unknownType());
+        } finally {
+            wg.commit();
+        }
+
+        PluginExecution.withPlugin(new QualityControlStateUpdater()).executeNow(graph);
+        final QualityControlEvent event1 = getEvent(vxId1);
+        final QualityControlEvent event2 = getEvent(vxId2);
+
+        // Change the identifier of one vertex only.
+        wg = graph.getWritableGraph("Change Identifier", true);
+        try {
+            wg.setStringValue(vxIdentifierAttrId, vxId2, "Vertex2 Changed");
+        } finally {
+            wg.commit();
+        }
+
+        PluginExecution.withPlugin(new QualityControlStateUpdater()).executeNow(graph);
+        assertSame(getEvent(vxId1), event1);
+        assertNotSame(getEvent(vxId2), event2);
+        assertEquals(getEvent(vxId2).getIdentifier(), "Vertex2 Changed");
+
+        // Deselect a vertex and its event should be removed.
+        wg = graph.getWritableGraph("Deselect", true);
+        try {
+            wg.setBooleanValue(vSelectedAttrId, vxId1, false);
+        } finally {
+            wg.commit();
+        }
+
+        PluginExecution.withPlugin(new QualityControlStateUpdater()).executeNow(graph);
+        assertEquals(QualityControlAutoVetter.getInstance().getQualityControlState().getQualityControlEvents().size(), 1);
+        assertNull(getEvent(vxId1));
+        for (final QualityControlRule rule : QualityControlAutoVetter.getRules()) {
+            assertFalse(rule.getResults().contains(vxId1));
+        }
+    }
+
+    private static QualityControlEvent getEvent(final int vertex) {
+        for (final QualityControlEvent event : QualityControlAutoVetter.getInstance().getQualityControlState().getQualityControlEvents()) {
+            if (event.getVertex() == vertex) {
+                return event;
+            }
+        }
+        return null;
+    }
+
     /**
      * Test of getName method, of class QualityControlStateUpdater.
      */
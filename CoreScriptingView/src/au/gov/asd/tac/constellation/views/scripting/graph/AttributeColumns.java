@@ -0,0 +1,233 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.scripting.graph;
+
+import au.gov.asd.tac.constellation.graph.Graph;
+import au.gov.asd.tac.constellation.graph.GraphElementType;
+import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.views.scripting.graph.exceptions.NoSuchAttributeException;
+import java.util.List;
+
+/**
+ * Read and write the values of an attribute for many elements at once, so
+ * that scripts can work with whole columns of values rather than making a call
+ * for every element.
+ *
+ * @author cygnus_x-1
+ */
+final class AttributeColumns {
+
+    private AttributeColumns() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Get the ids of every element of a type in order of position.
+     */
+    static int[] ids(final GraphReadMethods graph, final GraphElementType elementType) {
+        switch (elementType) {
+            case VERTEX:
+                return graph.vertexStream().toArray();
+            case TRANSACTION:
+                return graph.transactionStream().toArray();
+            case EDGE:
+                return graph.edgeStream().toArray();
+            case LINK:
+                return graph.linkStream().toArray();
+            case GRAPH:
+                return new int[]{0};
+            default:
+                throw new IllegalArgumentException("Element type has no elements: " + elementType);
+        }
+    }
+
+    static int attribute(final GraphReadMethods graph, final GraphElementType elementType, final String name) {
+        final int attributeId = graph.getAttribute(elementType, name);
+        if (attributeId == Graph.NOT_FOUND) {
+            throw new NoSuchAttributeException(name);
+        }
+        return attributeId;
+    }
+
+    /**
+     * Get the values of an attribute for the given elements as an array of the
+     * native type of the attribute, such as a float[] for a float attribute,
+     * or an Object[] for attributes without a primitive native type.
+     */
+    static Object getValues(final GraphReadMethods graph, final int attribute, final int[] ids) {
+        switch (graph.getNativeAttributeType(attribute)) {
+            case BYTE: {
+                final byte[] values = new byte[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    values[i] = graph.getByteValue(attribute, ids[i]);
+                }
+                return values;
+            }
+            case SHORT: {
+                final short[] values = new short[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    values[i] = graph.getShortValue(attribute, ids[i]);
+                }
+                return values;
+            }
+            case INT: {
+                final int[] values = new int[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    values[i] = graph.getIntValue(attribute, ids[i]);
+                }
+                return values;
+            }
+            case LONG: {
+                final long[] values = new long[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    values[i] = graph.getLongValue(attribute, ids[i]);
+                }
+                return values;
+            }
+            case FLOAT: {
+                final float[] values = new float[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    values[i] = graph.getFloatValue(attribute, ids[i]);
+                }
+                return values;
+            }
+            case DOUBLE: {
+                final double[] values = new double[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    values[i] = graph.getDoubleValue(attribute, ids[i]);
+                }
+                return values;
+            }
+            case BOOLEAN: {
+                final boolean[] values = new boolean[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    values[i] = graph.getBooleanValue(attribute, ids[i]);
+                }
+                return values;
+            }
+            case CHAR: {
+                final char[] values = new char[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    values[i] = graph.getCharValue(attribute, ids[i]);
+                }
+                return values;
+            }
+            default: {
+                final Object[] values = new Object[ids.length];
+                for (int i = 0; i < ids.length; i++) {
+                    values[i] = graph.getObjectValue(attribute, ids[i]);
+                }
+                return values;
+            }
+        }
+    }
+
+    /**
+     * Get the values of an attribute for the given elements as strings.
+     */
+    static String[] getStringValues(final GraphReadMethods graph, final int attribute, final int[] ids) {
+        final String[] values = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            values[i] = graph.getStringValue(attribute, ids[i]);
+        }
+        return values;
+    }
+
+    /**
+     * Set the values of an attribute for the given elements. The values can be
+     * a primitive array, an array of strings or objects, or a list, and are
+     * converted to the type of the attribute in the same way as setting the
+     * value of a single element.
+     */
+    static void setValues(final GraphWriteMethods graph, final int attribute, final int[] ids, final Object values) {
+        if (values instanceof List) {
+            final List<?> list = (List<?>) values;
+            checkLength(list.size(), ids);
+            for (int i = 0; i < ids.length; i++) {
+                graph.setObjectValue(attribute, ids[i], list.get(i));
+            }
+        } else if (values instanceof byte[]) {
+            final byte[] array = (byte[]) values;
+            checkLength(array.length, ids);
+            for (int i = 0; i < ids.length; i++) {
+                graph.setByteValue(attribute, ids[i], array[i]);
+            }
+        } else if (values instanceof short[]) {
+            final short[] array = (short[]) values;
+            checkLength(array.length, ids);
+            for (int i = 0; i < ids.length; i++) {
+                graph.setShortValue(attribute, ids[i], array[i]);
+            }
+        } else if (values instanceof int[]) {
+            final int[] array = (int[]) values;
+            checkLength(array.length, ids);
+            for (int i = 0; i < ids.length; i++) {
+                graph.setIntValue(attribute, ids[i], array[i]);
+            }
+        } else if (values instanceof long[]) {
+            final long[] array = (long[]) values;
+            checkLength(array.length, ids);
+            for (int i = 0; i < ids.length; i++) {
+                graph.setLongValue(attribute, ids[i], array[i]);
+            }
+        } else if (values instanceof float[]) {
+            final float[] array = (float[]) values;
+            checkLength(array.length, ids);
+            for (int i = 0; i < ids.length; i++) {
+                graph.setFloatValue(attribute, ids[i], array[i]);
+            }
+        } else if (values instanceof double[]) {
+            final double[] array = (double[]) values;
+            checkLength(array.length, ids);
+            for (int i = 0; i < ids.length; i++) {
+                graph.setDoubleValue(attribute, ids[i], array[i]);
+            }
+        } else if (values instanceof boolean[]) {
+            final boolean[] array = (boolean[]) values;
+            checkLength(array.length, ids);
+            for (int i = 0; i < ids.length; i++) {
+                graph.setBooleanValue(attribute, ids[i], array[i]);
+            }
+        } else if (values instanceof char[]) {
+            final char[] array = (char[]) values;
+            checkLength(array.length, ids);
+            for (int i = 0; i < ids.length; i++) {
+                graph.setCharValue(attribute, ids[i], array[i]);
+            }
+        } else if (values instanceof String[]) {
+            final String[] array = (String[]) values;
+            checkLength(array.length, ids);
+            for (int i = 0; i < ids.length; i++) {
+                graph.setStringValue(attribute, ids[i], array[i]);
+            }
+        } else if (values instanceof Object[]) {
+            final Object[] array = (Object[]) values;
+            checkLength(array.length, ids);
+            for (int i = 0; i < ids.length; i++) {
+                graph.setObjectValue(attribute, ids[i], array[i]);
+            }
+        } else {
+            throw new IllegalArgumentException("Values must be an array or a list, not " + (values == null ? null : values.getClass().getName()));
+        }
+    }
+
+    private static void checkLength(final int length, final int[] ids) {
+        if (length != ids.length) {
+            throw new IllegalArgumentException(String.format("Expected %d values but found %d", ids.length, length));
+        }
+    }
+}
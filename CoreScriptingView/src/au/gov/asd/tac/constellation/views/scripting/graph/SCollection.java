@@ -17,8 +17,9 @@ package au.gov.asd.tac.constellation.views.scripting.graph;
 
 import au.gov.asd.tac.constellation.graph.GraphElementType;
 import au.gov.asd.tac.constellation.graph.GraphReadMethods;
+import au.gov.asd.tac.constellation.graph.GraphWriteMethods;
+import au.gov.asd.tac.constellation.views.scripting.graph.exceptions.NoSuchAttributeException;
 import java.util.BitSet;
-import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 
@@ -64,15 +65,70 @@ public class SCollection {
         return elementIds;
     }
 
+    /**
+     * Get the ids of elements in this collection in ascending order, which is
+     * the order of the values returned by {@link #values values()}.
+     *
+     * @return the element ids.
+     */
+    public int[] ids() {
+        return elementIds.stream().toArray();
+    }
+
+    /**
+     * Get the values of an attribute for the elements in this collection, in
+     * the order of the ids returned by {@link #ids ids()}.
+     * <p>
+     * The values are returned as an array of the native type of the
+     * attribute, such as a float[] for a float attribute, or an Object[] for
+     * attributes without a primitive native type.
+     *
+     * @param name the name of the attribute.
+     * @return the values of the attribute.
+     * @throws NoSuchAttributeException
+     */
+    public Object values(final String name) throws NoSuchAttributeException {
+        final int attributeId = AttributeColumns.attribute(readableGraph, elementType, name);
+        return AttributeColumns.getValues(readableGraph, attributeId, ids());
+    }
+
+    /**
+     * Get the values of an attribute for the elements in this collection as
+     * strings, in the order of the ids returned by {@link #ids ids()}.
+     *
+     * @param name the name of the attribute.
+     * @return the values of the attribute as strings.
+     * @throws NoSuchAttributeException
+     */
+    public String[] stringValues(final String name) throws NoSuchAttributeException {
+        final int attributeId = AttributeColumns.attribute(readableGraph, elementType, name);
+        return AttributeColumns.getStringValues(readableGraph, attributeId, ids());
+    }
+
+    /**
+     * Set the values of an attribute for the elements in this collection, in
+     * the order of the ids returned by {@link #ids ids()}. This collection must
+     * have been gathered from a graph with an active write lock.
+     * <p>
+     * The values can be a primitive array, an array of strings or objects, or
+     * a list, and are converted to the type of the attribute as they would be
+     * when setting the value of a single element.
+     *
+     * @param name the name of the attribute.
+     * @param values the new values of the attribute.
+     * @throws NoSuchAttributeException
+     */
+    public void setValues(final String name, final Object values) throws NoSuchAttributeException {
+        final int attributeId = AttributeColumns.attribute(readableGraph, elementType, name);
+        AttributeColumns.setValues((GraphWriteMethods) readableGraph, attributeId, ids(), values);
+    }
+
     private SCollection filterVertices(final Object callback) throws ScriptException {
-        final ScriptContext context = engine.getContext();
-        context.setAttribute("__func", callback, ScriptContext.ENGINE_SCOPE);
+        final ScriptCallback function = new ScriptCallback(engine, callback);
 
         final BitSet vertices = new BitSet();
         for (int vxId = elementIds.nextSetBit(0); vxId >= 0; vxId = elementIds.nextSetBit(vxId + 1)) {
-            context.setAttribute("__p1", new SVertex(readableGraph, vxId), ScriptContext.ENGINE_SCOPE);
-            final Object b = engine.eval("__func(__p1)");
-            if ((Boolean) b) {
+            if (function.test(new SVertex(readableGraph, vxId))) {
                 vertices.set(vxId);
             }
         }
@@ -81,14 +137,11 @@ public class SCollection {
     }
 
     private SCollection filterTransactions(final Object callback) throws ScriptException {
-        final ScriptContext context = engine.getContext();
-        context.setAttribute("__func", callback, ScriptContext.ENGINE_SCOPE);
+        final ScriptCallback function = new ScriptCallback(engine, callback);
 
         final BitSet transactions = new BitSet();
         for (int txId = elementIds.nextSetBit(0); txId >= 0; txId = elementIds.nextSetBit(txId + 1)) {
-            context.setAttribute("__p1", new STransaction(readableGraph, txId), ScriptContext.ENGINE_SCOPE);
-            final Object b = engine.eval("__func(__p1)");
-            if ((Boolean) b) {
+            if (function.test(new STransaction(readableGraph, txId))) {
                 transactions.set(txId);
             }
         }
@@ -28,7 +28,6 @@ import au.gov.asd.tac.constellation.views.scripting.graph.iterators.SVertexItera
 import java.util.BitSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.script.ScriptContext;
 import javax.script.ScriptException;
 
 /**
@@ -44,9 +43,6 @@ public class SReadableGraph {
     protected final SGraph graph;
     protected final ReadableGraph readableGraph;
 
-    private static final String FUNC = "__func";
-    private static final String FUNC_P1 = "__func(__p1)";
-
     SReadableGraph(final SGraph graph, final ReadableGraph readableGraph) {
         this.graph = graph;
         this.readableGraph = readableGraph;
@@ -169,6 +165,50 @@ public class SReadableGraph {
         return new SAttributeIterator(readableGraph, elementType);
     }
 
+    /**
+     * Get the ids of every element of a type on the graph, in the order of the
+     * values returned by {@link #values values()}.
+     *
+     * @param elementType the element type.
+     * @return the element ids.
+     */
+    public int[] ids(final GraphElementType elementType) {
+        return AttributeColumns.ids(readableGraph, elementType);
+    }
+
+    /**
+     * Get the values of an attribute for every element of its type on the
+     * graph, in the order of the ids returned by {@link #ids ids()}.
+     * <p>
+     * The values are returned as an array of the native type of the
+     * attribute, such as a float[] for a float attribute, or an Object[] for
+     * attributes without a primitive native type, so that scripts can work
+     * with the whole column at once rather than each element in turn.
+     *
+     * @param elementType the element type of the attribute.
+     * @param name the name of the attribute.
+     * @return the values of the attribute.
+     * @throws NoSuchAttributeException
+     */
+    public Object values(final GraphElementType elementType, final String name) throws NoSuchAttributeException {
+        final int attributeId = AttributeColumns.attribute(readableGraph, elementType, name);
+        return AttributeColumns.getValues(readableGraph, attributeId, ids(elementType));
+    }
+
+    /**
+     * Get the values of an attribute for every element of its type on the
+     * graph as strings, in the order of the ids returned by {@link #ids ids()}.
+     *
+     * @param elementType the element type of the attribute.
+     * @param name the name of the attribute.
+     * @return the values of the attribute as strings.
+     * @throws NoSuchAttributeException
+     */
+    public String[] stringValues(final GraphElementType elementType, final String name) throws NoSuchAttributeException {
+        final int attributeId = AttributeColumns.attribute(readableGraph, elementType, name);
+        return AttributeColumns.getStringValues(readableGraph, attributeId, ids(elementType));
+    }
+
     /**
      * Get the number of vertices on the graph.
      *
@@ -218,15 +258,12 @@ public class SReadableGraph {
      */
     public void withVertices(final Object callback) throws ScriptException {
         try {
-            final ScriptContext context = graph.getEngine().getContext();
-            context.setAttribute(FUNC, callback, ScriptContext.ENGINE_SCOPE);
+            final ScriptCallback function = new ScriptCallback(graph.getEngine(), callback);
 
             final int vertexCount = readableGraph.getVertexCount();
             for (int position = 0; position < vertexCount; position++) {
                 final int vertexId = readableGraph.getVertex(position);
-
-                context.setAttribute("__p1", new SVertex(readableGraph, vertexId), ScriptContext.ENGINE_SCOPE);
-                graph.getEngine().eval(FUNC_P1);
+                function.call(new SVertex(readableGraph, vertexId));
             }
         } finally {
             readableGraph.release();
@@ -246,17 +283,13 @@ public class SReadableGraph {
      * @throws ScriptException
      */
     public SCollection filterVertices(final Object callback) throws ScriptException {
-        final ScriptContext context = graph.getEngine().getContext();
-        context.setAttribute(FUNC, callback, ScriptContext.ENGINE_SCOPE);
+        final ScriptCallback function = new ScriptCallback(graph.getEngine(), callback);
 
         final BitSet vertices = new BitSet();
         final int vertexCount = readableGraph.getVertexCount();
         for (int position = 0; position < vertexCount; position++) {
             final int vertexId = readableGraph.getVertex(position);
-
-            context.setAttribute("__p1", new SVertex(readableGraph, vertexId), ScriptContext.ENGINE_SCOPE);
-            final Object b = graph.getEngine().eval(FUNC_P1);
-            if ((Boolean) b) {
+            if (function.test(new SVertex(readableGraph, vertexId))) {
                 vertices.set(vertexId);
             }
         }
@@ -313,15 +346,12 @@ public class SReadableGraph {
      */
     public void withTransactions(final Object callback) throws ScriptException {
         try {
-            final ScriptContext context = graph.getEngine().getContext();
-            context.setAttribute(FUNC, callback, ScriptContext.ENGINE_SCOPE);
+            final ScriptCallback function = new ScriptCallback(graph.getEngine(), callback);
 
             final int transactionCount = readableGraph.getTransactionCount();
             for (int position = 0; position < transactionCount; position++) {
                 final int transaction = readableGraph.getTransaction(position);
-
-                context.setAttribute("__p1", new STransaction(readableGraph, transaction), ScriptContext.ENGINE_SCOPE);
-                graph.getEngine().eval(FUNC_P1);
+                function.call(new STransaction(readableGraph, transaction));
             }
         } finally {
             readableGraph.release();
@@ -341,22 +371,18 @@ public class SReadableGraph {
      * @throws ScriptException
      */
     public SCollection filterTransactions(final Object callback) throws ScriptException {
-        final ScriptContext context = graph.getEngine().getContext();
-        context.setAttribute(FUNC, callback, ScriptContext.ENGINE_SCOPE);
+        final ScriptCallback function = new ScriptCallback(graph.getEngine(), callback);
 
         final BitSet transactions = new BitSet();
         final int transactionCount = readableGraph.getTransactionCount();
         for (int position = 0; position < transactionCount; position++) {
             final int transaction = readableGraph.getTransaction(position);
-
-            context.setAttribute("__p1", new STransaction(readableGraph, transaction), ScriptContext.ENGINE_SCOPE);
-            final Object b = graph.getEngine().eval(FUNC_P1);
-            if ((Boolean) b) {
+            if (function.test(new STransaction(readableGraph, transaction))) {
                 transactions.set(transaction);
             }
         }
 
-        return new SCollection(graph.getEngine(), readableGraph, GraphElementType.VERTEX, transactions);
+        return new SCollection(graph.getEngine(), readableGraph, GraphElementType.TRANSACTION, transactions);
     }
 
     /**
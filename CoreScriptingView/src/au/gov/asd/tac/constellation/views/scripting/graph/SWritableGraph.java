@@ -107,6 +107,25 @@ public class SWritableGraph extends SReadableGraph {
         getWritableGraph().removeAttribute(attributeId);
     }
 
+    /**
+     * Set the values of an attribute for every element of its type on the
+     * graph, in the order of the ids returned by {@link #ids ids()}.
+     * <p>
+     * The values can be a primitive array, such as one returned by
+     * {@link #values values()}, an array of strings or objects, or a list, and
+     * are converted to the type of the attribute as they would be when setting
+     * the value of a single element.
+     *
+     * @param elementType the element type of the attribute.
+     * @param name the name of the attribute.
+     * @param values the new values of the attribute.
+     * @throws NoSuchAttributeException
+     */
+    public void setValues(final GraphElementType elementType, final String name, final Object values) throws NoSuchAttributeException {
+        final int attributeId = AttributeColumns.attribute(readableGraph, elementType, name);
+        AttributeColumns.setValues(getWritableGraph(), attributeId, ids(elementType), values);
+    }
+
     /**
      * Add a vertex to the graph.
      *
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.views.scripting.graph;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.Invocable;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+/**
+ * A function passed from a script which is called from Java for each element
+ * of a graph.
+ * <p>
+ * If the scripting engine is {@link Invocable}, the function is invoked
+ * directly. Otherwise, a call to the function is compiled once if the engine
+ * is {@link Compilable}, and only evaluated from a string for every element as
+ * a last resort.
+ *
+ * @author cygnus_x-1
+ */
+final class ScriptCallback {
+
+    private static final String FUNC = "__func";
+    private static final String P1 = "__p1";
+    private static final String FUNC_P1 = "__func(__p1)";
+
+    private final ScriptEngine engine;
+    private final ScriptContext context;
+    private boolean invocable;
+    private CompiledScript compiledCall = null;
+
+    ScriptCallback(final ScriptEngine engine, final Object callback) throws ScriptException {
+        this.engine = engine;
+        this.context = engine.getContext();
+        context.setAttribute(FUNC, callback, ScriptContext.ENGINE_SCOPE);
+
+        invocable = engine instanceof Invocable;
+        if (!invocable) {
+            compileCall();
+        }
+    }
+
+    private void compileCall() throws ScriptException {
+        if (engine instanceof Compilable) {
+            compiledCall = ((Compilable) engine).compile(FUNC_P1);
+        }
+    }
+
+    /**
+     * Call the function with a single argument.
+     *
+     * @param argument the argument.
+     * @return the value returned by the function.
+     * @throws ScriptException
+     */
+    Object call(final Object argument) throws ScriptException {
+        if (invocable) {
+            try {
+                return ((Invocable) engine).invokeFunction(FUNC, argument);
+            } catch (final NoSuchMethodException ex) {
+                // the engine cannot invoke the function by name, so call it by evaluating a script instead
+                invocable = false;
+                compileCall();
+            }
+        }
+
+        context.setAttribute(P1, argument, ScriptContext.ENGINE_SCOPE);
+        return compiledCall != null ? compiledCall.eval(context) : engine.eval(FUNC_P1);
+    }
+
+    /**
+     * Call a function which returns true or false with a single argument.
+     *
+     * @param argument the argument.
+     * @return the value returned by the function.
+     * @throws ScriptException
+     */
+    boolean test(final Object argument) throws ScriptException {
+        return (Boolean) call(argument);
+    }
+}
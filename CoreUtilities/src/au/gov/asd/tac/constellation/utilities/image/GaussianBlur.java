@@ -16,7 +16,7 @@
 package au.gov.asd.tac.constellation.utilities.image;
 
 import java.util.Arrays;
-import org.apache.commons.lang3.ArrayUtils;
+import java.util.stream.IntStream;
 
 /**
  * Gaussian Blur.
@@ -25,6 +25,8 @@ import org.apache.commons.lang3.ArrayUtils;
  */
 public class GaussianBlur {
 
+    private static final int COLUMN_STRIP = 64;
+
     protected static final int[] RAINBOW = {
         0x0034f8, 0x0037f6, 0x003af3, 0x003df0, 0x003fed, 0x0041ea, 0x0044e7, 0x0046e4,
         0x0048e1, 0x004ade, 0x004cdb, 0x004fd8, 0x0051d5, 0x0053d2, 0x0054d0, 0x0056cd,
@@ -96,30 +98,51 @@ public class GaussianBlur {
         FASTEST;
     }
 
-    public static void gaussianBlurBox(final float[] sourceChannel, float[] targetChannel,
+    public static void gaussianBlurBox(final float[] sourceChannel, final float[] targetChannel,
+            final int width, final int height, final int radius, final int passes, final BoxBlurType type) {
+        gaussianBlurBox(sourceChannel, targetChannel, new float[width * height],
+                width, height, radius, passes, type);
+    }
+
+    /**
+     * Approximate a gaussian blur with a number of box blur passes, using the
+     * given scratch channel to hold intermediate results so that a caller
+     * blurring repeatedly can reuse it. The horizontal and vertical passes of
+     * the fastest box blur are computed in parallel.
+     *
+     * @param sourceChannel the channel to blur.
+     * @param targetChannel the channel to write the blurred result to, which
+     * may be the source channel.
+     * @param scratchChannel a channel of at least width * height values which
+     * will be overwritten.
+     * @param width the width of the channel.
+     * @param height the height of the channel.
+     * @param radius the radius of the gaussian blur.
+     * @param passes the number of box blur passes.
+     * @param type the type of box blur.
+     */
+    public static void gaussianBlurBox(final float[] sourceChannel, final float[] targetChannel, final float[] scratchChannel,
             final int width, final int height, final int radius, final int passes, final BoxBlurType type) {
 
         if (sourceChannel.length == width * height) {
-            if (sourceChannel.length <= targetChannel.length) {
-                float[] tempChannel = Arrays.copyOf(sourceChannel, sourceChannel.length);
-                int[] boxes = boxesForGauss(radius, passes);
+            if (sourceChannel.length <= targetChannel.length && sourceChannel.length <= scratchChannel.length) {
+                final int[] boxes = boxesForGauss(radius, passes);
                 for (int i = 0; i < passes; i++) {
+                    final float[] passChannel = i == 0 ? sourceChannel : targetChannel;
                     switch (type) {
                         case STANDARD:
-                            boxBlur(tempChannel, targetChannel, width, height, ((boxes[i] - 1) / 2));
+                            boxBlur(passChannel, scratchChannel, width, height, ((boxes[i] - 1) / 2));
+                            System.arraycopy(scratchChannel, 0, targetChannel, 0, sourceChannel.length);
                             break;
                         case FAST:
-                            targetChannel = ArrayUtils.addAll(tempChannel);
-                            boxBlurFH(tempChannel, targetChannel, width, height, ((boxes[i] - 1) / 2));
-                            boxBlurFT(tempChannel, targetChannel, width, height, ((boxes[i] - 1) / 2));
+                            boxBlurFH(passChannel, scratchChannel, width, height, ((boxes[i] - 1) / 2));
+                            boxBlurFT(scratchChannel, targetChannel, width, height, ((boxes[i] - 1) / 2));
                             break;
                         case FASTEST:
-                            targetChannel = ArrayUtils.addAll(tempChannel);
-                            boxBlurFFH(tempChannel, targetChannel, width, height, ((boxes[i] - 1) / 2));
-                            boxBlurFFT(tempChannel, targetChannel, width, height, ((boxes[i] - 1) / 2));
+                            boxBlurFFH(passChannel, scratchChannel, width, height, ((boxes[i] - 1) / 2));
+                            boxBlurFFT(scratchChannel, targetChannel, width, height, ((boxes[i] - 1) / 2));
                             break;
                     }
-                    tempChannel = targetChannel;
                 }
             } else {
                 throw new IllegalArgumentException("Target channel is smaller than source channel.");
@@ -197,7 +220,7 @@ public class GaussianBlur {
     private static void boxBlurFFH(final float[] sourceChannel, final float[] targetChannel,
             final int width, final int height, final int radius) {
         float iarr = 1f / (radius + radius + 1);
-        for (int i = 0; i < height; i++) {
+        IntStream.range(0, height).parallel().forEach(i -> {
             int ti = i * width;
             int li = ti;
             int ri = ti + radius;
@@ -219,42 +242,62 @@ public class GaussianBlur {
                 val += lv - sourceChannel[li++];
                 targetChannel[ti++] = val * iarr;
             }
-        }
+        });
     }
 
+    /**
+     * The vertical pass of the fastest box blur. Columns are processed in
+     * strips of {@link #COLUMN_STRIP} columns, reading each strip row by row
+     * so that memory is accessed sequentially, and strips are processed in
+     * parallel.
+     */
     private static void boxBlurFFT(final float[] sourceChannel, final float[] targetChannel,
             final int width, final int height, final int radius) {
         float iarr = 1f / (radius + radius + 1);
-        for (int i = 0; i < width; i++) {
-            int ti = i;
-            int li = ti;
-            int ri = ti + radius * width;
-            float fv = sourceChannel[ti];
-            float lv = sourceChannel[ti + width * (height - 1)];
-            float val = (radius + 1) * fv;
+        final int strips = (width + COLUMN_STRIP - 1) / COLUMN_STRIP;
+        IntStream.range(0, strips).parallel().forEach(strip -> {
+            final int first = strip * COLUMN_STRIP;
+            final int count = Math.min(COLUMN_STRIP, width - first);
+            final float[] fv = new float[count];
+            final float[] lv = new float[count];
+            final float[] val = new float[count];
+            for (int c = 0; c < count; c++) {
+                fv[c] = sourceChannel[first + c];
+                lv[c] = sourceChannel[first + c + width * (height - 1)];
+                val[c] = (radius + 1) * fv[c];
+            }
             for (int j = 0; j < radius; j++) {
-                val += sourceChannel[ti + j * width];
+                final int row = first + j * width;
+                for (int c = 0; c < count; c++) {
+                    val[c] += sourceChannel[row + c];
+                }
             }
             for (int j = 0; j <= radius; j++) {
-                val += sourceChannel[ri] - fv;
-                targetChannel[ti] = val * iarr;
-                ri += width;
-                ti += width;
+                final int ri = first + (j + radius) * width;
+                final int ti = first + j * width;
+                for (int c = 0; c < count; c++) {
+                    val[c] += sourceChannel[ri + c] - fv[c];
+                    targetChannel[ti + c] = val[c] * iarr;
+                }
             }
             for (int j = radius + 1; j < height - radius; j++) {
-                val += sourceChannel[ri] - sourceChannel[li];
-                targetChannel[ti] = val * iarr;
-                li += width;
-                ri += width;
-                ti += width;
+                final int ri = first + (j + radius) * width;
+                final int li = first + (j - radius - 1) * width;
+                final int ti = first + j * width;
+                for (int c = 0; c < count; c++) {
+                    val[c] += sourceChannel[ri + c] - sourceChannel[li + c];
+                    targetChannel[ti + c] = val[c] * iarr;
+                }
             }
             for (int j = height - radius; j < height; j++) {
-                val += lv - sourceChannel[li];
-                targetChannel[ti] = val * iarr;
-                li += width;
-                ri += width;
+                final int li = first + (j - radius - 1) * width;
+                final int ti = first + j * width;
+                for (int c = 0; c < count; c++) {
+                    val[c] += lv[c] - sourceChannel[li + c];
+                    targetChannel[ti + c] = val[c] * iarr;
+                }
             }
-        }
+        });
     }
 
     public static void normalise(final float[] sourceChannel, final int scaleFactor) {
@@ -264,6 +307,10 @@ public class GaussianBlur {
             min = Math.min(sourceChannel[i], min);
             max = Math.max(sourceChannel[i], max);
         }
+        if (max == min) {
+            Arrays.fill(sourceChannel, 0);
+            return;
+        }
         for (int i = 0; i < sourceChannel.length; i++) {
             sourceChannel[i] = ((sourceChannel[i] - min) / (max - min)) * scaleFactor;
         }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.utilities.image;
+
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Test the box blur approximations of a gaussian blur.
+ *
+ * @author cygnus_x-1
+ */
+public class GaussianBlurNGTest {
+
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 97;
+
+    private static float[] randomPoints(final long seed) {
+        final Random random = new Random(seed);
+        final float[] channel = new float[WIDTH * HEIGHT];
+        for (int i = 0; i < 200; i++) {
+            channel[random.nextInt(channel.length)] = random.nextFloat() * 10;
+        }
+        return channel;
+    }
+
+    @Test
+    public void testBoxBlursMatch() {
+        final float[] source = randomPoints(1);
+        final float[] standard = new float[source.length];
+        final float[] fast = new float[source.length];
+        final float[] fastest = new float[source.length];
+        GaussianBlur.gaussianBlurBox(source, standard, WIDTH, HEIGHT, 8, 3, GaussianBlur.BoxBlurType.STANDARD);
+        GaussianBlur.gaussianBlurBox(source, fast, WIDTH, HEIGHT, 8, 3, GaussianBlur.BoxBlurType.FAST);
+        GaussianBlur.gaussianBlurBox(source, fastest, WIDTH, HEIGHT, 8, 3, GaussianBlur.BoxBlurType.FASTEST);
+
+        float total = 0;
+        for (int i = 0; i < source.length; i++) {
+            assertEquals(fast[i], standard[i], 1e-4);
+            assertEquals(fastest[i], standard[i], 1e-4);
+            total += fastest[i];
+        }
+        assertTrue(total > 0);
+    }
+
+    @Test
+    public void testScratchChannelReuse() {
+        final float[] scratch = new float[WIDTH * HEIGHT];
+        final float[] expected = new float[WIDTH * HEIGHT];
+        final float[] actual = new float[WIDTH * HEIGHT];
+        for (int seed = 0; seed < 3; seed++) {
+            final float[] source = randomPoints(seed);
+            GaussianBlur.gaussianBlurBox(source, expected, WIDTH, HEIGHT, 16, 3, GaussianBlur.BoxBlurType.FASTEST);
+            GaussianBlur.gaussianBlurBox(source, actual, scratch, WIDTH, HEIGHT, 16, 3, GaussianBlur.BoxBlurType.FASTEST);
+            assertEquals(actual, expected);
+        }
+    }
+
+    @Test
+    public void testNormaliseConstantChannel() {
+        final float[] channel = {3, 3, 3};
+        GaussianBlur.normalise(channel, 255);
+        assertEquals(channel, new float[]{0, 0, 0});
+    }
+}
@@ -130,6 +130,7 @@ public final class GraphVisualAccess implements VisualAccess {
     private long globalModCount = -1;
     private long structureModCount = -1;
     private long attributeModCount = -1;
+    private long undoCount = -1;
     private final Map<SchemaAttribute, Long> modCounts = new HashMap<>();
     private long[] topLabelModCounts = new long[0];
     private long[] bottomLabelModCounts = new long[0];
@@ -142,6 +143,7 @@ public final class GraphVisualAccess implements VisualAccess {
     private GraphElementType[] connectionElementTypes = new GraphElementType[0];
     private int[] connectionElementIds = new int[0];
     private int[] linkStartingPositions = new int[0];
+    private int[] transactionConnectionPositions = new int[0];
     
     public GraphVisualAccess(final Graph graph) {
         this.graph = graph;
@@ -384,6 +386,18 @@ public final class GraphVisualAccess implements VisualAccess {
                 }
             }
 
+            // Changes to the values of an attribute only need to cover the
+            // modified elements, unless the elements or attributes themselves
+            // have changed, or an undo has made the previous counts ambiguous
+            final long currentUndoCount = accessGraph.getUndoCounter();
+            final boolean undone = currentUndoCount != undoCount;
+            if (recordChanges) {
+                undoCount = currentUndoCount;
+            }
+            final boolean trackVertices = !verticesRebuilding && !attributesChanged && !undone;
+            final boolean trackConnections = !connectionsRebuilding && !attributesChanged && !undone;
+            Long previousCount;
+
             // Handle changes to the graph's referred vertex color attribute
             boolean vertexColorChanged = false;
             count = graphVertexColorRef == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(graphVertexColorRef);
@@ -399,8 +413,9 @@ public final class GraphVisualAccess implements VisualAccess {
             // Handle changes to vertex colors
             if (recordChanges) {
                 count = vertexColor == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexColor);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.COLOR, count)) || vertexColorChanged) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_COLOR).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.COLOR, count);
+                if (!Objects.equals(count, previousCount) || vertexColorChanged) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_COLOR, getModifiedVertices(vertexColor, previousCount, trackVertices && !vertexColorChanged)));
                 }
             }
 
@@ -419,8 +434,9 @@ public final class GraphVisualAccess implements VisualAccess {
             // Handle changes to transaction colors
             if (recordChanges) {
                 count = transactionColor == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionColor);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.TransactionAttribute.COLOR, count)) || transactionColorChanged) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_COLOR).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(VisualConcept.TransactionAttribute.COLOR, count);
+                if (!Objects.equals(count, previousCount) || transactionColorChanged) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_COLOR, getModifiedConnections(transactionColor, previousCount, trackConnections && !transactionColorChanged)));
                 }
             }
 
@@ -480,98 +496,187 @@ public final class GraphVisualAccess implements VisualAccess {
 
                 // Handle stand-alone changes to vertex visual attributes
                 count = vertexX == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexX);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.X, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_X).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.X, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_X, getModifiedVertices(vertexX, previousCount, trackVertices)));
                 }
                 count = vertexY == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexY);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.Y, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_Y).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.Y, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_Y, getModifiedVertices(vertexY, previousCount, trackVertices)));
                 }
                 count = vertexZ == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexZ);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.Z, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_Z).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.Z, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_Z, getModifiedVertices(vertexZ, previousCount, trackVertices)));
                 }
                 count = vertexX2 == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexX2);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.X2, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_X2).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.X2, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_X2, getModifiedVertices(vertexX2, previousCount, trackVertices)));
                 }
                 count = vertexY2 == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexY2);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.Y2, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_Y2).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.Y2, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_Y2, getModifiedVertices(vertexY2, previousCount, trackVertices)));
                 }
                 count = vertexZ2 == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexZ2);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.Z2, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_Z2).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.Z2, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_Z2, getModifiedVertices(vertexZ2, previousCount, trackVertices)));
                 }
                 count = vertexBackgroundIcon == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexBackgroundIcon);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.BACKGROUND_ICON, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_BACKGROUND_ICON).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.BACKGROUND_ICON, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_BACKGROUND_ICON, getModifiedVertices(vertexBackgroundIcon, previousCount, trackVertices)));
                 }
                 count = vertexForegroundIcon == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexForegroundIcon);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.FOREGROUND_ICON, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_FOREGROUND_ICON).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.FOREGROUND_ICON, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_FOREGROUND_ICON, getModifiedVertices(vertexForegroundIcon, previousCount, trackVertices)));
                 }
                 count = vertexSelected == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexSelected);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.SELECTED, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_SELECTED).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.SELECTED, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_SELECTED, getModifiedVertices(vertexSelected, previousCount, trackVertices)));
                 }
                 count = vertexVisibility == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexVisibility);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.VISIBILITY, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_VISIBILITY).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.VISIBILITY, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_VISIBILITY, getModifiedVertices(vertexVisibility, previousCount, trackVertices)));
                 }
                 count = vertexLayerVisibility == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexLayerVisibility);
-                if (!Objects.equals(count, modCounts.put(LayersConcept.VertexAttribute.LAYER_VISIBILITY, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_VISIBILITY).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(LayersConcept.VertexAttribute.LAYER_VISIBILITY, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_VISIBILITY, getModifiedVertices(vertexLayerVisibility, previousCount, trackVertices)));
                 }
                 count = vertexDimmed == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexDimmed);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.DIMMED, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_DIM).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.DIMMED, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_DIM, getModifiedVertices(vertexDimmed, previousCount, trackVertices)));
                 }
                 count = vertexRadius == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexRadius);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.NODE_RADIUS, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_RADIUS).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.NODE_RADIUS, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_RADIUS, getModifiedVertices(vertexRadius, previousCount, trackVertices)));
                 }
                 count = vertexBlaze == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(vertexBlaze);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.VertexAttribute.BLAZE, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_BLAZED).forItems(accessGraph.getVertexCount()).build());
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_BLAZE_ANGLE).forItems(accessGraph.getVertexCount()).build());
-                    changes.add(new VisualChangeBuilder(VisualProperty.VERTEX_BLAZE_COLOR).forItems(accessGraph.getVertexCount()).build());
+                previousCount = modCounts.put(VisualConcept.VertexAttribute.BLAZE, count);
+                if (!Objects.equals(count, previousCount)) {
+                    final int[] modifiedVertices = getModifiedVertices(vertexBlaze, previousCount, trackVertices);
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_BLAZED, modifiedVertices));
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_BLAZE_ANGLE, modifiedVertices));
+                    changes.add(buildVertexChange(VisualProperty.VERTEX_BLAZE_COLOR, modifiedVertices));
                 }
 
                 // Handle stand-alone changes to transaction visual attributes
                 count = transactionSelected == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionSelected);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.TransactionAttribute.SELECTED, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_SELECTED).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(VisualConcept.TransactionAttribute.SELECTED, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_SELECTED, getModifiedConnections(transactionSelected, previousCount, trackConnections)));
                 }
                 count = transactionDirected == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionDirected);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.TransactionAttribute.DIRECTED, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_DIRECTED).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(VisualConcept.TransactionAttribute.DIRECTED, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_DIRECTED, getModifiedConnections(transactionDirected, previousCount, trackConnections)));
                 }
                 count = transactionVisibility == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionVisibility);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.TransactionAttribute.VISIBILITY, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_VISIBILITY).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(VisualConcept.TransactionAttribute.VISIBILITY, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_VISIBILITY, getModifiedConnections(transactionVisibility, previousCount, trackConnections)));
                 }
                 count = transactionLayerVisibility == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionLayerVisibility);
-                if (!Objects.equals(count, modCounts.put(LayersConcept.TransactionAttribute.LAYER_VISIBILITY, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_VISIBILITY).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(LayersConcept.TransactionAttribute.LAYER_VISIBILITY, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_VISIBILITY, getModifiedConnections(transactionLayerVisibility, previousCount, trackConnections)));
                 }
                 count = transactionDimmed == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionDimmed);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.TransactionAttribute.DIMMED, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_DIM).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(VisualConcept.TransactionAttribute.DIMMED, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_DIM, getModifiedConnections(transactionDimmed, previousCount, trackConnections)));
                 }
                 count = transactionLineStyle == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionLineStyle);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.TransactionAttribute.LINE_STYLE, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_LINESTYLE).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(VisualConcept.TransactionAttribute.LINE_STYLE, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_LINESTYLE, getModifiedConnections(transactionLineStyle, previousCount, trackConnections)));
                 }
                 count = transactionWidth == Graph.NOT_FOUND ? -1 : accessGraph.getValueModificationCounter(transactionWidth);
-                if (!Objects.equals(count, modCounts.put(VisualConcept.TransactionAttribute.WIDTH, count))) {
-                    changes.add(new VisualChangeBuilder(VisualProperty.CONNECTION_WIDTH).forItems(connectionElementTypes.length).build());
+                previousCount = modCounts.put(VisualConcept.TransactionAttribute.WIDTH, count);
+                if (!Objects.equals(count, previousCount)) {
+                    changes.add(buildConnectionChange(VisualProperty.CONNECTION_WIDTH, getModifiedConnections(transactionWidth, previousCount, trackConnections)));
                 }
             }
         }
         return changes;
     }
 
+    /**
+     * Get the positions of the vertices whose value for the given attribute
+     * has changed since the attribute had the given modification counter.
+     *
+     * @param attribute the vertex attribute.
+     * @param previousCount the previous modification counter of the attribute.
+     * @param track whether the modified elements can be used.
+     * @return the positions of the modified vertices, or null if they are
+     * unknown and every vertex should be updated.
+     */
+    private int[] getModifiedVertices(final int attribute, final Long previousCount, final boolean track) {
+        if (!track || attribute == Graph.NOT_FOUND || previousCount == null) {
+            return null;
+        }
+        final int[] modified = accessGraph.getModifiedElements(attribute, previousCount);
+        if (modified == null) {
+            return null;
+        }
+        for (int i = 0; i < modified.length; i++) {
+            modified[i] = accessGraph.getVertexPosition(modified[i]);
+            if (modified[i] < 0) {
+                return null;
+            }
+        }
+        return modified;
+    }
+
+    /**
+     * Get the positions of the connections containing transactions whose value
+     * for the given attribute has changed since the attribute had the given
+     * modification counter.
+     *
+     * @param attribute the transaction attribute.
+     * @param previousCount the previous modification counter of the attribute.
+     * @param track whether the modified elements can be used.
+     * @return the positions of the modified connections, or null if they are
+     * unknown and every connection should be updated.
+     */
+    private int[] getModifiedConnections(final int attribute, final Long previousCount, final boolean track) {
+        if (!track || attribute == Graph.NOT_FOUND || previousCount == null) {
+            return null;
+        }
+        final int[] modified = accessGraph.getModifiedElements(attribute, previousCount);
+        if (modified == null) {
+            return null;
+        }
+        for (int i = 0; i < modified.length; i++) {
+            if (modified[i] >= transactionConnectionPositions.length || transactionConnectionPositions[modified[i]] < 0) {
+                return null;
+            }
+            modified[i] = transactionConnectionPositions[modified[i]];
+        }
+
+        // several transactions can share a connection
+        return Arrays.stream(modified).sorted().distinct().toArray();
+    }
+
+    private VisualChange buildVertexChange(final VisualProperty property, final int[] modifiedVertices) {
+        final VisualChangeBuilder builder = new VisualChangeBuilder(property);
+        return (modifiedVertices == null ? builder.forItems(accessGraph.getVertexCount()) : builder.forItems(modifiedVertices)).build();
+    }
+
+    private VisualChange buildConnectionChange(final VisualProperty property, final int[] modifiedConnections) {
+        final VisualChangeBuilder builder = new VisualChangeBuilder(property);
+        return (modifiedConnections == null ? builder.forItems(connectionElementTypes.length) : builder.forItems(modifiedConnections)).build();
+    }
+
     private void recalculateVisualAttributes(final GraphReadMethods rg) {
         graphBackgroundColor = VisualConcept.GraphAttribute.BACKGROUND_COLOR.get(rg);
         graphHighlightColor = VisualConcept.GraphAttribute.HIGHLIGHT_COLOR.get(rg);
@@ -709,6 +814,8 @@ public final class GraphVisualAccess implements VisualAccess {
         connectionElementTypes = new GraphElementType[connectionUpperBound];
         connectionElementIds = new int[connectionUpperBound];
         linkStartingPositions = new int[linkCount];
+        transactionConnectionPositions = new int[readGraph.getTransactionCapacity()];
+        Arrays.fill(transactionConnectionPositions, -1);
         int currentPos = 0;
         for (int i = 0; i < linkCount; i++) {
             final int linkId = readGraph.getLink(i);
@@ -719,6 +826,7 @@ public final class GraphVisualAccess implements VisualAccess {
                         for (int j = 0; j < readGraph.getLinkTransactionCount(linkId); j++) {
                             connectionElementTypes[currentPos] = GraphElementType.TRANSACTION;
                             connectionElementIds[currentPos] = readGraph.getLinkTransaction(linkId, j);
+                            transactionConnectionPositions[connectionElementIds[currentPos]] = currentPos;
                             currentPos++;
                         }
                         break;
@@ -728,12 +836,18 @@ public final class GraphVisualAccess implements VisualAccess {
                     for (int j = 0; j < readGraph.getLinkEdgeCount(linkId); j++) {
                         connectionElementTypes[currentPos] = GraphElementType.EDGE;
                         connectionElementIds[currentPos] = readGraph.getLinkEdge(linkId, j);
+                        for (int k = 0; k < readGraph.getEdgeTransactionCount(connectionElementIds[currentPos]); k++) {
+                            transactionConnectionPositions[readGraph.getEdgeTransaction(connectionElementIds[currentPos], k)] = currentPos;
+                        }
                         currentPos++;
                     }
                     break;
                 case LINK:
                     connectionElementTypes[currentPos] = GraphElementType.LINK;
                     connectionElementIds[currentPos] = linkId;
+                    for (int k = 0; k < readGraph.getLinkTransactionCount(linkId); k++) {
+                        transactionConnectionPositions[readGraph.getLinkTransaction(linkId, k)] = currentPos;
+                    }
                     currentPos++;
                     break;
                 default:
@@ -0,0 +1,603 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.webserver.api;
+
+import au.gov.asd.tac.constellation.graph.attribute.BooleanAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.BooleanObjectAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.DoubleAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.FloatAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.FloatObjectAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.IntegerObjectAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.LongAttributeDescription;
+import au.gov.asd.tac.constellation.graph.attribute.ZonedDateTimeAttributeDescription;
+import au.gov.asd.tac.constellation.graph.processing.RecordStore;
+import au.gov.asd.tac.constellation.graph.processing.TypedRecordStore;
+import au.gov.asd.tac.constellation.graph.schema.visual.attribute.ColorAttributeDescription;
+import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
+import au.gov.asd.tac.constellation.utilities.text.SeparatorConstants;
+import au.gov.asd.tac.constellation.webserver.restapi.RestServiceException;
+import au.gov.asd.tac.constellation.webserver.restapi.RestServiceUtilities;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read and write RecordStores as streams of JSON or binary data, without
+ * holding a second copy of the data in memory.
+ * <p>
+ * The JSON format is the one used by pandas.DataFrame.to_json(orient='split')
+ * and pandas.read_json(orient='split'):
+ * <pre>
+ * {"columns":["A","B"],"data":[[1,"a"],[2,"b"],[3,"c"]]}
+ * </pre>
+ * <p>
+ * The binary format holds the same table as typed columns, so that a client
+ * can load each column straight into an array. All numbers are big-endian.
+ * <pre>
+ * magic        4 bytes "CRSB"
+ * version      int32 (1)
+ * columnCount  int32
+ * rowCount     int32
+ * columnCount columns, each of:
+ *     nameLength  int32
+ *     name        nameLength bytes of UTF-8
+ *     type        int8 (one of the TYPE_ constants)
+ *     validity    rowCount bytes, 1 if the row has a value, 0 if it is null
+ *     values      depending on the type:
+ *                 TYPE_BOOLEAN  rowCount bytes, 1 for true, 0 for false
+ *                 TYPE_INT32    rowCount int32 values
+ *                 TYPE_INT64    rowCount int64 values
+ *                 TYPE_FLOAT32  rowCount float32 values
+ *                 TYPE_FLOAT64  rowCount float64 values
+ *                 TYPE_COLOR    rowCount groups of four float32 values (red, green, blue, alpha)
+ *                 TYPE_STRING   rowCount + 1 int32 offsets, followed by offsets[rowCount] bytes of UTF-8;
+ *                               the value of row i is the bytes from offsets[i] to offsets[i + 1]
+ * </pre> Values for null rows are present but ignored.
+ *
+ * @author algol
+ */
+public class RecordStoreStreams {
+
+    public static final String FORMAT_JSON = "json";
+    public static final String FORMAT_BINARY = "binary";
+
+    public static final byte TYPE_BOOLEAN = 1;
+    public static final byte TYPE_INT32 = 2;
+    public static final byte TYPE_INT64 = 3;
+    public static final byte TYPE_FLOAT32 = 4;
+    public static final byte TYPE_FLOAT64 = 5;
+    public static final byte TYPE_COLOR = 6;
+    public static final byte TYPE_STRING = 7;
+
+    private static final byte[] MAGIC = {'C', 'R', 'S', 'B'};
+    private static final int VERSION = 1;
+
+    private static final String COLUMNS = "columns";
+    private static final String DATA = "data";
+
+    private static final String COLUMNS_ERROR = "Could not find columns object containing column names";
+    private static final String DATA_ERROR = "Could not find data object containing data rows";
+
+    private RecordStoreStreams() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Check the value of a format parameter.
+     *
+     * @param format The format, or null for the default JSON format.
+     *
+     * @return True if the format is binary, false if it is JSON.
+     */
+    public static boolean isBinary(final String format) {
+        if (format == null || format.isEmpty() || FORMAT_JSON.equalsIgnoreCase(format)) {
+            return false;
+        } else if (FORMAT_BINARY.equalsIgnoreCase(format)) {
+            return true;
+        } else {
+            throw new RestServiceException(String.format("Unknown format '%s': expected '%s' or '%s'", format, FORMAT_JSON, FORMAT_BINARY));
+        }
+    }
+
+    /**
+     * The MIME type of a RecordStore in the given format.
+     *
+     * @param format The format, or null for the default JSON format.
+     *
+     * @return A String containing a MIME type.
+     */
+    public static String getMimeType(final String format) {
+        return isBinary(format) ? RestServiceUtilities.APPLICATION_OCTET_STREAM : RestServiceUtilities.APPLICATION_JSON;
+    }
+
+    /**
+     * Convert a "key&lt;type&gt;" to "key|type" to make things slightly easier
+     * for the client.
+     *
+     * @param attrWithType A key with its type.
+     *
+     * @return The key and type separated by a pipe.
+     */
+    public static String keyedName(final String attrWithType) {
+        final int ix = attrWithType.lastIndexOf('<');
+
+        return attrWithType.substring(0, ix) + SeparatorConstants.PIPE + attrWithType.substring(ix + 1, attrWithType.length() - 1);
+    }
+
+    private static String typeOf(final String attrWithType) {
+        return attrWithType.substring(attrWithType.lastIndexOf('<') + 1, attrWithType.length() - 1);
+    }
+
+    /**
+     * Read a JSON document in the "split" format into a RecordStore, one token
+     * at a time.
+     * <p>
+     * Null values are not added to the RecordStore, arrays are added as lists,
+     * and everything else is added as text. The index array is ignored.
+     *
+     * @param in The JSON document.
+     * @param recordStore The RecordStore to add a record to for each data row.
+     *
+     * @return The column names.
+     *
+     * @throws IOException
+     */
+    public static String[] readJson(final InputStream in, final RecordStore recordStore) throws IOException {
+        final ObjectMapper mapper = new ObjectMapper();
+        try (final JsonParser parser = mapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RestServiceException(COLUMNS_ERROR);
+            }
+
+            String[] headers = null;
+            JsonNode bufferedData = null;
+            boolean dataFound = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.getCurrentName();
+                final JsonToken token = parser.nextToken();
+                if (COLUMNS.equals(fieldName)) {
+                    if (token != JsonToken.START_ARRAY) {
+                        throw new RestServiceException(COLUMNS_ERROR);
+                    }
+                    headers = readHeaders(parser, mapper);
+                    if (bufferedData != null) {
+                        // The data came before the columns, so it had to be held until now.
+                        try (final JsonParser dataParser = bufferedData.traverse(mapper)) {
+                            dataParser.nextToken();
+                            readRows(dataParser, mapper, headers, recordStore);
+                        }
+                        bufferedData = null;
+                    }
+                } else if (DATA.equals(fieldName)) {
+                    if (token != JsonToken.START_ARRAY) {
+                        throw new RestServiceException(DATA_ERROR);
+                    }
+                    dataFound = true;
+                    if (headers != null) {
+                        readRows(parser, mapper, headers, recordStore);
+                    } else {
+                        bufferedData = mapper.readTree(parser);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (headers == null) {
+                throw new RestServiceException(COLUMNS_ERROR);
+            }
+            if (!dataFound) {
+                throw new RestServiceException(DATA_ERROR);
+            }
+
+            return headers;
+        }
+    }
+
+    private static String[] readHeaders(final JsonParser parser, final ObjectMapper mapper) throws IOException {
+        final List<String> headers = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token.isStructStart()) {
+                final JsonNode node = mapper.readTree(parser);
+                headers.add(node.asText());
+            } else {
+                headers.add(parser.getText());
+            }
+        }
+
+        return headers.toArray(new String[headers.size()]);
+    }
+
+    private static void readRows(final JsonParser parser, final ObjectMapper mapper, final String[] headers, final RecordStore recordStore) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_ARRAY) {
+                throw new RestServiceException("Data rows must be arrays");
+            }
+
+            recordStore.add();
+            int ix = 0;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (ix >= headers.length) {
+                    parser.skipChildren();
+                } else {
+                    switch (token) {
+                        case VALUE_NULL:
+                            break;
+                        case START_ARRAY:
+                            recordStore.set(headers[ix], RestServiceUtilities.toList((ArrayNode) mapper.readTree(parser)));
+                            break;
+                        case START_OBJECT:
+                            final JsonNode node = mapper.readTree(parser);
+                            recordStore.set(headers[ix], node.asText());
+                            break;
+                        case VALUE_NUMBER_INT:
+                            recordStore.set(headers[ix], parser.getNumberValue().toString());
+                            break;
+                        case VALUE_NUMBER_FLOAT:
+                            recordStore.set(headers[ix], Double.toString(parser.getDoubleValue()));
+                            break;
+                        default:
+                            recordStore.set(headers[ix], parser.getText());
+                            break;
+                    }
+                }
+                ix++;
+            }
+        }
+    }
+
+    /**
+     * Write the given keys of a RecordStore as a JSON document in the "split"
+     * format, one record at a time.
+     *
+     * @param out The stream to write to.
+     * @param recordStore The RecordStore.
+     * @param typedKeys The keys to write, each in the form "key&lt;type&gt;".
+     *
+     * @throws IOException
+     */
+    public static void writeJson(final OutputStream out, final RecordStore recordStore, final List<String> typedKeys) throws IOException {
+        final String[] types = new String[typedKeys.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = typeOf(typedKeys.get(i));
+        }
+
+        try (final JsonGenerator generator = new ObjectMapper().getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+
+            generator.writeArrayFieldStart(COLUMNS);
+            for (final String kt : typedKeys) {
+                generator.writeString(keyedName(kt));
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart(DATA);
+            if (!typedKeys.isEmpty()) {
+                recordStore.reset();
+                while (recordStore.next()) {
+                    generator.writeStartArray();
+                    for (int i = 0; i < types.length; i++) {
+                        RestUtilities.addData(generator, types[i], recordStore.get(typedKeys.get(i)));
+                    }
+                    generator.writeEndArray();
+                }
+            }
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Read a RecordStore in the binary format.
+     * <p>
+     * Typed columns are added to the RecordStore without converting them to
+     * strings, apart from keys such as "source.[id]" that the graph expects to
+     * be strings.
+     *
+     * @param in The binary data.
+     * @param recordStore The RecordStore to add a record to for each row.
+     *
+     * @return The column names.
+     *
+     * @throws IOException
+     */
+    public static String[] readBinary(final InputStream in, final TypedRecordStore recordStore) throws IOException {
+        final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+
+        final byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new RestServiceException("The data is not a binary RecordStore");
+        }
+        final int version = data.readInt();
+        if (version != VERSION) {
+            throw new RestServiceException("Unsupported binary RecordStore version " + version);
+        }
+        final int columnCount = data.readInt();
+        final int rowCount = data.readInt();
+        if (columnCount < 0 || rowCount < 0) {
+            throw new RestServiceException("Invalid binary RecordStore size");
+        }
+
+        final int firstRecord = recordStore.size();
+        for (int row = 0; row < rowCount; row++) {
+            recordStore.add();
+        }
+
+        final String[] headers = new String[columnCount];
+        final byte[] valid = new byte[rowCount];
+        for (int column = 0; column < columnCount; column++) {
+            final String key = readString(data, data.readInt());
+            headers[column] = key;
+            final byte type = data.readByte();
+            data.readFully(valid);
+
+            final boolean typed = !isStringKey(key);
+            switch (type) {
+                case TYPE_BOOLEAN:
+                    for (int row = 0; row < rowCount; row++) {
+                        final boolean value = data.readByte() != 0;
+                        if (valid[row] != 0) {
+                            if (typed) {
+                                recordStore.setBoolean(firstRecord + row, key, value);
+                            } else {
+                                recordStore.set(firstRecord + row, key, Boolean.toString(value));
+                            }
+                        }
+                    }
+                    break;
+                case TYPE_INT32:
+                    for (int row = 0; row < rowCount; row++) {
+                        final int value = data.readInt();
+                        if (valid[row] != 0) {
+                            if (typed) {
+                                recordStore.setInt(firstRecord + row, key, value);
+                            } else {
+                                recordStore.set(firstRecord + row, key, Integer.toString(value));
+                            }
+                        }
+                    }
+                    break;
+                case TYPE_INT64:
+                    for (int row = 0; row < rowCount; row++) {
+                        final long value = data.readLong();
+                        if (valid[row] != 0) {
+                            if (typed) {
+                                recordStore.setLong(firstRecord + row, key, value);
+                            } else {
+                                recordStore.set(firstRecord + row, key, Long.toString(value));
+                            }
+                        }
+                    }
+                    break;
+                case TYPE_FLOAT32:
+                    for (int row = 0; row < rowCount; row++) {
+                        final float value = data.readFloat();
+                        if (valid[row] != 0) {
+                            if (typed) {
+                                recordStore.setDouble(firstRecord + row, key, value);
+                            } else {
+                                recordStore.set(firstRecord + row, key, Float.toString(value));
+                            }
+                        }
+                    }
+                    break;
+                case TYPE_FLOAT64:
+                    for (int row = 0; row < rowCount; row++) {
+                        final double value = data.readDouble();
+                        if (valid[row] != 0) {
+                            if (typed) {
+                                recordStore.setDouble(firstRecord + row, key, value);
+                            } else {
+                                recordStore.set(firstRecord + row, key, Double.toString(value));
+                            }
+                        }
+                    }
+                    break;
+                case TYPE_COLOR:
+                    for (int row = 0; row < rowCount; row++) {
+                        final List<Float> rgba = Arrays.asList(data.readFloat(), data.readFloat(), data.readFloat(), data.readFloat());
+                        if (valid[row] != 0) {
+                            recordStore.set(firstRecord + row, key, rgba);
+                        }
+                    }
+                    break;
+                case TYPE_STRING:
+                    final int[] offsets = new int[rowCount + 1];
+                    for (int row = 0; row <= rowCount; row++) {
+                        offsets[row] = data.readInt();
+                        if (offsets[row] < (row == 0 ? 0 : offsets[row - 1])) {
+                            throw new RestServiceException(String.format("Invalid string offsets in column '%s'", key));
+                        }
+                    }
+                    final byte[] bytes = new byte[offsets[rowCount]];
+                    data.readFully(bytes);
+                    for (int row = 0; row < rowCount; row++) {
+                        if (valid[row] != 0) {
+                            recordStore.set(firstRecord + row, key, new String(bytes, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8));
+                        }
+                    }
+                    break;
+                default:
+                    throw new RestServiceException(String.format("Unknown type %d for column '%s'", type, key));
+            }
+        }
+
+        return headers;
+    }
+
+    /**
+     * Keys such as "source.[id]" are matched by the graph as strings, so they
+     * are not given a primitive column.
+     */
+    private static boolean isStringKey(final String key) {
+        final int ix = key.indexOf('.');
+        return ix != -1 && key.startsWith("[", ix + 1);
+    }
+
+    private static String readString(final DataInputStream data, final int length) throws IOException {
+        if (length < 0) {
+            throw new RestServiceException("Invalid binary RecordStore column name");
+        }
+        final byte[] bytes = new byte[length];
+        data.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write the given keys of a RecordStore in the binary format, one column
+     * at a time.
+     * <p>
+     * The columns are named "key|type" as in the JSON format, and hold the same
+     * values: booleans are never null, and the time zone name is removed from
+     * datetimes.
+     *
+     * @param out The stream to write to.
+     * @param recordStore The RecordStore.
+     * @param typedKeys The keys to write, each in the form "key&lt;type&gt;".
+     *
+     * @throws IOException
+     */
+    public static void writeBinary(final OutputStream out, final RecordStore recordStore, final List<String> typedKeys) throws IOException {
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        final int rowCount = typedKeys.isEmpty() ? 0 : recordStore.size();
+
+        data.write(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(typedKeys.size());
+        data.writeInt(rowCount);
+
+        final String[] values = new String[rowCount];
+        for (final String kt : typedKeys) {
+            final byte[] name = keyedName(kt).getBytes(StandardCharsets.UTF_8);
+            data.writeInt(name.length);
+            data.write(name);
+
+            final String type = typeOf(kt);
+            final byte binaryType = getBinaryType(type);
+            data.writeByte(binaryType);
+
+            for (int row = 0; row < rowCount; row++) {
+                values[row] = recordStore.get(row, kt);
+            }
+            for (int row = 0; row < rowCount; row++) {
+                // A DataFrame can't hold nulls in a boolean column, so null is written as false.
+                data.writeByte(values[row] != null || binaryType == TYPE_BOOLEAN ? 1 : 0);
+            }
+
+            switch (binaryType) {
+                case TYPE_BOOLEAN:
+                    for (int row = 0; row < rowCount; row++) {
+                        data.writeByte(Boolean.parseBoolean(values[row]) ? 1 : 0);
+                    }
+                    break;
+                case TYPE_INT32:
+                    for (int row = 0; row < rowCount; row++) {
+                        data.writeInt(values[row] == null ? 0 : Integer.parseInt(values[row]));
+                    }
+                    break;
+                case TYPE_INT64:
+                    for (int row = 0; row < rowCount; row++) {
+                        data.writeLong(values[row] == null ? 0L : Long.parseLong(values[row]));
+                    }
+                    break;
+                case TYPE_FLOAT32:
+                    for (int row = 0; row < rowCount; row++) {
+                        data.writeFloat(values[row] == null ? Float.NaN : Float.parseFloat(values[row]));
+                    }
+                    break;
+                case TYPE_FLOAT64:
+                    for (int row = 0; row < rowCount; row++) {
+                        data.writeDouble(values[row] == null ? Double.NaN : Double.parseDouble(values[row]));
+                    }
+                    break;
+                case TYPE_COLOR:
+                    for (int row = 0; row < rowCount; row++) {
+                        final ConstellationColor color = values[row] == null ? null : ConstellationColor.getColorValue(values[row]);
+                        data.writeFloat(color == null ? 0F : color.getRed());
+                        data.writeFloat(color == null ? 0F : color.getGreen());
+                        data.writeFloat(color == null ? 0F : color.getBlue());
+                        data.writeFloat(color == null ? 0F : color.getAlpha());
+                    }
+                    break;
+                default:
+                    final boolean datetime = ZonedDateTimeAttributeDescription.ATTRIBUTE_NAME.equals(type);
+                    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    data.writeInt(0);
+                    for (int row = 0; row < rowCount; row++) {
+                        if (values[row] != null) {
+                            final String value;
+                            if (datetime) {
+                                // Remove the trailing tz name if present.
+                                final int ix = values[row].lastIndexOf(" [");
+                                value = ix == -1 ? values[row] : values[row].substring(0, ix);
+                            } else {
+                                value = values[row];
+                            }
+                            bytes.write(value.getBytes(StandardCharsets.UTF_8));
+                        }
+                        data.writeInt(bytes.size());
+                    }
+                    bytes.writeTo(data);
+                    break;
+            }
+        }
+
+        data.flush();
+    }
+
+    private static byte getBinaryType(final String type) {
+        switch (type) {
+            case BooleanAttributeDescription.ATTRIBUTE_NAME:
+            case BooleanObjectAttributeDescription.ATTRIBUTE_NAME:
+                return TYPE_BOOLEAN;
+            case IntegerAttributeDescription.ATTRIBUTE_NAME:
+            case IntegerObjectAttributeDescription.ATTRIBUTE_NAME:
+                return TYPE_INT32;
+            case LongAttributeDescription.ATTRIBUTE_NAME:
+                return TYPE_INT64;
+            case FloatAttributeDescription.ATTRIBUTE_NAME:
+            case FloatObjectAttributeDescription.ATTRIBUTE_NAME:
+                return TYPE_FLOAT32;
+            case DoubleAttributeDescription.ATTRIBUTE_NAME:
+                return TYPE_FLOAT64;
+            case ColorAttributeDescription.ATTRIBUTE_NAME:
+                return TYPE_COLOR;
+            default:
+                return TYPE_STRING;
+        }
+    }
+}
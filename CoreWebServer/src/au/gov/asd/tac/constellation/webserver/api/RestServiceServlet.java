@@ -99,7 +99,7 @@ public class RestServiceServlet extends ConstellationApiServlet {
         // Call the service.
         //
         try {
-            response.setContentType(rs.getMimeType());
+            response.setContentType(rs.getMimeType(parameters));
             response.setStatus(HttpServletResponse.SC_OK);
             rs.callService(parameters, request.getInputStream(), response.getOutputStream());
         } catch (final RestServiceException ex) {
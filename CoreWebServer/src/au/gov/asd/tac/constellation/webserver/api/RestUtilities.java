@@ -27,7 +27,9 @@ import au.gov.asd.tac.constellation.graph.manager.GraphManager;
 import au.gov.asd.tac.constellation.graph.schema.visual.attribute.ColorAttributeDescription;
 import au.gov.asd.tac.constellation.utilities.color.ConstellationColor;
 import au.gov.asd.tac.constellation.webserver.restapi.RestServiceException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import java.io.IOException;
 
 /**
  * A collection of utilities for the REST API.
@@ -107,4 +109,65 @@ public class RestUtilities {
                 break;
         }
     }
+
+    /**
+     * Write a value to a column that is being streamed.
+     * <p>
+     * The value is written in the same way as
+     * {@link #addData(ArrayNode, String, String)} adds it.
+     *
+     * @param row The JSON generator that is writing the column.
+     * @param type The type of the value.
+     * @param value The (possibly null) value.
+     *
+     * @throws IOException
+     */
+    public static void addData(final JsonGenerator row, final String type, final String value) throws IOException {
+        switch (type) {
+            case BooleanAttributeDescription.ATTRIBUTE_NAME:
+            case BooleanObjectAttributeDescription.ATTRIBUTE_NAME:
+                row.writeBoolean(Boolean.parseBoolean(value));
+                break;
+            case ColorAttributeDescription.ATTRIBUTE_NAME:
+                if (value == null) {
+                    row.writeNull();
+                } else {
+                    final ConstellationColor cv = ConstellationColor.getColorValue(value);
+                    row.writeStartArray();
+                    row.writeNumber(cv.getRed());
+                    row.writeNumber(cv.getGreen());
+                    row.writeNumber(cv.getBlue());
+                    row.writeNumber(cv.getAlpha());
+                    row.writeEndArray();
+                }
+                break;
+            case ZonedDateTimeAttributeDescription.ATTRIBUTE_NAME:
+                if (value == null) {
+                    row.writeNull();
+                } else {
+                    final int ix = value.lastIndexOf(" [");
+                    row.writeString(ix == -1 ? value : value.substring(0, ix));
+                }
+                break;
+            case FloatAttributeDescription.ATTRIBUTE_NAME:
+            case FloatObjectAttributeDescription.ATTRIBUTE_NAME:
+                if (value == null) {
+                    row.writeNull();
+                } else {
+                    row.writeNumber(Float.parseFloat(value));
+                }
+                break;
+            case IntegerAttributeDescription.ATTRIBUTE_NAME:
+            case IntegerObjectAttributeDescription.ATTRIBUTE_NAME:
+                if (value == null) {
+                    row.writeNull();
+                } else {
+                    row.writeNumber(Integer.parseInt(value));
+                }
+                break;
+            default:
+                row.writeString(value);
+                break;
+        }
+    }
 }
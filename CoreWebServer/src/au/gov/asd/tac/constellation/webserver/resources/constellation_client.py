@@ -9,6 +9,7 @@ import os
 import requests
 import pandas as pd
 from pathlib import Path
+import struct
 import subprocess
 import sys
 import tempfile
@@ -20,7 +21,7 @@ import time
 # For example, if a new function is added, clients that require that function
 # to be present can check the version.
 #
-__version__ = 20200326
+__version__ = 20210701
 
 # The HTTP header to be used to convey the server secret (if HTTP is used).
 #
@@ -33,6 +34,28 @@ _DEFAULT_PORT = 1517
 #
 ENV_VAR = 'CONSTELLATION_TRANSPORT'
 
+# The binary RecordStore format used by the get_recordstore and
+# add_recordstore services when format='binary'.
+# See RecordStoreStreams.java for a description of the format.
+#
+_BINARY_MAGIC = b'CRSB'
+_BINARY_VERSION = 1
+_BINARY_BOOLEAN = 1
+_BINARY_INT32 = 2
+_BINARY_INT64 = 3
+_BINARY_FLOAT32 = 4
+_BINARY_FLOAT64 = 5
+_BINARY_COLOR = 6
+_BINARY_STRING = 7
+
+_BINARY_DTYPES = {
+    _BINARY_BOOLEAN: np.dtype('u1'),
+    _BINARY_INT32: np.dtype('>i4'),
+    _BINARY_INT64: np.dtype('>i8'),
+    _BINARY_FLOAT32: np.dtype('>f4'),
+    _BINARY_FLOAT64: np.dtype('>f8')
+}
+
 REQUESTS = {
     'get': requests.get,
     'post': requests.post,
@@ -309,15 +332,17 @@ class Constellation:
         #
         response = td / json_response
         content = td / 'content.out'
-        sleep = 0
-        while sleep<30:
+        # CONSTELLATION responds as soon as it sees the request,
+        # so look for the response often rather than waiting a second each time.
+        #
+        timeout = time.monotonic() + 30
+        while time.monotonic()<timeout:
             # NFS is a truly terrible filesystem.
             # The obvious "response.is_file()" doesn't work here.
             #
             if json_response in os.listdir(td):
                 break
-            sleep += 1
-            time.sleep(1)
+            time.sleep(0.05)
 
         # We have response.json.
         # If content.out exists, get it and delete it.
@@ -443,12 +468,15 @@ class Constellation:
         :param attrs: A list of attribute names. If specified, only the
             listed attributes will be fetched.
         :param graph_id: The id of the graph to get data from.
+        :param format: 'json' (the default) or 'binary'. The binary format
+            is faster and uses less memory for large graphs. Float columns
+            are float32 rather than float64.
 
         :returns: A DataFrame containing the requested data.
         """
 
         args = {}
-        for arg in ['graphid', 'selected', 'vx', 'tx', 'attrs']:
+        for arg in ['graphid', 'selected', 'vx', 'tx', 'attrs', 'format']:
             if arg in kwargs:
                 value = kwargs[arg]
                 if arg=='attrs' and isinstance(value, list):
@@ -460,7 +488,10 @@ class Constellation:
         # We can't create a DataFrame if there is no data.
         #
         if data:
-            df = pd.read_json(data, orient='split', dtype=False, convert_dates=False)
+            if kwargs.get('format') == 'binary':
+                df = _frame_from_binary(data)
+            else:
+                df = pd.read_json(data, orient='split', dtype=False, convert_dates=False)
             df, self.types = self._fix_types(df)
             return df
         else:
@@ -501,15 +532,20 @@ class Constellation:
         :param reset_view: By default, CONSTELLATION will reset the view.
         Specify False to not do this.
         :param graph_id: The id of the graph to be updated.
+        :param format: 'json' (the default) or 'binary'. The binary format
+            is faster and uses less memory for large DataFrames.
         """
 
         args = {}
-        for arg in ['graphid', 'complete_with_schema', 'arrange', 'reset_view']:
+        for arg in ['graphid', 'complete_with_schema', 'arrange', 'reset_view', 'format']:
             if arg in kwargs:
                 args[arg] = kwargs[arg]
 
-        j = df.to_json(orient='split', date_format='iso')
-        self.call_service('add_recordstore', verb='post', args=args, data=j.encode('utf-8'), headers={'Content-Type': 'application/json'})
+        if kwargs.get('format') == 'binary':
+            self.call_service('add_recordstore', verb='post', args=args, data=_frame_to_binary(df), headers={'Content-Type': 'application/octet-stream'})
+        else:
+            j = df.to_json(orient='split', date_format='iso')
+            self.call_service('add_recordstore', verb='post', args=args, data=j.encode('utf-8'), headers={'Content-Type': 'application/json'})
 
     def get_attributes(self, graph_id=None):
         """Get the graph, node, and transaction attributes of the current or specified graph.
@@ -736,6 +772,103 @@ def _get_rest(rest=None):
 
     return data
 
+def _frame_from_binary(data):
+    """Create a DataFrame from a binary RecordStore.
+
+    Each column is read straight into an array. As with JSON, nulls in
+    integer columns turn the column into float64 NaNs, and nulls in other
+    columns are NaN or None."""
+
+    buf = memoryview(data)
+    if bytes(buf[:4]) != _BINARY_MAGIC:
+        raise ValueError('The data is not a binary RecordStore')
+    version, ncols, nrows = struct.unpack_from('>iii', buf, 4)
+    if version != _BINARY_VERSION:
+        raise ValueError(f'Unsupported binary RecordStore version {version}')
+
+    pos = 16
+    columns = {}
+    for _ in range(ncols):
+        name_len, = struct.unpack_from('>i', buf, pos)
+        pos += 4
+        name = bytes(buf[pos:pos+name_len]).decode('utf-8')
+        pos += name_len
+        col_type = buf[pos]
+        pos += 1
+        valid = np.frombuffer(buf, dtype=np.uint8, count=nrows, offset=pos).astype(bool)
+        pos += nrows
+
+        if col_type == _BINARY_STRING:
+            offsets = np.frombuffer(buf, dtype='>i4', count=nrows+1, offset=pos).astype(np.int64)
+            pos += 4*(nrows+1)
+            raw = bytes(buf[pos:pos+offsets[-1]])
+            pos += int(offsets[-1])
+            values = [raw[offsets[i]:offsets[i+1]].decode('utf-8') if valid[i] else None for i in range(nrows)]
+        elif col_type == _BINARY_COLOR:
+            rgba = np.frombuffer(buf, dtype='>f4', count=4*nrows, offset=pos).reshape(nrows, 4)
+            pos += 16*nrows
+            values = [c if v else None for c, v in zip(rgba.tolist(), valid)]
+        elif col_type in _BINARY_DTYPES:
+            dtype = _BINARY_DTYPES[col_type]
+            values = np.frombuffer(buf, dtype=dtype, count=nrows, offset=pos)
+            pos += dtype.itemsize*nrows
+            if col_type == _BINARY_BOOLEAN:
+                values = values.astype(bool)
+            else:
+                values = values.astype(dtype.newbyteorder('='))
+                if col_type in (_BINARY_INT32, _BINARY_INT64) and not valid.all():
+                    values = np.where(valid, values, np.nan)
+        else:
+            raise ValueError(f'Unknown type {col_type} for column {name}')
+
+        columns[name] = values
+
+    return pd.DataFrame(columns)
+
+def _frame_to_binary(df):
+    """Convert a DataFrame to a binary RecordStore.
+
+    Boolean, integer, and float columns are written as arrays. Datetimes
+    are written as ISO strings, as with JSON, and everything else is
+    written as strings."""
+
+    parts = [_BINARY_MAGIC, struct.pack('>iii', _BINARY_VERSION, len(df.columns), len(df))]
+    for name in df.columns:
+        s = df[name]
+        encoded = str(name).encode('utf-8')
+        parts.append(struct.pack('>i', len(encoded)))
+        parts.append(encoded)
+        valid = s.notna().to_numpy()
+
+        kind = s.dtype.kind
+        if kind == 'b':
+            col_type = _BINARY_BOOLEAN
+            values = s.to_numpy(dtype='u1', na_value=0).tobytes()
+        elif kind in 'iu':
+            col_type = _BINARY_INT64
+            values = s.to_numpy(dtype='>i8', na_value=0).tobytes()
+        elif kind == 'f':
+            col_type = _BINARY_FLOAT64
+            values = s.to_numpy(dtype='>f8', na_value=np.nan).tobytes()
+        else:
+            col_type = _BINARY_STRING
+            if kind == 'M':
+                # Match the ISO format written by DataFrame.to_json().
+                #
+                if s.dt.tz is not None:
+                    s = s.dt.tz_convert('UTC')
+                s = s.dt.strftime('%Y-%m-%dT%H:%M:%S.') + (s.dt.microsecond // 1000).astype(str).str.zfill(3) + 'Z'
+            strings = [str(v).encode('utf-8') if ok else b'' for v, ok in zip(s.tolist(), valid)]
+            offsets = np.zeros(len(strings)+1, dtype='>i4')
+            offsets[1:] = np.cumsum([len(b) for b in strings])
+            values = offsets.tobytes() + b''.join(strings)
+
+        parts.append(bytes([col_type]))
+        parts.append(valid.astype('u1').tobytes())
+        parts.append(values)
+
+    return b''.join(parts)
+
 def _row_dict(row, names, prefix):
     """Extract the relevant names/values from a DataFrame row and convert them
     to a dictionary without the prefixes."""
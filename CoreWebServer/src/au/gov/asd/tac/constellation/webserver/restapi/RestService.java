@@ -125,4 +125,20 @@ public abstract class RestService {
     public String getMimeType() {
         return RestServiceUtilities.APPLICATION_JSON;
     }
+
+    /**
+     * The MIME type of the data returned by the service for the given
+     * parameters.
+     *
+     * Services that can return their data in more than one format override
+     * this; by default it is the same as {@link #getMimeType()}.
+     *
+     * @param parameters The parameters passed from the service request to the
+     * service.
+     *
+     * @return A String containing a MIME type.
+     */
+    public String getMimeType(final PluginParameters parameters) {
+        return getMimeType();
+    }
 }
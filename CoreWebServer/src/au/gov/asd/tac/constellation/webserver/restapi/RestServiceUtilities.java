@@ -68,6 +68,7 @@ public class RestServiceUtilities {
      */
     public static final String APPLICATION_JSON = "application/json";
     public static final String IMAGE_PNG = "image/png";
+    public static final String APPLICATION_OCTET_STREAM = "application/octet-stream";
 
     /**
      * Convert a JSON ArrayNode to a Java List.
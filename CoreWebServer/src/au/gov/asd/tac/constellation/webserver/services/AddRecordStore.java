@@ -22,6 +22,7 @@ import au.gov.asd.tac.constellation.graph.node.GraphNode;
 import au.gov.asd.tac.constellation.graph.processing.GraphRecordStore;
 import au.gov.asd.tac.constellation.graph.processing.GraphRecordStoreUtilities;
 import au.gov.asd.tac.constellation.graph.processing.RecordStore;
+import au.gov.asd.tac.constellation.graph.processing.TypedRecordStore;
 import au.gov.asd.tac.constellation.graph.schema.analytic.concept.AnalyticConcept;
 import au.gov.asd.tac.constellation.plugins.Plugin;
 import au.gov.asd.tac.constellation.plugins.PluginException;
@@ -36,18 +37,14 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.BooleanParameterTyp
 import au.gov.asd.tac.constellation.plugins.parameters.types.StringParameterType;
 import au.gov.asd.tac.constellation.plugins.parameters.types.StringParameterValue;
 import au.gov.asd.tac.constellation.plugins.templates.SimpleEditPlugin;
+import au.gov.asd.tac.constellation.webserver.api.RecordStoreStreams;
 import au.gov.asd.tac.constellation.webserver.api.RestUtilities;
 import au.gov.asd.tac.constellation.webserver.restapi.RestService;
 import au.gov.asd.tac.constellation.webserver.restapi.RestServiceException;
 import au.gov.asd.tac.constellation.webserver.restapi.RestServiceUtilities;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeType;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Iterator;
 import org.openide.util.Exceptions;
 import org.openide.util.lookup.ServiceProvider;
 
@@ -65,12 +62,11 @@ public class AddRecordStore extends RestService {
     private static final String ARRANGE_PARAMETER_ID = "arrange";
     private static final String RESET_PARAMETER_ID = "reset_view";
     private static final String DATA_PARAMETER_ID = "data";
+    private static final String FORMAT_PARAMETER_ID = "format";
 
     private static final String API_SOURCE = "REST API";
     private static final String TX_SOURCE = GraphRecordStoreUtilities.TRANSACTION + AnalyticConcept.TransactionAttribute.SOURCE;
 
-    private static final String COLUMNS = "columns";
-
     @Override
     public String getName() {
         return NAME;
@@ -119,9 +115,14 @@ public class AddRecordStore extends RestService {
 
         final PluginParameter<StringParameterValue> dataParam = StringParameterType.build(DATA_PARAMETER_ID);
         dataParam.setName("Data (body)");
-        dataParam.setDescription("A JSON representation of the RecordStore data, in the form {\"columns\": [\"COL1\",\"COL2\",\"COL3\"], \"data\": [[r1c1, r1c2, r1c3],[r2c1,r2c2,r2c3]]. This is the same as the output of pandas.DataFrame.to_json(orient='split', date_format='iso').");
+        dataParam.setDescription("A JSON representation of the RecordStore data, in the form {\"columns\": [\"COL1\",\"COL2\",\"COL3\"], \"data\": [[r1c1, r1c2, r1c3],[r2c1,r2c2,r2c3]]. This is the same as the output of pandas.DataFrame.to_json(orient='split', date_format='iso'). If the format is 'binary', the RecordStore data in the binary column format.");
         parameters.addParameter(dataParam);
 
+        final PluginParameter<StringParameterValue> formatParam = StringParameterType.build(FORMAT_PARAMETER_ID);
+        formatParam.setName("Format");
+        formatParam.setDescription("The format of the data: 'json' (the default) or 'binary'.");
+        parameters.addParameter(formatParam);
+
         return parameters;
     }
 
@@ -131,57 +132,38 @@ public class AddRecordStore extends RestService {
         final boolean completeWithSchema = parameters.getBooleanValue(COMPLETE_PARAMETER_ID);
         final String arrange = parameters.getStringValue(ARRANGE_PARAMETER_ID);
         final boolean resetView = parameters.getBooleanValue(RESET_PARAMETER_ID);
-
-        final RecordStore rs = new GraphRecordStore();
-        final ObjectMapper mapper = new ObjectMapper();
-        final JsonNode json = mapper.readTree(in);
+        final String format = parameters.getStringValue(FORMAT_PARAMETER_ID);
 
         final Graph graph = graphId == null ? RestUtilities.getActiveGraph() : GraphNode.getGraph(graphId);
         if (graph == null) {
             throw new RestServiceException(HTTP_UNPROCESSABLE_ENTITY, "No graph with id " + graphId);
         }
-        // We want to read a JSON document that looks like:
-        //
-        // {"columns":["A","B"],"data":[[1,"a"],[2,"b"],[3,"c"]]}
-        //
-        // which is what is output by pandas.to_json(..., orient="split').
-        // (We ignore the index array.)
-        if (!json.hasNonNull(COLUMNS) || !json.get(COLUMNS).isArray()) {
-            throw new RestServiceException("Could not find columns object containing column names");
-        }
 
-        if (!json.hasNonNull("data") || !json.get("data").isArray()) {
-            throw new RestServiceException("Could not find data object containing data rows");
+        // The data is read as it arrives rather than being held in memory as
+        // well as in the RecordStore. The binary format keeps the types of its
+        // columns, so those values are added to the graph without being
+        // converted to strings.
+        final RecordStore rs;
+        final String[] headers;
+        if (RecordStoreStreams.isBinary(format)) {
+            final TypedRecordStore typedRecordStore = new TypedRecordStore();
+            headers = RecordStoreStreams.readBinary(in, typedRecordStore);
+            rs = typedRecordStore;
+        } else {
+            rs = new GraphRecordStore();
+            headers = RecordStoreStreams.readJson(in, rs);
         }
 
-        final ArrayNode columns = (ArrayNode) json.get(COLUMNS);
-        final String[] headers = new String[columns.size()];
-        for (int i = 0; i < headers.length; i++) {
-            headers[i] = columns.get(i).asText();
+        boolean txFound = false;
+        boolean txSourceFound = false;
+        for (final String h : headers) {
+            txFound |= h.startsWith(GraphRecordStoreUtilities.TRANSACTION);
+            txSourceFound |= TX_SOURCE.equals(h);
         }
 
-        final ArrayNode data = (ArrayNode) json.get("data");
-        for (final Iterator<JsonNode> i = data.elements(); i.hasNext();) {
-            final ArrayNode jrow = (ArrayNode) i.next();
-            rs.add();
-            boolean txFound = false;
-            boolean txSourceFound = false;
-            for (int ix = 0; ix < headers.length; ix++) {
-                final String h = headers[ix];
-                final JsonNode jn = jrow.get(ix);
-                if (!jn.isNull()) {
-                    if (jn.getNodeType() == JsonNodeType.ARRAY) {
-                        rs.set(h, RestServiceUtilities.toList((ArrayNode) jn));
-                    } else {
-                        rs.set(h, jn.asText());
-                    }
-                }
-                txFound |= h.startsWith(GraphRecordStoreUtilities.TRANSACTION);
-                txSourceFound |= TX_SOURCE.equals(h);
-            }
-
-            if (txFound && !txSourceFound) {
-                rs.set(TX_SOURCE, API_SOURCE);
+        if (txFound && !txSourceFound) {
+            for (int record = 0; record < rs.size(); record++) {
+                rs.set(record, TX_SOURCE, API_SOURCE);
             }
         }
 
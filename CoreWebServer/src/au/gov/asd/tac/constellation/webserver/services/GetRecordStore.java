@@ -28,20 +28,18 @@ import au.gov.asd.tac.constellation.plugins.parameters.types.StringParameterType
 import au.gov.asd.tac.constellation.plugins.parameters.types.StringParameterValue;
 import au.gov.asd.tac.constellation.utilities.gui.HandleIoProgress;
 import au.gov.asd.tac.constellation.utilities.gui.IoProgress;
-import au.gov.asd.tac.constellation.utilities.text.SeparatorConstants;
+import au.gov.asd.tac.constellation.webserver.api.RecordStoreStreams;
 import au.gov.asd.tac.constellation.webserver.api.RestUtilities;
 import au.gov.asd.tac.constellation.webserver.restapi.RestService;
 import au.gov.asd.tac.constellation.webserver.restapi.RestServiceException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
@@ -62,6 +60,7 @@ public class GetRecordStore extends RestService {
     private static final String VX_PARAMETER_ID = "vx";
     private static final String TX_PARAMETER_ID = "tx";
     private static final String ATTRS_PARAMETER_ID = "attrs";
+    private static final String FORMAT_PARAMETER_ID = "format";
 
     @Override
     public String getName() {
@@ -110,9 +109,19 @@ public class GetRecordStore extends RestService {
         attrsParam.setDescription("Include only these comma-separated attributes in the recordstore. Use this for much greater efficiency..");
         parameters.addParameter(attrsParam);
 
+        final PluginParameter<StringParameterValue> formatParam = StringParameterType.build(FORMAT_PARAMETER_ID);
+        formatParam.setName("Format");
+        formatParam.setDescription("The format of the returned RecordStore: 'json' (the default) or 'binary'.");
+        parameters.addParameter(formatParam);
+
         return parameters;
     }
 
+    @Override
+    public String getMimeType(final PluginParameters parameters) {
+        return RecordStoreStreams.getMimeType(parameters.getStringValue(FORMAT_PARAMETER_ID));
+    }
+
     @Override
     public void callService(final PluginParameters parameters, final InputStream in, final OutputStream out) throws IOException {
         final String graphId = parameters.getStringValue(GRAPH_ID_PARAMETER_ID);
@@ -120,6 +129,7 @@ public class GetRecordStore extends RestService {
         final boolean vx = parameters.getBooleanValue(VX_PARAMETER_ID);
         final boolean tx = parameters.getBooleanValue(TX_PARAMETER_ID);
         final String attrsParam = parameters.getStringValue(ATTRS_PARAMETER_ID);
+        final String format = parameters.getStringValue(FORMAT_PARAMETER_ID);
 
         // Allow the user to specify a specific set of attributes,
         // cutting down data transfer and processing a lot,
@@ -184,57 +194,22 @@ public class GetRecordStore extends RestService {
             attrs.addAll(attrToTypedAttr.keySet());
         }
 
-        final ObjectMapper mapper = new ObjectMapper();
-        mapper.configure(SerializationFeature.INDENT_OUTPUT, false);
-        mapper.configure(SerializationFeature.CLOSE_CLOSEABLE, false);
-
-        final ObjectNode root = mapper.createObjectNode();
-
-        // We want to build a JSON document that looks like:
-        //
-        // {"columns":["A","B"],"data":[[1,"a"],[2,"b"],[3,"c"]]}
-        //
-        // which can be read by pandas.read_json(..., orient="split").
-        // (It appears that the index parameter is not required.)
-        final ArrayNode columns = root.putArray("columns");
-        final ArrayNode data = root.putArray("data");
-
+        // Write the records as they are read from the RecordStore, rather than
+        // building a second copy of them to be written.
+        final List<String> typedKeys = new ArrayList<>();
         if (recordStore.size() > 0) {
             ioph.progress("Building DataFrame...");
             for (final String attr : attrs) {
-                final String kt = attrToTypedAttr.get(attr);
-                columns.add(keyedName(kt));
-            }
-
-            recordStore.reset();
-            while (recordStore.next()) {
-                final ArrayNode row = data.addArray();
-                for (final String attr : attrs) {
-                    final String kt = attrToTypedAttr.get(attr);
-                    final String type = kt.substring(kt.lastIndexOf('<') + 1, kt.length() - 1);
-                    final String value = recordStore.get(kt);
-
-                    RestUtilities.addData(row, type, value);
-                }
+                typedKeys.add(attrToTypedAttr.get(attr));
             }
         }
 
-        mapper.writeValue(out, root);
+        if (RecordStoreStreams.isBinary(format)) {
+            RecordStoreStreams.writeBinary(out, recordStore, typedKeys);
+        } else {
+            RecordStoreStreams.writeJson(out, recordStore, typedKeys);
+        }
 
         ioph.finish();
     }
-
-    /**
-     * Convert a "key<type>" to "key|type" to make things slightly easier for
-     * the attrWithType.
-     *
-     * @param attrWithType
-     *
-     * @return
-     */
-    private static String keyedName(final String attrWithType) {
-        final int ix = attrWithType.lastIndexOf('<');
-
-        return attrWithType.substring(0, ix) + SeparatorConstants.PIPE + attrWithType.substring(ix + 1, attrWithType.length() - 1);
-    }
 }
@@ -33,9 +33,23 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 import org.openide.awt.StatusDisplayer;
@@ -47,6 +61,10 @@ import org.openide.util.NbPreferences;
  * <p>
  * When started in a thread, listen for files in a specified directory, call the
  * appropriate methods, and write one or more files in response.
+ * <p>
+ * Requests may also be made in subdirectories of the directory, using the same
+ * file names. Each directory is handled one request at a time, but requests in
+ * different directories are handled concurrently.
  *
  * @author algol
  */
@@ -54,6 +72,7 @@ public class FileListener implements Runnable {
 
     private static final long MIN_POLL_SLEEP = 1000;
     private static final long MAX_POLL_SLEEP = 5000;
+    private static final int MAX_CONCURRENT_REQUESTS = 4;
     private static final Logger LOGGER = Logger.getLogger(FileListener.class.getName());
 
     private static final String REQUEST_JSON = "request.json";      // The JSON document containing the request.
@@ -61,25 +80,41 @@ public class FileListener implements Runnable {
     private static final String CONTENT_IN = "content.in";          // The file containing input data (may be JSON / binary / anything).
     private static final String CONTENT_OUT = "content.out";        // The file containing ioutput data (may be JSON / binary / anything).
 
+    private static final List<String> PROTOCOL_FILES = Arrays.asList(REQUEST_JSON, CONTENT_IN, RESPONSE_JSON, CONTENT_OUT);
+
     private static final String ENDPOINT = "endpoint";
 
     private final Path restPath;
+    private final Set<Path> activeDirectories = ConcurrentHashMap.newKeySet();
     private volatile boolean running;
+    private volatile WatchService watchService;
+    private ExecutorService requestExecutor;
 
     public FileListener() throws IOException {
+        this(Paths.get(ApplicationPreferenceKeys.getRESTDir(NbPreferences.forModule(ApplicationPreferenceKeys.class))));
+    }
 
-        final Preferences prefs = NbPreferences.forModule(ApplicationPreferenceKeys.class);
-        restPath = Paths.get(ApplicationPreferenceKeys.getRESTDir(prefs));
+    /**
+     * Create a file listener for a specified directory.
+     *
+     * @param restPath The directory to listen in.
+     *
+     * @throws IOException If the directory can't be created or cleaned up.
+     */
+    FileListener(final Path restPath) throws IOException {
+        this.restPath = restPath;
         if (Files.isDirectory(restPath)) {
-            // Delete any existing files in the REST directory.
+            // Delete any existing request and response files in the REST directory and its request directories.
             // We don't want to execute any left over commands from a previous run.
-            final String[] files = restPath.toFile().list();
-            for (final String f : files) {
-                final Path p = restPath.resolve(f);
-                LOGGER.warning(String.format("Deleting old REST file %s", p));
-                Files.delete(p);
+            deleteProtocolFiles(restPath);
+            final File[] files = restPath.toFile().listFiles();
+            if (files != null) {
+                for (final File f : files) {
+                    if (f.isDirectory()) {
+                        deleteProtocolFiles(f.toPath());
+                    }
+                }
             }
-
         } else {
             Files.createDirectories(restPath);
         }
@@ -87,15 +122,54 @@ public class FileListener implements Runnable {
         running = false;
     }
 
+    /**
+     * Delete the files used to make requests and return responses in a
+     * directory, leaving any other files alone.
+     *
+     * @param dir The directory to clean up.
+     *
+     * @throws IOException If a file can't be deleted.
+     */
+    private static void deleteProtocolFiles(final Path dir) throws IOException {
+        for (final String name : PROTOCOL_FILES) {
+            final Path p = dir.resolve(name);
+            if (Files.isRegularFile(p)) {
+                LOGGER.warning(String.format("Deleting old REST file %s", p));
+                Files.delete(p);
+            }
+        }
+    }
+
     public void stop() {
         running = false;
+
+        // Wake up the listener thread if it is waiting for a file.
+        final WatchService ws = watchService;
+        if (ws != null) {
+            try {
+                ws.close();
+            } catch (final IOException ex) {
+                LOGGER.log(Level.WARNING, "Error closing the REST directory watcher", ex);
+            }
+        }
+    }
+
+    /**
+     * Is the listener watching the directory for new files, rather than
+     * polling it?
+     *
+     * @return True if the listener is running and watching the directory.
+     */
+    boolean isWatching() {
+        return running && watchService != null;
     }
 
     /**
      * Run the file listener thread.
      * <p>
-     * Poll the listener directory looking for the REQUEST_JSON file. It assumed
-     * that the client has already written the CONTENT_IN file if required.
+     * Watch the listener directory for the REQUEST_JSON file. It assumed that
+     * the client has already written the CONTENT_IN file if required. If the
+     * filesystem can't be watched, poll it instead.
      * <p>
      * When REQUEST_JSON is found, read and extract the verb + endpoint + path +
      * args. Call the multi-level switch statement that figures out what to do.
@@ -119,97 +193,255 @@ public class FileListener implements Runnable {
         StatusDisplayer.getDefault().setStatusText(String.format("Starting file listener in directory %s", restPath));
 
         running = true;
+        requestExecutor = Executors.newFixedThreadPool(MAX_CONCURRENT_REQUESTS);
+        try {
+            watchService = createWatchService();
+            if (watchService != null) {
+                watch();
+            } else {
+                poll();
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            Exceptions.printStackTrace(ex);
+        } finally {
+            stop();
+            watchService = null;
 
-        // We start the poll sleep time at MIN_POLL_SLEEP.
-        // If the listener doesn't find any files, the sleep time will slowly get longer up to MAX_POLL_SLEEP,
-        // so the filesystem doesn't get pounded as much.
-        // When a request is found, the poll sleep time is reset to MIN_POLL_SLEEP.
-        long pollSleep = MIN_POLL_SLEEP;
+            // Let any requests that have started finish.
+            requestExecutor.shutdown();
+        }
+
+        StatusDisplayer.getDefault().setStatusText(String.format("Stopped file listener in directory %s", restPath));
+    }
+
+    /**
+     * Create a WatchService that watches the listener directory for new files.
+     *
+     * @return The WatchService, or null if the directory can't be watched.
+     */
+    private WatchService createWatchService() {
         try {
-            while (running) {
-                final String[] files = restPath.toFile().list();
-                for (final String f : files) {
-                    if (f.equals(REQUEST_JSON)) {
-                        // If any other files are required, write this file last, so the other files are already present.
-                        LOGGER.info(String.format("Found REST file %s", f));
-                        final Path p = restPath.resolve(f);
-                        JsonNode json = null;
-                        try (final InputStream in = new FileInputStream(p.toFile())) {
-                            final ObjectMapper mapper = new ObjectMapper();
-                            json = mapper.readTree(in);
-                        } catch (final IOException ex) {
-                            response(ex.getMessage());
-                        }
-
-                        try {
-                            Files.delete(p);
-                        } catch (final IOException ex) {
-                            Exceptions.printStackTrace(ex);
-                        }
-
-                        if (json != null) {
-                            // Extract the equivalent of a REST URL from the request JSON.
-                            // The HTTP request GET http://localhost/v1/plugin/run?name=selectall
-                            // becomes the JSON document
-                            // {
-                            //   "verb": "get",
-                            //   "endpoint": "/v1/plugin",
-                            //   "path": "run",
-                            //   "args": { "name": "selectall" }
-                            // }
-                            //
-                            // If content (JSON or otherwise) is required, it gets delivered in a separate CONTENT_DATA file.
-                            if (json.hasNonNull("verb") && json.hasNonNull(ENDPOINT) && json.hasNonNull("path")) {
-                                final String verb = json.get("verb").textValue();
-                                final String endpoint = json.get(ENDPOINT).textValue();
-                                final String path = json.get("path").textValue();
-
-                                final JsonNode args = json.get("args");
-                                try {
-                                    // Display the incoming REST request to provide some confidence to the user and debugging for the developer :-).
-                                    final String msg = String.format("File REST API: %s %s %s", verb, endpoint, path);
-                                    StatusDisplayer.getDefault().setStatusText(msg);
-
-                                    parseAndExecute(verb, endpoint, path, args);
-                                    response();
-                                } catch (final RestServiceException ex) {
-                                    response(ex.getMessage());
-                                } catch (final Exception ex) {
-                                    response(ex.getMessage());
-                                    Exceptions.printStackTrace(ex);
-                                }
-                            } else {
-                                response("Request must contain verb + endpoint + path");
-                            }
-                        }
-
-                        // Reset the poll sleep after a successful request,
-                        // since we're obviously being used.
-                        pollSleep = MIN_POLL_SLEEP;
+            final WatchService ws = restPath.getFileSystem().newWatchService();
+            restPath.register(ws, StandardWatchEventKinds.ENTRY_CREATE);
+
+            return ws;
+        } catch (final IOException | UnsupportedOperationException ex) {
+            LOGGER.log(Level.INFO, String.format("Can't watch REST directory %s, polling instead", restPath), ex);
+
+            return null;
+        }
+    }
+
+    /**
+     * Handle requests as soon as their files appear.
+     * <p>
+     * The directory is still looked at every MAX_POLL_SLEEP milliseconds,
+     * since some filesystems (NFS, for instance) don't report every change.
+     *
+     * @throws InterruptedException
+     */
+    private void watch() throws InterruptedException {
+        scan();
+        while (running) {
+            final WatchKey key;
+            try {
+                key = watchService.poll(MAX_POLL_SLEEP, TimeUnit.MILLISECONDS);
+            } catch (final ClosedWatchServiceException ex) {
+                break;
+            }
+
+            if (key == null) {
+                scan();
+                continue;
+            }
+
+            final Path dir = (Path) key.watchable();
+            for (final WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    scan();
+                } else {
+                    final Path name = (Path) event.context();
+                    if (dir.equals(restPath) && Files.isDirectory(restPath.resolve(name))) {
+                        // The request may have been written before the new directory was watched.
+                        register(restPath.resolve(name));
+                        submit(restPath.resolve(name));
+                    } else if (REQUEST_JSON.equals(name.toString())) {
+                        submit(dir);
                     }
                 }
+            }
 
-                // Slowly sneak the poll sleep time up to a maximum.
-                pollSleep = Math.min(pollSleep + 1, MAX_POLL_SLEEP);
-                Thread.sleep(pollSleep);
+            if (!key.reset() && dir.equals(restPath)) {
+                // The listener directory has gone away; polling will tell the user about it.
+                LOGGER.warning(String.format("Can't watch REST directory %s, polling instead", restPath));
+                poll();
+                return;
             }
-        } catch (final InterruptedException ex) {
-            Thread.currentThread().interrupt();
-            stop();
+        }
+    }
+
+    /**
+     * Look for requests every so often.
+     * <p>
+     * We start the poll sleep time at MIN_POLL_SLEEP. If the listener doesn't
+     * find any files, the sleep time will slowly get longer up to
+     * MAX_POLL_SLEEP, so the filesystem doesn't get pounded as much. When a
+     * request is found, the poll sleep time is reset to MIN_POLL_SLEEP.
+     *
+     * @throws InterruptedException
+     */
+    private void poll() throws InterruptedException {
+        long pollSleep = MIN_POLL_SLEEP;
+        while (running) {
+            if (scan()) {
+                // Reset the poll sleep after a request,
+                // since we're obviously being used.
+                pollSleep = MIN_POLL_SLEEP;
+            }
+
+            // Slowly sneak the poll sleep time up to a maximum.
+            pollSleep = Math.min(pollSleep + 1, MAX_POLL_SLEEP);
+            Thread.sleep(pollSleep);
+        }
+    }
+
+    /**
+     * Look for requests in the listener directory and its subdirectories.
+     *
+     * @return True if a request was found.
+     */
+    private boolean scan() {
+        boolean found = submit(restPath);
+        final File[] files = restPath.toFile().listFiles();
+        if (files != null) {
+            for (final File f : files) {
+                if (f.isDirectory()) {
+                    final Path dir = f.toPath();
+                    register(dir);
+                    found |= submit(dir);
+                }
+            }
+        }
+
+        return found;
+    }
+
+    private void register(final Path dir) {
+        final WatchService ws = watchService;
+        if (ws != null) {
+            try {
+                dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE);
+            } catch (final IOException | ClosedWatchServiceException ex) {
+                // The directory will still be looked at when the listener directory is scanned.
+                LOGGER.log(Level.FINE, String.format("Can't watch REST directory %s", dir), ex);
+            }
+        }
+    }
+
+    /**
+     * Handle the request in a directory, if there is one and the directory
+     * isn't already handling a request.
+     *
+     * @param dir The directory containing the request.
+     *
+     * @return True if a request was found.
+     */
+    private boolean submit(final Path dir) {
+        if (!Files.exists(dir.resolve(REQUEST_JSON))) {
+            return false;
+        }
+
+        if (running && activeDirectories.add(dir)) {
+            try {
+                requestExecutor.execute(() -> {
+                    try {
+                        handleRequest(dir);
+                    } finally {
+                        activeDirectories.remove(dir);
+                    }
+
+                    // Another request may have been written while this one was being handled.
+                    submit(dir);
+                });
+            } catch (final RejectedExecutionException ex) {
+                activeDirectories.remove(dir);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Read the request in a directory, delete it, call the service, and write
+     * the response.
+     *
+     * @param dir The directory containing the request.
+     */
+    private void handleRequest(final Path dir) {
+        // If any other files are required, the client writes this file last, so the other files are already present.
+        final Path p = dir.resolve(REQUEST_JSON);
+        LOGGER.info(String.format("Found REST file %s", p));
+        JsonNode json = null;
+        try (final InputStream in = new FileInputStream(p.toFile())) {
+            final ObjectMapper mapper = new ObjectMapper();
+            json = mapper.readTree(in);
+        } catch (final IOException ex) {
+            response(dir, ex.getMessage());
+        }
+
+        try {
+            Files.delete(p);
+        } catch (final IOException ex) {
             Exceptions.printStackTrace(ex);
         }
 
-        StatusDisplayer.getDefault().setStatusText(String.format("Stopped file listener in directory %s", restPath));
+        if (json != null) {
+            // Extract the equivalent of a REST URL from the request JSON.
+            // The HTTP request GET http://localhost/v1/plugin/run?name=selectall
+            // becomes the JSON document
+            // {
+            //   "verb": "get",
+            //   "endpoint": "/v1/plugin",
+            //   "path": "run",
+            //   "args": { "name": "selectall" }
+            // }
+            //
+            // If content (JSON or otherwise) is required, it gets delivered in a separate CONTENT_DATA file.
+            if (json.hasNonNull("verb") && json.hasNonNull(ENDPOINT) && json.hasNonNull("path")) {
+                final String verb = json.get("verb").textValue();
+                final String endpoint = json.get(ENDPOINT).textValue();
+                final String path = json.get("path").textValue();
+
+                final JsonNode args = json.get("args");
+                try {
+                    // Display the incoming REST request to provide some confidence to the user and debugging for the developer :-).
+                    final String msg = String.format("File REST API: %s %s %s", verb, endpoint, path);
+                    StatusDisplayer.getDefault().setStatusText(msg);
+
+                    parseAndExecute(dir, verb, endpoint, path, args);
+                    response(dir);
+                } catch (final RestServiceException ex) {
+                    response(dir, ex.getMessage());
+                } catch (final Exception ex) {
+                    response(dir, ex.getMessage());
+                    Exceptions.printStackTrace(ex);
+                }
+            } else {
+                response(dir, "Request must contain verb + endpoint + path");
+            }
+        }
     }
 
     /**
      * Execute a REST endpoint.
      *
+     * @param dir The directory containing the request.
      * @param node A JSON node representing the input parameters.
      *
      * @throws Exception because of AutoCloseable
      */
-    private void parseAndExecute(final String verb, final String endpoint, final String path, final JsonNode args) throws Exception {
+    private void parseAndExecute(final Path dir, final String verb, final String endpoint, final String path, final JsonNode args) throws Exception {
         if ("/v2/service".equals(endpoint)) {
             final HttpMethod httpMethod = HttpMethod.getValue(verb);
             // Get an instance of the service (if it exists).
@@ -221,7 +453,7 @@ public class FileListener implements Runnable {
             final PluginParameters parameters = rs.createParameters();
             RestServiceUtilities.parametersFromJson((ObjectNode) args, parameters);
 
-            try (final InStream ins = new InStream(restPath, CONTENT_IN, true); final OutputStream out = outStream(restPath, CONTENT_OUT)) {
+            try (final InStream ins = new InStream(dir, CONTENT_IN, true); final OutputStream out = outStream(dir, CONTENT_OUT)) {
                 rs.callService(parameters, ins.in, out);
             } catch (final IOException | RuntimeException ex) {
                 throw new RestServiceException(ex);
@@ -290,8 +522,8 @@ public class FileListener implements Runnable {
         throw new RestServiceException(msg);
     }
 
-    private void response() {
-        response(null);
+    private void response(final Path dir) {
+        response(dir, null);
     }
 
     /**
@@ -300,9 +532,10 @@ public class FileListener implements Runnable {
      * If a non-null message is supplied, it will be added to the document with
      * the "error" key. The message will be returned to the caller.
      *
+     * @param dir The directory containing the request.
      * @param message A string describing the error.
      */
-    private void response(final String message) {
+    private void response(final Path dir, final String message) {
         final ObjectMapper mapper = new ObjectMapper();
         final ObjectNode root = mapper.createObjectNode();
         if (message != null) {
@@ -310,7 +543,7 @@ public class FileListener implements Runnable {
             LOGGER.warning(message);
         }
 
-        final Path p = restPath.resolve(RESPONSE_JSON);
+        final Path p = dir.resolve(RESPONSE_JSON);
         try (final OutputStream out = new FileOutputStream(p.toFile())) {
             mapper.writeValue(out, root);
         } catch (final IOException ex1) {
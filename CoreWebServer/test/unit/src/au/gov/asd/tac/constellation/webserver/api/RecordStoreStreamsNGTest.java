@@ -0,0 +1,154 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.webserver.api;
+
+import au.gov.asd.tac.constellation.graph.processing.GraphRecordStore;
+import au.gov.asd.tac.constellation.graph.processing.RecordStore;
+import au.gov.asd.tac.constellation.graph.processing.TypedRecordStore;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import org.testng.annotations.Test;
+
+/**
+ * Test reading and writing RecordStores as JSON and binary streams.
+ *
+ * @author algol
+ */
+public class RecordStoreStreamsNGTest {
+
+    private static final List<String> KEYS = Arrays.asList(
+            "source.Label<string>",
+            "source.[id]<integer>",
+            "source.x<float>",
+            "source.selected<boolean>",
+            "source.count<long>",
+            "source.score<double>",
+            "source.color<color>",
+            "transaction.DateTime<datetime>");
+
+    private static GraphRecordStore createRecordStore() {
+        final GraphRecordStore recordStore = new GraphRecordStore();
+
+        recordStore.add();
+        recordStore.set("source.Label<string>", "Vertex é");
+        recordStore.set("source.[id]<integer>", "7");
+        recordStore.set("source.x<float>", "1.5");
+        recordStore.set("source.selected<boolean>", "true");
+        recordStore.set("source.count<long>", "12345678901");
+        recordStore.set("source.score<double>", "0.25");
+        recordStore.set("source.color<color>", "RGB255000000");
+        recordStore.set("transaction.DateTime<datetime>", "2021-07-01 01:02:03.000 +00:00 [UTC]");
+
+        // A record with no values.
+        recordStore.add();
+
+        return recordStore;
+    }
+
+    @Test
+    public void testJsonRoundTrip() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecordStoreStreams.writeJson(out, createRecordStore(), KEYS);
+
+        final String json = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertEquals(json.substring(0, json.indexOf("],") + 1),
+                "{\"columns\":[\"source.Label|string\",\"source.[id]|integer\",\"source.x|float\",\"source.selected|boolean\",\"source.count|long\",\"source.score|double\",\"source.color|color\",\"transaction.DateTime|datetime\"]");
+
+        final GraphRecordStore recordStore = new GraphRecordStore();
+        final String[] headers = RecordStoreStreams.readJson(new ByteArrayInputStream(out.toByteArray()), recordStore);
+        assertEquals(headers.length, KEYS.size());
+        assertEquals(recordStore.size(), 2);
+
+        assertEquals(recordStore.get(0, "source.Label|string"), "Vertex é");
+        assertEquals(recordStore.get(0, "source.[id]|integer"), "7");
+        assertEquals(recordStore.get(0, "source.x|float"), "1.5");
+        assertEquals(recordStore.get(0, "source.selected|boolean"), "true");
+        assertEquals(recordStore.get(0, "source.count|long"), "12345678901");
+        assertEquals(recordStore.get(0, "source.color|color"), "[1.0, 0.0, 0.0, 1.0]");
+        assertEquals(recordStore.get(0, "transaction.DateTime|datetime"), "2021-07-01 01:02:03.000 +00:00");
+
+        // Booleans are never null, but everything else is.
+        assertEquals(recordStore.get(1, "source.selected|boolean"), "false");
+        assertNull(recordStore.get(1, "source.Label|string"));
+        assertNull(recordStore.get(1, "source.x|float"));
+    }
+
+    @Test
+    public void testJsonDataBeforeColumns() throws IOException {
+        final String json = "{\"index\":[0,1],\"data\":[[1,\"a\",null,[1,2]],[2.5,{\"b\":1},true]],\"columns\":[\"A\",\"B\",\"C\"]}";
+        final GraphRecordStore recordStore = new GraphRecordStore();
+        final String[] headers = RecordStoreStreams.readJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), recordStore);
+
+        assertEquals(headers, new String[]{"A", "B", "C"});
+        assertEquals(recordStore.size(), 2);
+        assertEquals(recordStore.get(0, "A"), "1");
+        assertEquals(recordStore.get(0, "B"), "a");
+        assertFalse(recordStore.hasValue(0, "C"));
+        assertEquals(recordStore.get(1, "A"), "2.5");
+        assertEquals(recordStore.get(1, "B"), "");
+        assertEquals(recordStore.get(1, "C"), "true");
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecordStoreStreams.writeBinary(out, createRecordStore(), KEYS);
+
+        final TypedRecordStore recordStore = new TypedRecordStore();
+        final String[] headers = RecordStoreStreams.readBinary(new ByteArrayInputStream(out.toByteArray()), recordStore);
+        assertEquals(headers.length, KEYS.size());
+        assertEquals(recordStore.size(), 2);
+
+        assertEquals(recordStore.get(0, "source.Label|string"), "Vertex é");
+        assertEquals(recordStore.getDouble(0, "source.x|float"), 1.5);
+        assertEquals(recordStore.getBoolean(0, "source.selected|boolean"), true);
+        assertEquals(recordStore.getLong(0, "source.count|long"), 12345678901L);
+        assertEquals(recordStore.getDouble(0, "source.score|double"), 0.25);
+        assertEquals(recordStore.get(0, "source.color|color"), "[1.0, 0.0, 0.0, 1.0]");
+        assertEquals(recordStore.get(0, "transaction.DateTime|datetime"), "2021-07-01 01:02:03.000 +00:00");
+
+        // Keys that the graph matches as strings are kept as strings.
+        assertEquals(recordStore.get(0, "source.[id]|integer"), "7");
+        assertEquals(recordStore.keys().contains("source.[id]|integer<string>"), true);
+
+        assertEquals(recordStore.getBoolean(1, "source.selected|boolean"), false);
+        assertFalse(recordStore.hasValue(1, "source.Label|string"));
+        assertFalse(recordStore.hasValue(1, "source.x|float"));
+        assertFalse(recordStore.hasValue(1, "source.color|color"));
+    }
+
+    @Test
+    public void testEmptyRecordStore() throws IOException {
+        final RecordStore empty = new GraphRecordStore();
+
+        final ByteArrayOutputStream json = new ByteArrayOutputStream();
+        RecordStoreStreams.writeJson(json, empty, Arrays.asList());
+        assertEquals(new String(json.toByteArray(), StandardCharsets.UTF_8), "{\"columns\":[],\"data\":[]}");
+
+        final ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        RecordStoreStreams.writeBinary(binary, empty, Arrays.asList());
+        final TypedRecordStore recordStore = new TypedRecordStore();
+        assertEquals(RecordStoreStreams.readBinary(new ByteArrayInputStream(binary.toByteArray()), recordStore).length, 0);
+        assertEquals(recordStore.size(), 0);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2010-2021 Australian Signals Directorate
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package au.gov.asd.tac.constellation.webserver.transport;
+
+import au.gov.asd.tac.constellation.preferences.ApplicationPreferenceKeys;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.prefs.Preferences;
+import java.util.stream.Stream;
+import org.openide.util.NbPreferences;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * File Listener Test.
+ *
+ * @author algol
+ */
+public class FileListenerNGTest {
+
+    private static final long TIMEOUT = 10000;
+
+    // A request for an endpoint that doesn't exist, so no services are needed to respond.
+    private static final String REQUEST = "{\"verb\": \"get\", \"endpoint\": \"/v0/nothing\", \"path\": \"nothing\", \"args\": {}}";
+
+    private static boolean pythonRestClientDownload;
+
+    private Path restPath;
+
+    public FileListenerNGTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        final Preferences prefs = NbPreferences.forModule(ApplicationPreferenceKeys.class);
+        pythonRestClientDownload = prefs.getBoolean(ApplicationPreferenceKeys.PYTHON_REST_CLIENT_DOWNLOAD, ApplicationPreferenceKeys.PYTHON_REST_CLIENT_DOWNLOAD_DEFAULT);
+        prefs.putBoolean(ApplicationPreferenceKeys.PYTHON_REST_CLIENT_DOWNLOAD, false);
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        final Preferences prefs = NbPreferences.forModule(ApplicationPreferenceKeys.class);
+        prefs.putBoolean(ApplicationPreferenceKeys.PYTHON_REST_CLIENT_DOWNLOAD, pythonRestClientDownload);
+    }
+
+    @BeforeMethod
+    public void setUpMethod() throws Exception {
+        restPath = Files.createTempDirectory("rest");
+    }
+
+    @AfterMethod
+    public void tearDownMethod() throws Exception {
+        try (final Stream<Path> paths = Files.walk(restPath)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * Only the files left over from previous requests are deleted when the
+     * listener is created.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testOldRequestsDeleted() throws IOException {
+        final Path sub = Files.createDirectory(restPath.resolve("sub"));
+        final Path nested = Files.createDirectory(sub.resolve("nested"));
+        for (final Path dir : new Path[]{restPath, sub}) {
+            write(dir.resolve("request.json"), REQUEST);
+            write(dir.resolve("content.in"), "in");
+            write(dir.resolve("response.json"), "{}");
+            write(dir.resolve("content.out"), "out");
+            write(dir.resolve("other.txt"), "other");
+        }
+        write(nested.resolve("request.json"), REQUEST);
+
+        new FileListener(restPath);
+
+        for (final Path dir : new Path[]{restPath, sub}) {
+            assertFalse(Files.exists(dir.resolve("request.json")));
+            assertFalse(Files.exists(dir.resolve("content.in")));
+            assertFalse(Files.exists(dir.resolve("response.json")));
+            assertFalse(Files.exists(dir.resolve("content.out")));
+            assertTrue(Files.exists(dir.resolve("other.txt")));
+        }
+        assertTrue(Files.isDirectory(nested));
+        assertTrue(Files.exists(nested.resolve("request.json")));
+    }
+
+    /**
+     * The listener directory is created if it doesn't exist.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void testDirectoryCreated() throws IOException {
+        final Path dir = restPath.resolve("new").resolve("rest");
+
+        new FileListener(dir);
+
+        assertTrue(Files.isDirectory(dir));
+    }
+
+    /**
+     * A request in the listener directory is answered while the directory is
+     * being watched.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testWatchedRequest() throws Exception {
+        final FileListener listener = new FileListener(restPath);
+        final Thread thread = start(listener);
+        try {
+            assertTrue(listener.isWatching());
+
+            write(restPath.resolve("request.json"), REQUEST);
+            assertError(restPath.resolve("response.json"));
+            assertFalse(Files.exists(restPath.resolve("request.json")));
+        } finally {
+            listener.stop();
+            thread.join(TIMEOUT);
+        }
+        assertFalse(thread.isAlive());
+    }
+
+    /**
+     * Requests in subdirectories are answered in the subdirectory they were
+     * made in, whether the subdirectory existed before the listener started or
+     * was created afterwards.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testSubdirectoryRequests() throws Exception {
+        final Path before = Files.createDirectory(restPath.resolve("before"));
+        final FileListener listener = new FileListener(restPath);
+        final Thread thread = start(listener);
+        try {
+            write(before.resolve("request.json"), REQUEST);
+            assertError(before.resolve("response.json"));
+
+            final Path after = Files.createDirectory(restPath.resolve("after"));
+            write(after.resolve("request.json"), REQUEST);
+            assertError(after.resolve("response.json"));
+
+            assertFalse(Files.exists(restPath.resolve("response.json")));
+        } finally {
+            listener.stop();
+            thread.join(TIMEOUT);
+        }
+    }
+
+    private static Thread start(final FileListener listener) throws InterruptedException {
+        final Thread thread = new Thread(listener);
+        thread.setDaemon(true);
+        thread.start();
+
+        final long end = System.currentTimeMillis() + TIMEOUT;
+        while (!listener.isWatching() && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+
+        return thread;
+    }
+
+    private static void write(final Path p, final String s) throws IOException {
+        // Write then rename, the same as a client, so the listener never sees a partial file.
+        final Path tmp = p.resolveSibling(p.getFileName() + ".tmp");
+        Files.write(tmp, s.getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, p);
+    }
+
+    private static void assertError(final Path response) throws Exception {
+        final long end = System.currentTimeMillis() + TIMEOUT;
+        while (!Files.exists(response) && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertTrue(Files.exists(response), response.toString());
+
+        // The response may exist before it has been written to.
+        JsonNode json = null;
+        while ((json == null || !json.has("error")) && System.currentTimeMillis() < end) {
+            try {
+                json = new ObjectMapper().readTree(response.toFile());
+            } catch (final IOException ex) {
+                json = null;
+            }
+            Thread.sleep(10);
+        }
+        assertTrue(json != null && json.has("error"), String.valueOf(json));
+    }
+}